@@ -0,0 +1,74 @@
+package se.sundsvall.invoices.apptest.cache;
+
+import java.math.BigDecimal;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.resttestclient.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import se.sundsvall.dept44.test.AbstractAppTest;
+import se.sundsvall.dept44.test.annotation.wiremock.WireMockAppTestSuite;
+import se.sundsvall.invoices.Application;
+import se.sundsvall.invoices.api.model.InvoiceDetailsResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.http.HttpMethod.DELETE;
+import static org.springframework.http.HttpMethod.GET;
+import static org.springframework.http.HttpStatus.NO_CONTENT;
+import static org.springframework.http.HttpStatus.OK;
+
+/**
+ * The upstream invoice-details change after the first call (a WireMock scenario), so the cached details are returned
+ * until they are evicted, after which the changed details are fetched.
+ */
+@WireMockAppTestSuite(files = "classpath:/EvictInvoiceDetails/", classes = Application.class)
+class EvictInvoiceDetailsIT extends AbstractAppTest {
+	private static final String DETAILS_PATH = "/2281/COMMERCIAL/5565257545/%s/details";
+	private static final String CACHE_PATH = "/2281/admin/cache/invoice-details";
+	private static final String RESPONSE_FILE = "response.json";
+	private static final BigDecimal CACHED_AMOUNT = new BigDecimal("128.78");
+	private static final BigDecimal UPDATED_AMOUNT = new BigDecimal("256.5");
+
+	@Autowired
+	private TestRestTemplate restTemplate;
+
+	@Test
+	void test01_evictInvoiceDetails() {
+		final var detailsPath = DETAILS_PATH.formatted("333444");
+		fetchAndVerifyCachedDetails(detailsPath);
+
+		final var response = restTemplate.exchange(CACHE_PATH + "/5565257545/333444", DELETE, HttpEntity.EMPTY, Void.class);
+
+		assertThat(response.getStatusCode()).isEqualTo(NO_CONTENT);
+		assertThat(fetchAmount(detailsPath)).isEqualByComparingTo(UPDATED_AMOUNT);
+	}
+
+	@Test
+	void test02_evictAllInvoiceDetails() {
+		final var detailsPath = DETAILS_PATH.formatted("555666");
+		fetchAndVerifyCachedDetails(detailsPath);
+
+		final var response = restTemplate.exchange(CACHE_PATH, DELETE, HttpEntity.EMPTY, Void.class);
+
+		assertThat(response.getStatusCode()).isEqualTo(NO_CONTENT);
+		assertThat(fetchAmount(detailsPath)).isEqualByComparingTo(UPDATED_AMOUNT);
+	}
+
+	private void fetchAndVerifyCachedDetails(final String detailsPath) {
+		setupCall()
+			.withServicePath(detailsPath)
+			.withHttpMethod(GET)
+			.withExpectedResponseStatus(OK)
+			.withExpectedResponse(RESPONSE_FILE)
+			.sendRequestAndVerifyResponse();
+
+		// The upstream details have changed, but the cached ones are returned
+		assertThat(fetchAmount(detailsPath)).isEqualByComparingTo(CACHED_AMOUNT);
+	}
+
+	private BigDecimal fetchAmount(final String detailsPath) {
+		final var response = restTemplate.getForEntity(detailsPath, InvoiceDetailsResponse.class);
+
+		assertThat(response.getStatusCode()).isEqualTo(OK);
+		return response.getBody().getDetails().getFirst().getAmount();
+	}
+}
@@ -0,0 +1,41 @@
+package se.sundsvall.invoices.apptest.details;
+
+import org.junit.jupiter.api.Test;
+import se.sundsvall.dept44.test.AbstractAppTest;
+import se.sundsvall.dept44.test.annotation.wiremock.WireMockAppTestSuite;
+import se.sundsvall.invoices.Application;
+
+import static org.springframework.http.HttpMethod.POST;
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.OK;
+
+@WireMockAppTestSuite(files = "classpath:/GetInvoiceDetailsBatch/", classes = Application.class)
+class GetInvoiceDetailsBatchIT extends AbstractAppTest {
+	private static final String DETAILS_BATCH_PATH = "/2281/COMMERCIAL/details";
+	private static final String REQUEST_FILE = "request.json";
+	private static final String RESPONSE_FILE = "response.json";
+
+	@Test
+	// One invoice is found and one is not found upstream. The failed lookup is reported on its own entry, with the
+	// upstream 404 passed through, while the request as a whole succeeds.
+	void test01_getInvoiceDetailsBatchMixedResult() {
+		setupCall()
+			.withServicePath(DETAILS_BATCH_PATH)
+			.withHttpMethod(POST)
+			.withRequest(REQUEST_FILE)
+			.withExpectedResponseStatus(OK)
+			.withExpectedResponse(RESPONSE_FILE)
+			.sendRequestAndVerifyResponse();
+	}
+
+	@Test
+	void test02_getInvoiceDetailsBatchTooManyInvoices() {
+		setupCall()
+			.withServicePath(DETAILS_BATCH_PATH)
+			.withHttpMethod(POST)
+			.withRequest(REQUEST_FILE)
+			.withExpectedResponseStatus(BAD_REQUEST)
+			.withExpectedResponse(RESPONSE_FILE)
+			.sendRequestAndVerifyResponse();
+	}
+}
@@ -0,0 +1,34 @@
+package se.sundsvall.invoices.apptest.invoices;
+
+import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
+import static org.springframework.http.HttpMethod.GET;
+import static org.springframework.http.HttpStatus.OK;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON_VALUE;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import se.sundsvall.dept44.test.AbstractAppTest;
+import se.sundsvall.dept44.test.annotation.wiremock.WireMockAppTestSuite;
+import se.sundsvall.invoices.Application;
+
+@WireMockAppTestSuite(files = "classpath:/ExportInvoicesForCustomer/", classes = Application.class)
+class ExportInvoicesForCustomerIT extends AbstractAppTest {
+
+	@Test
+	// The invoices span two upstream pages, which are written in order as one invoice per line, each line ending with
+	// a newline, only the requested fields being written
+	void test01_exportInvoicesForCustomerMultiplePages() {
+		setupCall()
+			.withServicePath("/2281/COMMERCIAL/customers/invoices/export" +
+				"?customerNumbers=600606" +
+				"&fields=customerNumber" +
+				"&fields=invoiceNumber" +
+				"&fields=invoiceStatus" +
+				"&includeDetails=false")
+			.withHttpMethod(GET)
+			.withExpectedResponseStatus(OK)
+			.withExpectedResponseHeader(CONTENT_TYPE, List.of(APPLICATION_NDJSON_VALUE))
+			.withExpectedResponse("expected.ndjson")
+			.sendRequestAndVerifyResponse();
+	}
+}
@@ -0,0 +1,37 @@
+package se.sundsvall.invoices.apptest.invoices;
+
+import org.junit.jupiter.api.Test;
+import se.sundsvall.dept44.test.AbstractAppTest;
+import se.sundsvall.dept44.test.annotation.wiremock.WireMockAppTestSuite;
+import se.sundsvall.invoices.Application;
+
+import static org.springframework.http.HttpMethod.GET;
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.OK;
+
+@WireMockAppTestSuite(files = "classpath:/GetInvoicesAll/", classes = Application.class)
+class GetInvoicesAllIT extends AbstractAppTest {
+	private static final String RESPONSE_FILE = "response.json";
+
+	@Test
+	// Both origins are searched, the commercial one for page * limit rows and the public administration one for all
+	// rows. The result is merged by invoice date, newest first, and the total counts the rows of both origins.
+	void test01_getInvoicesFromAllOrigins() {
+		setupCall()
+			.withServicePath("/2281/ALL?partyId=AC653C32-B26C-47E8-8C2E-3B18C1B5879C&limit=4")
+			.withHttpMethod(GET)
+			.withExpectedResponseStatus(OK)
+			.withExpectedResponse(RESPONSE_FILE)
+			.sendRequestAndVerifyResponse();
+	}
+
+	@Test
+	void test02_getInvoicesFromAllOriginsPageTooDeep() {
+		setupCall()
+			.withServicePath("/2281/ALL?partyId=AC653C32-B26C-47E8-8C2E-3B18C1B5879C&page=11&limit=100")
+			.withHttpMethod(GET)
+			.withExpectedResponseStatus(BAD_REQUEST)
+			.withExpectedResponse(RESPONSE_FILE)
+			.sendRequestAndVerifyResponse();
+	}
+}
@@ -1,16 +1,29 @@
 package se.sundsvall.invoices.apptest.invoices;
 
+import java.util.List;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.resttestclient.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import se.sundsvall.dept44.test.AbstractAppTest;
 import se.sundsvall.dept44.test.annotation.wiremock.WireMockAppTestSuite;
 import se.sundsvall.invoices.Application;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.http.HttpHeaders.ETAG;
 import static org.springframework.http.HttpMethod.GET;
+import static org.springframework.http.HttpStatus.NOT_MODIFIED;
 import static org.springframework.http.HttpStatus.OK;
 
 @WireMockAppTestSuite(files = "classpath:/GetPublicAdministrationInvoices/", classes = Application.class)
 class GetPublicAdministrationInvoicesIT extends AbstractAppTest {
 	private static final String RESPONSE_FILE = "response.json";
+	// A strong entity tag holding the hex encoded SHA-256 digest of the response
+	private static final String ETAG_PATTERN = "\"[0-9a-f]{64}\"";
+
+	@Autowired
+	private TestRestTemplate restTemplate;
 
 	@Test
 	void test01_getInvoicesOnlyRequired() {
@@ -40,4 +53,29 @@ class GetPublicAdministrationInvoicesIT extends AbstractAppTest {
 			.withExpectedResponse(RESPONSE_FILE)
 			.sendRequestAndVerifyResponse();
 	}
+
+	@Test
+	void test03_getInvoicesNotModified() {
+		final var path = "/2281/PUBLIC_ADMINISTRATION/customers/invoices?partyId=AC653C32-B26C-47E8-8C2E-3B18C1B5879C";
+
+		setupCall()
+			.withServicePath(path)
+			.withHttpMethod(GET)
+			.withExpectedResponseStatus(OK)
+			.withExpectedResponseHeader(ETAG, List.of(ETAG_PATTERN))
+			.withExpectedResponse(RESPONSE_FILE)
+			.sendRequestAndVerifyResponse();
+
+		// The entity tag of the response is sent back, which is answered as not modified without a body
+		final var eTag = restTemplate.exchange(path, GET, HttpEntity.EMPTY, String.class).getHeaders().getETag();
+		final var headers = new HttpHeaders();
+		headers.setIfNoneMatch(eTag);
+
+		final var response = restTemplate.exchange(path, GET, new HttpEntity<>(headers), String.class);
+
+		assertThat(eTag).matches(ETAG_PATTERN);
+		assertThat(response.getStatusCode()).isEqualTo(NOT_MODIFIED);
+		assertThat(response.getHeaders().getETag()).isEqualTo(eTag);
+		assertThat(response.getBody()).isNull();
+	}
 }
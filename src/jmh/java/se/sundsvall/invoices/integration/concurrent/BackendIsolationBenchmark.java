@@ -0,0 +1,135 @@
+package se.sundsvall.invoices.integration.concurrent;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static feign.Request.HttpMethod.GET;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Load test of request handling against one slow and one fast upstream service, both behind the bulkhead used by the
+ * Feign clients. A burst of requests is handled, three out of four calling the slow upstream service, and
+ * the time until all requests to the fast upstream service are answered is measured.
+ * <p>
+ * With a pool of platform threads (sized as the default Tomcat pool) the threads end up waiting for the slow upstream
+ * service, so requests to the fast one queue behind them. With virtual threads the waiting costs no thread and
+ * requests to the fast upstream service are answered right away.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class BackendIsolationBenchmark {
+
+	private static final int PLATFORM_THREADS = 200;
+	private static final int MAX_CONCURRENT_CALLS = 50;
+	private static final Duration MAX_WAIT = Duration.ofSeconds(10);
+	private static final Duration SLOW_LATENCY = Duration.ofMillis(200);
+	private static final Duration FAST_LATENCY = Duration.ofMillis(5);
+	private static final int REQUESTS = 400;
+	private static final Request REQUEST = Request.create(GET, "http://localhost/invoices", Map.of(), null, UTF_8, null);
+	private static final Request.Options OPTIONS = new Request.Options();
+
+	@Param({
+		"PLATFORM", "VIRTUAL"
+	})
+	private String threads;
+
+	private ExecutorService requestExecutor;
+	private Client slowClient;
+	private Client fastClient;
+	private final List<CompletableFuture<Integer>> slowRequests = new ArrayList<>();
+
+	@Setup
+	public void setup() {
+		requestExecutor = "VIRTUAL".equals(threads) ? Executors.newVirtualThreadPerTaskExecutor() : Executors.newFixedThreadPool(PLATFORM_THREADS);
+		slowClient = new BulkheadCapability(bulkhead("slow")).enrich(upstream(SLOW_LATENCY));
+		fastClient = new BulkheadCapability(bulkhead("fast")).enrich(upstream(FAST_LATENCY));
+	}
+
+	@TearDown
+	public void tearDown() {
+		requestExecutor.close();
+	}
+
+	@TearDown(Level.Invocation)
+	public void awaitSlowRequests() {
+		CompletableFuture.allOf(slowRequests.toArray(CompletableFuture[]::new)).join();
+		slowRequests.clear();
+	}
+
+	@Benchmark
+	public int fastUpstreamUnderSlowUpstreamLoad() {
+		final var fastRequests = new ArrayList<CompletableFuture<Integer>>();
+		for (var i = 0; i < REQUESTS; i++) {
+			if (i % 4 == 3) {
+				fastRequests.add(handle(fastClient));
+			} else {
+				slowRequests.add(handle(slowClient));
+			}
+		}
+		return fastRequests.stream().mapToInt(CompletableFuture::join).sum();
+	}
+
+	private CompletableFuture<Integer> handle(final Client client) {
+		return CompletableFuture.supplyAsync(() -> {
+			try (final var response = client.execute(REQUEST, OPTIONS)) {
+				return response.status();
+			} catch (final IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}, requestExecutor);
+	}
+
+	// Waits long enough for no call to be rejected, so that only the waiting is measured
+	private static Bulkhead bulkhead(final String name) {
+		return Bulkhead.of(name, BulkheadConfig.custom()
+			.maxConcurrentCalls(MAX_CONCURRENT_CALLS)
+			.maxWaitDuration(MAX_WAIT)
+			.build());
+	}
+
+	private static Client upstream(final Duration latency) {
+		return (request, options) -> {
+			try {
+				Thread.sleep(latency);
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return Response.builder()
+				.status(200)
+				.request(request)
+				.headers(Map.of())
+				.body("[]", UTF_8)
+				.build();
+		};
+	}
+}
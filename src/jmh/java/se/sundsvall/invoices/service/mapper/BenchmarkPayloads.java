@@ -0,0 +1,207 @@
+package se.sundsvall.invoices.service.mapper;
+
+import generated.se.sundsvall.datawarehousereader.CustomerInvoice;
+import generated.se.sundsvall.datawarehousereader.CustomerInvoiceResponse;
+import generated.se.sundsvall.datawarehousereader.CustomerType;
+import generated.se.sundsvall.datawarehousereader.Invoice;
+import generated.se.sundsvall.datawarehousereader.InvoiceDetail;
+import generated.se.sundsvall.datawarehousereader.InvoiceResponse;
+import generated.se.sundsvall.datawarehousereader.PagingAndSortingMetaData;
+import generated.se.sundsvall.invoicecache.Address;
+import generated.se.sundsvall.invoicecache.Invoice.InvoiceStatusEnum;
+import generated.se.sundsvall.invoicecache.Invoice.InvoiceTypeEnum;
+import generated.se.sundsvall.invoicecache.InvoicePdf;
+import generated.se.sundsvall.invoicecache.InvoicesResponse;
+import generated.se.sundsvall.invoicecache.MetaData;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * Generates upstream payloads shaped like real DataWarehouseReader and InvoiceCache responses. The values are drawn
+ * from a seeded random, so every benchmark run maps the same data.
+ */
+final class BenchmarkPayloads {
+
+	// Upstream values as sent by DataWarehouseReader, including some that map to UNKNOWN
+	private static final List<String> INVOICE_STATUSES = List.of("Betalad", "Skickad", "Påminnelse", "Krediterad", "Inkasso", "Makulerad", "Överbetald", "Avskriven", "Delbetald");
+	private static final List<String> INVOICE_TYPES = List.of("Faktura", "Faktura", "Faktura", "Kreditfaktura", "Slutfaktura", "Startfaktura", "Samlingsfaktura", "Direktdebitering");
+	private static final List<String> PRODUCTS = List.of("Elnät", "Fjärrvärme", "Elhandel", "Stadsnät", "Vatten och avlopp", "Renhållning");
+	private static final List<String> ORGANIZATION_NUMBERS = List.of("5564786647", "5565027223", "5565272223", "5562240541");
+	private static final LocalDate START_DATE = LocalDate.of(2020, 1, 1);
+
+	private final Random random;
+
+	BenchmarkPayloads(final long seed) {
+		this.random = new Random(seed);
+	}
+
+	CustomerInvoiceResponse customerInvoiceResponse(final int invoices, final int detailsPerInvoice) {
+		return new CustomerInvoiceResponse()
+			.invoices(IntStream.range(0, invoices).mapToObj(i -> customerInvoice(detailsPerInvoice)).toList())
+			.meta(pagingAndSortingMetaData(invoices));
+	}
+
+	InvoiceResponse invoiceResponse(final int invoices) {
+		return new InvoiceResponse()
+			.invoices(IntStream.range(0, invoices).mapToObj(i -> dataWarehouseReaderInvoice()).toList())
+			.meta(pagingAndSortingMetaData(invoices));
+	}
+
+	InvoicesResponse invoiceCacheInvoicesResponse(final int invoices) {
+		return new InvoicesResponse()
+			.invoices(IntStream.range(0, invoices).mapToObj(i -> invoiceCacheInvoice()).toList())
+			.meta(new MetaData().page(1).limit(invoices).count(invoices).totalRecords((long) invoices * 3).totalPages(3));
+	}
+
+	InvoicePdf invoicePdf(final int sizeInBytes) {
+		final var content = new byte[sizeInBytes];
+		random.nextBytes(content);
+		return new InvoicePdf()
+			.name("Invoice_" + invoiceNumber() + ".pdf")
+			.content(Base64.getEncoder().encodeToString(content));
+	}
+
+	private CustomerInvoice customerInvoice(final int details) {
+		final var invoiceNumber = invoiceNumber();
+		final var invoiceDate = date();
+		final var amount = amount();
+		return new CustomerInvoice()
+			.customerNumber(String.valueOf(100000 + random.nextInt(900000)))
+			.customerType(random.nextBoolean() ? CustomerType.PRIVATE : CustomerType.ENTERPRISE)
+			.facilityIds(List.of(facilityId(), facilityId()))
+			.invoiceNumber(invoiceNumber)
+			.invoiceId(random.nextLong(1, 10_000_000))
+			.jointInvoiceId(random.nextLong(1, 10_000_000))
+			.invoiceDate(invoiceDate)
+			.invoiceName(invoiceNumber + ".pdf")
+			.invoiceType(pick(INVOICE_TYPES))
+			.invoiceDescription(pick(PRODUCTS))
+			.invoiceStatus(pick(INVOICE_STATUSES))
+			.ocrNumber(random.nextLong(1_000_000_000L, 9_999_999_999L))
+			.dueDate(invoiceDate.plusDays(30))
+			.periodFrom(invoiceDate.minusMonths(1).withDayOfMonth(1))
+			.periodTo(invoiceDate.withDayOfMonth(1).minusDays(1))
+			.totalAmount(amount)
+			.amountVatIncluded(amount)
+			.amountVatExcluded(amount.multiply(BigDecimal.valueOf(0.8)).setScale(2, RoundingMode.HALF_UP))
+			.vatEligibleAmount(amount)
+			.rounding(BigDecimal.ZERO)
+			.organizationGroup("stadsbacken")
+			.organizationNumber(pick(ORGANIZATION_NUMBERS))
+			.administration("Sundsvall Elnät")
+			.street("Storgatan " + random.nextInt(1, 100))
+			.postCode("85" + random.nextInt(100, 999))
+			.city("Sundsvall")
+			.careOf(random.nextInt(10) == 0 ? "c/o Andersson" : null)
+			.invoiceReference("Ref " + random.nextInt(1000))
+			.pdfAvailable(random.nextBoolean())
+			.details(IntStream.range(0, details).mapToObj(i -> invoiceDetail(invoiceNumber, invoiceDate)).toList());
+	}
+
+	private Invoice dataWarehouseReaderInvoice() {
+		final var invoiceDate = date();
+		final var amount = amount();
+		return new Invoice()
+			.customerNumber(String.valueOf(100000 + random.nextInt(900000)))
+			.customerType(CustomerType.PRIVATE)
+			.facilityIds(List.of(facilityId()))
+			.invoiceDescriptions(List.of(pick(PRODUCTS), pick(PRODUCTS)))
+			.invoiceNumber(invoiceNumber())
+			.invoiceDate(invoiceDate)
+			.invoiceName("Faktura")
+			.invoiceType(pick(INVOICE_TYPES))
+			.invoiceStatus(pick(INVOICE_STATUSES))
+			.ocrNumber(random.nextLong(1_000_000_000L, 9_999_999_999L))
+			.dueDate(invoiceDate.plusDays(30))
+			.totalAmount(amount)
+			.amountVatIncluded(amount)
+			.amountVatExcluded(amount.multiply(BigDecimal.valueOf(0.8)).setScale(2, RoundingMode.HALF_UP))
+			.vatEligibleAmount(amount)
+			.rounding(BigDecimal.ZERO)
+			.vat(amount.multiply(BigDecimal.valueOf(0.2)).setScale(2, RoundingMode.HALF_UP))
+			.reversedVat(false)
+			.currency("SEK")
+			.organizationGroup("stadsbacken")
+			.organizationNumber(pick(ORGANIZATION_NUMBERS))
+			.administration("Sundsvall Elnät")
+			.street("Storgatan " + random.nextInt(1, 100))
+			.postCode("85" + random.nextInt(100, 999))
+			.city("Sundsvall")
+			.pdfAvailable(true);
+	}
+
+	private InvoiceDetail invoiceDetail(final long invoiceNumber, final LocalDate invoiceDate) {
+		final var amount = amount();
+		return new InvoiceDetail()
+			.invoiceNumber(invoiceNumber)
+			.amount(amount)
+			.amountVatExcluded(amount.multiply(BigDecimal.valueOf(0.8)).setScale(2, RoundingMode.HALF_UP))
+			.vat(amount.multiply(BigDecimal.valueOf(0.2)).setScale(2, RoundingMode.HALF_UP))
+			.vatRate(25.0)
+			.quantity(random.nextInt(1, 2000) / 10.0)
+			.unit("kWh")
+			.unitPrice(BigDecimal.valueOf(random.nextInt(1, 500), 2))
+			.periodFrom(invoiceDate.minusMonths(1).withDayOfMonth(1).toString())
+			.periodTo(invoiceDate.withDayOfMonth(1).minusDays(1).toString())
+			.description(pick(PRODUCTS))
+			.productCode(random.nextInt(1000, 9999))
+			.productName(pick(PRODUCTS))
+			.organizationNumber(pick(ORGANIZATION_NUMBERS))
+			.administration("Sundsvall Elnät")
+			.facilityId(facilityId());
+	}
+
+	private generated.se.sundsvall.invoicecache.Invoice invoiceCacheInvoice() {
+		final var invoiceDate = date();
+		final var amount = amount();
+		return new generated.se.sundsvall.invoicecache.Invoice()
+			.customerName("Kund " + random.nextInt(1000))
+			.customerType("PRIVATE")
+			.invoiceNumber(String.valueOf(invoiceNumber()))
+			.invoiceStatus(pick(List.of(InvoiceStatusEnum.values())))
+			.ocrNumber(String.valueOf(random.nextLong(1_000_000_000L, 9_999_999_999L)))
+			.partyId("fc21e65b-3608-4355-932c-442540034302")
+			.invoiceDescription(pick(PRODUCTS))
+			.invoiceDueDate(invoiceDate.plusDays(30))
+			.invoiceDate(invoiceDate)
+			.paidAmount(BigDecimal.ZERO)
+			.totalAmount(amount)
+			.invoiceFileName("Faktura_" + random.nextInt(100000) + ".pdf")
+			.vat(amount.multiply(BigDecimal.valueOf(0.2)).setScale(2, RoundingMode.HALF_UP))
+			.amountVatExcluded(amount.multiply(BigDecimal.valueOf(0.8)).setScale(2, RoundingMode.HALF_UP))
+			.invoiceType(pick(List.of(InvoiceTypeEnum.values())))
+			.invoiceAddress(new Address()
+				.street("Storgatan " + random.nextInt(1, 100))
+				.postcode("85" + random.nextInt(100, 999))
+				.city("Sundsvall"));
+	}
+
+	private PagingAndSortingMetaData pagingAndSortingMetaData(final int invoices) {
+		return new PagingAndSortingMetaData().page(1).limit(invoices).count(invoices).totalRecords((long) invoices * 3).totalPages(3);
+	}
+
+	private long invoiceNumber() {
+		return random.nextLong(100_000, 99_999_999);
+	}
+
+	private String facilityId() {
+		return "7359991" + random.nextLong(10_000_000_000L, 99_999_999_999L);
+	}
+
+	private BigDecimal amount() {
+		return BigDecimal.valueOf(random.nextLong(1_000, 2_000_000), 2);
+	}
+
+	private LocalDate date() {
+		return START_DATE.plusDays(random.nextInt(2000));
+	}
+
+	private <T> T pick(final List<T> values) {
+		return values.get(random.nextInt(values.size()));
+	}
+}
@@ -0,0 +1,69 @@
+package se.sundsvall.invoices.service.mapper;
+
+import generated.se.sundsvall.datawarehousereader.CustomerInvoiceResponse;
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Throughput of turning a serialized DataWarehouseReader customer invoice page into serialized API invoices, one
+ * operation being a whole page. Compares decoding, mapping and serializing the page with transforming it token by
+ * token. Run with the gc profiler (as the benchmark profile does) to also get the allocation rate per operation.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CustomerInvoiceJsonTransformerBenchmark {
+
+	private static final long SEED = 2281;
+	private static final JsonMapper JSON_MAPPER = JsonMapper.builder().build();
+
+	// Default page size and the maximum allowed page size
+	@Param({
+		"100", "1000"
+	})
+	private int pageSize;
+
+	@Param({
+		"5"
+	})
+	private int detailsPerInvoice;
+
+	private byte[] body;
+
+	@Setup
+	public void setup() {
+		body = JSON_MAPPER.writeValueAsBytes(new BenchmarkPayloads(SEED).customerInvoiceResponse(pageSize, detailsPerInvoice));
+	}
+
+	@Benchmark
+	public byte[] decodeThenMap() {
+		final var response = InvoiceMapper.toCustomerInvoicesResponse(JSON_MAPPER.readValue(body, CustomerInvoiceResponse.class));
+		return JSON_MAPPER.writeValueAsBytes(response.getInvoices());
+	}
+
+	@Benchmark
+	public void transform() {
+		CustomerInvoiceJsonTransformer.transform(new ByteArrayInputStream(body), OutputStream.nullOutputStream(), InvoiceMapper.toCustomerInvoiceProjection(null, true), totalPages -> {});
+	}
+
+	@Benchmark
+	public void transformWithoutDetails() {
+		CustomerInvoiceJsonTransformer.transform(new ByteArrayInputStream(body), OutputStream.nullOutputStream(), InvoiceMapper.toCustomerInvoiceProjection(null, false), totalPages -> {});
+	}
+}
@@ -0,0 +1,81 @@
+package se.sundsvall.invoices.service.mapper;
+
+import generated.se.sundsvall.datawarehousereader.CustomerInvoiceResponse;
+import generated.se.sundsvall.datawarehousereader.InvoiceResponse;
+import generated.se.sundsvall.invoicecache.InvoicePdf;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import se.sundsvall.invoices.api.model.CustomerInvoicesResponse;
+import se.sundsvall.invoices.api.model.InvoicesResponse;
+import se.sundsvall.invoices.api.model.PdfInvoice;
+
+/**
+ * Throughput of the upstream to API mappings, one operation being the mapping of a whole upstream page. Run with the gc
+ * profiler (as the benchmark profile does) to also get the allocation rate per operation.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InvoiceMapperBenchmark {
+
+	private static final long SEED = 2281;
+	private static final int PDF_SIZE_IN_BYTES = 150 * 1024;
+
+	// Default page size and the maximum allowed page size
+	@Param({
+		"100", "1000"
+	})
+	private int pageSize;
+
+	@Param({
+		"5"
+	})
+	private int detailsPerInvoice;
+
+	private CustomerInvoiceResponse customerInvoiceResponse;
+	private InvoiceResponse dataWarehouseReaderInvoiceResponse;
+	private generated.se.sundsvall.invoicecache.InvoicesResponse invoiceCacheInvoicesResponse;
+	private InvoicePdf invoicePdf;
+
+	@Setup
+	public void setup() {
+		final var payloads = new BenchmarkPayloads(SEED);
+		customerInvoiceResponse = payloads.customerInvoiceResponse(pageSize, detailsPerInvoice);
+		dataWarehouseReaderInvoiceResponse = payloads.invoiceResponse(pageSize);
+		invoiceCacheInvoicesResponse = payloads.invoiceCacheInvoicesResponse(pageSize);
+		invoicePdf = payloads.invoicePdf(PDF_SIZE_IN_BYTES);
+	}
+
+	@Benchmark
+	public CustomerInvoicesResponse toCustomerInvoicesResponse() {
+		return InvoiceMapper.toCustomerInvoicesResponse(customerInvoiceResponse);
+	}
+
+	@Benchmark
+	public InvoicesResponse toInvoicesResponseFromDataWarehouseReader() {
+		return InvoiceMapper.toInvoicesResponse(dataWarehouseReaderInvoiceResponse);
+	}
+
+	@Benchmark
+	public InvoicesResponse toInvoicesResponseFromInvoiceCache() {
+		return InvoiceMapper.toInvoicesResponse(invoiceCacheInvoicesResponse);
+	}
+
+	@Benchmark
+	public PdfInvoice toPdfInvoice() {
+		return InvoiceMapper.toPdfInvoice(invoicePdf);
+	}
+}
@@ -0,0 +1,163 @@
+package se.sundsvall.invoices.service.mapper;
+
+import generated.se.sundsvall.invoicecache.Invoice.InvoiceStatusEnum;
+import generated.se.sundsvall.invoicecache.Invoice.InvoiceTypeEnum;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import se.sundsvall.invoices.api.model.InvoiceStatus;
+import se.sundsvall.invoices.api.model.InvoiceType;
+
+/**
+ * Compares the status and type translation of InvoiceMapper, which uses precomputed lookup tables, with the earlier
+ * implementation that wrapped every value in an Optional and switched on it. One operation translates the status and
+ * type of one invoice, the values being taken from a page of the maximum page size.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InvoiceTranslationBenchmark {
+
+	private static final int PAGE_SIZE = 1000;
+	private static final long SEED = 2281;
+	private static final List<String> STATUSES = List.of("Betalad", "Skickad", "Påminnelse", "Krediterad", "Inkasso", "Makulerad", "Överbetald", "Avskriven", "Delbetald");
+	private static final List<String> TYPES = List.of("Faktura", "Kreditfaktura", "Slutfaktura", "Startfaktura", "Samlingsfaktura", "Direktdebitering");
+
+	private final String[] dataWarehouseReaderStatuses = new String[PAGE_SIZE];
+	private final String[] dataWarehouseReaderTypes = new String[PAGE_SIZE];
+	private final InvoiceStatusEnum[] invoiceCacheStatuses = new InvoiceStatusEnum[PAGE_SIZE];
+	private final InvoiceTypeEnum[] invoiceCacheTypes = new InvoiceTypeEnum[PAGE_SIZE];
+
+	@Setup
+	public void setup() {
+		final var random = new Random(SEED);
+		for (var i = 0; i < PAGE_SIZE; i++) {
+			dataWarehouseReaderStatuses[i] = STATUSES.get(random.nextInt(STATUSES.size()));
+			dataWarehouseReaderTypes[i] = TYPES.get(random.nextInt(TYPES.size()));
+			invoiceCacheStatuses[i] = InvoiceStatusEnum.values()[random.nextInt(InvoiceStatusEnum.values().length)];
+			invoiceCacheTypes[i] = InvoiceTypeEnum.values()[random.nextInt(InvoiceTypeEnum.values().length)];
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(PAGE_SIZE)
+	public void dataWarehouseReaderLookupTable(final Blackhole blackhole) {
+		for (var i = 0; i < PAGE_SIZE; i++) {
+			blackhole.consume(InvoiceMapper.toInvoiceStatus(dataWarehouseReaderStatuses[i]));
+			blackhole.consume(InvoiceMapper.toInvoiceType(dataWarehouseReaderTypes[i]));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(PAGE_SIZE)
+	public void dataWarehouseReaderOptionalSwitch(final Blackhole blackhole) {
+		for (var i = 0; i < PAGE_SIZE; i++) {
+			blackhole.consume(optionalSwitchInvoiceStatus(dataWarehouseReaderStatuses[i]));
+			blackhole.consume(optionalSwitchInvoiceType(dataWarehouseReaderTypes[i]));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(PAGE_SIZE)
+	public void invoiceCacheLookupTable(final Blackhole blackhole) {
+		for (var i = 0; i < PAGE_SIZE; i++) {
+			blackhole.consume(InvoiceMapper.toInvoiceStatus(invoiceCacheStatuses[i]));
+			blackhole.consume(InvoiceMapper.toInvoiceType(invoiceCacheTypes[i]));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(PAGE_SIZE)
+	public void invoiceCacheOptionalSwitch(final Blackhole blackhole) {
+		for (var i = 0; i < PAGE_SIZE; i++) {
+			blackhole.consume(optionalSwitchInvoiceStatus(invoiceCacheStatuses[i]));
+			blackhole.consume(optionalSwitchInvoiceType(invoiceCacheTypes[i]));
+		}
+	}
+
+	// The earlier implementations, kept as baseline
+
+	private static String optionalSwitchInvoiceStatus(final String dataWarehouseReaderInvoiceStatus) {
+		return Optional.ofNullable(dataWarehouseReaderInvoiceStatus)
+			.map(invoiceStatus -> switch (invoiceStatus)
+			{
+				case "Betalad" -> InvoiceStatus.PAID;
+				case "Krediterad" -> InvoiceStatus.CREDITED;
+				case "Inkasso" -> InvoiceStatus.DEBT_COLLECTION;
+				case "Påminnelse" -> InvoiceStatus.REMINDER;
+				case "Avskriven" -> InvoiceStatus.WRITTEN_OFF;
+				case "Skickad" -> InvoiceStatus.SENT;
+				case "Makulerad" -> InvoiceStatus.VOID;
+				case "Överbetald" -> InvoiceStatus.PAID_TOO_MUCH;
+				default -> InvoiceStatus.UNKNOWN;
+			})
+			.map(InvoiceStatus::name)
+			.orElse(null);
+	}
+
+	private static String optionalSwitchInvoiceType(final String dataWarehouseReaderInvoiceType) {
+		return Optional.ofNullable(dataWarehouseReaderInvoiceType)
+			.map(invoiceType -> switch (invoiceType)
+			{
+				case "Faktura" -> InvoiceType.INVOICE;
+				case "Kreditfaktura" -> InvoiceType.CREDIT_INVOICE;
+				case "Startfaktura" -> InvoiceType.START_INVOICE;
+				case "Slutfaktura" -> InvoiceType.FINAL_INVOICE;
+				case "Kvittning" -> InvoiceType.OFFSET_INVOICE;
+				case "Internfaktura" -> InvoiceType.INTERNAL_INVOICE;
+				case "Samlingsfaktura" -> InvoiceType.CONSOLIDATED_INVOICE;
+				default -> InvoiceType.UNKNOWN;
+			})
+			.map(InvoiceType::name)
+			.orElse(null);
+	}
+
+	private static String optionalSwitchInvoiceStatus(final InvoiceStatusEnum invoiceStatusEnum) {
+		return Optional.ofNullable(invoiceStatusEnum)
+			.map(invoiceStatus -> switch (invoiceStatus)
+			{
+				case PAID -> InvoiceStatus.PAID;
+				case UNPAID, SENT -> InvoiceStatus.SENT;
+				case PARTIALLY_PAID -> InvoiceStatus.PARTIALLY_PAID;
+				case DEBT_COLLECTION -> InvoiceStatus.DEBT_COLLECTION;
+				case PAID_TOO_MUCH -> InvoiceStatus.PAID_TOO_MUCH;
+				case REMINDER -> InvoiceStatus.REMINDER;
+				case VOID -> InvoiceStatus.VOID;
+				case UNKNOWN -> InvoiceStatus.UNKNOWN;
+			})
+			.map(InvoiceStatus::name)
+			.orElse(null);
+	}
+
+	private static String optionalSwitchInvoiceType(final InvoiceTypeEnum invoiceTypeEnum) {
+		return Optional.ofNullable(invoiceTypeEnum)
+			.map(invoiceType -> switch (invoiceType)
+			{
+				case INVOICE -> InvoiceType.INVOICE;
+				case CREDIT_INVOICE -> InvoiceType.CREDIT_INVOICE;
+				case FINAL_INVOICE -> InvoiceType.FINAL_INVOICE;
+				case DIRECT_DEBIT -> InvoiceType.DIRECT_DEBIT;
+				case SELF_INVOICE -> InvoiceType.SELF_INVOICE;
+				case REMINDER -> InvoiceType.REMINDER;
+				case CONSOLIDATED_INVOICE -> InvoiceType.CONSOLIDATED_INVOICE;
+			})
+			.map(InvoiceType::name)
+			.orElse(null);
+	}
+}
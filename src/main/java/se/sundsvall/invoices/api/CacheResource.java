@@ -0,0 +1,63 @@
+package se.sundsvall.invoices.api;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.NotBlank;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import se.sundsvall.dept44.common.validators.annotation.ValidMunicipalityId;
+import se.sundsvall.dept44.common.validators.annotation.ValidOrganizationNumber;
+import se.sundsvall.dept44.problem.Problem;
+import se.sundsvall.dept44.problem.violations.ConstraintViolationProblem;
+import se.sundsvall.invoices.service.InvoicesService;
+
+import static org.springframework.http.MediaType.ALL_VALUE;
+import static org.springframework.http.MediaType.APPLICATION_PROBLEM_JSON_VALUE;
+import static org.springframework.http.ResponseEntity.noContent;
+
+@RestController
+@RequestMapping("/{municipalityId:\\d+}/admin/cache")
+@Validated
+@ApiResponse(responseCode = "400", description = "Bad request", content = @Content(mediaType = APPLICATION_PROBLEM_JSON_VALUE, schema = @Schema(oneOf = {
+	Problem.class, ConstraintViolationProblem.class
+})))
+@ApiResponse(responseCode = "500", description = "Internal Server error", content = @Content(mediaType = APPLICATION_PROBLEM_JSON_VALUE, schema = @Schema(implementation = Problem.class)))
+@Tag(name = "Cache administration", description = "Administration of the caches held by the service")
+class CacheResource {
+
+	private final InvoicesService invoicesService;
+
+	CacheResource(final InvoicesService invoicesService) {
+		this.invoicesService = invoicesService;
+	}
+
+	@DeleteMapping(value = "/invoice-details", produces = ALL_VALUE)
+	@Operation(summary = "Invalidates all cached invoice-details of the municipality")
+	@ApiResponse(responseCode = "204", description = "Successful operation", useReturnTypeSchema = true)
+	ResponseEntity<Void> evictAllInvoiceDetails(
+		@Parameter(name = "municipalityId", description = "Municipality ID", example = "2281") @ValidMunicipalityId @PathVariable final String municipalityId) {
+
+		invoicesService.evictInvoiceDetails(municipalityId);
+		return noContent().build();
+	}
+
+	@DeleteMapping(value = "/invoice-details/{organizationNumber}/{invoiceNumber}", produces = ALL_VALUE)
+	@Operation(summary = "Invalidates the cached invoice-details of an invoice")
+	@ApiResponse(responseCode = "204", description = "Successful operation", useReturnTypeSchema = true)
+	ResponseEntity<Void> evictInvoiceDetails(
+		@Parameter(name = "municipalityId", description = "Municipality ID", example = "2281") @ValidMunicipalityId @PathVariable final String municipalityId,
+		@PathVariable @Parameter(name = "organizationNumber", description = "Organization number of invoice issuer", example = "5565272223", required = true) @ValidOrganizationNumber final String organizationNumber,
+		@PathVariable @Parameter(name = "invoiceNumber", description = "Id of invoice", example = "333444", required = true) @NotBlank final String invoiceNumber) {
+
+		invoicesService.evictInvoiceDetails(municipalityId, organizationNumber, invoiceNumber);
+		return noContent().build();
+	}
+}
@@ -9,37 +9,56 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.concurrent.Callable;
+import org.springframework.core.io.Resource;
 import org.springframework.http.ContentDisposition;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
 import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import se.sundsvall.dept44.common.validators.annotation.MemberOf;
 import se.sundsvall.dept44.common.validators.annotation.ValidMunicipalityId;
 import se.sundsvall.dept44.common.validators.annotation.ValidOrganizationNumber;
 import se.sundsvall.dept44.problem.Problem;
 import se.sundsvall.dept44.problem.violations.ConstraintViolationProblem;
+import se.sundsvall.invoices.api.model.CustomerInvoice;
 import se.sundsvall.invoices.api.model.CustomerInvoicesParameters;
 import se.sundsvall.invoices.api.model.CustomerInvoicesResponse;
+import se.sundsvall.invoices.api.model.InvoiceDetailsBatchRequest;
+import se.sundsvall.invoices.api.model.InvoiceDetailsBatchResponse;
 import se.sundsvall.invoices.api.model.InvoiceDetailsResponse;
 import se.sundsvall.invoices.api.model.InvoiceOrigin;
 import se.sundsvall.invoices.api.model.InvoiceType;
 import se.sundsvall.invoices.api.model.InvoicesParameters;
 import se.sundsvall.invoices.api.model.InvoicesResponse;
 import se.sundsvall.invoices.api.model.PdfInvoice;
+import se.sundsvall.invoices.api.model.PdfInvoiceOrigin;
+import se.sundsvall.invoices.service.ConditionalResponse;
 import se.sundsvall.invoices.service.InvoicesService;
 
 import static java.util.Optional.ofNullable;
+import static org.springframework.http.HttpHeaders.IF_NONE_MATCH;
+import static org.springframework.http.HttpStatus.NOT_MODIFIED;
 import static org.springframework.http.MediaType.ALL_VALUE;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON_VALUE;
 import static org.springframework.http.MediaType.APPLICATION_PDF_VALUE;
 import static org.springframework.http.MediaType.APPLICATION_PROBLEM_JSON_VALUE;
 import static org.springframework.http.ResponseEntity.ok;
-import static se.sundsvall.invoices.api.model.InvoiceOrigin.PUBLIC_ADMINISTRATION;
+import static org.springframework.http.ResponseEntity.status;
 
 @RestController
 // Regex-constrain {municipalityId} to digits so non-numeric prefixes (e.g. /swagger-ui/index.html, /actuator/...) fall through to their real
@@ -54,6 +73,8 @@ import static se.sundsvall.invoices.api.model.InvoiceOrigin.PUBLIC_ADMINISTRATIO
 @Tag(name = "Invoices", description = "Service that delivers invoice information")
 class InvoicesResource {
 
+	private static final String IF_NONE_MATCH_DESCRIPTION = "ETag of an earlier response. Answered with 304 Not Modified when the result is unchanged.";
+
 	private final InvoicesService invoicesService;
 
 	InvoicesResource(final InvoicesService invoicesService) {
@@ -71,9 +92,10 @@ class InvoicesResource {
 	@ApiResponse(responseCode = "404", description = "Not found", content = @Content(mediaType = APPLICATION_PROBLEM_JSON_VALUE, schema = @Schema(implementation = Problem.class)))
 	ResponseEntity<InvoicesResponse> getInvoices(
 		@Parameter(name = "municipalityId", description = "Municipality ID", example = "2281") @ValidMunicipalityId @PathVariable final String municipalityId,
-		@Parameter(name = "invoiceOrigin", description = "Invoice origin (invoices originates from either commercial or public activities)", schema = @Schema(allowableValues = {
-			"COMMERCIAL", "PUBLIC_ADMINISTRATION"
-		}, example = "COMMERCIAL")) @MemberOf(value = InvoiceOrigin.class, caseSensitive = false) @PathVariable final String invoiceOrigin,
+		@Parameter(name = "invoiceOrigin", description = "Invoice origin (invoices originates from either commercial or public activities). ALL searches both origins and merges the result by invoice date, newest first.",
+			schema = @Schema(allowableValues = {
+				"COMMERCIAL", "PUBLIC_ADMINISTRATION", "ALL"
+			}, example = "COMMERCIAL")) @MemberOf(value = InvoiceOrigin.class, caseSensitive = false) @PathVariable final String invoiceOrigin,
 		@Valid final InvoicesParameters searchParams) {
 
 		return ok(invoicesService.getInvoices(municipalityId, invoiceOrigin, searchParams));
@@ -83,13 +105,18 @@ class InvoicesResource {
 		APPLICATION_JSON_VALUE, APPLICATION_PROBLEM_JSON_VALUE
 	})
 	@Operation(summary = "Returns public administration invoices matching sent in search parameters")
-	@ApiResponse(responseCode = "200", description = "Successful operation", useReturnTypeSchema = true, content = @Content(mediaType = APPLICATION_JSON_VALUE))
+	@ApiResponse(responseCode = "200", description = "Successful operation", content = {
+		@Content(mediaType = APPLICATION_JSON_VALUE, schema = @Schema(implementation = InvoicesResponse.class)),
+		@Content(mediaType = APPLICATION_PROBLEM_JSON_VALUE, schema = @Schema(implementation = InvoicesResponse.class))
+	})
+	@ApiResponse(responseCode = "304", description = "Not modified")
 	@ApiResponse(responseCode = "404", description = "Not found", content = @Content(mediaType = APPLICATION_PROBLEM_JSON_VALUE, schema = @Schema(implementation = Problem.class)))
-	ResponseEntity<InvoicesResponse> getPublicAdministrationInvoices(
+	ResponseEntity<byte[]> getPublicAdministrationInvoices(
 		@Parameter(name = "municipalityId", description = "Municipality ID", example = "2281") @ValidMunicipalityId @PathVariable final String municipalityId,
+		@Parameter(name = IF_NONE_MATCH, description = IF_NONE_MATCH_DESCRIPTION) @RequestHeader(name = IF_NONE_MATCH, required = false) final String ifNoneMatch,
 		@Valid final InvoicesParameters searchParams) {
 
-		return ok(invoicesService.getInvoices(municipalityId, PUBLIC_ADMINISTRATION.name(), searchParams));
+		return toResponseEntity(invoicesService.getPublicAdministrationInvoices(municipalityId, searchParams, ifNoneMatch));
 	}
 
 	@GetMapping(value = "/COMMERCIAL/{organizationNumber}/{invoiceNumber}/details", produces = APPLICATION_JSON_VALUE)
@@ -103,6 +130,17 @@ class InvoicesResource {
 		return ok(InvoiceDetailsResponse.create().withDetails(invoicesService.getInvoiceDetails(municipalityId, organizationNumber, invoiceNumber)));
 	}
 
+	@PostMapping(value = "/COMMERCIAL/details", consumes = APPLICATION_JSON_VALUE, produces = APPLICATION_JSON_VALUE)
+	@Operation(summary = "Returns invoice-details of several invoices",
+		description = "The invoices are looked up in parallel. A failed lookup is reported on its own entry, with status and error, and does not fail the whole request.")
+	@ApiResponse(responseCode = "200", description = "Successful operation", useReturnTypeSchema = true, content = @Content(mediaType = APPLICATION_JSON_VALUE))
+	ResponseEntity<InvoiceDetailsBatchResponse> getInvoiceDetailsBatch(
+		@Parameter(name = "municipalityId", description = "Municipality ID", example = "2281") @ValidMunicipalityId @PathVariable final String municipalityId,
+		@Valid @RequestBody final InvoiceDetailsBatchRequest request) {
+
+		return ok(InvoiceDetailsBatchResponse.create().withInvoices(invoicesService.getInvoiceDetails(municipalityId, request.getInvoices())));
+	}
+
 	@Deprecated(forRemoval = true, since = "2026-05-21")
 	@GetMapping(value = "/{invoiceOrigin}/{organizationNumber}/{invoiceNumber}/pdf", produces = APPLICATION_JSON_VALUE)
 	@Operation(summary = "Returns invoice in pdf-format", description = "Deprecated. Use the pdf/download endpoint, which returns the raw PDF file instead of a base64-encoded JSON body.", deprecated = true)
@@ -114,7 +152,7 @@ class InvoicesResource {
 		@PathVariable @Parameter(name = "invoiceNumber", description = "Id of invoice", example = "333444", required = true) @NotBlank final String invoiceNumber,
 		@PathVariable @Parameter(name = "invoiceOrigin", description = "Invoice origin (invoices originates from either commercial or public activities)", schema = @Schema(allowableValues = {
 			"COMMERCIAL", "PUBLIC_ADMINISTRATION"
-		}, example = "COMMERCIAL")) @MemberOf(value = InvoiceOrigin.class, caseSensitive = false) final String invoiceOrigin,
+		}, example = "COMMERCIAL")) @MemberOf(value = PdfInvoiceOrigin.class, caseSensitive = false) final String invoiceOrigin,
 		@Parameter(name = "invoiceType", description = "InvoiceType filter parameter", schema = @Schema(allowableValues = {
 			"INVOICE", "CREDIT_INVOICE", "START_INVOICE", "FINAL_INVOICE", "DIRECT_DEBIT", "SELF_INVOICE", "REMINDER", "CONSOLIDATED_INVOICE", "INTERNAL_INVOICE", "OFFSET_INVOICE", "UNKNOWN"
 		})) @MemberOf(value = InvoiceType.class, nullable = true) @RequestParam(value = "invoiceType", required = false) final String invoiceType) {
@@ -129,36 +167,90 @@ class InvoicesResource {
 		@Content(mediaType = "application/zip", schema = @Schema(type = "string", format = "binary"))
 	})
 	@ApiResponse(responseCode = "404", description = "Not found", content = @Content(mediaType = APPLICATION_PROBLEM_JSON_VALUE, schema = @Schema(implementation = Problem.class)))
-	ResponseEntity<StreamingResponseBody> downloadInvoicePdf(
+	ResponseEntity<Resource> downloadInvoicePdf(
 		@Parameter(name = "municipalityId", description = "Municipality ID", example = "2281") @ValidMunicipalityId @PathVariable final String municipalityId,
 		@PathVariable @Parameter(name = "organizationNumber", description = "Organization number of invoice issuer", example = "5565272223", required = true) @ValidOrganizationNumber final String organizationNumber,
 		@PathVariable @Parameter(name = "invoiceNumber", description = "Id of invoice", example = "333444", required = true) @NotBlank final String invoiceNumber,
 		@PathVariable @Parameter(name = "invoiceOrigin", description = "Invoice origin (invoices originates from either commercial or public activities)", schema = @Schema(allowableValues = {
 			"COMMERCIAL", "PUBLIC_ADMINISTRATION"
-		}, example = "COMMERCIAL")) @MemberOf(value = InvoiceOrigin.class, caseSensitive = false) final String invoiceOrigin,
+		}, example = "COMMERCIAL")) @MemberOf(value = PdfInvoiceOrigin.class, caseSensitive = false) final String invoiceOrigin,
 		@Parameter(name = "invoiceType", description = "InvoiceType filter parameter", schema = @Schema(allowableValues = {
 			"INVOICE", "CREDIT_INVOICE", "START_INVOICE", "FINAL_INVOICE", "DIRECT_DEBIT", "SELF_INVOICE", "REMINDER", "CONSOLIDATED_INVOICE", "INTERNAL_INVOICE", "OFFSET_INVOICE", "UNKNOWN"
-		})) @MemberOf(value = InvoiceType.class, nullable = true) @RequestParam(value = "invoiceType", required = false) final String invoiceType) {
+		})) @MemberOf(value = InvoiceType.class, nullable = true) @RequestParam(value = "invoiceType", required = false) final String invoiceType,
+		final NativeWebRequest webRequest) {
 
 		final var invoiceFile = invoicesService.downloadInvoicePdf(organizationNumber, invoiceNumber, invoiceType, municipalityId);
 
+		// Conditional requests (If-None-Match/If-Modified-Since) are answered with 304 when an ETag or Last-Modified is set.
+		// The resource body is closed after being written, which for a streamed upstream body releases the connection. A
+		// body that is not written is closed here instead.
+		final var lastModified = ofNullable(invoiceFile.lastModified()).map(Instant::toEpochMilli).orElse(-1L);
+		if (webRequest.checkNotModified(invoiceFile.eTag(), lastModified)) {
+			invoiceFile.close();
+			return null;
+		}
 		return ok()
-			.headers(headers -> headers.setContentDisposition(ContentDisposition.attachment()
-				.filename(invoiceFile.fileName(), StandardCharsets.UTF_8)
-				.build()))
+			.headers(headers -> {
+				headers.setContentDisposition(ContentDisposition.attachment()
+					.filename(invoiceFile.fileName(), StandardCharsets.UTF_8)
+					.build());
+				if (invoiceFile.contentLength() >= 0) {
+					headers.setContentLength(invoiceFile.contentLength());
+				}
+				ofNullable(invoiceFile.eTag()).ifPresent(headers::setETag);
+				ofNullable(invoiceFile.lastModified()).ifPresent(headers::setLastModified);
+			})
 			.contentType(invoiceFile.contentType())
-			.body(outputStream -> outputStream.write(ofNullable(invoiceFile.content()).orElse(new byte[0])));
+			.body(invoiceFile.content());
 	}
 
 	@GetMapping(value = "/COMMERCIAL/customers/invoices", produces = {
 		APPLICATION_JSON_VALUE, APPLICATION_PROBLEM_JSON_VALUE
 	})
 	@Operation(summary = "Returns invoices for one or more customers (commercial source)")
-	@ApiResponse(responseCode = "200", description = "Successful operation", useReturnTypeSchema = true, content = @Content(mediaType = APPLICATION_JSON_VALUE))
-	ResponseEntity<CustomerInvoicesResponse> getInvoicesForCustomer(
+	@ApiResponse(responseCode = "200", description = "Successful operation", content = {
+		@Content(mediaType = APPLICATION_JSON_VALUE, schema = @Schema(implementation = CustomerInvoicesResponse.class)),
+		@Content(mediaType = APPLICATION_PROBLEM_JSON_VALUE, schema = @Schema(implementation = CustomerInvoicesResponse.class))
+	})
+	@ApiResponse(responseCode = "304", description = "Not modified")
+	ResponseEntity<byte[]> getInvoicesForCustomer(
 		@Parameter(name = "municipalityId", description = "Municipality ID", example = "2281") @ValidMunicipalityId @PathVariable final String municipalityId,
+		@Parameter(name = IF_NONE_MATCH, description = IF_NONE_MATCH_DESCRIPTION) @RequestHeader(name = IF_NONE_MATCH, required = false) final String ifNoneMatch,
 		@Valid final CustomerInvoicesParameters searchParams) {
 
-		return ok(invoicesService.getInvoicesForCustomer(municipalityId, searchParams));
+		return toResponseEntity(invoicesService.getInvoicesForCustomer(municipalityId, searchParams, ifNoneMatch));
+	}
+
+	@GetMapping(value = "/COMMERCIAL/customers/invoices/export", produces = {
+		APPLICATION_NDJSON_VALUE, APPLICATION_PROBLEM_JSON_VALUE
+	})
+	@Operation(summary = "Exports all invoices for one or more customers (commercial source) as newline delimited JSON",
+		description = "The invoices are written one per line while they are read from upstream, so any number of invoices can be exported in one request. The paging parameters (page, limit and cursor) are not used.")
+	@ApiResponse(responseCode = "200", description = "Successful operation", content = @Content(mediaType = APPLICATION_NDJSON_VALUE, schema = @Schema(implementation = CustomerInvoice.class)))
+	ResponseEntity<StreamingResponseBody> exportInvoicesForCustomer(
+		@Parameter(name = "municipalityId", description = "Municipality ID", example = "2281") @ValidMunicipalityId @PathVariable final String municipalityId,
+		@Valid final CustomerInvoicesParameters searchParams,
+		final NativeWebRequest webRequest) {
+
+		final var export = invoicesService.exportInvoicesForCustomer(municipalityId, searchParams);
+		// The export holds an open upstream page until written, so it is closed also when the body is never written
+		WebAsyncUtils.getAsyncManager(webRequest).registerCallableInterceptor(export, new CallableProcessingInterceptor() {
+			@Override
+			public <T> void afterCompletion(final NativeWebRequest request, final Callable<T> task) {
+				export.close();
+			}
+		});
+
+		return ok()
+			.contentType(APPLICATION_NDJSON)
+			.body(export::writeTo);
+	}
+
+	// The body is written as serialized for the entity tag, so that it is not serialized again
+	private static ResponseEntity<byte[]> toResponseEntity(final ConditionalResponse<?> response) {
+		if (response.isNotModified()) {
+			return status(NOT_MODIFIED).eTag(response.eTag()).build();
+		}
+		return ok().eTag(response.eTag()).contentType(APPLICATION_JSON).body(response.serializedBody());
 	}
 }
@@ -48,6 +48,16 @@ public class CustomerInvoicesParameters extends AbstractParameterPagingAndSortin
 	@Schema(description = "Latest invoice period end. Format is YYYY-MM-DD.", examples = "2025-12-31")
 	private LocalDate periodTo;
 
+	@Schema(description = "Opaque cursor of the page to return, as returned in metaData.nextCursor of the previous page. When provided, page is ignored.",
+		examples = "eyJwYWdlIjoyfQ")
+	private String cursor;
+
+	@ArraySchema(schema = @Schema(description = "Fields of the invoices to return, all fields are returned if not provided", examples = "invoiceNumber"))
+	private List<String> fields;
+
+	@Schema(description = "Whether the details (invoice rows) of the invoices are returned", defaultValue = "true", examples = "false")
+	private Boolean includeDetails = true;
+
 	public static CustomerInvoicesParameters create() {
 		return new CustomerInvoicesParameters();
 	}
@@ -143,6 +153,45 @@ public class CustomerInvoicesParameters extends AbstractParameterPagingAndSortin
 		return this;
 	}
 
+	public String getCursor() {
+		return cursor;
+	}
+
+	public void setCursor(final String cursor) {
+		this.cursor = cursor;
+	}
+
+	public CustomerInvoicesParameters withCursor(final String cursor) {
+		this.cursor = cursor;
+		return this;
+	}
+
+	public List<String> getFields() {
+		return fields;
+	}
+
+	public void setFields(final List<String> fields) {
+		this.fields = fields;
+	}
+
+	public CustomerInvoicesParameters withFields(final List<String> fields) {
+		this.fields = fields;
+		return this;
+	}
+
+	public Boolean getIncludeDetails() {
+		return includeDetails;
+	}
+
+	public void setIncludeDetails(final Boolean includeDetails) {
+		this.includeDetails = includeDetails;
+	}
+
+	public CustomerInvoicesParameters withIncludeDetails(final Boolean includeDetails) {
+		this.includeDetails = includeDetails;
+		return this;
+	}
+
 	@Override
 	@ArraySchema(schema = @Schema(description = "Column to sort by", examples = {
 		"periodFrom", "periodTo", "InvoiceDate", "DueDate", "InvoiceNumber", "TotalAmount"
@@ -185,6 +234,9 @@ public class CustomerInvoicesParameters extends AbstractParameterPagingAndSortin
 			&& Objects.equals(status, that.status)
 			&& Objects.equals(periodFrom, that.periodFrom)
 			&& Objects.equals(periodTo, that.periodTo)
+			&& Objects.equals(cursor, that.cursor)
+			&& Objects.equals(fields, that.fields)
+			&& Objects.equals(includeDetails, that.includeDetails)
 			&& Objects.equals(sortBy, that.sortBy)
 			&& Objects.equals(sortDirection, that.sortDirection)
 			&& Objects.equals(limit, that.limit)
@@ -193,7 +245,7 @@ public class CustomerInvoicesParameters extends AbstractParameterPagingAndSortin
 
 	@Override
 	public int hashCode() {
-		return Objects.hash(super.hashCode(), customerNumbers, partyIds, organizationNumbers, facilityIds, status, periodFrom, periodTo, sortBy, sortDirection, page, limit);
+		return Objects.hash(super.hashCode(), customerNumbers, partyIds, organizationNumbers, facilityIds, status, periodFrom, periodTo, cursor, fields, includeDetails, sortBy, sortDirection, page, limit);
 	}
 
 	@Override
@@ -206,6 +258,9 @@ public class CustomerInvoicesParameters extends AbstractParameterPagingAndSortin
 			", status=" + status +
 			", periodFrom=" + periodFrom +
 			", periodTo=" + periodTo +
+			", cursor=" + cursor +
+			", fields=" + fields +
+			", includeDetails=" + includeDetails +
 			", sortBy=" + sortBy +
 			", sortDirection=" + sortDirection +
 			", page=" + page +
@@ -0,0 +1,120 @@
+package se.sundsvall.invoices.api.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+import java.util.Objects;
+
+import static io.swagger.v3.oas.annotations.media.Schema.AccessMode.READ_ONLY;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Invoice-details (or the error that occurred when fetching them) of one invoice in a batch", accessMode = READ_ONLY)
+public class InvoiceDetailsBatchEntry {
+
+	@Schema(description = "Organization number of invoice issuer", examples = "5565272223")
+	private String organizationNumber;
+
+	@Schema(description = "Id of invoice", examples = "333444")
+	private String invoiceNumber;
+
+	@Schema(description = "Http status of the lookup of this invoice", examples = "200")
+	private Integer status;
+
+	@ArraySchema(schema = @Schema(implementation = InvoiceDetail.class, description = "Invoice-details, only present when the lookup succeeded"))
+	private List<InvoiceDetail> details;
+
+	@Schema(description = "Description of the error, only present when the lookup failed", examples = "datawarehousereader error: {status=503 Service Unavailable}")
+	private String error;
+
+	public static InvoiceDetailsBatchEntry create() {
+		return new InvoiceDetailsBatchEntry();
+	}
+
+	public String getOrganizationNumber() {
+		return organizationNumber;
+	}
+
+	public void setOrganizationNumber(final String organizationNumber) {
+		this.organizationNumber = organizationNumber;
+	}
+
+	public InvoiceDetailsBatchEntry withOrganizationNumber(final String organizationNumber) {
+		this.organizationNumber = organizationNumber;
+		return this;
+	}
+
+	public String getInvoiceNumber() {
+		return invoiceNumber;
+	}
+
+	public void setInvoiceNumber(final String invoiceNumber) {
+		this.invoiceNumber = invoiceNumber;
+	}
+
+	public InvoiceDetailsBatchEntry withInvoiceNumber(final String invoiceNumber) {
+		this.invoiceNumber = invoiceNumber;
+		return this;
+	}
+
+	public Integer getStatus() {
+		return status;
+	}
+
+	public void setStatus(final Integer status) {
+		this.status = status;
+	}
+
+	public InvoiceDetailsBatchEntry withStatus(final Integer status) {
+		this.status = status;
+		return this;
+	}
+
+	public List<InvoiceDetail> getDetails() {
+		return details;
+	}
+
+	public void setDetails(final List<InvoiceDetail> details) {
+		this.details = details;
+	}
+
+	public InvoiceDetailsBatchEntry withDetails(final List<InvoiceDetail> details) {
+		this.details = details;
+		return this;
+	}
+
+	public String getError() {
+		return error;
+	}
+
+	public void setError(final String error) {
+		this.error = error;
+	}
+
+	public InvoiceDetailsBatchEntry withError(final String error) {
+		this.error = error;
+		return this;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(details, error, invoiceNumber, organizationNumber, status);
+	}
+
+	@Override
+	public boolean equals(final Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof InvoiceDetailsBatchEntry other)) {
+			return false;
+		}
+		return Objects.equals(details, other.details) && Objects.equals(error, other.error) && Objects.equals(invoiceNumber, other.invoiceNumber)
+			&& Objects.equals(organizationNumber, other.organizationNumber) && Objects.equals(status, other.status);
+	}
+
+	@Override
+	public String toString() {
+		return "InvoiceDetailsBatchEntry [organizationNumber=" + organizationNumber + ", invoiceNumber=" + invoiceNumber + ", status=" + status + ", details=" + details + ", error=" + error + "]";
+	}
+}
@@ -0,0 +1,59 @@
+package se.sundsvall.invoices.api.model;
+
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+import java.util.Objects;
+
+@Schema(description = "Request model for fetching invoice-details of several invoices")
+public class InvoiceDetailsBatchRequest {
+
+	public static final int MAX_INVOICES = 100;
+
+	@NotEmpty
+	@Size(max = MAX_INVOICES)
+	@ArraySchema(schema = @Schema(implementation = InvoiceReference.class), minItems = 1, maxItems = MAX_INVOICES)
+	private List<@Valid @NotNull InvoiceReference> invoices;
+
+	public static InvoiceDetailsBatchRequest create() {
+		return new InvoiceDetailsBatchRequest();
+	}
+
+	public List<InvoiceReference> getInvoices() {
+		return invoices;
+	}
+
+	public void setInvoices(final List<InvoiceReference> invoices) {
+		this.invoices = invoices;
+	}
+
+	public InvoiceDetailsBatchRequest withInvoices(final List<InvoiceReference> invoices) {
+		this.invoices = invoices;
+		return this;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(invoices);
+	}
+
+	@Override
+	public boolean equals(final Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof InvoiceDetailsBatchRequest other)) {
+			return false;
+		}
+		return Objects.equals(invoices, other.invoices);
+	}
+
+	@Override
+	public String toString() {
+		return "InvoiceDetailsBatchRequest [invoices=" + invoices + "]";
+	}
+}
@@ -0,0 +1,51 @@
+package se.sundsvall.invoices.api.model;
+
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+import java.util.Objects;
+
+@Schema(description = "Response model holding invoice-details of several invoices, in the same order as requested")
+public class InvoiceDetailsBatchResponse {
+
+	@ArraySchema(schema = @Schema(implementation = InvoiceDetailsBatchEntry.class))
+	private List<InvoiceDetailsBatchEntry> invoices;
+
+	public static InvoiceDetailsBatchResponse create() {
+		return new InvoiceDetailsBatchResponse();
+	}
+
+	public List<InvoiceDetailsBatchEntry> getInvoices() {
+		return invoices;
+	}
+
+	public void setInvoices(final List<InvoiceDetailsBatchEntry> invoices) {
+		this.invoices = invoices;
+	}
+
+	public InvoiceDetailsBatchResponse withInvoices(final List<InvoiceDetailsBatchEntry> invoices) {
+		this.invoices = invoices;
+		return this;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(invoices);
+	}
+
+	@Override
+	public boolean equals(final Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof InvoiceDetailsBatchResponse other)) {
+			return false;
+		}
+		return Objects.equals(invoices, other.invoices);
+	}
+
+	@Override
+	public String toString() {
+		return "InvoiceDetailsBatchResponse [invoices=" + invoices + "]";
+	}
+}
@@ -1,7 +1,9 @@
 package se.sundsvall.invoices.api.model;
 
 // Internal backing enum for the API's invoiceOrigin String path variable; validated against via @MemberOf and used to route commercial vs public-administration requests.
+// ALL is only meaningful for invoice searches, where both origins are queried and merged.
 public enum InvoiceOrigin {
 	COMMERCIAL,
-	PUBLIC_ADMINISTRATION
+	PUBLIC_ADMINISTRATION,
+	ALL
 }
@@ -0,0 +1,69 @@
+package se.sundsvall.invoices.api.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import java.util.Objects;
+import se.sundsvall.dept44.common.validators.annotation.ValidOrganizationNumber;
+
+@Schema(description = "Reference to a commercial invoice")
+public class InvoiceReference {
+
+	@ValidOrganizationNumber
+	@Schema(description = "Organization number of invoice issuer", examples = "5565272223", requiredMode = Schema.RequiredMode.REQUIRED)
+	private String organizationNumber;
+
+	@NotBlank
+	@Schema(description = "Id of invoice", examples = "333444", requiredMode = Schema.RequiredMode.REQUIRED)
+	private String invoiceNumber;
+
+	public static InvoiceReference create() {
+		return new InvoiceReference();
+	}
+
+	public String getOrganizationNumber() {
+		return organizationNumber;
+	}
+
+	public void setOrganizationNumber(final String organizationNumber) {
+		this.organizationNumber = organizationNumber;
+	}
+
+	public InvoiceReference withOrganizationNumber(final String organizationNumber) {
+		this.organizationNumber = organizationNumber;
+		return this;
+	}
+
+	public String getInvoiceNumber() {
+		return invoiceNumber;
+	}
+
+	public void setInvoiceNumber(final String invoiceNumber) {
+		this.invoiceNumber = invoiceNumber;
+	}
+
+	public InvoiceReference withInvoiceNumber(final String invoiceNumber) {
+		this.invoiceNumber = invoiceNumber;
+		return this;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(invoiceNumber, organizationNumber);
+	}
+
+	@Override
+	public boolean equals(final Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof InvoiceReference other)) {
+			return false;
+		}
+		return Objects.equals(invoiceNumber, other.invoiceNumber) && Objects.equals(organizationNumber, other.organizationNumber);
+	}
+
+	@Override
+	public String toString() {
+		return "InvoiceReference [organizationNumber=" + organizationNumber + ", invoiceNumber=" + invoiceNumber + "]";
+	}
+}
@@ -69,6 +69,9 @@ public class InvoicesParameters extends AbstractParameterBase {
 	@Schema(description = "Organization group", examples = "stadsbacken")
 	private String organizationGroup;
 
+	@ArraySchema(schema = @Schema(description = "Fields of the invoices to return, all fields are returned if not provided", examples = "invoiceNumber"))
+	private List<String> fields;
+
 	public static InvoicesParameters create() {
 		return new InvoicesParameters();
 	}
@@ -229,6 +232,19 @@ public class InvoicesParameters extends AbstractParameterBase {
 		return this;
 	}
 
+	public List<String> getFields() {
+		return fields;
+	}
+
+	public void setFields(final List<String> fields) {
+		this.fields = fields;
+	}
+
+	public InvoicesParameters withFields(final List<String> fields) {
+		this.fields = fields;
+		return this;
+	}
+
 	public void setOrganizationNumber(final List<String> organizationNumber) {
 		this.organizationNumbers = organizationNumber;
 	}
@@ -266,12 +282,12 @@ public class InvoicesParameters extends AbstractParameterBase {
 		return Objects.equals(partyId, that.partyId) && Objects.equals(facilityIds, that.facilityIds) && Objects.equals(invoiceNumber, that.invoiceNumber) && Objects.equals(invoiceDateFrom, that.invoiceDateFrom)
 			&& Objects.equals(invoiceDateTo, that.invoiceDateTo) && Objects.equals(invoiceName, that.invoiceName) && Objects.equals(invoiceType, that.invoiceType) && Objects.equals(invoiceStatus, that.invoiceStatus) && Objects.equals(ocrNumber,
 				that.ocrNumber) && Objects.equals(dueDateFrom, that.dueDateFrom) && Objects.equals(dueDateTo, that.dueDateTo) && Objects.equals(organizationNumbers, that.organizationNumbers) && Objects.equals(
-					organizationGroup, that.organizationGroup);
+					organizationGroup, that.organizationGroup) && Objects.equals(fields, that.fields);
 	}
 
 	@Override
 	public int hashCode() {
-		return Objects.hash(super.hashCode(), partyId, facilityIds, invoiceNumber, invoiceDateFrom, invoiceDateTo, invoiceName, invoiceType, invoiceStatus, ocrNumber, dueDateFrom, dueDateTo, organizationNumbers, organizationGroup);
+		return Objects.hash(super.hashCode(), partyId, facilityIds, invoiceNumber, invoiceDateFrom, invoiceDateTo, invoiceName, invoiceType, invoiceStatus, ocrNumber, dueDateFrom, dueDateTo, organizationNumbers, organizationGroup, fields);
 	}
 
 	@Override
@@ -290,6 +306,7 @@ public class InvoicesParameters extends AbstractParameterBase {
 			", dueDateTo=" + dueDateTo +
 			", organizationNumbers=" + organizationNumbers +
 			", organizationGroup='" + organizationGroup + '\'' +
+			", fields=" + fields +
 			", page=" + page +
 			", limit=" + limit +
 			'}';
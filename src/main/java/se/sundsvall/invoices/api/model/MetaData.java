@@ -1,11 +1,13 @@
 package se.sundsvall.invoices.api.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import io.swagger.v3.oas.annotations.media.Schema;
 import java.util.Objects;
 
 import static io.swagger.v3.oas.annotations.media.Schema.AccessMode.READ_ONLY;
 
 @Schema(description = "Metadata model")
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class MetaData {
 
 	@Schema(description = "Current page", examples = "5", accessMode = READ_ONLY)
@@ -23,6 +25,9 @@ public class MetaData {
 	@Schema(description = "Total amount of pages based on provided search parameters", examples = "23", accessMode = READ_ONLY)
 	private int totalPages;
 
+	@Schema(description = "Cursor of the next page, to send in as cursor parameter. Only present when there is a next page.", examples = "eyJwYWdlIjoyfQ", accessMode = READ_ONLY)
+	private String nextCursor;
+
 	public static MetaData create() {
 		return new MetaData();
 	}
@@ -92,9 +97,22 @@ public class MetaData {
 		return this;
 	}
 
+	public String getNextCursor() {
+		return nextCursor;
+	}
+
+	public void setNextCursor(String nextCursor) {
+		this.nextCursor = nextCursor;
+	}
+
+	public MetaData withNextCursor(String nextCursor) {
+		this.nextCursor = nextCursor;
+		return this;
+	}
+
 	@Override
 	public int hashCode() {
-		return Objects.hash(count, limit, page, totalPages, totalRecords);
+		return Objects.hash(count, limit, nextCursor, page, totalPages, totalRecords);
 	}
 
 	@Override
@@ -107,11 +125,11 @@ public class MetaData {
 			return false;
 		MetaData other = (MetaData) obj;
 		return count == other.count && limit == other.limit && page == other.page && totalPages == other.totalPages
-			&& totalRecords == other.totalRecords;
+			&& totalRecords == other.totalRecords && Objects.equals(nextCursor, other.nextCursor);
 	}
 
 	@Override
 	public String toString() {
-		return "MetaData [page=" + page + ", limit=" + limit + ", count=" + count + ", totalRecords=" + totalRecords + ", totalPages=" + totalPages + "]";
+		return "MetaData [page=" + page + ", limit=" + limit + ", count=" + count + ", totalRecords=" + totalRecords + ", totalPages=" + totalPages + ", nextCursor=" + nextCursor + "]";
 	}
 }
@@ -1,16 +1,28 @@
 package se.sundsvall.invoices.api.model;
 
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
 import io.swagger.v3.oas.annotations.media.Schema;
-import java.util.Arrays;
+import java.util.Base64;
 import java.util.Objects;
 
+import static com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility.ANY;
+import static com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility.NONE;
+
+/**
+ * The file content is held in its base64-encoded form, which is also how it is serialized. This lets an already encoded
+ * upstream file be passed straight through to the response without being decoded and re-encoded. The decoded bytes are
+ * only produced (and then kept) if asked for.
+ */
+@JsonAutoDetect(fieldVisibility = ANY, getterVisibility = NONE, isGetterVisibility = NONE, setterVisibility = NONE)
 public class PdfInvoice {
 
 	@Schema(examples = "faktura-999.pdf", description = "File-name")
 	private String fileName;
 
-	@Schema(description = "Base64-encoded contents of file")
-	private byte[] file;
+	@Schema(description = "Base64-encoded contents of file", format = "byte")
+	private String file;
+
+	private transient byte[] decodedFile;
 
 	public static PdfInvoice create() {
 		return new PdfInvoice();
@@ -30,15 +42,33 @@ public class PdfInvoice {
 	}
 
 	public byte[] getFile() {
-		return file;
+		if (decodedFile == null && file != null) {
+			decodedFile = Base64.getDecoder().decode(file);
+		}
+		return decodedFile;
 	}
 
 	public void setFile(final byte[] file) {
-		this.file = file;
+		this.decodedFile = file;
+		this.file = file == null ? null : Base64.getEncoder().encodeToString(file);
 	}
 
 	public PdfInvoice withFile(final byte[] file) {
-		this.file = file;
+		setFile(file);
+		return this;
+	}
+
+	public String getEncodedFile() {
+		return file;
+	}
+
+	public void setEncodedFile(final String encodedFile) {
+		this.decodedFile = null;
+		this.file = encodedFile;
+	}
+
+	public PdfInvoice withEncodedFile(final String encodedFile) {
+		setEncodedFile(encodedFile);
 		return this;
 	}
 
@@ -50,20 +80,24 @@ public class PdfInvoice {
 		if (!(obj instanceof PdfInvoice other)) {
 			return false;
 		}
-		return Arrays.equals(file, other.file) && Objects.equals(fileName, other.fileName);
+		return Objects.equals(file, other.file) && Objects.equals(fileName, other.fileName);
 	}
 
 	@Override
 	public int hashCode() {
-		final int prime = 31;
-		int result = 1;
-		result = (prime * result) + Arrays.hashCode(file);
-		result = (prime * result) + Objects.hash(fileName);
-		return result;
+		return Objects.hash(file, fileName);
 	}
 
 	@Override
 	public String toString() {
-		return "PdfInvoice [fileName=" + fileName + ", file-size=" + (file == null ? 0 : file.length) + "]";
+		return "PdfInvoice [fileName=" + fileName + ", file-size=" + toDecodedSize(file) + "]";
+	}
+
+	private static long toDecodedSize(final String encoded) {
+		if (encoded == null) {
+			return 0;
+		}
+		final var padding = encoded.endsWith("==") ? 2 : encoded.endsWith("=") ? 1 : 0;
+		return (encoded.length() * 3L / 4) - padding;
 	}
 }
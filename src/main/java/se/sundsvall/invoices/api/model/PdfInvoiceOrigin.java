@@ -0,0 +1,8 @@
+package se.sundsvall.invoices.api.model;
+
+// Internal backing enum for the invoiceOrigin String path variable of the pdf endpoints; validated against via @MemberOf.
+// A pdf belongs to one invoice of one origin, so ALL of InvoiceOrigin is not accepted here.
+public enum PdfInvoiceOrigin {
+	COMMERCIAL,
+	PUBLIC_ADMINISTRATION
+}
@@ -0,0 +1,24 @@
+package se.sundsvall.invoices.integration.common;
+
+import feign.Request;
+
+/**
+ * Helpers describing the Feign requests made to the upstream services, shared by the Feign capabilities.
+ */
+public final class FeignRequests {
+
+	public static final String UNKNOWN = "UNKNOWN";
+
+	private FeignRequests() {}
+
+	/**
+	 * Returns the endpoint called by the request, i.e. the name of the client method making it.
+	 *
+	 * @param  request the request.
+	 * @return         the name of the client method, or {@link #UNKNOWN} for a request not made through a client method
+	 */
+	public static String endpoint(final Request request) {
+		final var methodMetadata = request.requestTemplate() != null ? request.requestTemplate().methodMetadata() : null;
+		return methodMetadata != null && methodMetadata.method() != null ? methodMetadata.method().getName() : UNKNOWN;
+	}
+}
@@ -0,0 +1,92 @@
+package se.sundsvall.invoices.integration.common;
+
+import feign.Response;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongConsumer;
+
+/**
+ * A response body which is called back once, with the number of bytes read from it, when it is closed. A streamed body
+ * may be closed through its stream only, so closing the stream (or reader) of the body counts as closing the body.
+ */
+public final class OnCloseBody implements Response.Body {
+
+	private final Response.Body body;
+	private final LongConsumer onClose;
+	private final AtomicBoolean closed = new AtomicBoolean();
+	private long bytesRead;
+
+	public OnCloseBody(final Response.Body body, final LongConsumer onClose) {
+		this.body = body;
+		this.onClose = onClose;
+	}
+
+	@Override
+	public Integer length() {
+		return body.length();
+	}
+
+	@Override
+	public boolean isRepeatable() {
+		return body.isRepeatable();
+	}
+
+	@Override
+	public InputStream asInputStream() throws IOException {
+		return new FilterInputStream(body.asInputStream()) {
+
+			@Override
+			public int read() throws IOException {
+				final var b = super.read();
+				if (b >= 0) {
+					bytesRead++;
+				}
+				return b;
+			}
+
+			@Override
+			public int read(final byte[] buffer, final int offset, final int length) throws IOException {
+				final var count = super.read(buffer, offset, length);
+				if (count > 0) {
+					bytesRead += count;
+				}
+				return count;
+			}
+
+			@Override
+			public void close() throws IOException {
+				try {
+					super.close();
+				} finally {
+					closed();
+				}
+			}
+		};
+	}
+
+	// Read through the counted stream, so that the bytes rather than the characters are counted
+	@Override
+	public Reader asReader(final Charset charset) throws IOException {
+		return new InputStreamReader(asInputStream(), charset);
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			body.close();
+		} finally {
+			closed();
+		}
+	}
+
+	private void closed() {
+		if (closed.compareAndSet(false, true)) {
+			onClose.accept(bytesRead);
+		}
+	}
+}
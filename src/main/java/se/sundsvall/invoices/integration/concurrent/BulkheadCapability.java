@@ -0,0 +1,54 @@
+package se.sundsvall.invoices.integration.concurrent;
+
+import feign.Capability;
+import feign.Client;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import java.io.IOException;
+import se.sundsvall.dept44.problem.Problem;
+import se.sundsvall.invoices.integration.common.OnCloseBody;
+
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
+
+/**
+ * Isolates the calls to an upstream service in a bulkhead, so that a slow upstream service can not tie up all threads
+ * of the service. The bulkhead bounds the number of concurrent calls, a call waiting at most the configured time for a
+ * free slot. When no slot is freed in time, the call fails fast with status 503. A slot is held until the response body
+ * is closed, as the body is read after the call has returned.
+ */
+public class BulkheadCapability implements Capability {
+
+	private final Bulkhead bulkhead;
+
+	public BulkheadCapability(final Bulkhead bulkhead) {
+		this.bulkhead = bulkhead;
+	}
+
+	@Override
+	public Client enrich(final Client client) {
+		return (request, options) -> {
+			acquire();
+			try {
+				final var response = client.execute(request, options);
+				if (response.body() == null) {
+					bulkhead.onComplete();
+					return response;
+				}
+				return response.toBuilder()
+					.body(new OnCloseBody(response.body(), ignored -> bulkhead.onComplete()))
+					.build();
+			} catch (final IOException | RuntimeException e) {
+				bulkhead.onComplete();
+				throw e;
+			}
+		};
+	}
+
+	private void acquire() {
+		try {
+			bulkhead.acquirePermission();
+		} catch (final BulkheadFullException e) {
+			throw Problem.valueOf(SERVICE_UNAVAILABLE, "Too many concurrent calls to %s".formatted(bulkhead.getName()));
+		}
+	}
+}
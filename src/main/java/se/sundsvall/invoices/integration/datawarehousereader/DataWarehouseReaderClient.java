@@ -1,5 +1,6 @@
 package se.sundsvall.invoices.integration.datawarehousereader;
 
+import feign.Response;
 import generated.se.sundsvall.datawarehousereader.CustomerEngagementResponse;
 import generated.se.sundsvall.datawarehousereader.CustomerInvoiceResponse;
 import generated.se.sundsvall.datawarehousereader.Direction;
@@ -99,4 +100,40 @@ public interface DataWarehouseReaderClient {
 		@RequestParam(value = "sortDirection", required = false) Direction sortDirection,
 		@RequestParam(value = "page", required = false) Integer page,
 		@RequestParam(value = "limit", required = false) Integer limit);
+
+	/**
+	 * Get invoices for one or more customers, as the unread upstream response.
+	 *
+	 * The raw response is returned so that the body can be decoded while it is read, instead of being decoded into a
+	 * complete {@link CustomerInvoiceResponse} first. Note that Feign does not run the error decoder for this return type,
+	 * the caller must check the status and close the response.
+	 *
+	 * @param  municipalityId  a municipalityId.
+	 * @param  customerNumbers the customer numbers (one or more).
+	 * @param  organizationIds optional list of organization ids of invoice issuers.
+	 * @param  facilityIds     optional list of facility ids to filter by.
+	 * @param  status          optional invoice status (DataWarehouseReader value, e.g. "Betalad").
+	 * @param  periodFrom      optional earliest invoice period start.
+	 * @param  periodTo        optional latest invoice period end.
+	 * @param  sortBy          optional columns to sort by.
+	 * @param  sortDirection   optional sort order direction (ASC or DESC, defaults to ASC upstream when omitted).
+	 * @param  page            optional page number.
+	 * @param  limit           optional result size per page.
+	 * @return                 the unread upstream response holding a customerInvoiceResponse
+	 */
+	@GetMapping(path = "/{municipalityId}/invoices/customers", produces = {
+		APPLICATION_JSON_VALUE, APPLICATION_PROBLEM_JSON_VALUE
+	})
+	Response streamInvoicesForCustomer(
+		@PathVariable String municipalityId,
+		@RequestParam(value = "customerNumbers") List<String> customerNumbers,
+		@RequestParam(value = "organizationIds", required = false) List<String> organizationIds,
+		@RequestParam(value = "facilityIds", required = false) List<String> facilityIds,
+		@RequestParam(value = "status", required = false) String status,
+		@RequestParam(value = "periodFrom", required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate periodFrom,
+		@RequestParam(value = "periodTo", required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate periodTo,
+		@RequestParam(value = "sortBy", required = false) List<String> sortBy,
+		@RequestParam(value = "sortDirection", required = false) Direction sortDirection,
+		@RequestParam(value = "page", required = false) Integer page,
+		@RequestParam(value = "limit", required = false) Integer limit);
 }
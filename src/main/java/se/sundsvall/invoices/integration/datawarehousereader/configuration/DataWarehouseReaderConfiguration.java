@@ -1,6 +1,15 @@
 package se.sundsvall.invoices.integration.datawarehousereader.configuration;
 
+import feign.Client;
+import feign.hc5.ApacheHttp5Client;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.cloud.openfeign.FeignBuilderCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Import;
@@ -8,8 +17,18 @@ import org.springframework.security.oauth2.client.registration.ClientRegistratio
 import se.sundsvall.dept44.configuration.feign.FeignConfiguration;
 import se.sundsvall.dept44.configuration.feign.FeignMultiCustomizer;
 import se.sundsvall.dept44.configuration.feign.decoder.ProblemErrorDecoder;
+import se.sundsvall.invoices.integration.concurrent.BulkheadCapability;
+import se.sundsvall.invoices.integration.error.RawResponseErrorCapability;
+import se.sundsvall.invoices.integration.http.Http2ClientFactory;
+import se.sundsvall.invoices.integration.http.PooledHttpClientFactory;
+import se.sundsvall.invoices.integration.metrics.MetricsCapability;
+import se.sundsvall.invoices.integration.oauth2.OAuth2TokenInterceptor;
+import se.sundsvall.invoices.integration.oauth2.OAuth2TokenManager;
+import se.sundsvall.invoices.integration.oauth2.UnauthorizedRetryCapability;
+import se.sundsvall.invoices.integration.tracing.TracingCapability;
 
 import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static se.sundsvall.invoices.api.model.InvoiceOrigin.COMMERCIAL;
 
 @Import(FeignConfiguration.class)
 public class DataWarehouseReaderConfiguration {
@@ -17,11 +36,81 @@ public class DataWarehouseReaderConfiguration {
 	public static final String CLIENT_ID = "datawarehousereader";
 
 	@Bean
-	FeignBuilderCustomizer feignBuilderCustomizer(ClientRegistrationRepository clientRepository, DataWarehouseReaderProperties properties) {
+	FeignBuilderCustomizer feignBuilderCustomizer(DataWarehouseReaderProperties properties) {
 		return FeignMultiCustomizer.create()
 			.withErrorDecoder(new ProblemErrorDecoder(CLIENT_ID, List.of(NOT_FOUND.value())))
 			.withRequestTimeoutsInSeconds(properties.connectTimeout(), properties.readTimeout())
-			.withRetryableOAuth2InterceptorForClientRegistration(clientRepository.findByRegistrationId(CLIENT_ID))
 			.composeCustomizersToOne();
 	}
+
+	/**
+	 * Authorizes the calls with the access token of the client registration, shared with the other clients through the
+	 * token manager, and retries a call rejected for its token once with a new token.
+	 */
+	@Bean
+	FeignBuilderCustomizer oauth2Customizer(ClientRegistrationRepository clientRepository, OAuth2TokenManager tokenManager) {
+		final var clientRegistration = clientRepository.findByRegistrationId(CLIENT_ID);
+		return builder -> builder
+			.requestInterceptor(new OAuth2TokenInterceptor(clientRegistration, tokenManager))
+			.addCapability(new UnauthorizedRetryCapability(clientRegistration, tokenManager));
+	}
+
+	/**
+	 * Decodes the error responses of the calls returning the raw response, so that they fail the call.
+	 */
+	@Bean
+	FeignBuilderCustomizer rawResponseErrorCustomizer() {
+		return builder -> builder.addCapability(new RawResponseErrorCapability(new ProblemErrorDecoder(CLIENT_ID, List.of(NOT_FOUND.value()))));
+	}
+
+	/**
+	 * Isolates the calls in the bulkhead configured for the client id.
+	 */
+	@Bean
+	FeignBuilderCustomizer bulkheadCustomizer(BulkheadRegistry bulkheadRegistry) {
+		return builder -> builder.addCapability(new BulkheadCapability(bulkheadRegistry.bulkhead(CLIENT_ID)));
+	}
+
+	/**
+	 * Records the calls per endpoint, tagged with the client id and the origin of the invoices the client serves.
+	 */
+	@Bean
+	FeignBuilderCustomizer metricsCustomizer(MeterRegistry meterRegistry) {
+		return builder -> builder.addCapability(new MetricsCapability(CLIENT_ID, COMMERCIAL.name(), meterRegistry));
+	}
+
+	/**
+	 * Traces the calls, and the request interceptors that acquire the OAuth2 tokens, as child spans of the current span.
+	 */
+	@Bean
+	FeignBuilderCustomizer tracingCustomizer(ObservationRegistry observationRegistry) {
+		return builder -> builder.addCapability(new TracingCapability(CLIENT_ID, observationRegistry));
+	}
+
+	@Bean
+	@ConditionalOnProperty(name = "integration.datawarehousereader.http2", havingValue = "false", matchIfMissing = true)
+	CloseableHttpClient pooledHttpClient(DataWarehouseReaderProperties properties, MeterRegistry meterRegistry) {
+		return PooledHttpClientFactory.create(CLIENT_ID, properties.url(), properties.connectTimeout(), properties.pool(), meterRegistry);
+	}
+
+	@Bean
+	@ConditionalOnProperty(name = "integration.datawarehousereader.http2", havingValue = "false", matchIfMissing = true)
+	Client pooledClient(CloseableHttpClient pooledHttpClient) {
+		return new ApacheHttp5Client(pooledHttpClient);
+	}
+
+	/**
+	 * Runs the internal work of the HTTP/2 client on virtual threads, and is shut down with the client.
+	 */
+	@Bean(destroyMethod = "close")
+	@ConditionalOnProperty(name = "integration.datawarehousereader.http2", havingValue = "true")
+	ExecutorService http2Executor() {
+		return Executors.newVirtualThreadPerTaskExecutor();
+	}
+
+	@Bean
+	@ConditionalOnProperty(name = "integration.datawarehousereader.http2", havingValue = "true")
+	Client http2Client(DataWarehouseReaderProperties properties, ExecutorService http2Executor) {
+		return Http2ClientFactory.create(properties.connectTimeout(), http2Executor);
+	}
 }
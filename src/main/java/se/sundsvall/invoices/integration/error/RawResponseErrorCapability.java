@@ -0,0 +1,39 @@
+package se.sundsvall.invoices.integration.error;
+
+import feign.Capability;
+import feign.Feign;
+import feign.InvocationHandlerFactory;
+import feign.Response;
+import feign.codec.ErrorDecoder;
+import org.springframework.http.HttpStatusCode;
+
+/**
+ * Decodes the error responses of the calls returning the raw response. Feign passes such a response through to the
+ * caller whatever its status, so the error decoder is never run and the circuit breaker of the client counts an
+ * upstream error as a success. The error is instead decoded and thrown within the call, where the circuit breaker sees
+ * it, and the response is closed.
+ */
+public class RawResponseErrorCapability implements Capability {
+
+	private final ErrorDecoder errorDecoder;
+
+	public RawResponseErrorCapability(final ErrorDecoder errorDecoder) {
+		this.errorDecoder = errorDecoder;
+	}
+
+	@Override
+	public InvocationHandlerFactory enrich(final InvocationHandlerFactory invocationHandlerFactory) {
+		return (target, dispatch) -> {
+			final var invocationHandler = invocationHandlerFactory.create(target, dispatch);
+			return (proxy, method, args) -> {
+				final var result = invocationHandler.invoke(proxy, method, args);
+				if (result instanceof final Response response && !HttpStatusCode.valueOf(response.status()).is2xxSuccessful()) {
+					try (response) {
+						throw errorDecoder.decode(Feign.configKey(target.type(), method), response);
+					}
+				}
+				return result;
+			};
+		};
+	}
+}
@@ -0,0 +1,16 @@
+package se.sundsvall.invoices.integration.http;
+
+import java.time.Duration;
+
+/**
+ * Connection pool settings of a pooled HTTP client.
+ *
+ * @param maxConnections         maximum number of pooled connections
+ * @param maxConnectionsPerRoute maximum number of pooled connections per route (i.e. upstream host)
+ * @param timeToLive             maximum lifetime of a pooled connection
+ * @param keepAlive              how long an idle connection is kept when the upstream service does not say
+ * @param prewarmConnections     number of connections opened at start-up, so that the first calls do not pay for the
+ *                               TCP and TLS handshakes
+ */
+public record ConnectionPoolProperties(int maxConnections, int maxConnectionsPerRoute, Duration timeToLive, Duration keepAlive, int prewarmConnections) {
+}
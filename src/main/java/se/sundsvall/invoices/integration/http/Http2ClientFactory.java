@@ -0,0 +1,27 @@
+package se.sundsvall.invoices.integration.http;
+
+import feign.Client;
+import feign.http2client.Http2Client;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.Executor;
+
+/**
+ * Creates Feign clients backed by the JDK HTTP client. The JDK client is non-blocking internally, it pools connections
+ * and multiplexes concurrent requests over one connection when the upstream service supports HTTP/2 (falling back to
+ * HTTP/1.1 otherwise). Its internal work is run on the given executor, which is owned by the caller and must be shut
+ * down by it when the client is no longer used.
+ */
+public final class Http2ClientFactory {
+
+	private Http2ClientFactory() {}
+
+	public static Client create(final int connectTimeoutInSeconds, final Executor executor) {
+		return new Http2Client(HttpClient.newBuilder()
+			.version(HttpClient.Version.HTTP_2)
+			.connectTimeout(Duration.ofSeconds(connectTimeoutInSeconds))
+			.followRedirects(HttpClient.Redirect.NORMAL)
+			.executor(executor)
+			.build());
+	}
+}
@@ -0,0 +1,176 @@
+package se.sundsvall.invoices.integration.http;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.DefaultSchemePortResolver;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.io.ConnectionEndpoint;
+import org.apache.hc.client5.http.io.HttpClientConnectionManager;
+import org.apache.hc.client5.http.io.LeaseRequest;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.client5.http.routing.RoutingSupport;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Creates pooled Apache HTTP clients for the Feign clients. Connections (and their TLS sessions) are kept alive and
+ * reused between calls, idle and expired connections are evicted in the background. The pool is pre-warmed at start-up
+ * by opening connections to the upstream service without sending any request.
+ * <p>
+ * The pool is monitored through the httpcomponents.httpclient.pool meters, tagged with the client id. The time spent
+ * waiting for a connection from the pool is recorded by the httpcomponents.httpclient.pool.lease timer.
+ */
+public final class PooledHttpClientFactory {
+
+	static final String LEASE_TIMER_NAME = "httpcomponents.httpclient.pool.lease";
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(PooledHttpClientFactory.class);
+	private static final String CLIENT_TAG = "httpclient";
+	private static final TimeValue VALIDATE_AFTER_INACTIVITY = TimeValue.ofSeconds(2);
+
+	private PooledHttpClientFactory() {}
+
+	public static CloseableHttpClient create(final String clientId, final String url, final int connectTimeoutInSeconds, final ConnectionPoolProperties pool, final MeterRegistry meterRegistry) {
+		final var connectTimeout = Timeout.ofSeconds(connectTimeoutInSeconds);
+		final var keepAlive = TimeValue.ofMilliseconds(pool.keepAlive().toMillis());
+		final var pooledConnectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+			.setMaxConnTotal(pool.maxConnections())
+			.setMaxConnPerRoute(pool.maxConnectionsPerRoute())
+			.setDefaultConnectionConfig(ConnectionConfig.custom()
+				.setConnectTimeout(connectTimeout)
+				.setTimeToLive(TimeValue.ofMilliseconds(pool.timeToLive().toMillis()))
+				.setValidateAfterInactivity(VALIDATE_AFTER_INACTIVITY)
+				.build())
+			.useSystemProperties()
+			.build();
+
+		new PoolingHttpClientConnectionManagerMetricsBinder(pooledConnectionManager, clientId).bindTo(meterRegistry);
+		final var leaseTimer = Timer.builder(LEASE_TIMER_NAME)
+			.description("Time spent waiting for a connection from the pool")
+			.tag(CLIENT_TAG, clientId)
+			.register(meterRegistry);
+		final var connectionManager = new LeaseTimingConnectionManager(pooledConnectionManager, leaseTimer);
+
+		if (pool.prewarmConnections() > 0) {
+			final var route = toRoute(url);
+			Thread.ofVirtual().name("prewarm-" + clientId).start(() -> prewarm(connectionManager, route, pool.prewarmConnections(), connectTimeout, keepAlive));
+		}
+
+		return HttpClients.custom()
+			.setConnectionManager(connectionManager)
+			.setDefaultRequestConfig(RequestConfig.custom()
+				.setDefaultKeepAlive(pool.keepAlive().toMillis(), TimeUnit.MILLISECONDS)
+				.build())
+			.evictExpiredConnections()
+			.evictIdleConnections(keepAlive)
+			.useSystemProperties()
+			.build();
+	}
+
+	/**
+	 * Opens the connections and returns them to the pool. All connections are leased at the same time, so that each lease
+	 * opens a new connection.
+	 */
+	static void prewarm(final HttpClientConnectionManager connectionManager, final HttpRoute route, final int connections, final Timeout connectTimeout, final TimeValue keepAlive) {
+		final var endpoints = new ArrayList<ConnectionEndpoint>();
+		try {
+			for (var i = 0; i < connections; i++) {
+				final var endpoint = connectionManager.lease("prewarm-" + i, route, connectTimeout, null).get(connectTimeout);
+				endpoints.add(endpoint);
+				if (!endpoint.isConnected()) {
+					connectionManager.connect(endpoint, connectTimeout, HttpClientContext.create());
+				}
+			}
+			LOGGER.info("Opened {} connections to {}", endpoints.size(), route.getTargetHost());
+		} catch (final IOException | ExecutionException | TimeoutException e) {
+			LOGGER.warn("Failed to pre-warm connections to {}", route.getTargetHost(), e);
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			endpoints.forEach(endpoint -> connectionManager.release(endpoint, null, endpoint.isConnected() ? keepAlive : TimeValue.ZERO_MILLISECONDS));
+		}
+	}
+
+	// The route must equal the one the client plans for its requests, or the connections would not be reused
+	static HttpRoute toRoute(final String url) {
+		final var target = RoutingSupport.normalize(HttpHost.create(URI.create(url)), DefaultSchemePortResolver.INSTANCE);
+		return new HttpRoute(target, null, "https".equalsIgnoreCase(target.getSchemeName()));
+	}
+
+	/**
+	 * Records the time spent waiting for connections leased from the pool.
+	 */
+	private static final class LeaseTimingConnectionManager implements HttpClientConnectionManager {
+
+		private final HttpClientConnectionManager delegate;
+		private final Timer leaseTimer;
+
+		private LeaseTimingConnectionManager(final HttpClientConnectionManager delegate, final Timer leaseTimer) {
+			this.delegate = delegate;
+			this.leaseTimer = leaseTimer;
+		}
+
+		@Override
+		public LeaseRequest lease(final String id, final HttpRoute route, final Timeout requestTimeout, final Object state) {
+			final var leaseRequest = delegate.lease(id, route, requestTimeout, state);
+			return new LeaseRequest() {
+				@Override
+				public ConnectionEndpoint get(final Timeout timeout) throws InterruptedException, ExecutionException, TimeoutException {
+					final var startTime = System.nanoTime();
+					try {
+						return leaseRequest.get(timeout);
+					} finally {
+						leaseTimer.record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+					}
+				}
+
+				@Override
+				public boolean cancel() {
+					return leaseRequest.cancel();
+				}
+			};
+		}
+
+		@Override
+		public void release(final ConnectionEndpoint endpoint, final Object newState, final TimeValue validDuration) {
+			delegate.release(endpoint, newState, validDuration);
+		}
+
+		@Override
+		public void connect(final ConnectionEndpoint endpoint, final TimeValue connectTimeout, final HttpContext context) throws IOException {
+			delegate.connect(endpoint, connectTimeout, context);
+		}
+
+		@Override
+		public void upgrade(final ConnectionEndpoint endpoint, final HttpContext context) throws IOException {
+			delegate.upgrade(endpoint, context);
+		}
+
+		@Override
+		public void close(final CloseMode closeMode) {
+			delegate.close(closeMode);
+		}
+
+		@Override
+		public void close() throws IOException {
+			delegate.close();
+		}
+	}
+}
@@ -1,5 +1,6 @@
 package se.sundsvall.invoices.integration.invoicecache;
 
+import feign.Response;
 import generated.se.sundsvall.invoicecache.Invoice.InvoiceTypeEnum;
 import generated.se.sundsvall.invoicecache.InvoiceFilterRequest;
 import generated.se.sundsvall.invoicecache.InvoicePdf;
@@ -7,7 +8,6 @@ import generated.se.sundsvall.invoicecache.InvoicesResponse;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.cloud.openfeign.SpringQueryMap;
-import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestParam;
@@ -53,13 +53,16 @@ public interface InvoiceCacheClient {
 	/**
 	 * Download invoice PDFs as a binary stream - a single PDF, or a ZIP archive when several PDFs exist.
 	 *
+	 * The raw response is returned so that the body can be streamed to the caller without being buffered. Note that Feign
+	 * does not run the error decoder for this return type, the caller must check the status and close the response.
+	 *
 	 * @param  issuerLegalId legal id for the issuer of the invoice.
 	 * @param  invoiceNumber invoice number for the invoice.
 	 * @param  invoiceType   optional parameter for filtering invoices by invoiceType.
-	 * @return               the invoice PDF (or a ZIP archive) as raw bytes, including the upstream response headers
+	 * @return               the unread upstream response holding the invoice PDF (or a ZIP archive)
 	 */
 	@GetMapping(path = "/{municipalityId}/invoices/{issuerLegalId}/{invoiceNumber}/pdfs", produces = ALL_VALUE)
-	ResponseEntity<byte[]> downloadInvoicePdfs(
+	Response downloadInvoicePdfs(
 		@PathVariable String municipalityId,
 		@PathVariable String issuerLegalId,
 		@PathVariable String invoiceNumber,
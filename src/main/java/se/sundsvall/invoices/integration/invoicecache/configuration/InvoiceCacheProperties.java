@@ -1,7 +1,17 @@
 package se.sundsvall.invoices.integration.invoicecache.configuration;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import se.sundsvall.invoices.integration.http.ConnectionPoolProperties;
 
+/**
+ * Settings for the InvoiceCache integration.
+ *
+ * @param url            base url of the upstream service
+ * @param connectTimeout connect timeout in seconds
+ * @param readTimeout    read timeout in seconds
+ * @param http2          when true, the JDK HTTP client (HTTP/2, non-blocking) is used instead of the pooled HTTP client
+ * @param pool           connection pool settings of the pooled HTTP client
+ */
 @ConfigurationProperties("integration.invoicecache")
-public record InvoiceCacheProperties(int connectTimeout, int readTimeout) {
+public record InvoiceCacheProperties(String url, int connectTimeout, int readTimeout, boolean http2, ConnectionPoolProperties pool) {
 }
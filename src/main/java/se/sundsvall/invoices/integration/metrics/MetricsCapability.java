@@ -0,0 +1,113 @@
+package se.sundsvall.invoices.integration.metrics;
+
+import feign.Capability;
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import java.io.IOException;
+import java.net.URI;
+import java.util.Arrays;
+import se.sundsvall.invoices.integration.common.FeignRequests;
+import se.sundsvall.invoices.integration.common.OnCloseBody;
+
+import static se.sundsvall.invoices.integration.common.FeignRequests.endpoint;
+
+/**
+ * Records the calls to an upstream service per client and endpoint. The timer measures the time until the response
+ * headers have been received, as the body is read after the call has returned, and the size of the response body is
+ * recorded separately once it is known. The meters are tagged with the municipality of the call and the invoice origin
+ * the client serves.
+ * <p>
+ * Both meters publish percentile histograms, so that percentiles can be aggregated over instances.
+ */
+public class MetricsCapability implements Capability {
+
+	static final String REQUEST_TIMER_NAME = "invoices.upstream.requests";
+	static final String RESPONSE_SIZE_NAME = "invoices.upstream.response.size";
+	static final String CLIENT_TAG = "client";
+	static final String ORIGIN_TAG = "origin";
+	static final String ENDPOINT_TAG = "endpoint";
+	static final String MUNICIPALITY_ID_TAG = "municipalityId";
+	static final String STATUS_TAG = "status";
+	static final String IO_ERROR = "IO_ERROR";
+	static final String UNKNOWN = FeignRequests.UNKNOWN;
+
+	private static final String MUNICIPALITY_ID_SEGMENT = "{municipalityId}";
+
+	private final MeterRegistry meterRegistry;
+	private final Meter.MeterProvider<Timer> requestTimers;
+	private final Meter.MeterProvider<DistributionSummary> responseSizes;
+
+	public MetricsCapability(final String clientId, final String origin, final MeterRegistry meterRegistry) {
+		final var tags = Tags.of(CLIENT_TAG, clientId, ORIGIN_TAG, origin);
+		this.meterRegistry = meterRegistry;
+		this.requestTimers = Timer.builder(REQUEST_TIMER_NAME)
+			.description("Time until the response headers of a call to an upstream service have been received")
+			.tags(tags)
+			.publishPercentileHistogram()
+			.withRegistry(meterRegistry);
+		this.responseSizes = DistributionSummary.builder(RESPONSE_SIZE_NAME)
+			.description("Size of the response bodies of the calls to an upstream service")
+			.baseUnit(BaseUnits.BYTES)
+			.tags(tags)
+			.publishPercentileHistogram()
+			.withRegistry(meterRegistry);
+	}
+
+	@Override
+	public Client enrich(final Client client) {
+		return (request, options) -> {
+			final var tags = Tags.of(ENDPOINT_TAG, endpoint(request), MUNICIPALITY_ID_TAG, municipalityId(request));
+			final var sample = Timer.start(meterRegistry);
+			final Response response;
+			try {
+				response = client.execute(request, options);
+			} catch (final IOException e) {
+				sample.stop(requestTimers.withTags(tags.and(STATUS_TAG, IO_ERROR)));
+				throw e;
+			}
+			sample.stop(requestTimers.withTags(tags.and(STATUS_TAG, String.valueOf(response.status()))));
+
+			final var responseSize = responseSizes.withTags(tags);
+			if (response.body() == null) {
+				return response;
+			}
+			if (response.body().length() != null) {
+				responseSize.record(response.body().length());
+				return response;
+			}
+			return response.toBuilder()
+				.body(new OnCloseBody(response.body(), responseSize::record))
+				.build();
+		};
+	}
+
+	// The municipalityId is the segment of the called path at the position of the parameter in the path template
+	private static String municipalityId(final Request request) {
+		final var methodMetadata = request.requestTemplate() != null ? request.requestTemplate().methodMetadata() : null;
+		if (methodMetadata == null || methodMetadata.template() == null) {
+			return UNKNOWN;
+		}
+		final var templateSegments = segments(methodMetadata.template().path());
+		final var index = Arrays.asList(templateSegments).indexOf(MUNICIPALITY_ID_SEGMENT);
+		if (index < 0) {
+			return UNKNOWN;
+		}
+		// Aligned from the end, as the called path may be prefixed with the path of the client url
+		final var pathSegments = segments(URI.create(request.url()).getRawPath());
+		final var position = pathSegments.length - (templateSegments.length - index);
+		return position >= 0 ? pathSegments[position] : UNKNOWN;
+	}
+
+	private static String[] segments(final String path) {
+		return path == null ? new String[0] : Arrays.stream(path.split("/"))
+			.filter(segment -> !segment.isEmpty())
+			.toArray(String[]::new);
+	}
+}
@@ -0,0 +1,30 @@
+package se.sundsvall.invoices.integration.oauth2;
+
+import feign.RequestInterceptor;
+import feign.RequestTemplate;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+
+import static org.springframework.http.HttpHeaders.AUTHORIZATION;
+
+/**
+ * Authorizes the calls of a client with the access token of its client registration, as kept by the
+ * {@link OAuth2TokenManager}.
+ */
+public class OAuth2TokenInterceptor implements RequestInterceptor {
+
+	static final String BEARER_PREFIX = "Bearer ";
+
+	private final ClientRegistration clientRegistration;
+	private final OAuth2TokenManager tokenManager;
+
+	public OAuth2TokenInterceptor(final ClientRegistration clientRegistration, final OAuth2TokenManager tokenManager) {
+		this.clientRegistration = clientRegistration;
+		this.tokenManager = tokenManager;
+	}
+
+	@Override
+	public void apply(final RequestTemplate template) {
+		template.removeHeader(AUTHORIZATION);
+		template.header(AUTHORIZATION, BEARER_PREFIX + tokenManager.getToken(clientRegistration).getTokenValue());
+	}
+}
@@ -0,0 +1,205 @@
+package se.sundsvall.invoices.integration.oauth2;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.concurrent.SimpleAsyncTaskScheduler;
+import org.springframework.security.oauth2.client.endpoint.OAuth2AccessTokenResponseClient;
+import org.springframework.security.oauth2.client.endpoint.OAuth2ClientCredentialsGrantRequest;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.stereotype.Component;
+import se.sundsvall.dept44.problem.Problem;
+
+import static org.springframework.http.HttpStatus.BAD_GATEWAY;
+
+/**
+ * Keeps the client credentials access token of each client registration, shared by all calls made with the
+ * registration. A token is refreshed in the background before it expires, so that the calls do not wait for the token
+ * endpoint. Only when there is no valid token, e.g. at start-up or after upstream has rejected the token, do calls wait
+ * for a new one. Concurrent calls always share a single token request.
+ * <p>
+ * The time spent fetching tokens and the number of refreshes are recorded per client registration. A refresh is tagged
+ * with what triggered it: the refresh scheduled before expiry, a call finding the token about to expire (when the
+ * scheduled refresh has failed), or a call finding no valid token and waiting for one.
+ */
+@Component
+public class OAuth2TokenManager implements DisposableBean {
+
+	static final String FETCH_TIMER_NAME = "invoices.oauth2.token.fetch";
+	static final String REFRESH_COUNTER_NAME = "invoices.oauth2.token.refresh";
+	static final String CLIENT_TAG = "client";
+	static final String OUTCOME_TAG = "outcome";
+	static final String TRIGGER_TAG = "trigger";
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(OAuth2TokenManager.class);
+	private static final String THREAD_NAME_PREFIX = "oauth2-token-";
+
+	private final OAuth2AccessTokenResponseClient<OAuth2ClientCredentialsGrantRequest> tokenResponseClient;
+	private final Duration refreshBefore;
+	private final SimpleAsyncTaskScheduler taskScheduler;
+	private final Meter.MeterProvider<Timer> fetchTimers;
+	private final Meter.MeterProvider<Counter> refreshCounters;
+	private final ConcurrentHashMap<String, ClientToken> tokens = new ConcurrentHashMap<>();
+
+	public OAuth2TokenManager(final OAuth2TokenProperties properties, final OAuth2AccessTokenResponseClient<OAuth2ClientCredentialsGrantRequest> tokenResponseClient,
+		final MeterRegistry meterRegistry) {
+
+		this.tokenResponseClient = tokenResponseClient;
+		this.refreshBefore = properties.refreshBefore();
+		this.taskScheduler = new SimpleAsyncTaskScheduler();
+		this.taskScheduler.setThreadNamePrefix(THREAD_NAME_PREFIX);
+		this.taskScheduler.setVirtualThreads(true);
+		this.fetchTimers = Timer.builder(FETCH_TIMER_NAME)
+			.description("Time spent fetching OAuth2 access tokens")
+			.publishPercentileHistogram()
+			.withRegistry(meterRegistry);
+		this.refreshCounters = Counter.builder(REFRESH_COUNTER_NAME)
+			.description("Number of OAuth2 access token refreshes")
+			.withRegistry(meterRegistry);
+	}
+
+	/**
+	 * Returns a valid access token of the client registration, waiting for a new one only when there is none.
+	 *
+	 * @param  clientRegistration the client registration.
+	 * @return                    the access token
+	 */
+	public OAuth2AccessToken getToken(final ClientRegistration clientRegistration) {
+		final var clientToken = tokens.computeIfAbsent(clientRegistration.getRegistrationId(), registrationId -> new ClientToken(clientRegistration));
+		final var token = clientToken.token;
+		final var now = Instant.now();
+		if (token != null && isValidAt(token, now)) {
+			if (!isValidAt(token, now.plus(refreshBefore))) {
+				clientToken.refresh(Trigger.BACKGROUND);
+			}
+			return token;
+		}
+		return clientToken.refresh(Trigger.BLOCKING);
+	}
+
+	/**
+	 * Drops the token of the client registration, when it is the rejected one, so that the next call gets a new token.
+	 *
+	 * @param registrationId the id of the client registration.
+	 * @param tokenValue     the value of the rejected token.
+	 */
+	public void invalidate(final String registrationId, final String tokenValue) {
+		final var clientToken = tokens.get(registrationId);
+		if (clientToken != null) {
+			clientToken.invalidate(tokenValue);
+		}
+	}
+
+	@Override
+	public void destroy() {
+		taskScheduler.close();
+	}
+
+	private static boolean isValidAt(final OAuth2AccessToken token, final Instant instant) {
+		return token.getExpiresAt() == null || instant.isBefore(token.getExpiresAt());
+	}
+
+	private enum Trigger {
+		SCHEDULED,
+		BACKGROUND,
+		BLOCKING;
+
+		private final String tagValue = name().toLowerCase(Locale.ROOT);
+	}
+
+	/**
+	 * The token of one client registration, and the refresh of it in flight, if any.
+	 */
+	private final class ClientToken {
+
+		private final ClientRegistration clientRegistration;
+		private final AtomicReference<CompletableFuture<OAuth2AccessToken>> refreshing = new AtomicReference<>();
+		private volatile OAuth2AccessToken token;
+
+		private ClientToken(final ClientRegistration clientRegistration) {
+			this.clientRegistration = clientRegistration;
+		}
+
+		/**
+		 * Starts a refresh, or joins the one in flight. A blocking refresh is made by the calling thread, which waits for
+		 * the new token, while the other refreshes are made on a thread of their own.
+		 */
+		private OAuth2AccessToken refresh(final Trigger trigger) {
+			final var future = new CompletableFuture<OAuth2AccessToken>();
+			final var inFlightFuture = refreshing.compareAndExchange(null, future);
+			if (inFlightFuture != null) {
+				return trigger == Trigger.BLOCKING ? await(inFlightFuture) : null;
+			}
+
+			refreshCounters.withTags(CLIENT_TAG, clientRegistration.getRegistrationId(), TRIGGER_TAG, trigger.tagValue).increment();
+			if (trigger == Trigger.BACKGROUND) {
+				taskScheduler.execute(() -> fetch(future));
+				return null;
+			}
+			fetch(future);
+			return trigger == Trigger.BLOCKING ? await(future) : null;
+		}
+
+		private void fetch(final CompletableFuture<OAuth2AccessToken> future) {
+			final var sample = Timer.start();
+			var outcome = "failure";
+			try {
+				final var fetched = tokenResponseClient.getTokenResponse(new OAuth2ClientCredentialsGrantRequest(clientRegistration)).getAccessToken();
+				outcome = "success";
+				token = fetched;
+				scheduleRefresh(fetched);
+				future.complete(fetched);
+			} catch (final RuntimeException e) {
+				LOGGER.warn("Failed to fetch an access token for {}", clientRegistration.getRegistrationId(), e);
+				future.completeExceptionally(e);
+			} finally {
+				refreshing.compareAndSet(future, null);
+				sample.stop(fetchTimers.withTags(CLIENT_TAG, clientRegistration.getRegistrationId(), OUTCOME_TAG, outcome));
+			}
+		}
+
+		// Refreshes the token before it expires, unless it has been replaced by then
+		private void scheduleRefresh(final OAuth2AccessToken fetched) {
+			if (fetched.getExpiresAt() == null) {
+				return;
+			}
+			final var lifetime = Duration.between(Instant.now(), fetched.getExpiresAt());
+			final var refreshIn = lifetime.compareTo(refreshBefore.multipliedBy(2)) > 0 ? lifetime.minus(refreshBefore) : lifetime.dividedBy(2);
+			if (refreshIn.isPositive()) {
+				taskScheduler.schedule(() -> {
+					if (token == fetched) {
+						refresh(Trigger.SCHEDULED);
+					}
+				}, Instant.now().plus(refreshIn));
+			}
+		}
+
+		private void invalidate(final String tokenValue) {
+			final var current = token;
+			if (current != null && Objects.equals(current.getTokenValue(), tokenValue)) {
+				token = null;
+			}
+		}
+
+		private OAuth2AccessToken await(final CompletableFuture<OAuth2AccessToken> future) {
+			try {
+				return future.join();
+			} catch (final CompletionException e) {
+				throw Problem.valueOf(BAD_GATEWAY, "Failed to get an access token for %s".formatted(clientRegistration.getRegistrationId()));
+			}
+		}
+	}
+}
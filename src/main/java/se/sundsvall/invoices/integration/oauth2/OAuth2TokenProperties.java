@@ -0,0 +1,14 @@
+package se.sundsvall.invoices.integration.oauth2;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for the OAuth2 access tokens of the upstream clients.
+ *
+ * @param refreshBefore how long before its expiry a token is refreshed in the background. A token that lives shorter
+ *                      than twice this is refreshed halfway through its lifetime.
+ */
+@ConfigurationProperties("integration.oauth2")
+public record OAuth2TokenProperties(Duration refreshBefore) {
+}
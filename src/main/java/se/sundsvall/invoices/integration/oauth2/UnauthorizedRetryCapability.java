@@ -0,0 +1,55 @@
+package se.sundsvall.invoices.integration.oauth2;
+
+import feign.Capability;
+import feign.Client;
+import feign.Request;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeMap;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+
+import static org.springframework.http.HttpHeaders.AUTHORIZATION;
+import static org.springframework.http.HttpStatus.UNAUTHORIZED;
+import static se.sundsvall.invoices.integration.oauth2.OAuth2TokenInterceptor.BEARER_PREFIX;
+
+/**
+ * Retries a call once with a new access token when upstream rejects the token it was sent with, e.g. when upstream has
+ * revoked it before its expiry. The rejected token is dropped from the {@link OAuth2TokenManager}, so that the calls
+ * share a single request for the new token. A call rejected also with the new token fails as any other call.
+ */
+public class UnauthorizedRetryCapability implements Capability {
+
+	private final ClientRegistration clientRegistration;
+	private final OAuth2TokenManager tokenManager;
+
+	public UnauthorizedRetryCapability(final ClientRegistration clientRegistration, final OAuth2TokenManager tokenManager) {
+		this.clientRegistration = clientRegistration;
+		this.tokenManager = tokenManager;
+	}
+
+	@Override
+	public Client enrich(final Client client) {
+		return (request, options) -> {
+			final var response = client.execute(request, options);
+			final var tokenValue = tokenValue(request);
+			if (response.status() != UNAUTHORIZED.value() || tokenValue == null) {
+				return response;
+			}
+
+			response.close();
+			tokenManager.invalidate(clientRegistration.getRegistrationId(), tokenValue);
+			final var headers = new TreeMap<String, Collection<String>>(String.CASE_INSENSITIVE_ORDER);
+			headers.putAll(request.headers());
+			headers.put(AUTHORIZATION, List.of(BEARER_PREFIX + tokenManager.getToken(clientRegistration).getTokenValue()));
+			return client.execute(Request.create(request.httpMethod(), request.url(), headers, request.body(), request.charset(), request.requestTemplate()), options);
+		};
+	}
+
+	private static String tokenValue(final Request request) {
+		return request.headers().getOrDefault(AUTHORIZATION, List.of()).stream()
+			.filter(value -> value.startsWith(BEARER_PREFIX))
+			.map(value -> value.substring(BEARER_PREFIX.length()))
+			.findFirst()
+			.orElse(null);
+	}
+}
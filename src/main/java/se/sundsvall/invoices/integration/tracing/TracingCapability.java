@@ -0,0 +1,100 @@
+package se.sundsvall.invoices.integration.tracing;
+
+import feign.Capability;
+import feign.Client;
+import feign.Request;
+import feign.RequestInterceptor;
+import feign.Response;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import java.io.IOException;
+import java.util.Optional;
+import se.sundsvall.invoices.integration.common.FeignRequests;
+import se.sundsvall.invoices.integration.common.OnCloseBody;
+
+import static se.sundsvall.invoices.integration.common.FeignRequests.endpoint;
+
+/**
+ * Traces the calls to an upstream service as child spans of the current span. A call is traced from the request until
+ * its response body has been closed, so that the span also covers the reading of the body, and is tagged with the
+ * requested page size and the number of bytes read. The request interceptors are traced as spans of their own, so that
+ * the OAuth2 token acquisition done by the interceptor of the client registration shows up next to the call.
+ */
+public class TracingCapability implements Capability {
+
+	static final String CALL_OBSERVATION_NAME = "invoices.upstream.call";
+	static final String INTERCEPTOR_OBSERVATION_NAME = "invoices.upstream.interceptor";
+	static final String CLIENT_KEY = "client";
+	static final String ENDPOINT_KEY = "endpoint";
+	static final String INTERCEPTOR_KEY = "interceptor";
+	static final String STATUS_KEY = "status";
+	static final String PAGE_SIZE_KEY = "page.size";
+	static final String BYTES_KEY = "bytes";
+	static final String UNKNOWN = FeignRequests.UNKNOWN;
+
+	private static final String LIMIT_PARAMETER = "limit";
+
+	private final String clientId;
+	private final ObservationRegistry observationRegistry;
+
+	public TracingCapability(final String clientId, final ObservationRegistry observationRegistry) {
+		this.clientId = clientId;
+		this.observationRegistry = observationRegistry;
+	}
+
+	@Override
+	public RequestInterceptor enrich(final RequestInterceptor requestInterceptor) {
+		final var interceptor = interceptorName(requestInterceptor);
+		return template -> Observation.createNotStarted(INTERCEPTOR_OBSERVATION_NAME, observationRegistry)
+			.contextualName(clientId + " " + interceptor)
+			.lowCardinalityKeyValue(CLIENT_KEY, clientId)
+			.lowCardinalityKeyValue(INTERCEPTOR_KEY, interceptor)
+			.observe(() -> requestInterceptor.apply(template));
+	}
+
+	@Override
+	public Client enrich(final Client client) {
+		return (request, options) -> {
+			final var endpoint = endpoint(request);
+			final var observation = Observation.createNotStarted(CALL_OBSERVATION_NAME, observationRegistry)
+				.contextualName(clientId + " " + endpoint)
+				.lowCardinalityKeyValue(CLIENT_KEY, clientId)
+				.lowCardinalityKeyValue(ENDPOINT_KEY, endpoint)
+				.highCardinalityKeyValue(PAGE_SIZE_KEY, pageSize(request))
+				.start();
+			final Response response;
+			try (final var ignored = observation.openScope()) {
+				response = client.execute(request, options);
+			} catch (final IOException | RuntimeException e) {
+				observation.error(e);
+				observation.stop();
+				throw e;
+			}
+			observation.lowCardinalityKeyValue(STATUS_KEY, String.valueOf(response.status()));
+			if (response.body() == null) {
+				observation.highCardinalityKeyValue(BYTES_KEY, "0");
+				observation.stop();
+				return response;
+			}
+			return response.toBuilder()
+				.body(new OnCloseBody(response.body(), bytesRead -> {
+					observation.highCardinalityKeyValue(BYTES_KEY, String.valueOf(bytesRead));
+					observation.stop();
+				}))
+				.build();
+		};
+	}
+
+	// Anonymous classes have no simple name
+	private static String interceptorName(final RequestInterceptor requestInterceptor) {
+		final var simpleName = requestInterceptor.getClass().getSimpleName();
+		return simpleName.isEmpty() ? requestInterceptor.getClass().getName() : simpleName;
+	}
+
+	private static String pageSize(final Request request) {
+		return Optional.ofNullable(request.requestTemplate())
+			.map(template -> template.queries().get(LIMIT_PARAMETER))
+			.flatMap(values -> values.stream().findFirst())
+			.orElse(UNKNOWN);
+	}
+}
@@ -0,0 +1,25 @@
+package se.sundsvall.invoices.service;
+
+/**
+ * Internal carrier for a response that the caller may already have, identified by its entity tag.
+ *
+ * @param body           the response body, or null when the caller's copy is still current
+ * @param serializedBody the response body serialized as JSON, which is what is written to the caller (null when the
+ *                       caller's copy is still current)
+ * @param eTag           the (quoted) entity tag of the response
+ * @param <T>            the response body type
+ */
+public record ConditionalResponse<T>(T body, byte[] serializedBody, String eTag) {
+
+	public static <T> ConditionalResponse<T> of(final T body, final byte[] serializedBody, final String eTag) {
+		return new ConditionalResponse<>(body, serializedBody, eTag);
+	}
+
+	public static <T> ConditionalResponse<T> notModified(final String eTag) {
+		return new ConditionalResponse<>(null, null, eTag);
+	}
+
+	public boolean isNotModified() {
+		return body == null;
+	}
+}
@@ -6,4 +6,10 @@ public class Constants {
 
 	public static final String ERROR_NO_ENGAGEMENT_FOUND = "No engagements found for partyIds: '%s'";
 	public static final String ERROR_CUSTOMER_NUMBERS_OR_PARTY_IDS_REQUIRED = "either customerNumbers or partyIds must be provided";
+	public static final String ERROR_INVALID_INVOICE_NUMBER = "Invalid invoice number: '%s'";
+	public static final String ERROR_INVALID_CURSOR = "Invalid cursor: '%s'";
+	public static final String ERROR_CURSOR_PARAMETERS_MISMATCH = "cursor was issued for other search parameters";
+	public static final String ERROR_FETCHING_INVOICE_DETAILS = "Failed to fetch invoice details";
+	public static final String ERROR_ALL_ORIGINS_PAGE_TOO_DEEP = "page * limit must not exceed %s when searching all invoice origins";
+	public static final String ERROR_ALL_ORIGINS_TOO_MANY_INVOICES = "more than %s public administration invoices match the search, narrow the search or search one invoice origin";
 }
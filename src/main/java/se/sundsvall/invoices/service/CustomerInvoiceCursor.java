@@ -0,0 +1,149 @@
+package se.sundsvall.invoices.service;
+
+import generated.se.sundsvall.datawarehousereader.CustomerInvoice;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+import se.sundsvall.dept44.problem.Problem;
+import se.sundsvall.invoices.api.model.CustomerInvoicesParameters;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.json.JsonMapper;
+
+import static java.lang.String.format;
+import static java.util.Optional.ofNullable;
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static se.sundsvall.invoices.service.Constants.ERROR_CURSOR_PARAMETERS_MISMATCH;
+import static se.sundsvall.invoices.service.Constants.ERROR_INVALID_CURSOR;
+
+/**
+ * Position in a customer invoice listing, handed out to the caller as an opaque (base64url encoded) string. Next to the
+ * upstream page to continue from, the cursor holds the sort key values of the last returned invoice (the anchor) and
+ * the ids of the returned invoices sharing those values. Rows of the upstream page that are not after the anchor have
+ * already been returned and are skipped, so invoices inserted in front of the position do not shift the next page.
+ * <p>
+ * When the sort order can not be reproduced locally, no anchor is kept and the cursor is a plain page position.
+ *
+ * @param page             the upstream page to continue from.
+ * @param fingerprint      fingerprint of the search parameters the cursor was issued for.
+ * @param anchor           sort key values of the last returned invoice, or null.
+ * @param anchorInvoiceIds ids of the returned invoices having the sort key values of the anchor.
+ */
+record CustomerInvoiceCursor(int page, int fingerprint, Anchor anchor, List<Long> anchorInvoiceIds) {
+
+	private static final JsonMapper JSON_MAPPER = JsonMapper.builder().build();
+	private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+	private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+	/**
+	 * Returns the cursor of the position after the sent in invoices, which were read up to the end of the previous
+	 * position.
+	 *
+	 * @param  page        the upstream page to continue from.
+	 * @param  fingerprint fingerprint of the search parameters.
+	 * @param  invoices    the returned invoices, in upstream order.
+	 * @param  comparator  comparator reproducing the upstream sort order, or null when it can not be reproduced locally.
+	 * @param  previous    the cursor the invoices were read from, or null.
+	 * @return             the cursor
+	 */
+	static CustomerInvoiceCursor next(final int page, final int fingerprint, final List<CustomerInvoice> invoices, final Comparator<CustomerInvoice> comparator,
+		final CustomerInvoiceCursor previous) {
+
+		if (comparator == null || invoices.isEmpty()) {
+			return new CustomerInvoiceCursor(page, fingerprint, null, List.of());
+		}
+
+		final var last = invoices.getLast();
+		final var returnedIds = invoices.stream()
+			.filter(invoice -> comparator.compare(invoice, last) == 0)
+			.map(CustomerInvoice::getInvoiceId);
+		// Rows with the same sort key values may span several pages
+		final var previousIds = ofNullable(previous)
+			.filter(cursor -> cursor.anchor() != null && comparator.compare(cursor.anchor().toCustomerInvoice(), last) == 0)
+			.map(CustomerInvoiceCursor::anchorInvoiceIds)
+			.orElse(List.of());
+
+		return new CustomerInvoiceCursor(page, fingerprint, Anchor.of(last), Stream.concat(previousIds.stream(), returnedIds).distinct().toList());
+	}
+
+	/**
+	 * Returns a fingerprint of the search parameters, not including the position (page and cursor).
+	 */
+	static int fingerprint(final CustomerInvoicesParameters parameters) {
+		// Enum hash codes differ between runs, so the sort direction is included by name
+		return Objects.hash(parameters.getCustomerNumbers(), parameters.getPartyIds(), parameters.getOrganizationNumbers(), parameters.getFacilityIds(), parameters.getStatus(),
+			parameters.getPeriodFrom(), parameters.getPeriodTo(), parameters.getSortBy(), ofNullable(parameters.getSortDirection()).map(Enum::name).orElse(null), parameters.getLimit());
+	}
+
+	/**
+	 * Decodes the cursor sent in with the search parameters.
+	 *
+	 * @param  parameters                                 the search parameters.
+	 * @return                                            the cursor
+	 * @throws se.sundsvall.dept44.problem.ThrowableProblem with status BAD_REQUEST when the cursor is invalid or was
+	 *                                                    issued for other search parameters
+	 */
+	static CustomerInvoiceCursor decode(final CustomerInvoicesParameters parameters) {
+		final CustomerInvoiceCursor cursor;
+		try {
+			cursor = JSON_MAPPER.readValue(DECODER.decode(parameters.getCursor()), CustomerInvoiceCursor.class);
+		} catch (final IllegalArgumentException | JacksonException e) {
+			throw Problem.valueOf(BAD_REQUEST, format(ERROR_INVALID_CURSOR, parameters.getCursor()));
+		}
+
+		if (cursor == null || cursor.page() < 1) {
+			throw Problem.valueOf(BAD_REQUEST, format(ERROR_INVALID_CURSOR, parameters.getCursor()));
+		}
+		if (cursor.fingerprint() != fingerprint(parameters)) {
+			throw Problem.valueOf(BAD_REQUEST, ERROR_CURSOR_PARAMETERS_MISMATCH);
+		}
+		return cursor;
+	}
+
+	String encode() {
+		return ENCODER.encodeToString(JSON_MAPPER.writeValueAsString(this).getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Returns true if the invoice comes after the position of the cursor, i.e. has not been returned yet.
+	 *
+	 * @param  invoice    the invoice.
+	 * @param  comparator comparator reproducing the upstream sort order, or null when it can not be reproduced locally.
+	 * @return            true if the invoice has not been returned yet
+	 */
+	boolean isAfter(final CustomerInvoice invoice, final Comparator<CustomerInvoice> comparator) {
+		if (anchor == null || comparator == null) {
+			return true;
+		}
+		final var comparison = comparator.compare(invoice, anchor.toCustomerInvoice());
+		return comparison > 0 || (comparison == 0 && !ofNullable(anchorInvoiceIds).orElse(List.of()).contains(invoice.getInvoiceId()));
+	}
+
+	/**
+	 * The values of an invoice that the customer invoice listing can be sorted by.
+	 */
+	record Anchor(String customerNumber, Long invoiceNumber, Long invoiceId, LocalDate invoiceDate, LocalDate dueDate, LocalDate periodFrom, LocalDate periodTo,
+		BigDecimal totalAmount) {
+
+		static Anchor of(final CustomerInvoice invoice) {
+			return new Anchor(invoice.getCustomerNumber(), invoice.getInvoiceNumber(), invoice.getInvoiceId(), invoice.getInvoiceDate(), invoice.getDueDate(), invoice.getPeriodFrom(),
+				invoice.getPeriodTo(), invoice.getTotalAmount());
+		}
+
+		CustomerInvoice toCustomerInvoice() {
+			return new CustomerInvoice()
+				.customerNumber(customerNumber)
+				.invoiceNumber(invoiceNumber)
+				.invoiceId(invoiceId)
+				.invoiceDate(invoiceDate)
+				.dueDate(dueDate)
+				.periodFrom(periodFrom)
+				.periodTo(periodTo)
+				.totalAmount(totalAmount);
+		}
+	}
+}
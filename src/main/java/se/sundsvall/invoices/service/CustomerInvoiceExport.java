@@ -0,0 +1,124 @@
+package se.sundsvall.invoices.service;
+
+import generated.se.sundsvall.datawarehousereader.CustomerInvoice;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import se.sundsvall.invoices.service.concurrent.ParallelExecutor;
+import se.sundsvall.invoices.service.mapper.CustomerInvoiceJsonTransformer;
+import se.sundsvall.invoices.service.mapper.Projection;
+
+import static se.sundsvall.invoices.service.concurrent.ParallelExecutor.await;
+
+/**
+ * Export of all invoices of one or more customers, read from upstream page by page while it is written. Each upstream
+ * page is transformed straight from the upstream response body to the output, one invoice per line. The next upstream
+ * page is opened in parallel with the writing of the current one, as soon as it is known to exist, and no further page
+ * is opened until the current one has been written. A slow reader therefore slows down the reading from upstream.
+ * <p>
+ * The first page is opened when the export is created, so that failures such as unknown customers are reported before
+ * anything has been written. An export that is never written must therefore be closed, which closes the unread first
+ * page.
+ */
+public final class CustomerInvoiceExport implements Closeable {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(CustomerInvoiceExport.class);
+
+	private final AtomicReference<InputStream> firstPage;
+	private final IntFunction<InputStream> pageOpener;
+	private final Projection<CustomerInvoice, se.sundsvall.invoices.api.model.CustomerInvoice> projection;
+	private final ParallelExecutor parallelExecutor;
+
+	CustomerInvoiceExport(final IntFunction<InputStream> pageOpener, final Projection<CustomerInvoice, se.sundsvall.invoices.api.model.CustomerInvoice> projection,
+		final ParallelExecutor parallelExecutor) {
+
+		this.firstPage = new AtomicReference<>(pageOpener.apply(1));
+		this.pageOpener = pageOpener;
+		this.projection = projection;
+		this.parallelExecutor = parallelExecutor;
+	}
+
+	/**
+	 * Writes all invoices of the export as newline delimited JSON, flushing the output after each upstream page.
+	 *
+	 * @param  output      the output to write to, which is not closed.
+	 * @throws IOException if writing to the output fails
+	 */
+	public void writeTo(final OutputStream output) throws IOException {
+		var totalPages = 0;
+		var body = firstPage.getAndSet(null);
+		if (body == null) {
+			throw new IllegalStateException("The export has already been written or closed");
+		}
+		for (var number = 1; body != null; number++) {
+			final var page = new Page(number);
+			try {
+				// The total read from an earlier page lets the next page be opened before this one is read
+				page.accept(totalPages);
+				CustomerInvoiceJsonTransformer.transform(body, output, projection, page);
+				output.flush();
+			} catch (final IOException | RuntimeException e) {
+				close(body);
+				page.closeNext();
+				throw e;
+			}
+			totalPages = Math.max(totalPages, page.totalPages);
+			body = page.next != null ? await(page.next) : null;
+		}
+	}
+
+	/**
+	 * A page being written, which opens the next page once the total number of pages shows that there is one.
+	 */
+	private final class Page implements IntConsumer {
+
+		private final int number;
+		private int totalPages;
+		private CompletableFuture<InputStream> next;
+
+		private Page(final int number) {
+			this.number = number;
+		}
+
+		@Override
+		public void accept(final int totalPages) {
+			this.totalPages = totalPages;
+			if (next == null && number < totalPages) {
+				next = parallelExecutor.supplyAsync(() -> pageOpener.apply(number + 1));
+			}
+		}
+
+		// Cancelling would not stop the page from being opened, so it is closed unread once opened instead
+		private void closeNext() {
+			if (next != null) {
+				next.thenAccept(CustomerInvoiceExport::close);
+			}
+		}
+	}
+
+	/**
+	 * Closes the first page, unless it has been written.
+	 */
+	@Override
+	public void close() {
+		final var body = firstPage.getAndSet(null);
+		if (body != null) {
+			close(body);
+		}
+	}
+
+	private static void close(final InputStream body) {
+		try {
+			body.close();
+		} catch (final IOException e) {
+			LOGGER.warn("Failed to close unread customer invoice page", e);
+		}
+	}
+}
@@ -0,0 +1,97 @@
+package se.sundsvall.invoices.service;
+
+import generated.se.sundsvall.datawarehousereader.CustomerInvoice;
+import generated.se.sundsvall.datawarehousereader.CustomerInvoiceResponse;
+import generated.se.sundsvall.datawarehousereader.Direction;
+import generated.se.sundsvall.datawarehousereader.PagingAndSortingMetaData;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static java.util.Comparator.comparing;
+import static java.util.Comparator.naturalOrder;
+import static java.util.Comparator.nullsFirst;
+import static java.util.Optional.ofNullable;
+
+/**
+ * Merges customer invoice pages fetched separately for disjoint sets of customer numbers into the page that one single
+ * upstream query for all customer numbers would have returned. Each source page must start at the first row of its
+ * result and contain at least {@code page * limit} rows (or all rows when there are fewer).
+ */
+final class CustomerInvoicePageMerger {
+
+	// Keys are the (lower case) sortBy columns that can be compared locally. Nulls are ordered first in ascending order,
+	// mirroring the ordering of the warehouse.
+	private static final Map<String, Comparator<CustomerInvoice>> SORT_KEYS = Map.of(
+		"periodfrom", by(CustomerInvoice::getPeriodFrom),
+		"periodto", by(CustomerInvoice::getPeriodTo),
+		"invoicedate", by(CustomerInvoice::getInvoiceDate),
+		"duedate", by(CustomerInvoice::getDueDate),
+		"invoicenumber", by(CustomerInvoice::getInvoiceNumber),
+		"invoiceid", by(CustomerInvoice::getInvoiceId),
+		"totalamount", by(CustomerInvoice::getTotalAmount),
+		"customernumber", by(CustomerInvoice::getCustomerNumber));
+
+	private CustomerInvoicePageMerger() {}
+
+	/**
+	 * Returns a comparator reproducing the upstream sort order, or an empty optional if the order can not be reproduced
+	 * locally (no sortBy columns or an unknown column).
+	 */
+	static Optional<Comparator<CustomerInvoice>> toComparator(final List<String> sortBy, final Direction direction) {
+		if (sortBy == null || sortBy.isEmpty()) {
+			return Optional.empty();
+		}
+
+		Comparator<CustomerInvoice> comparator = null;
+		for (final var column : sortBy) {
+			final var key = SORT_KEYS.get(ofNullable(column).map(c -> c.toLowerCase(Locale.ROOT)).orElse(""));
+			if (key == null) {
+				return Optional.empty();
+			}
+			comparator = comparator == null ? key : comparator.thenComparing(key);
+		}
+		return Optional.of(direction == Direction.DESC ? comparator.reversed() : comparator);
+	}
+
+	static CustomerInvoiceResponse merge(final List<CustomerInvoiceResponse> responses, final Comparator<CustomerInvoice> comparator, final int page, final int limit) {
+		// Stable sort, rows with equal sort keys keep the order of the sources
+		final var invoices = responses.stream()
+			.flatMap(response -> ofNullable(response.getInvoices()).stream().flatMap(List::stream))
+			.sorted(comparator)
+			.skip((long) (page - 1) * limit)
+			.limit(limit)
+			.toList();
+
+		final var totalRecords = responses.stream()
+			.map(CustomerInvoiceResponse::getMeta)
+			.flatMap(meta -> ofNullable(meta).map(PagingAndSortingMetaData::getTotalRecords).stream())
+			.mapToLong(Long::longValue)
+			.sum();
+
+		final var template = responses.stream()
+			.map(CustomerInvoiceResponse::getMeta)
+			.flatMap(Stream::ofNullable)
+			.findFirst()
+			.orElseGet(PagingAndSortingMetaData::new);
+
+		return new CustomerInvoiceResponse()
+			.invoices(invoices)
+			.meta(new PagingAndSortingMetaData()
+				.page(page)
+				.limit(limit)
+				.count(invoices.size())
+				.totalRecords(totalRecords)
+				.totalPages((int) ((totalRecords + limit - 1) / limit))
+				.sortBy(template.getSortBy())
+				.sortDirection(template.getSortDirection()));
+	}
+
+	private static <U extends Comparable<? super U>> Comparator<CustomerInvoice> by(final Function<CustomerInvoice, U> keyExtractor) {
+		return comparing(keyExtractor, nullsFirst(naturalOrder()));
+	}
+}
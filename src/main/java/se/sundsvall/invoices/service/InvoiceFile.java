@@ -1,13 +1,43 @@
 package se.sundsvall.invoices.service;
 
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Instant;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
 import org.springframework.http.MediaType;
 
 /**
  * Internal carrier for a downloaded invoice file - a single PDF, or a ZIP archive when several PDFs exist.
  *
- * @param content     the raw file bytes
- * @param contentType the file media type (application/pdf or application/zip)
- * @param fileName    the file name to expose to the caller
+ * @param content       the raw file bytes, streamed from upstream or opened from the local cache (readable once), or a
+ *                      plain resource
+ * @param contentLength the file size in bytes, or -1 when not known
+ * @param contentType   the file media type (application/pdf or application/zip)
+ * @param fileName      the file name to expose to the caller
+ * @param eTag          the entity tag of the file content, or null when not known
+ * @param lastModified  when the file was last modified, or null when not known
  */
-public record InvoiceFile(byte[] content, MediaType contentType, String fileName) {
+public record InvoiceFile(Resource content, long contentLength, MediaType contentType, String fileName, String eTag, Instant lastModified) implements Closeable {
+
+	public static final long UNKNOWN_CONTENT_LENGTH = -1;
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(InvoiceFile.class);
+
+	/**
+	 * Closes content that is already opened, for when it is not going to be written. This releases the upstream
+	 * connection or the file it is read from.
+	 */
+	@Override
+	public void close() {
+		if (!content.isOpen()) {
+			return;
+		}
+		try {
+			content.getInputStream().close();
+		} catch (final IOException | IllegalStateException e) {
+			LOGGER.warn("Failed to close unwritten invoice file {}", fileName, e);
+		}
+	}
 }
@@ -0,0 +1,81 @@
+package se.sundsvall.invoices.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import se.sundsvall.invoices.api.model.Invoice;
+import se.sundsvall.invoices.api.model.InvoicesResponse;
+import se.sundsvall.invoices.api.model.MetaData;
+
+import static java.util.Comparator.comparing;
+import static java.util.Comparator.nullsLast;
+import static java.util.Comparator.reverseOrder;
+import static java.util.Optional.ofNullable;
+
+/**
+ * Merges invoice pages from different origins into one page ordered by invoice date, newest first. Each source page
+ * must start at the first row of its result and contain at least {@code page * limit} rows (or all rows when there are
+ * fewer). The total number of pages only counts the pages within the first {@code maxRows} rows, which are the pages
+ * that can be merged.
+ */
+final class InvoicePageMerger {
+
+	// Invoices without an invoice date are placed last
+	static final Comparator<Invoice> BY_INVOICE_DATE_DESC = comparing(Invoice::getInvoiceDate, nullsLast(reverseOrder()));
+
+	private InvoicePageMerger() {}
+
+	static InvoicesResponse merge(final List<InvoicesResponse> responses, final int page, final int limit, final int maxRows) {
+		// Sources are sorted (a no-op for already ordered sources) and then k-way merged, rows with equal dates are taken
+		// from the sources in the order they were sent in
+		final var sources = responses.stream()
+			.map(response -> ofNullable(response.getInvoices()).orElse(List.of()).stream()
+				.sorted(BY_INVOICE_DATE_DESC)
+				.iterator())
+			.toList();
+
+		final var invoices = mergeSorted(sources, (long) (page - 1) * limit, limit);
+
+		final var totalRecords = responses.stream()
+			.map(InvoicesResponse::getMetaData)
+			.mapToLong(metaData -> ofNullable(metaData).map(MetaData::getTotalRecords).orElse(0L))
+			.sum();
+
+		return InvoicesResponse.create()
+			.withInvoices(invoices)
+			.withMetaData(MetaData.create()
+				.withPage(page)
+				.withLimit(limit)
+				.withCount(invoices.size())
+				.withTotalRecords(totalRecords)
+				.withTotalPages((int) Math.min((totalRecords + limit - 1) / limit, maxRows / limit)));
+	}
+
+	private static List<Invoice> mergeSorted(final List<Iterator<Invoice>> sources, final long skip, final int limit) {
+		final var heads = new PriorityQueue<Head>(comparing(Head::invoice, BY_INVOICE_DATE_DESC).thenComparingInt(Head::source));
+		for (var source = 0; source < sources.size(); source++) {
+			if (sources.get(source).hasNext()) {
+				heads.add(new Head(sources.get(source).next(), source));
+			}
+		}
+
+		final var invoices = new ArrayList<Invoice>();
+		var position = 0L;
+		while (!heads.isEmpty() && invoices.size() < limit) {
+			final var head = heads.poll();
+			if (position++ >= skip) {
+				invoices.add(head.invoice());
+			}
+			final var source = sources.get(head.source());
+			if (source.hasNext()) {
+				heads.add(new Head(source.next(), head.source()));
+			}
+		}
+		return invoices;
+	}
+
+	private record Head(Invoice invoice, int source) {
+	}
+}
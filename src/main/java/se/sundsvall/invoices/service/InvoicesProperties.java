@@ -0,0 +1,13 @@
+package se.sundsvall.invoices.service;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Service level feature settings.
+ *
+ * @param parallelCustomerResolution when true, invoices for explicitly provided customer numbers are fetched at the
+ *                                   same time as partyIds are resolved to customer numbers
+ */
+@ConfigurationProperties("invoices")
+public record InvoicesProperties(boolean parallelCustomerResolution) {
+}
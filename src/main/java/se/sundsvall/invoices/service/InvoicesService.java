@@ -1,36 +1,74 @@
 package se.sundsvall.invoices.service;
 
 import generated.se.sundsvall.datawarehousereader.CustomerEngagement;
+import generated.se.sundsvall.datawarehousereader.CustomerInvoice;
+import generated.se.sundsvall.datawarehousereader.CustomerInvoiceResponse;
 import generated.se.sundsvall.datawarehousereader.Direction;
+import generated.se.sundsvall.datawarehousereader.Invoice;
 import generated.se.sundsvall.datawarehousereader.InvoiceResponse;
+import generated.se.sundsvall.datawarehousereader.PagingAndSortingMetaData;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Stream;
 import org.apache.commons.lang3.ObjectUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import se.sundsvall.dept44.problem.Problem;
+import se.sundsvall.dept44.problem.ThrowableProblem;
 import se.sundsvall.invoices.api.model.CustomerInvoicesParameters;
 import se.sundsvall.invoices.api.model.CustomerInvoicesResponse;
 import se.sundsvall.invoices.api.model.InvoiceDetail;
+import se.sundsvall.invoices.api.model.InvoiceDetailsBatchEntry;
 import se.sundsvall.invoices.api.model.InvoiceOrigin;
+import se.sundsvall.invoices.api.model.InvoiceReference;
 import se.sundsvall.invoices.api.model.InvoicesParameters;
 import se.sundsvall.invoices.api.model.InvoicesResponse;
 import se.sundsvall.invoices.api.model.PdfInvoice;
 import se.sundsvall.invoices.integration.datawarehousereader.DataWarehouseReaderClient;
 import se.sundsvall.invoices.integration.datawarehousereader.InvoicesQueryParameters;
 import se.sundsvall.invoices.integration.invoicecache.InvoiceCacheClient;
+import se.sundsvall.invoices.service.cache.CustomerNumberCache;
+import se.sundsvall.invoices.service.cache.InvoiceDetailsCache;
+import se.sundsvall.invoices.service.cache.InvoicePdfCache;
+import se.sundsvall.invoices.service.cache.ResponseETagCache;
+import se.sundsvall.invoices.service.concurrent.ParallelExecutor;
+import se.sundsvall.invoices.service.concurrent.SingleFlight;
 import se.sundsvall.invoices.service.mapper.InvoiceMapper;
+import se.sundsvall.invoices.service.mapper.Projection;
+import se.sundsvall.invoices.service.metrics.StageMetrics;
+import se.sundsvall.invoices.service.tracing.ServiceObservations;
 
 import static java.lang.Long.parseLong;
 import static java.lang.String.format;
 import static java.util.Optional.ofNullable;
-import static java.util.stream.Collectors.collectingAndThen;
-import static java.util.stream.Collectors.toList;
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static org.springframework.http.HttpStatus.OK;
+import static se.sundsvall.invoices.api.model.InvoiceOrigin.COMMERCIAL;
+import static se.sundsvall.invoices.api.model.InvoiceOrigin.PUBLIC_ADMINISTRATION;
+import static se.sundsvall.invoices.service.Constants.ERROR_ALL_ORIGINS_PAGE_TOO_DEEP;
+import static se.sundsvall.invoices.service.Constants.ERROR_ALL_ORIGINS_TOO_MANY_INVOICES;
+import static se.sundsvall.invoices.service.Constants.ERROR_FETCHING_INVOICE_DETAILS;
+import static se.sundsvall.invoices.service.Constants.ERROR_INVALID_INVOICE_NUMBER;
 import static se.sundsvall.invoices.service.Constants.ERROR_NO_ENGAGEMENT_FOUND;
+import static se.sundsvall.invoices.service.CustomerInvoiceCursor.decode;
+import static se.sundsvall.invoices.service.CustomerInvoiceCursor.fingerprint;
+import static se.sundsvall.invoices.service.CustomerInvoicePageMerger.merge;
+import static se.sundsvall.invoices.service.CustomerInvoicePageMerger.toComparator;
+import static se.sundsvall.invoices.service.concurrent.ParallelExecutor.await;
+import static se.sundsvall.invoices.service.mapper.InvoiceMapper.toCommercialInvoiceProjection;
 import static se.sundsvall.invoices.service.mapper.InvoiceMapper.toCustomerInvoicesResponse;
 import static se.sundsvall.invoices.service.mapper.InvoiceMapper.toDataWarehouseReaderDirection;
 import static se.sundsvall.invoices.service.mapper.InvoiceMapper.toDataWarehouseReaderInvoiceStatus;
@@ -39,28 +77,150 @@ import static se.sundsvall.invoices.service.mapper.InvoiceMapper.toInvoiceCacheI
 import static se.sundsvall.invoices.service.mapper.InvoiceMapper.toInvoiceFile;
 import static se.sundsvall.invoices.service.mapper.InvoiceMapper.toInvoicesResponse;
 import static se.sundsvall.invoices.service.mapper.InvoiceMapper.toPdfInvoice;
+import static se.sundsvall.invoices.service.mapper.InvoiceMapper.toPublicAdministrationInvoiceProjection;
+import static se.sundsvall.invoices.service.metrics.StageMetrics.Stage.ENGAGEMENT_RESOLVE;
+import static se.sundsvall.invoices.service.metrics.StageMetrics.Stage.MAPPING;
 
 @Service
 public class InvoicesService {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(InvoicesService.class);
+	private static final int MAX_UPSTREAM_LIMIT = 1000;
+	private static final int MAX_ALL_ORIGINS_PUBLIC_ADMINISTRATION_PAGES = 10;
+	private static final String PUBLIC_ADMINISTRATION_INVOICES_OPERATION = "getPublicAdministrationInvoices";
+	private static final String CUSTOMER_INVOICES_OPERATION = "getInvoicesForCustomer";
+	private static final String INVOICES_OPERATION = "getInvoices";
+	private static final String INVOICE_DATE_FIELD = "invoiceDate";
 
 	private final DataWarehouseReaderClient dataWarehouseReaderClient;
 	private final InvoiceCacheClient invoiceCacheClient;
+	private final CustomerNumberCache customerNumberCache;
+	private final InvoiceDetailsCache invoiceDetailsCache;
+	private final InvoicePdfCache invoicePdfCache;
+	private final ResponseETagCache responseETagCache;
+	private final ParallelExecutor parallelExecutor;
+	private final SingleFlight singleFlight;
+	private final StageMetrics stageMetrics;
+	private final ServiceObservations serviceObservations;
+	private final InvoicesProperties properties;
 
-	public InvoicesService(final DataWarehouseReaderClient dataWarehouseReaderClient, final InvoiceCacheClient invoiceCacheClient) {
+	public InvoicesService(final DataWarehouseReaderClient dataWarehouseReaderClient, final InvoiceCacheClient invoiceCacheClient, final CustomerNumberCache customerNumberCache,
+		final InvoiceDetailsCache invoiceDetailsCache, final InvoicePdfCache invoicePdfCache, final ResponseETagCache responseETagCache, final ParallelExecutor parallelExecutor,
+		final SingleFlight singleFlight, final StageMetrics stageMetrics, final ServiceObservations serviceObservations, final InvoicesProperties properties) {
 		this.dataWarehouseReaderClient = dataWarehouseReaderClient;
 		this.invoiceCacheClient = invoiceCacheClient;
+		this.customerNumberCache = customerNumberCache;
+		this.invoiceDetailsCache = invoiceDetailsCache;
+		this.invoicePdfCache = invoicePdfCache;
+		this.responseETagCache = responseETagCache;
+		this.parallelExecutor = parallelExecutor;
+		this.singleFlight = singleFlight;
+		this.stageMetrics = stageMetrics;
+		this.serviceObservations = serviceObservations;
+		this.properties = properties;
 	}
 
 	public InvoicesResponse getInvoices(final String municipalityId, final String invoiceOrigin, final InvoicesParameters invoiceParameters) {
-		return switch (InvoiceOrigin.valueOf(invoiceOrigin.toUpperCase(Locale.ROOT))) {
-			case COMMERCIAL -> toInvoicesResponse(getCommercialInvoices(municipalityId, invoiceParameters));
-			case PUBLIC_ADMINISTRATION -> toInvoicesResponse(invoiceCacheClient.getInvoices(municipalityId, InvoiceMapper.toInvoiceCacheParameters(invoiceParameters)));
-		};
+		return serviceObservations.observe("getInvoices", municipalityId, () -> switch (InvoiceOrigin.valueOf(invoiceOrigin.toUpperCase(Locale.ROOT))) {
+			case COMMERCIAL -> {
+				final var projection = toCommercialInvoiceProjection(invoiceParameters.getFields());
+				final var response = getCommercialInvoices(municipalityId, invoiceParameters, invoiceParameters.getPage(), invoiceParameters.getLimit());
+				yield map(municipalityId, COMMERCIAL, () -> toInvoicesResponse(response, projection));
+			}
+			case PUBLIC_ADMINISTRATION -> {
+				final var projection = toPublicAdministrationInvoiceProjection(invoiceParameters.getFields());
+				final var response = invoiceCacheClient.getInvoices(municipalityId, InvoiceMapper.toInvoiceCacheParameters(invoiceParameters));
+				yield map(municipalityId, PUBLIC_ADMINISTRATION, () -> toInvoicesResponse(response, projection));
+			}
+			case ALL -> getAllInvoices(municipalityId, invoiceParameters);
+		}, InvoicesResponse::getInvoices);
 	}
 
-	private InvoiceResponse getCommercialInvoices(final String municipalityId, final InvoicesParameters invoiceParameters) {
+	/**
+	 * Returns the public administration invoices, or only their entity tag when it matches the sent in If-None-Match header
+	 * value.
+	 */
+	public ConditionalResponse<InvoicesResponse> getPublicAdministrationInvoices(final String municipalityId, final InvoicesParameters invoiceParameters, final String ifNoneMatch) {
+		final var projection = toPublicAdministrationInvoiceProjection(invoiceParameters.getFields());
+		return serviceObservations.observe("getPublicAdministrationInvoices", municipalityId,
+			() -> responseETagCache.get(PUBLIC_ADMINISTRATION_INVOICES_OPERATION, PUBLIC_ADMINISTRATION, municipalityId, invoiceParameters,
+				invoiceCacheClient.getInvoices(municipalityId, InvoiceMapper.toInvoiceCacheParameters(invoiceParameters)),
+				response -> map(municipalityId, PUBLIC_ADMINISTRATION, () -> toInvoicesResponse(response, projection)), ifNoneMatch),
+			response -> response.isNotModified() ? null : response.body().getInvoices());
+	}
+
+	/**
+	 * Queries both origins in parallel and merges the results by invoice date. Both sources are read from their first row,
+	 * with enough rows to cover the requested page of the merged result. As InvoiceCache has no sort order, all matching
+	 * rows are read from it and sorted locally.
+	 */
+	private InvoicesResponse getAllInvoices(final String municipalityId, final InvoicesParameters invoiceParameters) {
+		final var page = invoiceParameters.getPage();
+		final var limit = invoiceParameters.getLimit();
+		if ((long) page * limit > MAX_UPSTREAM_LIMIT) {
+			throw Problem.valueOf(BAD_REQUEST, format(ERROR_ALL_ORIGINS_PAGE_TOO_DEEP, MAX_UPSTREAM_LIMIT));
+		}
+
+		// The origins are merged by invoice date, so it is mapped also when not asked for and then dropped after the merge
+		final var fields = invoiceParameters.getFields();
+		final var dropInvoiceDate = ObjectUtils.isNotEmpty(fields) && !fields.contains(INVOICE_DATE_FIELD);
+		final var mappedFields = dropInvoiceDate ? Stream.concat(fields.stream(), Stream.of(INVOICE_DATE_FIELD)).toList() : fields;
+		final var commercialProjection = toCommercialInvoiceProjection(mappedFields);
+		final var publicAdministrationProjection = toPublicAdministrationInvoiceProjection(mappedFields);
+
+		final var commercialInvoices = parallelExecutor.supplyAsync(() -> getCommercialInvoicesOrEmpty(municipalityId, invoiceParameters, page * limit, commercialProjection));
+		final var publicAdministrationInvoices = parallelExecutor.supplyAsync(() -> {
+			final var response = getAllPublicAdministrationInvoices(municipalityId, invoiceParameters);
+			return map(municipalityId, PUBLIC_ADMINISTRATION, () -> toInvoicesResponse(response, publicAdministrationProjection));
+		});
+
+		final var response = InvoicePageMerger.merge(List.of(await(commercialInvoices), await(publicAdministrationInvoices)), page, limit, MAX_UPSTREAM_LIMIT);
+		if (dropInvoiceDate) {
+			response.getInvoices().forEach(invoice -> invoice.setInvoiceDate(null));
+		}
+		return response;
+	}
+
+	/**
+	 * Reads all matching invoices from InvoiceCache, page by page, as any of them may be the newest. Searches matching more
+	 * than {@link #MAX_ALL_ORIGINS_PUBLIC_ADMINISTRATION_PAGES} upstream pages are rejected rather than merged from a
+	 * truncated result.
+	 */
+	private generated.se.sundsvall.invoicecache.InvoicesResponse getAllPublicAdministrationInvoices(final String municipalityId, final InvoicesParameters invoiceParameters) {
+		final var response = invoiceCacheClient.getInvoices(municipalityId, InvoiceMapper.toInvoiceCacheParameters(invoiceParameters).page(1).limit(MAX_UPSTREAM_LIMIT));
+		final long totalRecords = ofNullable(response.getMeta()).map(generated.se.sundsvall.invoicecache.MetaData::getTotalRecords).orElse(0L);
+		final var totalPages = (totalRecords + MAX_UPSTREAM_LIMIT - 1) / MAX_UPSTREAM_LIMIT;
+		if (totalPages > MAX_ALL_ORIGINS_PUBLIC_ADMINISTRATION_PAGES) {
+			throw Problem.valueOf(BAD_REQUEST, format(ERROR_ALL_ORIGINS_TOO_MANY_INVOICES, (long) MAX_ALL_ORIGINS_PUBLIC_ADMINISTRATION_PAGES * MAX_UPSTREAM_LIMIT));
+		}
+
+		final var invoices = new ArrayList<>(ofNullable(response.getInvoices()).orElse(List.of()));
+		for (var page = 2; page <= totalPages; page++) {
+			final var next = invoiceCacheClient.getInvoices(municipalityId, InvoiceMapper.toInvoiceCacheParameters(invoiceParameters).page(page).limit(MAX_UPSTREAM_LIMIT));
+			if (ObjectUtils.isEmpty(next.getInvoices())) {
+				break;
+			}
+			invoices.addAll(next.getInvoices());
+		}
+		return response.invoices(invoices);
+	}
+
+	private InvoicesResponse getCommercialInvoicesOrEmpty(final String municipalityId, final InvoicesParameters invoiceParameters, final int limit,
+		final Projection<Invoice, se.sundsvall.invoices.api.model.Invoice> projection) {
+
+		try {
+			final var response = getCommercialInvoices(municipalityId, invoiceParameters, 1, limit);
+			return map(municipalityId, COMMERCIAL, () -> toInvoicesResponse(response, projection));
+		} catch (final ThrowableProblem e) {
+			// No commercial engagement is not an error when searching all origins
+			if (e.getStatus().value() == NOT_FOUND.value()) {
+				return InvoicesResponse.create().withInvoices(List.of());
+			}
+			throw e;
+		}
+	}
+
+	private InvoiceResponse getCommercialInvoices(final String municipalityId, final InvoicesParameters invoiceParameters, final int page, final int limit) {
 		LOGGER.info("Getting commercial invoices via deprecated method");
 		final var query = InvoicesQueryParameters.create()
 			.withCustomerNumber(getCustomerNumbers(municipalityId, invoiceParameters.getPartyId()))
@@ -78,18 +238,23 @@ public class InvoicesService {
 			.withOrganizationNumbers(invoiceParameters.getOrganizationNumbers())
 			.withSortBy(List.of("invoiceDate"))
 			.withSortDirection(Direction.DESC)
-			.withPage(invoiceParameters.getPage())
-			.withLimit(invoiceParameters.getLimit());
-		return dataWarehouseReaderClient.getInvoices(municipalityId, query);
+			.withPage(page)
+			.withLimit(limit);
+		return singleFlight.execute(INVOICES_OPERATION, municipalityId, query, () -> dataWarehouseReaderClient.getInvoices(municipalityId, query));
 	}
 
 	private List<String> getCustomerNumbers(final String municipalityId, final List<String> partyIds) {
+		return Optional.of(stageMetrics.record(ENGAGEMENT_RESOLVE, municipalityId, COMMERCIAL,
+			() -> customerNumberCache.get(municipalityId, partyIds, () -> fetchCustomerNumbers(municipalityId, partyIds))))
+			.filter(ObjectUtils::isNotEmpty)
+			.orElseThrow(() -> Problem.valueOf(NOT_FOUND, format(ERROR_NO_ENGAGEMENT_FOUND, partyIds)));
+	}
+
+	private List<String> fetchCustomerNumbers(final String municipalityId, final List<String> partyIds) {
 		return dataWarehouseReaderClient.getCustomerEngagements(municipalityId, partyIds).getCustomerEngagements().stream()
 			.map(CustomerEngagement::getCustomerNumber)
 			.distinct()
-			.collect(collectingAndThen(toList(), Optional::of))
-			.filter(ObjectUtils::isNotEmpty)
-			.orElseThrow(() -> Problem.valueOf(NOT_FOUND, format(ERROR_NO_ENGAGEMENT_FOUND, partyIds)));
+			.toList();
 	}
 
 	/**
@@ -108,29 +273,306 @@ public class InvoicesService {
 	}
 
 	public List<InvoiceDetail> getInvoiceDetails(final String municipalityId, final String organizationNumber, final String invoiceNumber) {
-		return InvoiceMapper.toInvoiceDetails(dataWarehouseReaderClient.getInvoiceDetails(municipalityId, organizationNumber, parseLong(invoiceNumber)));
+		return serviceObservations.observe("getInvoiceDetails", municipalityId, () -> invoiceDetailsCache.get(municipalityId, organizationNumber, invoiceNumber, () -> {
+			final var details = dataWarehouseReaderClient.getInvoiceDetails(municipalityId, organizationNumber, parseLong(invoiceNumber));
+			return map(municipalityId, COMMERCIAL, () -> InvoiceMapper.toInvoiceDetails(details));
+		}), Function.identity());
+	}
+
+	public void evictInvoiceDetails(final String municipalityId, final String organizationNumber, final String invoiceNumber) {
+		serviceObservations.observe("evictInvoiceDetails", municipalityId, () -> invoiceDetailsCache.invalidate(municipalityId, organizationNumber, invoiceNumber));
+	}
+
+	public void evictInvoiceDetails(final String municipalityId) {
+		serviceObservations.observe("evictInvoiceDetails", municipalityId, () -> invoiceDetailsCache.invalidateAll(municipalityId));
+	}
+
+	/**
+	 * Fetches invoice-details for several invoices in parallel. A failing lookup is reported on its own entry instead of
+	 * failing the whole batch. The entries are returned in the same order as the sent in invoices.
+	 */
+	public List<InvoiceDetailsBatchEntry> getInvoiceDetails(final String municipalityId, final List<InvoiceReference> invoices) {
+		return serviceObservations.observe("getInvoiceDetailsBatch", municipalityId, () -> {
+			final var futures = invoices.stream()
+				.map(invoice -> parallelExecutor.supplyAsync(() -> toInvoiceDetailsBatchEntry(municipalityId, invoice)))
+				.toList();
+
+			return futures.stream()
+				.map(ParallelExecutor::await)
+				.toList();
+		}, Function.identity());
+	}
+
+	private InvoiceDetailsBatchEntry toInvoiceDetailsBatchEntry(final String municipalityId, final InvoiceReference invoice) {
+		final var entry = InvoiceDetailsBatchEntry.create()
+			.withOrganizationNumber(invoice.getOrganizationNumber())
+			.withInvoiceNumber(invoice.getInvoiceNumber());
+		try {
+			return entry
+				.withStatus(OK.value())
+				.withDetails(getInvoiceDetails(municipalityId, invoice.getOrganizationNumber(), invoice.getInvoiceNumber()));
+		} catch (final ThrowableProblem e) {
+			return entry.withStatus(e.getStatus().value()).withError(e.getMessage());
+		} catch (final NumberFormatException e) {
+			return entry.withStatus(BAD_REQUEST.value()).withError(format(ERROR_INVALID_INVOICE_NUMBER, invoice.getInvoiceNumber()));
+		} catch (final RuntimeException e) {
+			LOGGER.warn("Failed to fetch invoice-details for invoice {} issued by {}", invoice.getInvoiceNumber(), invoice.getOrganizationNumber(), e);
+			// The message of an unexpected exception may reveal internals, so it is only logged
+			return entry.withStatus(INTERNAL_SERVER_ERROR.value()).withError(ERROR_FETCHING_INVOICE_DETAILS);
+		}
 	}
 
 	public PdfInvoice getPdfInvoice(final String organizationNumber, final String invoiceNumber, final String invoiceType, final String municipalityId) {
-		return toPdfInvoice(invoiceCacheClient.getInvoicePdf(municipalityId, organizationNumber, invoiceNumber, toInvoiceCacheInvoiceType(invoiceType)));
+		return serviceObservations.observe("getPdfInvoice", municipalityId,
+			() -> toPdfInvoice(invoiceCacheClient.getInvoicePdf(municipalityId, organizationNumber, invoiceNumber, toInvoiceCacheInvoiceType(invoiceType))));
 	}
 
+	/**
+	 * Returns the invoice file from the local file cache, fetching it from upstream on a cache miss. When not cached, the
+	 * content is returned still unread, so that it can be streamed to the caller chunk by chunk. The consumer is then
+	 * responsible for closing the content stream (which releases the upstream connection).
+	 */
 	public InvoiceFile downloadInvoicePdf(final String organizationNumber, final String invoiceNumber, final String invoiceType, final String municipalityId) {
-		return toInvoiceFile(invoiceCacheClient.downloadInvoicePdfs(municipalityId, organizationNumber, invoiceNumber, toInvoiceCacheInvoiceType(invoiceType)), invoiceNumber);
+		return serviceObservations.observe("downloadInvoicePdf", municipalityId, () -> invoicePdfCache.get(municipalityId, organizationNumber, invoiceNumber, invoiceType,
+			() -> fetchInvoicePdf(organizationNumber, invoiceNumber, invoiceType, municipalityId)));
+	}
+
+	private InvoiceFile fetchInvoicePdf(final String organizationNumber, final String invoiceNumber, final String invoiceType, final String municipalityId) {
+		// Error responses are decoded and thrown by the client, see RawResponseErrorCapability
+		final var response = invoiceCacheClient.downloadInvoicePdfs(municipalityId, organizationNumber, invoiceNumber, toInvoiceCacheInvoiceType(invoiceType));
+		return toInvoiceFile(response, invoiceNumber);
+	}
+
+	private <T> T map(final String municipalityId, final InvoiceOrigin origin, final Supplier<T> mapping) {
+		return stageMetrics.record(MAPPING, municipalityId, origin, mapping);
 	}
 
 	public CustomerInvoicesResponse getInvoicesForCustomer(final String municipalityId, final CustomerInvoicesParameters parameters) {
-		return toCustomerInvoicesResponse(dataWarehouseReaderClient.getInvoicesForCustomer(
+		final var projection = toCustomerInvoiceProjection(parameters);
+		return serviceObservations.observe("getInvoicesForCustomer", municipalityId, () -> {
+			final var page = getCustomerInvoicePage(municipalityId, parameters);
+			return map(municipalityId, COMMERCIAL, () -> toCustomerInvoicesResponse(page.response(), page.nextCursor(), projection));
+		}, CustomerInvoicesResponse::getInvoices);
+	}
+
+	/**
+	 * Returns the invoices of the customers, or only their entity tag when it matches the sent in If-None-Match header
+	 * value.
+	 */
+	public ConditionalResponse<CustomerInvoicesResponse> getInvoicesForCustomer(final String municipalityId, final CustomerInvoicesParameters parameters, final String ifNoneMatch) {
+		final var projection = toCustomerInvoiceProjection(parameters);
+		return serviceObservations.observe("getInvoicesForCustomer", municipalityId,
+			() -> responseETagCache.get(CUSTOMER_INVOICES_OPERATION, COMMERCIAL, municipalityId, parameters, getCustomerInvoicePage(municipalityId, parameters),
+				page -> map(municipalityId, COMMERCIAL, () -> toCustomerInvoicesResponse(page.response(), page.nextCursor(), projection)), ifNoneMatch),
+			response -> response.isNotModified() ? null : response.body().getInvoices());
+	}
+
+	/**
+	 * Returns an export of all invoices of the customers. The paging parameters (page, limit and cursor) are not used, the
+	 * invoices are read from upstream in pages of the largest size upstream allows.
+	 */
+	public CustomerInvoiceExport exportInvoicesForCustomer(final String municipalityId, final CustomerInvoicesParameters parameters) {
+		final var projection = toCustomerInvoiceProjection(parameters);
+		return serviceObservations.observe("exportInvoicesForCustomer", municipalityId, () -> {
+			final var customerNumbers = resolveCustomerNumbers(municipalityId, parameters);
+			return new CustomerInvoiceExport(page -> openInvoicesForCustomer(municipalityId, customerNumbers, parameters, page, MAX_UPSTREAM_LIMIT), projection, parallelExecutor);
+		});
+	}
+
+	private static Projection<CustomerInvoice, se.sundsvall.invoices.api.model.CustomerInvoice> toCustomerInvoiceProjection(final CustomerInvoicesParameters parameters) {
+		// Details are included unless explicitly left out
+		return InvoiceMapper.toCustomerInvoiceProjection(parameters.getFields(), !Boolean.FALSE.equals(parameters.getIncludeDetails()));
+	}
+
+	private CustomerInvoicePage getCustomerInvoicePage(final String municipalityId, final CustomerInvoicesParameters parameters) {
+		if (parameters.getCursor() != null) {
+			return getInvoicesForCustomerAfterCursor(municipalityId, parameters);
+		}
+
+		final var response = getCustomerInvoiceResponse(municipalityId, parameters);
+		final var nextCursor = parameters.getPage() < totalPages(response)
+			? CustomerInvoiceCursor.next(parameters.getPage() + 1, fingerprint(parameters), ofNullable(response.getInvoices()).orElse(List.of()), toComparatorOrNull(parameters), null).encode()
+			: null;
+		return new CustomerInvoicePage(response, nextCursor);
+	}
+
+	private CustomerInvoiceResponse getCustomerInvoiceResponse(final String municipalityId, final CustomerInvoicesParameters parameters) {
+		if (properties.parallelCustomerResolution() && isParallelResolvable(parameters)) {
+			return getInvoicesForCustomerInParallel(municipalityId, parameters);
+		}
+		return fetchInvoicesForCustomer(municipalityId, resolveCustomerNumbers(municipalityId, parameters), parameters, parameters.getPage(), parameters.getLimit());
+	}
+
+	/**
+	 * Returns the invoices following the position of the cursor. Upstream pages are read from the page of the cursor,
+	 * skipping the rows that were already returned, until the requested number of invoices is collected. The next cursor
+	 * points at the upstream page holding the row after the last returned invoice.
+	 */
+	private CustomerInvoicePage getInvoicesForCustomerAfterCursor(final String municipalityId, final CustomerInvoicesParameters parameters) {
+		final var cursor = decode(parameters);
+		final var customerNumbers = resolveCustomerNumbers(municipalityId, parameters);
+		final var comparator = toComparatorOrNull(parameters);
+		final var limit = parameters.getLimit();
+		final var invoices = new ArrayList<CustomerInvoice>();
+
+		var page = cursor.page();
+		var response = fetchInvoicesForCustomer(municipalityId, customerNumbers, parameters, page, limit);
+		var consumed = collectAfter(cursor, comparator, response, invoices, limit);
+		while (invoices.size() < limit && page < totalPages(response)) {
+			page++;
+			response = fetchInvoicesForCustomer(municipalityId, customerNumbers, parameters, page, limit);
+			consumed = collectAfter(cursor, comparator, response, invoices, limit);
+		}
+
+		final var rowsLeftOnPage = consumed < ofNullable(response.getInvoices()).map(List::size).orElse(0);
+		final var nextCursor = rowsLeftOnPage || page < totalPages(response)
+			? CustomerInvoiceCursor.next(rowsLeftOnPage ? page : page + 1, cursor.fingerprint(), invoices, comparator, cursor).encode()
+			: null;
+
+		final var meta = ofNullable(response.getMeta()).orElseGet(PagingAndSortingMetaData::new);
+		return new CustomerInvoicePage(new CustomerInvoiceResponse()
+			.invoices(invoices)
+			.meta(new PagingAndSortingMetaData()
+				.page(cursor.page())
+				.limit(limit)
+				.count(invoices.size())
+				.totalRecords(meta.getTotalRecords())
+				.totalPages(meta.getTotalPages())
+				.sortBy(meta.getSortBy())
+				.sortDirection(meta.getSortDirection())), nextCursor);
+	}
+
+	/**
+	 * Adds the rows of the upstream page that come after the cursor, until the limit is reached.
+	 *
+	 * @return the number of rows of the page that were read
+	 */
+	private static int collectAfter(final CustomerInvoiceCursor cursor, final Comparator<CustomerInvoice> comparator, final CustomerInvoiceResponse response,
+		final List<CustomerInvoice> invoices, final int limit) {
+
+		final var rows = ofNullable(response.getInvoices()).orElse(List.of());
+		var read = 0;
+		for (final var row : rows) {
+			if (invoices.size() >= limit) {
+				break;
+			}
+			read++;
+			if (cursor.isAfter(row, comparator)) {
+				invoices.add(row);
+			}
+		}
+		return read;
+	}
+
+	private static int totalPages(final CustomerInvoiceResponse response) {
+		return ofNullable(response.getMeta()).map(PagingAndSortingMetaData::getTotalPages).orElse(0);
+	}
+
+	private static Comparator<CustomerInvoice> toComparatorOrNull(final CustomerInvoicesParameters parameters) {
+		return toComparator(parameters.getSortBy(), toDataWarehouseReaderDirection(parameters.getSortDirection())).orElse(null);
+	}
+
+	/**
+	 * Parallel resolution is possible when both customer numbers and partyIds are provided, when the requested sort order
+	 * can be reproduced locally and when all rows up to the requested page fit in one upstream page.
+	 */
+	private static boolean isParallelResolvable(final CustomerInvoicesParameters parameters) {
+		return ObjectUtils.isNotEmpty(parameters.getCustomerNumbers())
+			&& ObjectUtils.isNotEmpty(parameters.getPartyIds())
+			&& (long) parameters.getPage() * parameters.getLimit() <= MAX_UPSTREAM_LIMIT
+			&& toComparator(parameters.getSortBy(), toDataWarehouseReaderDirection(parameters.getSortDirection())).isPresent();
+	}
+
+	/**
+	 * Queries the invoices of the provided customer numbers at the same time as the partyIds are resolved. Customer
+	 * numbers that only the partyIds resolve to are queried separately and the two results are merged into the requested
+	 * page.
+	 */
+	private CustomerInvoiceResponse getInvoicesForCustomerInParallel(final String municipalityId, final CustomerInvoicesParameters parameters) {
+		final var providedCustomerNumbers = parameters.getCustomerNumbers().stream().distinct().toList();
+		final var windowSize = parameters.getPage() * parameters.getLimit();
+		final var queries = new ArrayList<CompletableFuture<CustomerInvoiceResponse>>();
+		queries.add(parallelExecutor.supplyAsync(() -> fetchInvoicesForCustomer(municipalityId, providedCustomerNumbers, parameters, 1, windowSize)));
+		try {
+			final var additionalCustomerNumbers = getCustomerNumbers(municipalityId, parameters.getPartyIds()).stream()
+				.filter(customerNumber -> !providedCustomerNumbers.contains(customerNumber))
+				.toList();
+			if (!additionalCustomerNumbers.isEmpty()) {
+				queries.add(parallelExecutor.supplyAsync(() -> fetchInvoicesForCustomer(municipalityId, additionalCustomerNumbers, parameters, 1, windowSize)));
+			}
+
+			final var responses = queries.stream().map(ParallelExecutor::await).toList();
+			final var comparator = toComparator(parameters.getSortBy(), toDataWarehouseReaderDirection(parameters.getSortDirection())).orElseThrow();
+			return merge(responses, comparator, parameters.getPage(), parameters.getLimit());
+		} finally {
+			// Cancelling does not stop a running query, but a query left behind by a failure is no longer waited for
+			queries.forEach(query -> query.cancel(false));
+		}
+	}
+
+	private CustomerInvoiceResponse fetchInvoicesForCustomer(final String municipalityId, final List<String> customerNumbers, final CustomerInvoicesParameters parameters, final int page, final int limit) {
+		final var query = toCustomerInvoicesQuery(customerNumbers, parameters, page, limit);
+
+		return singleFlight.execute(CUSTOMER_INVOICES_OPERATION, municipalityId, query, () -> dataWarehouseReaderClient.getInvoicesForCustomer(
 			municipalityId,
-			resolveCustomerNumbers(municipalityId, parameters),
-			parameters.getOrganizationNumbers(),
-			parameters.getFacilityIds(),
-			toDataWarehouseReaderInvoiceStatus(parameters.getStatus()),
-			parameters.getPeriodFrom(),
-			parameters.getPeriodTo(),
-			parameters.getSortBy(),
-			toDataWarehouseReaderDirection(parameters.getSortDirection()),
-			parameters.getPage(),
-			parameters.getLimit()));
+			query.customerNumbers(),
+			query.organizationNumbers(),
+			query.facilityIds(),
+			query.invoiceStatus(),
+			query.periodFrom(),
+			query.periodTo(),
+			query.sortBy(),
+			query.sortDirection(),
+			query.page(),
+			query.limit()));
+	}
+
+	/**
+	 * Opens a page of customer invoices, returning the upstream response body unread. Unlike
+	 * {@link #fetchInvoicesForCustomer}, the upstream page is never decoded, which keeps the memory used for large pages
+	 * down. The body is read by the caller, so identical concurrent queries are not coalesced.
+	 */
+	private InputStream openInvoicesForCustomer(final String municipalityId, final List<String> customerNumbers, final CustomerInvoicesParameters parameters, final int page,
+		final int limit) {
+
+		final var query = toCustomerInvoicesQuery(customerNumbers, parameters, page, limit);
+		// Error responses are decoded and thrown by the client, see RawResponseErrorCapability
+		final var response = dataWarehouseReaderClient.streamInvoicesForCustomer(
+			municipalityId,
+			query.customerNumbers(),
+			query.organizationNumbers(),
+			query.facilityIds(),
+			query.invoiceStatus(),
+			query.periodFrom(),
+			query.periodTo(),
+			query.sortBy(),
+			query.sortDirection(),
+			query.page(),
+			query.limit());
+
+		try {
+			return response.body() != null ? response.body().asInputStream() : InputStream.nullInputStream();
+		} catch (final IOException e) {
+			response.close();
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static CustomerInvoicesQuery toCustomerInvoicesQuery(final List<String> customerNumbers, final CustomerInvoicesParameters parameters, final int page, final int limit) {
+		return new CustomerInvoicesQuery(customerNumbers, parameters.getOrganizationNumbers(), parameters.getFacilityIds(), toDataWarehouseReaderInvoiceStatus(parameters.getStatus()),
+			parameters.getPeriodFrom(), parameters.getPeriodTo(), parameters.getSortBy(), toDataWarehouseReaderDirection(parameters.getSortDirection()), page, limit);
+	}
+
+	/**
+	 * A page of customer invoices together with the cursor of the next page (null on the last page).
+	 */
+	private record CustomerInvoicePage(CustomerInvoiceResponse response, String nextCursor) {
+	}
+
+	/**
+	 * The arguments of a DataWarehouseReader customer invoices query, identifying identical concurrent queries.
+	 */
+	private record CustomerInvoicesQuery(List<String> customerNumbers, List<String> organizationNumbers, List<String> facilityIds, String invoiceStatus, LocalDate periodFrom,
+		LocalDate periodTo, List<String> sortBy, Direction sortDirection, int page, int limit) {
 	}
 }
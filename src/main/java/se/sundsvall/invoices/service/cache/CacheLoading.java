@@ -0,0 +1,34 @@
+package se.sundsvall.invoices.service.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+import se.sundsvall.invoices.service.concurrent.ParallelExecutor;
+
+/**
+ * Loads the entries of an async cache on the calling thread. Only an incomplete future is inserted within the compute
+ * of the cache, so a slow upstream call never blocks the writers of other keys sharing its hash bin. Callers missing
+ * the same key while it is loaded wait for the load and share its result (or exception). A failed load, or a load
+ * resulting in null, is not cached.
+ */
+final class CacheLoading {
+
+	private CacheLoading() {}
+
+	static <K, V> V get(final AsyncCache<K, V> cache, final K key, final Supplier<V> loader) {
+		final var loading = new CompletableFuture<V>();
+		final var future = cache.get(key, (k, executor) -> loading);
+		if (future != loading) {
+			return ParallelExecutor.await(future);
+		}
+
+		try {
+			final var value = loader.get();
+			loading.complete(value);
+			return value;
+		} catch (final RuntimeException | Error e) {
+			loading.completeExceptionally(e);
+			throw e;
+		}
+	}
+}
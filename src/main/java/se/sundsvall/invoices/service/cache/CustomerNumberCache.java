@@ -0,0 +1,48 @@
+package se.sundsvall.invoices.service.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.util.List;
+import java.util.function.Supplier;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded cache of partyId to customer number lookups, scoped per municipality. An empty result (i.e. no engagement
+ * found) is cached as well, but with its own (normally shorter) time to live. A lookup is loaded on the calling thread,
+ * outside the compute of the cache, see {@link CacheLoading}.
+ */
+@Component
+public class CustomerNumberCache {
+
+	static final String CACHE_NAME = "customerNumbers";
+
+	private final AsyncCache<CacheKey, List<String>> cache;
+
+	public CustomerNumberCache(final CustomerNumberCacheProperties properties, final MeterRegistry meterRegistry) {
+		this.cache = Caffeine.newBuilder()
+			.maximumSize(properties.maximumSize())
+			.expireAfter(Expiry.creating((CacheKey key, List<String> customerNumbers) -> customerNumbers.isEmpty() ? properties.negativeTimeToLive() : properties.timeToLive()))
+			.recordStats()
+			.buildAsync();
+
+		CaffeineCacheMetrics.monitor(meterRegistry, cache.synchronous(), CACHE_NAME);
+	}
+
+	/**
+	 * Returns the customer numbers for the sent in partyIds, using the loader on a cache miss.
+	 *
+	 * @param  municipalityId a municipalityId.
+	 * @param  partyIds       the partyIds to resolve.
+	 * @param  loader         supplier that resolves the customer numbers from upstream.
+	 * @return                the (possibly empty) list of customer numbers
+	 */
+	public List<String> get(final String municipalityId, final List<String> partyIds, final Supplier<List<String>> loader) {
+		return CacheLoading.get(cache, new CacheKey(municipalityId, List.copyOf(partyIds)), loader);
+	}
+
+	private record CacheKey(String municipalityId, List<String> partyIds) {
+	}
+}
@@ -0,0 +1,15 @@
+package se.sundsvall.invoices.service.cache;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for the partyId to customer number cache.
+ *
+ * @param timeToLive         how long a resolved list of customer numbers is kept
+ * @param negativeTimeToLive how long a "no engagement found" result is kept
+ * @param maximumSize        maximum number of cached lookups
+ */
+@ConfigurationProperties("cache.customer-numbers")
+public record CustomerNumberCacheProperties(Duration timeToLive, Duration negativeTimeToLive, long maximumSize) {
+}
@@ -0,0 +1,64 @@
+package se.sundsvall.invoices.service.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.util.List;
+import java.util.function.Supplier;
+import org.springframework.stereotype.Component;
+import se.sundsvall.invoices.api.model.InvoiceDetail;
+
+import static java.util.Optional.ofNullable;
+
+/**
+ * Cache of mapped invoice-details, scoped per municipality. The details of an issued invoice do not change, so entries
+ * are only dropped when they expire, when the cache is full or when invalidated. The cache is bounded by the total
+ * number of detail rows held. Empty results are not cached, as the invoice may not have been issued yet. The details are
+ * loaded on the calling thread, outside the compute of the cache, and concurrent misses of an invoice share one load,
+ * see {@link CacheLoading}.
+ */
+@Component
+public class InvoiceDetailsCache {
+
+	static final String CACHE_NAME = "invoiceDetails";
+
+	private final AsyncCache<CacheKey, List<InvoiceDetail>> cache;
+
+	public InvoiceDetailsCache(final InvoiceDetailsCacheProperties properties, final MeterRegistry meterRegistry) {
+		this.cache = Caffeine.newBuilder()
+			.maximumWeight(properties.maximumWeight())
+			.weigher((CacheKey key, List<InvoiceDetail> details) -> details.size())
+			.expireAfterWrite(properties.timeToLive())
+			.recordStats()
+			.buildAsync();
+
+		CaffeineCacheMetrics.monitor(meterRegistry, cache.synchronous(), CACHE_NAME);
+	}
+
+	/**
+	 * Returns the invoice-details for the sent in invoice, using the loader on a cache miss.
+	 *
+	 * @param  municipalityId     a municipalityId.
+	 * @param  organizationNumber organization number of the invoice issuer.
+	 * @param  invoiceNumber      the invoice number.
+	 * @param  loader             supplier that fetches the invoice-details from upstream.
+	 * @return                    the (possibly empty) list of invoice-details
+	 */
+	public List<InvoiceDetail> get(final String municipalityId, final String organizationNumber, final String invoiceNumber, final Supplier<List<InvoiceDetail>> loader) {
+		return ofNullable(CacheLoading.get(cache, new CacheKey(municipalityId, organizationNumber, invoiceNumber),
+			() -> ofNullable(loader.get()).filter(details -> !details.isEmpty()).orElse(null)))
+			.orElse(List.of());
+	}
+
+	public void invalidate(final String municipalityId, final String organizationNumber, final String invoiceNumber) {
+		cache.synchronous().invalidate(new CacheKey(municipalityId, organizationNumber, invoiceNumber));
+	}
+
+	public void invalidateAll(final String municipalityId) {
+		cache.asMap().keySet().removeIf(key -> key.municipalityId().equals(municipalityId));
+	}
+
+	private record CacheKey(String municipalityId, String organizationNumber, String invoiceNumber) {
+	}
+}
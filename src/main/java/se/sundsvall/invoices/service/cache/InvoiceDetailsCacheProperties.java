@@ -0,0 +1,14 @@
+package se.sundsvall.invoices.service.cache;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for the invoice-details cache.
+ *
+ * @param timeToLive    how long the details of an invoice are kept
+ * @param maximumWeight maximum number of cached invoice-detail rows, summed over all cached invoices
+ */
+@ConfigurationProperties("cache.invoice-details")
+public record InvoiceDetailsCacheProperties(Duration timeToLive, long maximumWeight) {
+}
@@ -0,0 +1,201 @@
+package se.sundsvall.invoices.service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import se.sundsvall.invoices.service.InvoiceFile;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+
+/**
+ * On-disk cache of downloaded invoice files. An issued invoice file never changes, so a file is only fetched from
+ * upstream once and then served from disk. Files are stored under the SHA-256 digest of their content, which also
+ * serves as the entity tag, so identical files are only stored once. The total size of the stored files is bounded,
+ * the least valuable entries being evicted (and their files removed) when the bound is exceeded.
+ * <p>
+ * A file is first written to a temporary file in the cache directory and then atomically moved in place, so a cached
+ * file is never seen half-written. The index of the cache is held in memory, left-over files from an earlier run are
+ * therefore removed at start-up.
+ */
+@Component
+public class InvoicePdfCache {
+
+	static final String CACHE_NAME = "invoicePdfs";
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(InvoicePdfCache.class);
+	private static final String DIGEST_ALGORITHM = "SHA-256";
+	private static final String TEMP_FILE_PREFIX = "download-";
+	private static final String TEMP_FILE_SUFFIX = ".tmp";
+	private static final Pattern CACHE_FILE_NAME = Pattern.compile("[0-9a-f]{64}|" + TEMP_FILE_PREFIX + "\\d+\\" + TEMP_FILE_SUFFIX);
+
+	private final boolean enabled;
+	private final Path directory;
+	private final long maximumSize;
+	private final Cache<CacheKey, CachedFile> cache;
+	private final Object fileLock = new Object();
+
+	public InvoicePdfCache(final InvoicePdfCacheProperties properties, final MeterRegistry meterRegistry) {
+		this.enabled = properties.enabled();
+		this.directory = properties.directory();
+		this.maximumSize = properties.maximumSize().toBytes();
+		this.cache = Caffeine.newBuilder()
+			.maximumWeight(maximumSize)
+			.weigher((CacheKey key, CachedFile file) -> (int) Math.min(file.size(), Integer.MAX_VALUE))
+			.removalListener(this::onRemoval)
+			.recordStats()
+			.build();
+
+		CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+
+		if (enabled) {
+			initDirectory();
+		}
+	}
+
+	/**
+	 * Returns the invoice file for the sent in invoice, using the loader on a cache miss. A loaded file is written to disk
+	 * and then returned from there. When the cache is disabled, or the file is larger than the cache, the loaded file is
+	 * returned as is.
+	 * <p>
+	 * The content of a file returned from disk is already opened, so that it can be read even when the file is evicted
+	 * (and removed) before the content is written. Eviction therefore only affects later callers.
+	 *
+	 * @param  municipalityId     a municipalityId.
+	 * @param  organizationNumber organization number of the invoice issuer.
+	 * @param  invoiceNumber      the invoice number.
+	 * @param  invoiceType        the invoice type (may be null).
+	 * @param  loader             supplier that fetches the invoice file from upstream.
+	 * @return                    the invoice file
+	 */
+	public InvoiceFile get(final String municipalityId, final String organizationNumber, final String invoiceNumber, final String invoiceType, final Supplier<InvoiceFile> loader) {
+		if (!enabled) {
+			return loader.get();
+		}
+
+		final var key = new CacheKey(municipalityId, organizationNumber, invoiceNumber, invoiceType);
+		final var cachedFile = cache.getIfPresent(key);
+		if (cachedFile != null) {
+			try {
+				return toInvoiceFile(cachedFile, Files.newInputStream(toPath(cachedFile.digest())));
+			} catch (final NoSuchFileException e) {
+				// Removed since it was looked up, so it is loaded again
+				cache.invalidate(key);
+			} catch (final IOException e) {
+				throw new UncheckedIOException("Failed to read cached invoice file", e);
+			}
+		}
+
+		final var invoiceFile = loader.get();
+		if (invoiceFile.contentLength() > maximumSize) {
+			return invoiceFile;
+		}
+		return store(key, invoiceFile);
+	}
+
+	private InvoiceFile store(final CacheKey key, final InvoiceFile invoiceFile) {
+		try (final var content = invoiceFile.content().getInputStream()) {
+			final var tempFile = Files.createTempFile(directory, TEMP_FILE_PREFIX, TEMP_FILE_SUFFIX);
+			try {
+				final var digest = write(content, tempFile);
+				final var cachedFile = new CachedFile(digest, Files.size(tempFile), invoiceFile.contentType(), invoiceFile.fileName(), Instant.now());
+				if (cachedFile.size() > maximumSize) {
+					// Only known to be larger than the cache once written, so it is returned from the temporary file
+					return toInvoiceFile(cachedFile, Files.newInputStream(tempFile));
+				}
+				// Opened before the entry is added, as the entry may be evicted (and the file removed) at once
+				synchronized (fileLock) {
+					Files.move(tempFile, toPath(digest), ATOMIC_MOVE);
+					final var cachedContent = Files.newInputStream(toPath(digest));
+					cache.put(key, cachedFile);
+					return toInvoiceFile(cachedFile, cachedContent);
+				}
+			} finally {
+				Files.deleteIfExists(tempFile);
+			}
+		} catch (final IOException e) {
+			throw new UncheckedIOException("Failed to cache invoice file", e);
+		}
+	}
+
+	private static String write(final InputStream content, final Path file) throws IOException {
+		final var messageDigest = newMessageDigest();
+		try (final var outputStream = Files.newOutputStream(file)) {
+			new DigestInputStream(content, messageDigest).transferTo(outputStream);
+		}
+		return HexFormat.of().formatHex(messageDigest.digest());
+	}
+
+	private void onRemoval(final CacheKey key, final CachedFile cachedFile, final RemovalCause cause) {
+		if (cachedFile == null) {
+			return;
+		}
+		// The file may be shared with other entries having the same content
+		synchronized (fileLock) {
+			if (cache.asMap().values().stream().noneMatch(other -> other.digest().equals(cachedFile.digest()))) {
+				deleteQuietly(toPath(cachedFile.digest()));
+			}
+		}
+	}
+
+	private void initDirectory() {
+		try {
+			Files.createDirectories(directory);
+			try (final var files = Files.list(directory)) {
+				files.filter(file -> CACHE_FILE_NAME.matcher(file.getFileName().toString()).matches())
+					.forEach(InvoicePdfCache::deleteQuietly);
+			}
+		} catch (final IOException e) {
+			throw new UncheckedIOException("Failed to initialize invoice file cache directory " + directory, e);
+		}
+	}
+
+	private static void deleteQuietly(final Path file) {
+		try {
+			Files.deleteIfExists(file);
+		} catch (final IOException e) {
+			LOGGER.warn("Failed to delete cached invoice file {}", file, e);
+		}
+	}
+
+	private static MessageDigest newMessageDigest() {
+		try {
+			return MessageDigest.getInstance(DIGEST_ALGORITHM);
+		} catch (final NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private Path toPath(final String digest) {
+		return directory.resolve(digest);
+	}
+
+	private static InvoiceFile toInvoiceFile(final CachedFile cachedFile, final InputStream content) {
+		return new InvoiceFile(new InputStreamResource(content), cachedFile.size(), cachedFile.contentType(), cachedFile.fileName(), "\"" + cachedFile.digest() + "\"", cachedFile.created());
+	}
+
+	private record CacheKey(String municipalityId, String organizationNumber, String invoiceNumber, String invoiceType) {
+	}
+
+	private record CachedFile(String digest, long size, MediaType contentType, String fileName, Instant created) {
+	}
+}
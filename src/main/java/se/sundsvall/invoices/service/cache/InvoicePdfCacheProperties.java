@@ -0,0 +1,16 @@
+package se.sundsvall.invoices.service.cache;
+
+import java.nio.file.Path;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Settings for the on-disk cache of downloaded invoice files.
+ *
+ * @param enabled     whether downloaded files are cached on disk
+ * @param directory   the directory holding the cached files, dedicated to the cache
+ * @param maximumSize maximum total size of the cached files
+ */
+@ConfigurationProperties("cache.invoice-pdfs")
+public record InvoicePdfCacheProperties(boolean enabled, Path directory, DataSize maximumSize) {
+}
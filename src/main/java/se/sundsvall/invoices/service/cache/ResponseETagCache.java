@@ -0,0 +1,125 @@
+package se.sundsvall.invoices.service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Objects;
+import java.util.function.Function;
+import org.springframework.stereotype.Component;
+import se.sundsvall.invoices.api.model.InvoiceOrigin;
+import se.sundsvall.invoices.service.ConditionalResponse;
+import se.sundsvall.invoices.service.metrics.StageMetrics;
+import tools.jackson.databind.json.JsonMapper;
+
+import static java.util.Optional.ofNullable;
+import static se.sundsvall.invoices.service.metrics.StageMetrics.Stage.SERIALIZATION;
+
+/**
+ * Computes entity tags of mapped responses and remembers them per request. The entity tag is the SHA-256 digest of the
+ * serialized response, so it is stable for as long as the response content is unchanged.
+ * <p>
+ * Next to the entity tag, a fingerprint (hash code) of the upstream response it was computed from is kept, which is
+ * computed from the fields of the upstream model without serializing it. When a request is repeated and the upstream
+ * response has the same fingerprint, the remembered entity tag is used. A caller that already holds the response is
+ * then answered as not modified without the response being mapped or serialized.
+ * <p>
+ * A response that is returned is serialized once, the serialized response being used both for the entity tag and as
+ * the body written to the caller. The serialization is recorded as a stage by {@link StageMetrics}, together with the
+ * size of the serialized response.
+ */
+@Component
+public class ResponseETagCache {
+
+	static final String CACHE_NAME = "responseETags";
+
+	private static final String DIGEST_ALGORITHM = "SHA-256";
+	private static final String WILDCARD = "*";
+	private static final String WEAK_PREFIX = "W/";
+
+	private final Cache<CacheKey, Fingerprint> cache;
+	private final JsonMapper jsonMapper;
+	private final StageMetrics stageMetrics;
+
+	public ResponseETagCache(final ResponseETagCacheProperties properties, final JsonMapper jsonMapper, final MeterRegistry meterRegistry, final StageMetrics stageMetrics) {
+		this.jsonMapper = jsonMapper;
+		this.stageMetrics = stageMetrics;
+		this.cache = Caffeine.newBuilder()
+			.maximumSize(properties.maximumSize())
+			.expireAfterWrite(properties.timeToLive())
+			.recordStats()
+			.build();
+
+		CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+	}
+
+	/**
+	 * Returns the mapped response and its entity tag, or only the entity tag when it matches the sent in If-None-Match
+	 * header value.
+	 *
+	 * @param  operation        name of the operation the response belongs to.
+	 * @param  origin           the origin of the invoices in the response.
+	 * @param  municipalityId   a municipalityId.
+	 * @param  parameters       the request parameters (must implement equals and hashCode).
+	 * @param  upstreamResponse the upstream response to map.
+	 * @param  mapper           function mapping the upstream response to the response.
+	 * @param  ifNoneMatch      value of the If-None-Match header of the request (may be null).
+	 * @return                  the conditional response
+	 */
+	public <U, R> ConditionalResponse<R> get(final String operation, final InvoiceOrigin origin, final String municipalityId, final Object parameters, final U upstreamResponse,
+		final Function<U, R> mapper, final String ifNoneMatch) {
+
+		final var key = new CacheKey(operation, municipalityId, parameters);
+		final var upstreamHash = Objects.hashCode(upstreamResponse);
+		final var eTag = ofNullable(cache.getIfPresent(key))
+			.filter(fingerprint -> fingerprint.upstreamHash() == upstreamHash)
+			.map(Fingerprint::eTag)
+			.orElse(null);
+
+		if (eTag != null && matches(ifNoneMatch, eTag)) {
+			return ConditionalResponse.notModified(eTag);
+		}
+
+		final var response = mapper.apply(upstreamResponse);
+		final var serialized = serialize(response, origin, municipalityId);
+		final var responseETag = eTag != null ? eTag : toETag(serialized);
+		cache.put(key, new Fingerprint(upstreamHash, responseETag));
+
+		return matches(ifNoneMatch, responseETag) ? ConditionalResponse.notModified(responseETag) : ConditionalResponse.of(response, serialized, responseETag);
+	}
+
+	static boolean matches(final String ifNoneMatch, final String eTag) {
+		if (ifNoneMatch == null) {
+			return false;
+		}
+		// Weak comparison, as is used for If-None-Match
+		return Arrays.stream(ifNoneMatch.split(","))
+			.map(String::trim)
+			.map(tag -> tag.startsWith(WEAK_PREFIX) ? tag.substring(WEAK_PREFIX.length()) : tag)
+			.anyMatch(tag -> WILDCARD.equals(tag) || tag.equals(eTag));
+	}
+
+	private byte[] serialize(final Object response, final InvoiceOrigin origin, final String municipalityId) {
+		final var serialized = stageMetrics.record(SERIALIZATION, municipalityId, origin, () -> jsonMapper.writeValueAsBytes(response));
+		stageMetrics.recordResponseSize(municipalityId, origin, serialized.length);
+		return serialized;
+	}
+
+	private static String toETag(final byte[] serialized) {
+		try {
+			return "\"" + HexFormat.of().formatHex(MessageDigest.getInstance(DIGEST_ALGORITHM).digest(serialized)) + "\"";
+		} catch (final NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private record CacheKey(String operation, String municipalityId, Object parameters) {
+	}
+
+	private record Fingerprint(int upstreamHash, String eTag) {
+	}
+}
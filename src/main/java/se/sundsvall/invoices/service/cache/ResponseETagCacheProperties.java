@@ -0,0 +1,14 @@
+package se.sundsvall.invoices.service.cache;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for the cache of response entity tags.
+ *
+ * @param timeToLive  how long the entity tag of a response is kept
+ * @param maximumSize maximum number of cached entity tags
+ */
+@ConfigurationProperties("cache.response-etags")
+public record ResponseETagCacheProperties(Duration timeToLive, long maximumSize) {
+}
@@ -0,0 +1,58 @@
+package se.sundsvall.invoices.service.concurrent;
+
+import io.micrometer.observation.ObservationRegistry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs (blocking) upstream calls in parallel on virtual threads. The number of concurrently running tasks is bounded by
+ * the configured concurrency limit. A task runs in the scope of the observation current when it was submitted, so that
+ * the upstream calls it makes are traced as children of the calling span.
+ */
+@Component
+public class ParallelExecutor implements DisposableBean {
+
+	private static final String THREAD_NAME_PREFIX = "parallel-";
+
+	private final SimpleAsyncTaskExecutor taskExecutor;
+	private final ObservationRegistry observationRegistry;
+
+	public ParallelExecutor(final ParallelExecutorProperties properties, final ObservationRegistry observationRegistry) {
+		this.observationRegistry = observationRegistry;
+		this.taskExecutor = new SimpleAsyncTaskExecutor(THREAD_NAME_PREFIX);
+		this.taskExecutor.setVirtualThreads(true);
+		this.taskExecutor.setConcurrencyLimit(properties.concurrencyLimit());
+	}
+
+	public <T> CompletableFuture<T> supplyAsync(final Supplier<T> supplier) {
+		final var parent = observationRegistry.getCurrentObservation();
+		return CompletableFuture.supplyAsync(parent != null ? () -> parent.scoped(supplier) : supplier, taskExecutor);
+	}
+
+	/**
+	 * Waits for the future to complete and returns its result. Exceptions thrown by the task are rethrown as is, i.e.
+	 * without the wrapping {@link CompletionException}, so that problems from the upstream clients keep their status.
+	 *
+	 * @param  future the future to wait for
+	 * @return        the result of the future
+	 */
+	public static <T> T await(final CompletableFuture<T> future) {
+		try {
+			return future.join();
+		} catch (final CompletionException e) {
+			if (e.getCause() instanceof final RuntimeException cause) {
+				throw cause;
+			}
+			throw e;
+		}
+	}
+
+	@Override
+	public void destroy() {
+		taskExecutor.close();
+	}
+}
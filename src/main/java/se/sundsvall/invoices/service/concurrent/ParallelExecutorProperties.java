@@ -0,0 +1,12 @@
+package se.sundsvall.invoices.service.concurrent;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for the executor used to run upstream calls in parallel.
+ *
+ * @param concurrencyLimit maximum number of tasks running at the same time, further tasks wait for a free slot
+ */
+@ConfigurationProperties("parallel-executor")
+public record ParallelExecutorProperties(int concurrencyLimit) {
+}
@@ -0,0 +1,50 @@
+package se.sundsvall.invoices.service.concurrent;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import org.springframework.stereotype.Component;
+
+/**
+ * Coalesces identical concurrent upstream calls. The first caller of a call makes it, callers arriving while it is in
+ * flight wait for it and share its result (or exception) instead of making their own call. Nothing is remembered once
+ * the call has completed, the next caller makes a new call.
+ */
+@Component
+public class SingleFlight {
+
+	private final ConcurrentHashMap<CallKey, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+	/**
+	 * Makes the call, or joins an identical call already in flight.
+	 *
+	 * @param  operation      name of the upstream operation.
+	 * @param  municipalityId a municipalityId.
+	 * @param  parameters     the parameters of the call (must implement equals and hashCode).
+	 * @param  call           supplier making the upstream call.
+	 * @return                the result of the call
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T execute(final String operation, final String municipalityId, final Object parameters, final Supplier<T> call) {
+		final var key = new CallKey(operation, municipalityId, parameters);
+		final var future = new CompletableFuture<Object>();
+		final var inFlightFuture = inFlight.putIfAbsent(key, future);
+		if (inFlightFuture != null) {
+			return (T) ParallelExecutor.await(inFlightFuture);
+		}
+
+		try {
+			final var result = call.get();
+			future.complete(result);
+			return result;
+		} catch (final RuntimeException | Error e) {
+			future.completeExceptionally(e);
+			throw e;
+		} finally {
+			inFlight.remove(key, future);
+		}
+	}
+
+	private record CallKey(String operation, String municipalityId, Object parameters) {
+	}
+}
@@ -0,0 +1,247 @@
+package se.sundsvall.invoices.service.mapper;
+
+import generated.se.sundsvall.datawarehousereader.CustomerType;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.function.UnaryOperator;
+import se.sundsvall.invoices.api.model.CustomerInvoice;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.core.StreamWriteFeature;
+import tools.jackson.databind.ObjectWriter;
+import tools.jackson.databind.json.JsonMapper;
+
+import static java.lang.String.format;
+import static java.util.stream.Collectors.toUnmodifiableMap;
+import static se.sundsvall.invoices.service.mapper.InvoiceMapper.DETAILS_FIELD;
+import static se.sundsvall.invoices.service.mapper.InvoiceMapper.toCustomerType;
+
+/**
+ * Transforms a DataWarehouseReader customer invoice response into API customer invoices while it is read, writing them
+ * as newline delimited JSON. The upstream JSON is read token by token and only the fields whose values are translated
+ * or whose names differ are rewritten, all other values are copied straight to the output. No model objects are
+ * created, so the memory used does not depend on the size of the response.
+ * <p>
+ * The output is the same as serializing the invoices mapped by {@link InvoiceMapper}, except for the order of the
+ * fields and for details without a product code, which get a null product code.
+ */
+public final class CustomerInvoiceJsonTransformer {
+
+	private static final String INVOICES_PROPERTY = "invoices";
+	private static final String META_PROPERTY = "_meta";
+	private static final String TOTAL_PAGES_PROPERTY = "totalPages";
+	private static final String ERROR_NOT_AN_OBJECT = "Expected a JSON object as customer invoice response, got %s";
+	private static final char NEWLINE = '\n';
+
+	private static final JsonMapper JSON_MAPPER = JsonMapper.builder().build();
+	// The invoices are separated by newlines only, the output is left open when an upstream page has been written and an
+	// invoice cut short by a failing upstream read is not completed
+	private static final ObjectWriter WRITER = JSON_MAPPER.writer()
+		.withRootValueSeparator("")
+		.without(StreamWriteFeature.AUTO_CLOSE_TARGET)
+		.without(StreamWriteFeature.AUTO_CLOSE_CONTENT);
+
+	// Translations of the invoice fields whose values differ between upstream and the API, all other values are copied
+	private static final Map<String, UnaryOperator<String>> TRANSLATIONS = Map.of(
+		"customerType", value -> toCustomerType(CustomerType.fromValue(value)),
+		"invoiceNumber", UnaryOperator.identity(),
+		"invoiceType", InvoiceMapper::toInvoiceType,
+		"invoiceStatus", InvoiceMapper::toInvoiceStatus,
+		"ocrNumber", UnaryOperator.identity());
+
+	private CustomerInvoiceJsonTransformer() {}
+
+	/**
+	 * Transforms the response body, writing the invoices one per line.
+	 *
+	 * @param body               the upstream response body, which is closed when read.
+	 * @param output             the output to write to, which is flushed but not closed.
+	 * @param projection         the fields of the invoices to write.
+	 * @param totalPagesConsumer receives the total number of upstream pages as soon as it has been read, which may be
+	 *                           before the invoices are written
+	 */
+	public static void transform(final InputStream body, final OutputStream output, final Projection<generated.se.sundsvall.datawarehousereader.CustomerInvoice, CustomerInvoice> projection,
+		final IntConsumer totalPagesConsumer) {
+
+		try (final var parser = JSON_MAPPER.createParser(body);
+			final var generator = WRITER.createGenerator(output)) {
+
+			final var firstToken = parser.nextToken();
+			if (firstToken == null) {
+				return;
+			}
+			if (firstToken != JsonToken.START_OBJECT) {
+				throw new IllegalStateException(format(ERROR_NOT_AN_OBJECT, firstToken));
+			}
+
+			while (parser.nextToken() == JsonToken.PROPERTY_NAME) {
+				final var property = parser.currentName();
+				final var token = parser.nextToken();
+				if (INVOICES_PROPERTY.equals(property) && token == JsonToken.START_ARRAY) {
+					while (parser.nextToken() == JsonToken.START_OBJECT) {
+						transformInvoice(parser, generator, projection);
+						generator.writeRaw(NEWLINE);
+					}
+				} else if (META_PROPERTY.equals(property) && token == JsonToken.START_OBJECT) {
+					readTotalPages(parser, totalPagesConsumer);
+				} else {
+					parser.skipChildren();
+				}
+			}
+		}
+	}
+
+	private static void transformInvoice(final JsonParser parser, final JsonGenerator generator,
+		final Projection<generated.se.sundsvall.datawarehousereader.CustomerInvoice, CustomerInvoice> projection) {
+
+		var detailsWritten = false;
+		generator.writeStartObject();
+		while (parser.nextToken() == JsonToken.PROPERTY_NAME) {
+			final var name = parser.currentName();
+			final var token = parser.nextToken();
+			if (!projection.includes(name)) {
+				parser.skipChildren();
+			} else if (DETAILS_FIELD.equals(name)) {
+				transformDetails(parser, generator);
+				detailsWritten = true;
+			} else if (token != JsonToken.VALUE_NULL) {
+				generator.writeName(name);
+				final var translation = TRANSLATIONS.get(name);
+				if (translation != null) {
+					generator.writeString(translation.apply(parser.getValueAsString()));
+				} else {
+					copyValue(parser, generator);
+				}
+			}
+		}
+		if (!detailsWritten && projection.includes(DETAILS_FIELD)) {
+			// Mapped invoices without details get an empty list of details
+			generator.writeName(DETAILS_FIELD);
+			generator.writeStartArray();
+			generator.writeEndArray();
+		}
+		generator.writeEndObject();
+	}
+
+	private static void transformDetails(final JsonParser parser, final JsonGenerator generator) {
+		generator.writeName(DETAILS_FIELD);
+		generator.writeStartArray();
+		if (parser.currentToken() == JsonToken.START_ARRAY) {
+			while (parser.nextToken() == JsonToken.START_OBJECT) {
+				transformDetail(parser, generator);
+			}
+		} else {
+			parser.skipChildren();
+		}
+		generator.writeEndArray();
+	}
+
+	private static void transformDetail(final JsonParser parser, final JsonGenerator generator) {
+		var writtenFields = 0;
+		generator.writeStartObject();
+		while (parser.nextToken() == JsonToken.PROPERTY_NAME) {
+			final var field = DetailField.of(parser.currentName());
+			final var token = parser.nextToken();
+			if (field == null || token == JsonToken.VALUE_NULL) {
+				parser.skipChildren();
+			} else {
+				generator.writeName(field.fieldName);
+				field.value.write(parser, generator);
+				writtenFields |= field.bit();
+			}
+		}
+		// Details are serialized with their null values, so fields missing upstream are written as null
+		for (final var field : DetailField.ALL) {
+			if ((writtenFields & field.bit()) == 0) {
+				generator.writeName(field.fieldName);
+				generator.writeNull();
+			}
+		}
+		generator.writeEndObject();
+	}
+
+	private static void readTotalPages(final JsonParser parser, final IntConsumer totalPagesConsumer) {
+		while (parser.nextToken() == JsonToken.PROPERTY_NAME) {
+			final var property = parser.currentName();
+			if (parser.nextToken() == JsonToken.VALUE_NUMBER_INT && TOTAL_PAGES_PROPERTY.equals(property)) {
+				totalPagesConsumer.accept(parser.getIntValue());
+			} else {
+				parser.skipChildren();
+			}
+		}
+	}
+
+	private static void copyValue(final JsonParser parser, final JsonGenerator generator) {
+		if (parser.currentToken() == JsonToken.VALUE_NUMBER_FLOAT) {
+			// Copied as a decimal rather than as a double, so that amounts keep their exact value
+			generator.writeNumber(parser.getDecimalValue());
+		} else {
+			generator.copyCurrentStructure(parser);
+		}
+	}
+
+	/**
+	 * How the value of a detail field is written.
+	 */
+	private enum Value {
+		COPY,
+		STRING,
+		DOUBLE;
+
+		void write(final JsonParser parser, final JsonGenerator generator) {
+			switch (this) {
+				case COPY -> copyValue(parser, generator);
+				case STRING -> generator.writeString(parser.getValueAsString());
+				case DOUBLE -> generator.writeNumber(BigDecimal.valueOf(parser.getDoubleValue()));
+			}
+		}
+	}
+
+	/**
+	 * The fields of an API invoice detail, in the order they are declared, with the names of their upstream counterparts.
+	 */
+	private enum DetailField {
+		AMOUNT("amount", "amount", Value.COPY),
+		AMOUNT_VAT_EXCLUDED("amountVatExcluded", "amountVatExcluded", Value.COPY),
+		VAT("vat", "vat", Value.COPY),
+		VAT_RATE("vatRate", "vatRate", Value.DOUBLE),
+		QUANTITY("quantity", "quantity", Value.DOUBLE),
+		UNIT("unit", "unit", Value.COPY),
+		UNIT_PRICE("unitPrice", "unitPrice", Value.COPY),
+		DESCRIPTION("description", "description", Value.COPY),
+		PRODUCT_CODE("productCode", "productCode", Value.STRING),
+		PRODUCT_NAME("productName", "productName", Value.COPY),
+		FROM_DATE("periodFrom", "fromDate", Value.COPY),
+		TO_DATE("periodTo", "toDate", Value.COPY),
+		FACILITY_ID("facilityId", "facilityId", Value.COPY),
+		ADMINISTRATION("administration", "administration", Value.COPY);
+
+		private static final DetailField[] ALL = values();
+		private static final Map<String, DetailField> BY_SOURCE_NAME = Arrays.stream(ALL)
+			.collect(toUnmodifiableMap(field -> field.sourceName, Function.identity()));
+
+		private final String sourceName;
+		private final String fieldName;
+		private final Value value;
+
+		DetailField(final String sourceName, final String fieldName, final Value value) {
+			this.sourceName = sourceName;
+			this.fieldName = fieldName;
+			this.value = value;
+		}
+
+		static DetailField of(final String sourceName) {
+			return BY_SOURCE_NAME.get(sourceName);
+		}
+
+		int bit() {
+			return 1 << ordinal();
+		}
+	}
+}
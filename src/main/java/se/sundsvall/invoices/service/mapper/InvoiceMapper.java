@@ -1,21 +1,27 @@
 package se.sundsvall.invoices.service.mapper;
 
+import feign.Response;
 import generated.se.sundsvall.datawarehousereader.CustomerInvoiceResponse;
 import generated.se.sundsvall.datawarehousereader.InvoiceResponse;
 import generated.se.sundsvall.invoicecache.Invoice.InvoiceStatusEnum;
 import generated.se.sundsvall.invoicecache.Invoice.InvoiceTypeEnum;
 import generated.se.sundsvall.invoicecache.InvoiceFilterRequest;
 import generated.se.sundsvall.invoicecache.InvoicePdf;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
-import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
-import java.util.Base64;
-import java.util.Base64.Decoder;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
+import org.springframework.core.io.InputStreamResource;
 import org.springframework.data.domain.Sort;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.MediaType;
 import se.sundsvall.invoices.api.model.Address;
 import se.sundsvall.invoices.api.model.CustomerInvoice;
 import se.sundsvall.invoices.api.model.CustomerInvoicesResponse;
@@ -33,14 +39,121 @@ import se.sundsvall.invoices.service.InvoiceFile;
 import static java.math.BigDecimal.ZERO;
 import static java.util.Collections.emptyList;
 import static java.util.Collections.emptySet;
+import static java.util.Collections.unmodifiableMap;
 import static java.util.Optional.ofNullable;
+import static org.springframework.http.HttpHeaders.CONTENT_DISPOSITION;
+import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
 import static org.springframework.http.MediaType.APPLICATION_OCTET_STREAM;
 import static se.sundsvall.invoices.api.model.InvoiceOrigin.COMMERCIAL;
 import static se.sundsvall.invoices.api.model.InvoiceOrigin.PUBLIC_ADMINISTRATION;
+import static se.sundsvall.invoices.service.InvoiceFile.UNKNOWN_CONTENT_LENGTH;
 
 public final class InvoiceMapper {
 
-	private static final Decoder DECODER = Base64.getDecoder();
+	static final String DETAILS_FIELD = "details";
+
+	// Translation tables, computed once so that translating a value is a plain lookup
+	private static final Map<String, String> INVOICE_STATUS_BY_DATA_WAREHOUSE_READER_STATUS = Map.of(
+		"Betalad", InvoiceStatus.PAID.name(),
+		"Krediterad", InvoiceStatus.CREDITED.name(),
+		"Inkasso", InvoiceStatus.DEBT_COLLECTION.name(),
+		"Påminnelse", InvoiceStatus.REMINDER.name(),
+		"Avskriven", InvoiceStatus.WRITTEN_OFF.name(),
+		"Skickad", InvoiceStatus.SENT.name(),
+		"Makulerad", InvoiceStatus.VOID.name(),
+		"Överbetald", InvoiceStatus.PAID_TOO_MUCH.name());
+	private static final Map<String, String> INVOICE_TYPE_BY_DATA_WAREHOUSE_READER_TYPE = Map.of(
+		"Faktura", InvoiceType.INVOICE.name(),
+		"Kreditfaktura", InvoiceType.CREDIT_INVOICE.name(),
+		"Startfaktura", InvoiceType.START_INVOICE.name(),
+		"Slutfaktura", InvoiceType.FINAL_INVOICE.name(),
+		"Kvittning", InvoiceType.OFFSET_INVOICE.name(),
+		"Internfaktura", InvoiceType.INTERNAL_INVOICE.name(),
+		"Samlingsfaktura", InvoiceType.CONSOLIDATED_INVOICE.name());
+	private static final Map<InvoiceStatus, String> DATA_WAREHOUSE_READER_STATUS_BY_INVOICE_STATUS = toEnumMap(InvoiceStatus.class, InvoiceMapper::dataWarehouseReaderInvoiceStatusOf);
+	private static final Map<InvoiceType, String> DATA_WAREHOUSE_READER_TYPE_BY_INVOICE_TYPE = toEnumMap(InvoiceType.class, InvoiceMapper::dataWarehouseReaderInvoiceTypeOf);
+	private static final Map<InvoiceType, InvoiceTypeEnum> INVOICE_CACHE_TYPE_BY_INVOICE_TYPE = toEnumMap(InvoiceType.class, InvoiceMapper::invoiceCacheInvoiceTypeOf);
+	private static final Map<InvoiceStatusEnum, String> INVOICE_STATUS_BY_INVOICE_CACHE_STATUS = toEnumMap(InvoiceStatusEnum.class, status -> invoiceStatusOf(status).name());
+	private static final Map<InvoiceTypeEnum, String> INVOICE_TYPE_BY_INVOICE_CACHE_TYPE = toEnumMap(InvoiceTypeEnum.class, type -> invoiceTypeOf(type).name());
+
+	// Field mappings keyed on the field names of the API models, so that only the fields asked for are mapped
+	private static final Projection.Fields<generated.se.sundsvall.datawarehousereader.Invoice, Invoice> COMMERCIAL_INVOICE_FIELDS = new Projection.Fields<generated.se.sundsvall.datawarehousereader.Invoice, Invoice>()
+		.field("dueDate", (source, target) -> target.setDueDate(source.getDueDate()))
+		.field("totalAmount", (source, target) -> target.setTotalAmount(source.getTotalAmount()))
+		.field("amountVatIncluded", (source, target) -> target.setAmountVatIncluded(source.getAmountVatIncluded()))
+		.field("amountVatExcluded", (source, target) -> target.setAmountVatExcluded(source.getAmountVatExcluded()))
+		.field("vatEligibleAmount", (source, target) -> target.setVatEligibleAmount(source.getVatEligibleAmount()))
+		.field("rounding", (source, target) -> target.setRounding(source.getRounding()))
+		.field("vat", (source, target) -> target.setVat(source.getVat()))
+		.field("reversedVat", (source, target) -> target.setReversedVat(source.getReversedVat()))
+		.field("pdfAvailable", (source, target) -> target.setPdfAvailable(source.getPdfAvailable()))
+		.field("currency", (source, target) -> target.setCurrency(source.getCurrency()))
+		.field("invoiceDate", (source, target) -> target.setInvoiceDate(source.getInvoiceDate()))
+		.unmapped("fromDate", "toDate")
+		.field("invoiceNumber", (source, target) -> target.setInvoiceNumber(toString(source.getInvoiceNumber())))
+		.field("invoiceStatus", (source, target) -> target.setInvoiceStatus(toInvoiceStatus(source.getInvoiceStatus())))
+		.field("ocrNumber", (source, target) -> target.setOcrNumber(toString(source.getOcrNumber())))
+		.field("organizationNumber", (source, target) -> target.setOrganizationNumber(source.getOrganizationNumber()))
+		.field("invoiceName", (source, target) -> target.setInvoiceName(source.getInvoiceName()))
+		.field("invoiceType", (source, target) -> target.setInvoiceType(toInvoiceType(source.getInvoiceType())))
+		.field("invoiceDescriptions", (source, target) -> target.setInvoiceDescriptions(source.getInvoiceDescriptions()))
+		.field("invoiceAddress", (source, target) -> target.setInvoiceAddress(toAddress(source)))
+		.field("facilityIds", (source, target) -> target.setFacilityIds(source.getFacilityIds()))
+		.field("invoiceOrigin", (source, target) -> target.setInvoiceOrigin(COMMERCIAL.name()));
+	private static final Projection.Fields<generated.se.sundsvall.invoicecache.Invoice, Invoice> PUBLIC_ADMINISTRATION_INVOICE_FIELDS = new Projection.Fields<generated.se.sundsvall.invoicecache.Invoice, Invoice>()
+		.field("dueDate", (source, target) -> target.setDueDate(source.getInvoiceDueDate()))
+		.field("totalAmount", (source, target) -> target.setTotalAmount(source.getTotalAmount()))
+		.field("amountVatIncluded", (source, target) -> target.setAmountVatIncluded(nullableAdd(source.getAmountVatExcluded(), source.getVat())))
+		.field("amountVatExcluded", (source, target) -> target.setAmountVatExcluded(source.getAmountVatExcluded()))
+		.unmapped("vatEligibleAmount", "rounding")
+		.field("vat", (source, target) -> target.setVat(source.getVat()))
+		.unmapped("reversedVat", "pdfAvailable")
+		.field("currency", (source, target) -> target.setCurrency("SEK"))
+		.field("invoiceDate", (source, target) -> target.setInvoiceDate(source.getInvoiceDate()))
+		.unmapped("fromDate", "toDate")
+		.field("invoiceNumber", (source, target) -> target.setInvoiceNumber(source.getInvoiceNumber()))
+		.field("invoiceStatus", (source, target) -> target.setInvoiceStatus(toInvoiceStatus(source.getInvoiceStatus())))
+		.field("ocrNumber", (source, target) -> target.setOcrNumber(source.getOcrNumber()))
+		.unmapped("organizationNumber", "invoiceName")
+		.field("invoiceType", (source, target) -> target.setInvoiceType(toInvoiceType(source.getInvoiceType())))
+		.field("invoiceDescriptions", (source, target) -> target.setInvoiceDescriptions(ofNullable(source.getInvoiceDescription()).map(Set::of).orElse(emptySet())))
+		.field("invoiceAddress", (source, target) -> target.setInvoiceAddress(toAddress(source)))
+		.unmapped("facilityIds")
+		.field("invoiceOrigin", (source, target) -> target.setInvoiceOrigin(PUBLIC_ADMINISTRATION.name()));
+	private static final Projection.Fields<generated.se.sundsvall.datawarehousereader.CustomerInvoice, CustomerInvoice> CUSTOMER_INVOICE_FIELDS = new Projection.Fields<generated.se.sundsvall.datawarehousereader.CustomerInvoice, CustomerInvoice>()
+		.field("customerNumber", (source, target) -> target.setCustomerNumber(source.getCustomerNumber()))
+		.field("customerType", (source, target) -> target.setCustomerType(toCustomerType(source.getCustomerType())))
+		.field("facilityIds", (source, target) -> target.setFacilityIds(source.getFacilityIds()))
+		.field("invoiceNumber", (source, target) -> target.setInvoiceNumber(toString(source.getInvoiceNumber())))
+		.field("invoiceId", (source, target) -> target.setInvoiceId(source.getInvoiceId()))
+		.field("jointInvoiceId", (source, target) -> target.setJointInvoiceId(source.getJointInvoiceId()))
+		.field("invoiceDate", (source, target) -> target.setInvoiceDate(source.getInvoiceDate()))
+		.field("invoiceName", (source, target) -> target.setInvoiceName(source.getInvoiceName()))
+		.field("invoiceType", (source, target) -> target.setInvoiceType(toInvoiceType(source.getInvoiceType())))
+		.field("invoiceDescription", (source, target) -> target.setInvoiceDescription(source.getInvoiceDescription()))
+		.field("invoiceStatus", (source, target) -> target.setInvoiceStatus(toInvoiceStatus(source.getInvoiceStatus())))
+		.field("ocrNumber", (source, target) -> target.setOcrNumber(toString(source.getOcrNumber())))
+		.field("dueDate", (source, target) -> target.setDueDate(source.getDueDate()))
+		.field("periodFrom", (source, target) -> target.setPeriodFrom(source.getPeriodFrom()))
+		.field("periodTo", (source, target) -> target.setPeriodTo(source.getPeriodTo()))
+		.field("totalAmount", (source, target) -> target.setTotalAmount(source.getTotalAmount()))
+		.field("amountVatIncluded", (source, target) -> target.setAmountVatIncluded(source.getAmountVatIncluded()))
+		.field("amountVatExcluded", (source, target) -> target.setAmountVatExcluded(source.getAmountVatExcluded()))
+		.field("vatEligibleAmount", (source, target) -> target.setVatEligibleAmount(source.getVatEligibleAmount()))
+		.field("rounding", (source, target) -> target.setRounding(source.getRounding()))
+		.field("organizationGroup", (source, target) -> target.setOrganizationGroup(source.getOrganizationGroup()))
+		.field("organizationNumber", (source, target) -> target.setOrganizationNumber(source.getOrganizationNumber()))
+		.field("administration", (source, target) -> target.setAdministration(source.getAdministration()))
+		.field("street", (source, target) -> target.setStreet(source.getStreet()))
+		.field("postCode", (source, target) -> target.setPostCode(source.getPostCode()))
+		.field("city", (source, target) -> target.setCity(source.getCity()))
+		.field("careOf", (source, target) -> target.setCareOf(source.getCareOf()))
+		.field("invoiceReference", (source, target) -> target.setInvoiceReference(source.getInvoiceReference()))
+		.field("pdfAvailable", (source, target) -> target.setPdfAvailable(source.getPdfAvailable()))
+		.field(DETAILS_FIELD, (source, target) -> target.setDetails(toInvoiceDetails(source.getDetails())));
+	private static final Projection<generated.se.sundsvall.datawarehousereader.Invoice, Invoice> ALL_COMMERCIAL_INVOICE_FIELDS = COMMERCIAL_INVOICE_FIELDS.all();
+	private static final Projection<generated.se.sundsvall.invoicecache.Invoice, Invoice> ALL_PUBLIC_ADMINISTRATION_INVOICE_FIELDS = PUBLIC_ADMINISTRATION_INVOICE_FIELDS.all();
+	private static final Projection<generated.se.sundsvall.datawarehousereader.CustomerInvoice, CustomerInvoice> ALL_CUSTOMER_INVOICE_FIELDS = CUSTOMER_INVOICE_FIELDS.all();
 
 	private InvoiceMapper() {}
 
@@ -49,9 +162,22 @@ public final class InvoiceMapper {
 	 ***************************************************************/
 
 	public static InvoicesResponse toInvoicesResponse(final InvoiceResponse dataWarehouseReaderInvoiceResponse) {
+		return toInvoicesResponse(dataWarehouseReaderInvoiceResponse, ALL_COMMERCIAL_INVOICE_FIELDS);
+	}
+
+	public static InvoicesResponse toInvoicesResponse(final InvoiceResponse dataWarehouseReaderInvoiceResponse,
+		final Projection<generated.se.sundsvall.datawarehousereader.Invoice, Invoice> projection) {
+
 		return InvoicesResponse.create()
 			.withMetaData(ofNullable(dataWarehouseReaderInvoiceResponse.getMeta()).map(InvoiceMapper::toMetaData).orElse(null))
-			.withInvoices(toInvoicesFromDataWarehouseReader(dataWarehouseReaderInvoiceResponse.getInvoices()));
+			.withInvoices(toInvoicesFromDataWarehouseReader(dataWarehouseReaderInvoiceResponse.getInvoices(), projection));
+	}
+
+	/**
+	 * Returns the projection of the named fields of commercial invoices, or of all fields when no names are sent in.
+	 */
+	public static Projection<generated.se.sundsvall.datawarehousereader.Invoice, Invoice> toCommercialInvoiceProjection(final List<String> fields) {
+		return COMMERCIAL_INVOICE_FIELDS.select(fields);
 	}
 
 	public static List<InvoiceDetail> toInvoiceDetails(final List<generated.se.sundsvall.datawarehousereader.InvoiceDetail> dataWarehouseReaderInvoiceDetails) {
@@ -60,36 +186,18 @@ public final class InvoiceMapper {
 			.toList();
 	}
 
-	private static List<Invoice> toInvoicesFromDataWarehouseReader(final List<generated.se.sundsvall.datawarehousereader.Invoice> dataWarehouseReaderInvoices) {
+	private static List<Invoice> toInvoicesFromDataWarehouseReader(final List<generated.se.sundsvall.datawarehousereader.Invoice> dataWarehouseReaderInvoices,
+		final Projection<generated.se.sundsvall.datawarehousereader.Invoice, Invoice> projection) {
+
 		return ofNullable(dataWarehouseReaderInvoices).orElse(emptyList()).stream()
-			.map(InvoiceMapper::toInvoice)
+			.map(dataWarehouseReaderInvoice -> {
+				final var invoice = Invoice.create();
+				projection.apply(dataWarehouseReaderInvoice, invoice);
+				return invoice;
+			})
 			.toList();
 	}
 
-	private static Invoice toInvoice(final generated.se.sundsvall.datawarehousereader.Invoice dataWarehouseReaderInvoice) {
-		return Invoice.create().withDueDate(dataWarehouseReaderInvoice.getDueDate())
-			.withTotalAmount(dataWarehouseReaderInvoice.getTotalAmount())
-			.withAmountVatIncluded(dataWarehouseReaderInvoice.getAmountVatIncluded())
-			.withAmountVatExcluded(dataWarehouseReaderInvoice.getAmountVatExcluded())
-			.withVatEligibleAmount(dataWarehouseReaderInvoice.getVatEligibleAmount())
-			.withRounding(dataWarehouseReaderInvoice.getRounding())
-			.withVat(dataWarehouseReaderInvoice.getVat())
-			.withReversedVat(dataWarehouseReaderInvoice.getReversedVat())
-			.withCurrency(dataWarehouseReaderInvoice.getCurrency())
-			.withInvoiceDate(dataWarehouseReaderInvoice.getInvoiceDate())
-			.withInvoiceNumber(toString(dataWarehouseReaderInvoice.getInvoiceNumber()))
-			.withInvoiceStatus(toInvoiceStatus(dataWarehouseReaderInvoice.getInvoiceStatus()))
-			.withOcrNumber(toString(dataWarehouseReaderInvoice.getOcrNumber()))
-			.withOrganizationNumber(dataWarehouseReaderInvoice.getOrganizationNumber())
-			.withInvoiceName(dataWarehouseReaderInvoice.getInvoiceName())
-			.withInvoiceType(toInvoiceType(dataWarehouseReaderInvoice.getInvoiceType()))
-			.withInvoiceDescriptions(dataWarehouseReaderInvoice.getInvoiceDescriptions())
-			.withFacilityIds(dataWarehouseReaderInvoice.getFacilityIds())
-			.withPdfAvailable(dataWarehouseReaderInvoice.getPdfAvailable())
-			.withInvoiceAddress(toAddress(dataWarehouseReaderInvoice))
-			.withInvoiceOrigin(COMMERCIAL.name());
-	}
-
 	private static InvoiceDetail toInvoiceDetail(final generated.se.sundsvall.datawarehousereader.InvoiceDetail dataWarehouseReaderInvoiceDetail) {
 		return InvoiceDetail.create()
 			.withAmount(dataWarehouseReaderInvoiceDetail.getAmount())
@@ -125,122 +233,103 @@ public final class InvoiceMapper {
 	}
 
 	static String toInvoiceStatus(final String dataWarehouseReaderInvoiceStatus) {
-		return Optional.ofNullable(dataWarehouseReaderInvoiceStatus)
-			.map(invoiceStatus -> switch (invoiceStatus)
-			{
-				case "Betalad" -> InvoiceStatus.PAID;
-				case "Krediterad" -> InvoiceStatus.CREDITED;
-				case "Inkasso" -> InvoiceStatus.DEBT_COLLECTION;
-				case "Påminnelse" -> InvoiceStatus.REMINDER;
-				case "Avskriven" -> InvoiceStatus.WRITTEN_OFF;
-				case "Skickad" -> InvoiceStatus.SENT;
-				case "Makulerad" -> InvoiceStatus.VOID;
-				case "Överbetald" -> InvoiceStatus.PAID_TOO_MUCH;
-				default -> InvoiceStatus.UNKNOWN;
-			})
-			.map(InvoiceStatus::name)
-			.orElse(null);
+		if (dataWarehouseReaderInvoiceStatus == null) {
+			return null;
+		}
+		return INVOICE_STATUS_BY_DATA_WAREHOUSE_READER_STATUS.getOrDefault(dataWarehouseReaderInvoiceStatus, InvoiceStatus.UNKNOWN.name());
 	}
 
 	static String toInvoiceType(final String dataWarehouseReaderInvoiceType) {
-		return Optional.ofNullable(dataWarehouseReaderInvoiceType)
-			.map(invoiceType -> switch (invoiceType)
-			{
-				case "Faktura" -> InvoiceType.INVOICE;
-				case "Kreditfaktura" -> InvoiceType.CREDIT_INVOICE;
-				case "Startfaktura" -> InvoiceType.START_INVOICE;
-				case "Slutfaktura" -> InvoiceType.FINAL_INVOICE;
-				case "Kvittning" -> InvoiceType.OFFSET_INVOICE;
-				case "Internfaktura" -> InvoiceType.INTERNAL_INVOICE;
-				case "Samlingsfaktura" -> InvoiceType.CONSOLIDATED_INVOICE;
-				default -> InvoiceType.UNKNOWN;
-			})
-			.map(InvoiceType::name)
-			.orElse(null);
+		if (dataWarehouseReaderInvoiceType == null) {
+			return null;
+		}
+		return INVOICE_TYPE_BY_DATA_WAREHOUSE_READER_TYPE.getOrDefault(dataWarehouseReaderInvoiceType, InvoiceType.UNKNOWN.name());
 	}
 
 	public static String toDataWarehouseReaderInvoiceStatus(final String invoiceStatus) {
-		return ofNullable(invoiceStatus)
-			.map(InvoiceStatus::valueOf)
-			.map(status -> switch (status)
-			{
-				case PAID -> "Betalad";
-				case CREDITED -> "Krediterad";
-				case DEBT_COLLECTION -> "Inkasso";
-				case WRITTEN_OFF -> "Avskriven";
-				case SENT -> "Skickad";
-				case REMINDER -> "Påminnelse";
-				case VOID -> "Makulerad";
-				case PAID_TOO_MUCH -> "Överbetald";
-				case UNKNOWN -> "Okänd";
-				default -> null;
-			})
-			.orElse(null);
+		if (invoiceStatus == null) {
+			return null;
+		}
+		return DATA_WAREHOUSE_READER_STATUS_BY_INVOICE_STATUS.get(InvoiceStatus.valueOf(invoiceStatus));
 	}
 
 	public static String toDataWarehouseReaderInvoiceType(final String invoiceType) {
-		return ofNullable(invoiceType)
-			.map(InvoiceType::valueOf)
-			.map(type -> switch (type)
-			{
-				case INVOICE -> "Faktura";
-				case CREDIT_INVOICE -> "Kreditfaktura";
-				case START_INVOICE -> "Startfaktura";
-				case FINAL_INVOICE -> "Slutfaktura";
-				case OFFSET_INVOICE -> "Kvittning";
-				case INTERNAL_INVOICE -> "Internfaktura";
-				case CONSOLIDATED_INVOICE -> "Samlingsfaktura";
-				default -> null;
-			})
-			.orElse(null);
+		if (invoiceType == null) {
+			return null;
+		}
+		return DATA_WAREHOUSE_READER_TYPE_BY_INVOICE_TYPE.get(InvoiceType.valueOf(invoiceType));
+	}
+
+	private static String dataWarehouseReaderInvoiceStatusOf(final InvoiceStatus status) {
+		return switch (status)
+		{
+			case PAID -> "Betalad";
+			case CREDITED -> "Krediterad";
+			case DEBT_COLLECTION -> "Inkasso";
+			case WRITTEN_OFF -> "Avskriven";
+			case SENT -> "Skickad";
+			case REMINDER -> "Påminnelse";
+			case VOID -> "Makulerad";
+			case PAID_TOO_MUCH -> "Överbetald";
+			case UNKNOWN -> "Okänd";
+			// Not searchable in DataWarehouseReader
+			case PARTIALLY_PAID -> null;
+		};
+	}
+
+	private static String dataWarehouseReaderInvoiceTypeOf(final InvoiceType type) {
+		return switch (type)
+		{
+			case INVOICE -> "Faktura";
+			case CREDIT_INVOICE -> "Kreditfaktura";
+			case START_INVOICE -> "Startfaktura";
+			case FINAL_INVOICE -> "Slutfaktura";
+			case OFFSET_INVOICE -> "Kvittning";
+			case INTERNAL_INVOICE -> "Internfaktura";
+			case CONSOLIDATED_INVOICE -> "Samlingsfaktura";
+			// Not searchable in DataWarehouseReader
+			case DIRECT_DEBIT, SELF_INVOICE, REMINDER, UNKNOWN -> null;
+		};
 	}
 
 	public static CustomerInvoicesResponse toCustomerInvoicesResponse(final CustomerInvoiceResponse customerInvoiceResponse) {
+		return toCustomerInvoicesResponse(customerInvoiceResponse, null);
+	}
+
+	public static CustomerInvoicesResponse toCustomerInvoicesResponse(final CustomerInvoiceResponse customerInvoiceResponse, final String nextCursor) {
+		return toCustomerInvoicesResponse(customerInvoiceResponse, nextCursor, ALL_CUSTOMER_INVOICE_FIELDS);
+	}
+
+	public static CustomerInvoicesResponse toCustomerInvoicesResponse(final CustomerInvoiceResponse customerInvoiceResponse, final String nextCursor,
+		final Projection<generated.se.sundsvall.datawarehousereader.CustomerInvoice, CustomerInvoice> projection) {
+
 		return ofNullable(customerInvoiceResponse)
 			.map(response -> CustomerInvoicesResponse.create()
-				.withMetaData(ofNullable(response.getMeta()).map(InvoiceMapper::toMetaData).orElse(null))
-				.withInvoices(toCustomerInvoices(response.getInvoices())))
+				.withMetaData(ofNullable(response.getMeta()).map(meta -> toMetaData(meta).withNextCursor(nextCursor)).orElse(null))
+				.withInvoices(toCustomerInvoices(response.getInvoices(), projection)))
 			.orElse(null);
 	}
 
-	private static List<CustomerInvoice> toCustomerInvoices(final List<generated.se.sundsvall.datawarehousereader.CustomerInvoice> customerInvoices) {
-		return ofNullable(customerInvoices).orElse(emptyList()).stream()
-			.map(InvoiceMapper::toCustomerInvoice)
-			.toList();
+	/**
+	 * Returns the projection of the named fields of customer invoices, or of all fields when no names are sent in. The
+	 * details, which are the most costly field to map, are left out when they are not to be included.
+	 */
+	public static Projection<generated.se.sundsvall.datawarehousereader.CustomerInvoice, CustomerInvoice> toCustomerInvoiceProjection(final List<String> fields,
+		final boolean includeDetails) {
+
+		return includeDetails ? CUSTOMER_INVOICE_FIELDS.select(fields) : CUSTOMER_INVOICE_FIELDS.select(fields, List.of(DETAILS_FIELD));
 	}
 
-	private static CustomerInvoice toCustomerInvoice(final generated.se.sundsvall.datawarehousereader.CustomerInvoice customerInvoice) {
-		return CustomerInvoice.create()
-			.withCustomerNumber(customerInvoice.getCustomerNumber())
-			.withCustomerType(toCustomerType(customerInvoice.getCustomerType()))
-			.withFacilityIds(customerInvoice.getFacilityIds())
-			.withInvoiceNumber(toString(customerInvoice.getInvoiceNumber()))
-			.withInvoiceId(customerInvoice.getInvoiceId())
-			.withJointInvoiceId(customerInvoice.getJointInvoiceId())
-			.withInvoiceDate(customerInvoice.getInvoiceDate())
-			.withInvoiceName(customerInvoice.getInvoiceName())
-			.withInvoiceType(toInvoiceType(customerInvoice.getInvoiceType()))
-			.withInvoiceDescription(customerInvoice.getInvoiceDescription())
-			.withInvoiceStatus(toInvoiceStatus(customerInvoice.getInvoiceStatus()))
-			.withOcrNumber(toString(customerInvoice.getOcrNumber()))
-			.withDueDate(customerInvoice.getDueDate())
-			.withPeriodFrom(customerInvoice.getPeriodFrom())
-			.withPeriodTo(customerInvoice.getPeriodTo())
-			.withTotalAmount(customerInvoice.getTotalAmount())
-			.withAmountVatIncluded(customerInvoice.getAmountVatIncluded())
-			.withAmountVatExcluded(customerInvoice.getAmountVatExcluded())
-			.withVatEligibleAmount(customerInvoice.getVatEligibleAmount())
-			.withRounding(customerInvoice.getRounding())
-			.withOrganizationGroup(customerInvoice.getOrganizationGroup())
-			.withOrganizationNumber(customerInvoice.getOrganizationNumber())
-			.withAdministration(customerInvoice.getAdministration())
-			.withStreet(customerInvoice.getStreet())
-			.withPostCode(customerInvoice.getPostCode())
-			.withCity(customerInvoice.getCity())
-			.withCareOf(customerInvoice.getCareOf())
-			.withInvoiceReference(customerInvoice.getInvoiceReference())
-			.withPdfAvailable(customerInvoice.getPdfAvailable())
-			.withDetails(toInvoiceDetails(customerInvoice.getDetails()));
+	private static List<CustomerInvoice> toCustomerInvoices(final List<generated.se.sundsvall.datawarehousereader.CustomerInvoice> customerInvoices,
+		final Projection<generated.se.sundsvall.datawarehousereader.CustomerInvoice, CustomerInvoice> projection) {
+
+		return ofNullable(customerInvoices).orElse(emptyList()).stream()
+			.map(customerInvoice -> {
+				final var invoice = CustomerInvoice.create();
+				projection.apply(customerInvoice, invoice);
+				return invoice;
+			})
+			.toList();
 	}
 
 	static String toCustomerType(final generated.se.sundsvall.datawarehousereader.CustomerType customerType) {
@@ -270,25 +359,45 @@ public final class InvoiceMapper {
 	 ***************************************************************/
 
 	public static InvoiceTypeEnum toInvoiceCacheInvoiceType(final String invoiceType) {
-		return Optional.ofNullable(invoiceType)
-			.map(InvoiceType::valueOf)
-			.map(type -> switch (type)
-			{
-				case INVOICE -> InvoiceTypeEnum.INVOICE;
-				case CREDIT_INVOICE -> InvoiceTypeEnum.CREDIT_INVOICE;
-				case FINAL_INVOICE -> InvoiceTypeEnum.FINAL_INVOICE;
-				case DIRECT_DEBIT -> InvoiceTypeEnum.DIRECT_DEBIT;
-				case SELF_INVOICE -> InvoiceTypeEnum.SELF_INVOICE;
-				case REMINDER -> InvoiceTypeEnum.REMINDER;
-				case CONSOLIDATED_INVOICE -> InvoiceTypeEnum.CONSOLIDATED_INVOICE;
-				default -> null;
-			}).orElse(null);
+		if (invoiceType == null) {
+			return null;
+		}
+		return INVOICE_CACHE_TYPE_BY_INVOICE_TYPE.get(InvoiceType.valueOf(invoiceType));
+	}
+
+	private static InvoiceTypeEnum invoiceCacheInvoiceTypeOf(final InvoiceType type) {
+		return switch (type)
+		{
+			case INVOICE -> InvoiceTypeEnum.INVOICE;
+			case CREDIT_INVOICE -> InvoiceTypeEnum.CREDIT_INVOICE;
+			case FINAL_INVOICE -> InvoiceTypeEnum.FINAL_INVOICE;
+			case DIRECT_DEBIT -> InvoiceTypeEnum.DIRECT_DEBIT;
+			case SELF_INVOICE -> InvoiceTypeEnum.SELF_INVOICE;
+			case REMINDER -> InvoiceTypeEnum.REMINDER;
+			case CONSOLIDATED_INVOICE -> InvoiceTypeEnum.CONSOLIDATED_INVOICE;
+			// Not searchable in InvoiceCache
+			case START_INVOICE, INTERNAL_INVOICE, OFFSET_INVOICE, UNKNOWN -> null;
+		};
 	}
 
 	public static InvoicesResponse toInvoicesResponse(final generated.se.sundsvall.invoicecache.InvoicesResponse invoiceCacheInvoiceResponse) {
+		return toInvoicesResponse(invoiceCacheInvoiceResponse, ALL_PUBLIC_ADMINISTRATION_INVOICE_FIELDS);
+	}
+
+	public static InvoicesResponse toInvoicesResponse(final generated.se.sundsvall.invoicecache.InvoicesResponse invoiceCacheInvoiceResponse,
+		final Projection<generated.se.sundsvall.invoicecache.Invoice, Invoice> projection) {
+
 		return InvoicesResponse.create()
 			.withMetaData(ofNullable(invoiceCacheInvoiceResponse.getMeta()).map(InvoiceMapper::toMetaData).orElse(null))
-			.withInvoices(toInvoicesFromInvoiceCache(invoiceCacheInvoiceResponse.getInvoices()));
+			.withInvoices(toInvoicesFromInvoiceCache(invoiceCacheInvoiceResponse.getInvoices(), projection));
+	}
+
+	/**
+	 * Returns the projection of the named fields of public administration invoices, or of all fields when no names are
+	 * sent in.
+	 */
+	public static Projection<generated.se.sundsvall.invoicecache.Invoice, Invoice> toPublicAdministrationInvoiceProjection(final List<String> fields) {
+		return PUBLIC_ADMINISTRATION_INVOICE_FIELDS.select(fields);
 	}
 
 	public static InvoiceFilterRequest toInvoiceCacheParameters(final InvoicesParameters invoiceParameters) {
@@ -304,30 +413,18 @@ public final class InvoiceMapper {
 			.limit(invoiceParameters.getLimit());
 	}
 
-	private static List<Invoice> toInvoicesFromInvoiceCache(final List<generated.se.sundsvall.invoicecache.Invoice> invoiceCacheInvoices) {
+	private static List<Invoice> toInvoicesFromInvoiceCache(final List<generated.se.sundsvall.invoicecache.Invoice> invoiceCacheInvoices,
+		final Projection<generated.se.sundsvall.invoicecache.Invoice, Invoice> projection) {
+
 		return ofNullable(invoiceCacheInvoices).orElse(emptyList()).stream()
-			.map(InvoiceMapper::toInvoice)
+			.map(invoiceCacheInvoice -> {
+				final var invoice = Invoice.create();
+				projection.apply(invoiceCacheInvoice, invoice);
+				return invoice;
+			})
 			.toList();
 	}
 
-	private static Invoice toInvoice(final generated.se.sundsvall.invoicecache.Invoice invoiceCacheInvoice) {
-		return Invoice.create()
-			.withCurrency("SEK")
-			.withDueDate(invoiceCacheInvoice.getInvoiceDueDate())
-			.withTotalAmount(invoiceCacheInvoice.getTotalAmount())
-			.withAmountVatIncluded(nullableAdd(invoiceCacheInvoice.getAmountVatExcluded(), invoiceCacheInvoice.getVat()))
-			.withAmountVatExcluded(invoiceCacheInvoice.getAmountVatExcluded())
-			.withVat(invoiceCacheInvoice.getVat())
-			.withInvoiceDate(invoiceCacheInvoice.getInvoiceDate())
-			.withInvoiceDescriptions(ofNullable(invoiceCacheInvoice.getInvoiceDescription()).map(Set::of).orElse(emptySet()))
-			.withInvoiceNumber(invoiceCacheInvoice.getInvoiceNumber())
-			.withOcrNumber(invoiceCacheInvoice.getOcrNumber())
-			.withInvoiceStatus(toInvoiceStatus(invoiceCacheInvoice.getInvoiceStatus()))
-			.withInvoiceType(toInvoiceType(invoiceCacheInvoice.getInvoiceType()))
-			.withInvoiceAddress(toAddress(invoiceCacheInvoice))
-			.withInvoiceOrigin(PUBLIC_ADMINISTRATION.name());
-	}
-
 	private static Address toAddress(final generated.se.sundsvall.invoicecache.Invoice invoiceCacheInvoice) {
 		return Optional.ofNullable(invoiceCacheInvoice.getInvoiceAddress())
 			.map(invoiceAddress -> Address.create()
@@ -339,36 +436,44 @@ public final class InvoiceMapper {
 	}
 
 	static String toInvoiceStatus(final InvoiceStatusEnum invoiceStatusEnum) {
-		return Optional.ofNullable(invoiceStatusEnum)
-			.map(invoiceStatus -> switch (invoiceStatus)
-			{
-				case PAID -> InvoiceStatus.PAID;
-				case UNPAID, SENT -> InvoiceStatus.SENT;
-				case PARTIALLY_PAID -> InvoiceStatus.PARTIALLY_PAID;
-				case DEBT_COLLECTION -> InvoiceStatus.DEBT_COLLECTION;
-				case PAID_TOO_MUCH -> InvoiceStatus.PAID_TOO_MUCH;
-				case REMINDER -> InvoiceStatus.REMINDER;
-				case VOID -> InvoiceStatus.VOID;
-				case UNKNOWN -> InvoiceStatus.UNKNOWN;
-			})
-			.map(InvoiceStatus::name)
-			.orElse(null);
+		if (invoiceStatusEnum == null) {
+			return null;
+		}
+		return INVOICE_STATUS_BY_INVOICE_CACHE_STATUS.get(invoiceStatusEnum);
 	}
 
 	static String toInvoiceType(final InvoiceTypeEnum invoiceTypeEnum) {
-		return Optional.ofNullable(invoiceTypeEnum)
-			.map(invoiceType -> switch (invoiceType)
-			{
-				case INVOICE -> InvoiceType.INVOICE;
-				case CREDIT_INVOICE -> InvoiceType.CREDIT_INVOICE;
-				case FINAL_INVOICE -> InvoiceType.FINAL_INVOICE;
-				case DIRECT_DEBIT -> InvoiceType.DIRECT_DEBIT;
-				case SELF_INVOICE -> InvoiceType.SELF_INVOICE;
-				case REMINDER -> InvoiceType.REMINDER;
-				case CONSOLIDATED_INVOICE -> InvoiceType.CONSOLIDATED_INVOICE;
-			})
-			.map(InvoiceType::name)
-			.orElse(null);
+		if (invoiceTypeEnum == null) {
+			return null;
+		}
+		return INVOICE_TYPE_BY_INVOICE_CACHE_TYPE.get(invoiceTypeEnum);
+	}
+
+	private static InvoiceStatus invoiceStatusOf(final InvoiceStatusEnum invoiceStatus) {
+		return switch (invoiceStatus)
+		{
+			case PAID -> InvoiceStatus.PAID;
+			case UNPAID, SENT -> InvoiceStatus.SENT;
+			case PARTIALLY_PAID -> InvoiceStatus.PARTIALLY_PAID;
+			case DEBT_COLLECTION -> InvoiceStatus.DEBT_COLLECTION;
+			case PAID_TOO_MUCH -> InvoiceStatus.PAID_TOO_MUCH;
+			case REMINDER -> InvoiceStatus.REMINDER;
+			case VOID -> InvoiceStatus.VOID;
+			case UNKNOWN -> InvoiceStatus.UNKNOWN;
+		};
+	}
+
+	private static InvoiceType invoiceTypeOf(final InvoiceTypeEnum invoiceType) {
+		return switch (invoiceType)
+		{
+			case INVOICE -> InvoiceType.INVOICE;
+			case CREDIT_INVOICE -> InvoiceType.CREDIT_INVOICE;
+			case FINAL_INVOICE -> InvoiceType.FINAL_INVOICE;
+			case DIRECT_DEBIT -> InvoiceType.DIRECT_DEBIT;
+			case SELF_INVOICE -> InvoiceType.SELF_INVOICE;
+			case REMINDER -> InvoiceType.REMINDER;
+			case CONSOLIDATED_INVOICE -> InvoiceType.CONSOLIDATED_INVOICE;
+		};
 	}
 
 	private static MetaData toMetaData(final generated.se.sundsvall.invoicecache.MetaData invoiceCacheMetaData) {
@@ -384,19 +489,49 @@ public final class InvoiceMapper {
 		return ofNullable(invoicePdf)
 			.map(i -> PdfInvoice.create()
 				.withFileName(i.getName())
-				.withFile(ofNullable(i.getContent())
-					.map(c -> DECODER.decode(c.getBytes(StandardCharsets.UTF_8)))
-					.orElse(null)))
+				.withEncodedFile(i.getContent()))
 			.orElse(null);
 	}
 
-	public static InvoiceFile toInvoiceFile(final ResponseEntity<byte[]> response, final String invoiceNumber) {
-		final var contentType = ofNullable(response.getHeaders().getContentType()).orElse(APPLICATION_OCTET_STREAM);
-		final var extension = "zip".equals(contentType.getSubtype()) ? ".zip" : ".pdf";
-		final var fileName = ofNullable(response.getHeaders().getContentDisposition().getFilename())
-			.filter(name -> !name.isBlank())
-			.orElse(invoiceNumber + extension);
-		return new InvoiceFile(response.getBody(), contentType, fileName);
+	/**
+	 * Maps the response to an invoice file streaming its body. The response is closed when the mapping fails, e.g. on a
+	 * malformed content type or content disposition header, as it is not handed over to the caller then.
+	 */
+	public static InvoiceFile toInvoiceFile(final Response response, final String invoiceNumber) {
+		try {
+			final var contentType = toFirstHeaderValue(response, CONTENT_TYPE).map(MediaType::parseMediaType).orElse(APPLICATION_OCTET_STREAM);
+			final var extension = "zip".equals(contentType.getSubtype()) ? ".zip" : ".pdf";
+			final var fileName = toFirstHeaderValue(response, CONTENT_DISPOSITION)
+				.map(ContentDisposition::parse)
+				.map(ContentDisposition::getFilename)
+				.filter(name -> !name.isBlank())
+				.orElse(invoiceNumber + extension);
+			final var contentLength = ofNullable(response.body())
+				.map(Response.Body::length)
+				.map(Integer::longValue)
+				.orElse(UNKNOWN_CONTENT_LENGTH);
+			return new InvoiceFile(new InputStreamResource(toInputStream(response.body())), contentLength, contentType, fileName, null, null);
+		} catch (final RuntimeException e) {
+			response.close();
+			throw e;
+		}
+	}
+
+	private static Optional<String> toFirstHeaderValue(final Response response, final String headerName) {
+		return ofNullable(response.headers())
+			.map(headers -> headers.get(headerName))
+			.flatMap(values -> values.stream().findFirst());
+	}
+
+	private static InputStream toInputStream(final Response.Body body) {
+		if (body == null) {
+			return InputStream.nullInputStream();
+		}
+		try {
+			return body.asInputStream();
+		} catch (final IOException e) {
+			throw new UncheckedIOException(e);
+		}
 	}
 
 	/*********************************
@@ -419,6 +554,14 @@ public final class InvoiceMapper {
 		return ofNullable(value).map(BigDecimal::valueOf).orElse(null);
 	}
 
+	private static <E extends Enum<E>, T> Map<E, T> toEnumMap(final Class<E> enumType, final Function<E, T> translation) {
+		final var map = new EnumMap<E, T>(enumType);
+		for (final var constant : enumType.getEnumConstants()) {
+			ofNullable(translation.apply(constant)).ifPresent(value -> map.put(constant, value));
+		}
+		return unmodifiableMap(map);
+	}
+
 	private static BigDecimal nullableAdd(final BigDecimal a, final BigDecimal b) {
 		if (a == null && b == null) {
 			return null;
@@ -0,0 +1,118 @@
+package se.sundsvall.invoices.service.mapper;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+import se.sundsvall.dept44.problem.Problem;
+
+import static java.lang.String.format;
+import static java.util.Optional.ofNullable;
+import static java.util.stream.Collectors.toUnmodifiableSet;
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+
+/**
+ * The fields to map from a source object onto a target object (a sparse fieldset). Fields that are not selected are
+ * neither computed nor set, and are therefore left out of the serialized target.
+ *
+ * @param <S> the source type
+ * @param <T> the target type
+ */
+public final class Projection<S, T> {
+
+	static final String ERROR_UNKNOWN_FIELDS = "Unknown fields: %s. Valid fields are: %s";
+
+	private final Set<String> fields;
+	private final List<BiConsumer<S, T>> mappings;
+
+	private Projection(final Set<String> fields, final List<BiConsumer<S, T>> mappings) {
+		this.fields = fields;
+		this.mappings = mappings;
+	}
+
+	void apply(final S source, final T target) {
+		for (final var mapping : mappings) {
+			mapping.accept(source, target);
+		}
+	}
+
+	/**
+	 * Returns true if the field is mapped by the projection.
+	 */
+	boolean includes(final String field) {
+		return fields.contains(field);
+	}
+
+	/**
+	 * The mappings of all fields of a target type, keyed on the (JSON) name of the target field.
+	 */
+	static final class Fields<S, T> {
+
+		private final Map<String, BiConsumer<S, T>> mappings = new LinkedHashMap<>();
+
+		Fields<S, T> field(final String name, final BiConsumer<S, T> mapping) {
+			mappings.put(name, mapping);
+			return this;
+		}
+
+		/**
+		 * Declares fields of the target that have no counterpart in the source. They can be selected, but are never set.
+		 */
+		Fields<S, T> unmapped(final String... names) {
+			for (final var name : names) {
+				mappings.put(name, null);
+			}
+			return this;
+		}
+
+		Projection<S, T> all() {
+			return toProjection(mappings.entrySet().stream());
+		}
+
+		/**
+		 * Returns the projection of the named fields, or of all fields when no names are sent in.
+		 *
+		 * @throws se.sundsvall.dept44.problem.ThrowableProblem with status BAD_REQUEST when a name is not a field of the
+		 *                                                    target
+		 */
+		Projection<S, T> select(final Collection<String> names) {
+			return select(names, List.of());
+		}
+
+		/**
+		 * Returns the projection of the named fields, or of all fields when no names are sent in, leaving out the excluded
+		 * fields in both cases.
+		 *
+		 * @throws se.sundsvall.dept44.problem.ThrowableProblem with status BAD_REQUEST when a name is not a field of the
+		 *                                                    target
+		 */
+		Projection<S, T> select(final Collection<String> names, final Collection<String> excludedNames) {
+			if ((names == null || names.isEmpty()) && excludedNames.isEmpty()) {
+				return all();
+			}
+
+			final var unknownNames = ofNullable(names).orElse(List.of()).stream()
+				.filter(name -> !mappings.containsKey(name))
+				.toList();
+			if (!unknownNames.isEmpty()) {
+				throw Problem.valueOf(BAD_REQUEST, format(ERROR_UNKNOWN_FIELDS, unknownNames, mappings.keySet()));
+			}
+
+			// Mapped in declaration order, whatever order the names are sent in
+			return toProjection(mappings.entrySet().stream()
+				.filter(entry -> names == null || names.isEmpty() || names.contains(entry.getKey()))
+				.filter(entry -> !excludedNames.contains(entry.getKey())));
+		}
+
+		private Projection<S, T> toProjection(final Stream<Map.Entry<String, BiConsumer<S, T>>> selectedMappings) {
+			final var mapped = selectedMappings
+				.filter(entry -> entry.getValue() != null)
+				.toList();
+			return new Projection<>(mapped.stream().map(Map.Entry::getKey).collect(toUnmodifiableSet()),
+				mapped.stream().map(Map.Entry::getValue).toList());
+		}
+	}
+}
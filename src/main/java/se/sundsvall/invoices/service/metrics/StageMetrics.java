@@ -0,0 +1,75 @@
+package se.sundsvall.invoices.service.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import java.util.Locale;
+import java.util.function.Supplier;
+import org.springframework.stereotype.Component;
+import se.sundsvall.invoices.api.model.InvoiceOrigin;
+
+/**
+ * Records the time spent in each stage of answering a request, and the size of the serialized responses. The meters are
+ * tagged with the municipality and the invoice origin, so that a slow request can be traced to the stage its time was
+ * spent in. The time spent calling upstream services is recorded per client and endpoint by the Feign clients.
+ * <p>
+ * Both meters publish percentile histograms, so that percentiles can be aggregated over instances.
+ */
+@Component
+public class StageMetrics {
+
+	static final String STAGE_TIMER_NAME = "invoices.stage";
+	static final String RESPONSE_SIZE_NAME = "invoices.response.size";
+	static final String STAGE_TAG = "stage";
+	static final String MUNICIPALITY_ID_TAG = "municipalityId";
+	static final String ORIGIN_TAG = "origin";
+
+	private final Meter.MeterProvider<Timer> stageTimers;
+	private final Meter.MeterProvider<DistributionSummary> responseSizes;
+
+	public StageMetrics(final MeterRegistry meterRegistry) {
+		this.stageTimers = Timer.builder(STAGE_TIMER_NAME)
+			.description("Time spent in a stage of answering a request")
+			.publishPercentileHistogram()
+			.withRegistry(meterRegistry);
+		this.responseSizes = DistributionSummary.builder(RESPONSE_SIZE_NAME)
+			.description("Size of the serialized responses")
+			.baseUnit(BaseUnits.BYTES)
+			.publishPercentileHistogram()
+			.withRegistry(meterRegistry);
+	}
+
+	/**
+	 * Runs the stage, recording the time it takes whether it succeeds or not.
+	 *
+	 * @param  stage          the stage.
+	 * @param  municipalityId a municipalityId.
+	 * @param  origin         the origin of the invoices the stage works on.
+	 * @param  supplier       the work of the stage.
+	 * @return                the result of the stage
+	 */
+	public <T> T record(final Stage stage, final String municipalityId, final InvoiceOrigin origin, final Supplier<T> supplier) {
+		return stageTimers.withTags(STAGE_TAG, stage.tagValue(), MUNICIPALITY_ID_TAG, municipalityId, ORIGIN_TAG, origin.name()).record(supplier);
+	}
+
+	public void recordResponseSize(final String municipalityId, final InvoiceOrigin origin, final long bytes) {
+		responseSizes.withTags(MUNICIPALITY_ID_TAG, municipalityId, ORIGIN_TAG, origin.name()).record(bytes);
+	}
+
+	/**
+	 * The stages of answering a request, next to the upstream calls.
+	 */
+	public enum Stage {
+		ENGAGEMENT_RESOLVE,
+		MAPPING,
+		SERIALIZATION;
+
+		private final String tagValue = name().toLowerCase(Locale.ROOT);
+
+		String tagValue() {
+			return tagValue;
+		}
+	}
+}
@@ -0,0 +1,70 @@
+package se.sundsvall.invoices.service.tracing;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import java.util.Collection;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.springframework.stereotype.Component;
+
+/**
+ * Observes the public service methods, so that each call is traced as a span of its own. The upstream calls made while
+ * a method runs, also those made in parallel, are traced as its child spans. The span is tagged with the method and the
+ * municipality, and with the number of results when the method returns a list of them.
+ */
+@Component
+public class ServiceObservations {
+
+	static final String OBSERVATION_NAME = "invoices.service";
+	static final String METHOD_KEY = "method";
+	static final String MUNICIPALITY_ID_KEY = "municipalityId";
+	static final String RESULT_COUNT_KEY = "result.count";
+
+	private final ObservationRegistry observationRegistry;
+
+	public ServiceObservations(final ObservationRegistry observationRegistry) {
+		this.observationRegistry = observationRegistry;
+	}
+
+	public void observe(final String method, final String municipalityId, final Runnable runnable) {
+		observe(method, municipalityId, () -> {
+			runnable.run();
+			return null;
+		});
+	}
+
+	public <T> T observe(final String method, final String municipalityId, final Supplier<T> supplier) {
+		return observe(method, municipalityId, supplier, null);
+	}
+
+	/**
+	 * Runs the method in a span of its own.
+	 *
+	 * @param  method         the name of the service method.
+	 * @param  municipalityId a municipalityId.
+	 * @param  supplier       the work of the method.
+	 * @param  results        gets the results out of the returned value, which are counted unless null. Null when the
+	 *                        method returns no list of results.
+	 * @return                the result of the method
+	 */
+	public <T> T observe(final String method, final String municipalityId, final Supplier<T> supplier, final Function<? super T, ? extends Collection<?>> results) {
+		final var observation = Observation.createNotStarted(OBSERVATION_NAME, observationRegistry)
+			.contextualName(method)
+			.lowCardinalityKeyValue(METHOD_KEY, method)
+			.highCardinalityKeyValue(MUNICIPALITY_ID_KEY, String.valueOf(municipalityId))
+			.start();
+		try (final var ignored = observation.openScope()) {
+			final var result = supplier.get();
+			final var resultList = results != null && result != null ? results.apply(result) : null;
+			if (resultList != null) {
+				observation.highCardinalityKeyValue(RESULT_COUNT_KEY, String.valueOf(resultList.size()));
+			}
+			return result;
+		} catch (final RuntimeException e) {
+			observation.error(e);
+			throw e;
+		} finally {
+			observation.stop();
+		}
+	}
+}
@@ -0,0 +1,89 @@
+package se.sundsvall.invoices.api;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webtestclient.autoconfigure.AutoConfigureWebTestClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import se.sundsvall.dept44.problem.violations.ConstraintViolationProblem;
+import se.sundsvall.dept44.problem.violations.Violation;
+import se.sundsvall.invoices.Application;
+import se.sundsvall.invoices.service.InvoicesService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.groups.Tuple.tuple;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.MediaType.APPLICATION_PROBLEM_JSON_VALUE;
+
+@AutoConfigureWebTestClient
+@SpringBootTest(classes = Application.class, webEnvironment = RANDOM_PORT)
+@ActiveProfiles("junit")
+class CacheResourceTest {
+
+	private static final String INVOICE_DETAILS_PATH = "/{municipalityId}/admin/cache/invoice-details";
+	private static final String INVOICE_DETAILS_INVOICE_PATH = "/{municipalityId}/admin/cache/invoice-details/{organizationNumber}/{invoiceNumber}";
+	private static final String MUNICIPALITY_ID = "2281";
+	private static final String ORGANIZATION_NUMBER = "5522345678";
+	private static final String INVOICE_NUMBER = "333";
+
+	@MockitoBean
+	private InvoicesService invoicesServiceMock;
+
+	@Autowired
+	private WebTestClient webTestClient;
+
+	@Test
+	void evictAllInvoiceDetails() {
+
+		// Act
+		webTestClient.delete()
+			.uri(uriBuilder -> uriBuilder.path(INVOICE_DETAILS_PATH).build(MUNICIPALITY_ID))
+			.exchange()
+			.expectStatus().isNoContent()
+			.expectBody().isEmpty();
+
+		// Assert
+		verify(invoicesServiceMock).evictInvoiceDetails(MUNICIPALITY_ID);
+	}
+
+	@Test
+	void evictInvoiceDetails() {
+
+		// Act
+		webTestClient.delete()
+			.uri(uriBuilder -> uriBuilder.path(INVOICE_DETAILS_INVOICE_PATH).build(MUNICIPALITY_ID, ORGANIZATION_NUMBER, INVOICE_NUMBER))
+			.exchange()
+			.expectStatus().isNoContent()
+			.expectBody().isEmpty();
+
+		// Assert
+		verify(invoicesServiceMock).evictInvoiceDetails(MUNICIPALITY_ID, ORGANIZATION_NUMBER, INVOICE_NUMBER);
+	}
+
+	@Test
+	void evictInvoiceDetailsInvalidOrganizationNumber() {
+
+		// Act
+		final var response = webTestClient.delete()
+			.uri(uriBuilder -> uriBuilder.path(INVOICE_DETAILS_INVOICE_PATH).build(MUNICIPALITY_ID, "invalid", INVOICE_NUMBER))
+			.exchange()
+			.expectStatus().isBadRequest()
+			.expectHeader().contentType(APPLICATION_PROBLEM_JSON_VALUE)
+			.expectBody(ConstraintViolationProblem.class)
+			.returnResult()
+			.getResponseBody();
+
+		// Assert
+		assertThat(response.getStatus()).isEqualTo(BAD_REQUEST);
+		assertThat(response.getViolations())
+			.extracting(Violation::field, Violation::message)
+			.containsExactly(tuple("evictInvoiceDetails.organizationNumber", "must match the regular expression ^([1235789][\\d][2-9]\\d{7})$"));
+
+		verifyNoInteractions(invoicesServiceMock);
+	}
+}
@@ -1,5 +1,6 @@
 package se.sundsvall.invoices.api;
 
+import java.util.Collections;
 import java.util.List;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,6 +14,8 @@ import org.springframework.util.MultiValueMap;
 import se.sundsvall.dept44.problem.violations.ConstraintViolationProblem;
 import se.sundsvall.dept44.problem.violations.Violation;
 import se.sundsvall.invoices.Application;
+import se.sundsvall.invoices.api.model.InvoiceDetailsBatchRequest;
+import se.sundsvall.invoices.api.model.InvoiceReference;
 import se.sundsvall.invoices.service.InvoicesService;
 
 import static java.util.Optional.ofNullable;
@@ -22,6 +25,7 @@ import static org.assertj.core.groups.Tuple.tuple;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
 import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
 import static org.springframework.http.MediaType.APPLICATION_PROBLEM_JSON_VALUE;
 import static se.sundsvall.invoices.api.model.InvoiceOrigin.COMMERCIAL;
 
@@ -33,7 +37,9 @@ class InvoicesResourceFailureTest {
 	private static final String INVOICES_PATH = "/{municipalityId}/{invoiceOrigin}";
 	private static final String PUBLIC_ADMINISTRATION_INVOICES_PATH = "/{municipalityId}/PUBLIC_ADMINISTRATION/customers/invoices";
 	private static final String DETAILS_PATH = "/{municipalityId}/COMMERCIAL/{organizationNumber}/{invoiceNumber}/details";
+	private static final String DETAILS_BATCH_PATH = "/{municipalityId}/COMMERCIAL/details";
 	private static final String PDF_PATH = "/{municipalityId}/{invoiceOrigin}/{organizationNumber}/{invoiceNumber}/pdf";
+	private static final String PDF_DOWNLOAD_PATH = "/{municipalityId}/{invoiceOrigin}/{organizationNumber}/{invoiceNumber}/pdf/download";
 	private static final String CUSTOMER_INVOICES_PATH = "/{municipalityId}/COMMERCIAL/customers/invoices";
 	private static final String INVOICE_NUMBER = "333";
 	private static final String ORGANIZATION_NUMBER = "5565732223";
@@ -347,6 +353,82 @@ class InvoicesResourceFailureTest {
 		verifyNoInteractions(invoicesServiceMock);
 	}
 
+	@Test
+	void getInvoiceDetailsBatchNoInvoices() {
+
+		// Act
+		final var response = webTestClient.post().uri(uriBuilder -> uriBuilder.path(DETAILS_BATCH_PATH).build(MUNICIPALITY_ID))
+			.contentType(APPLICATION_JSON)
+			.bodyValue(InvoiceDetailsBatchRequest.create().withInvoices(List.of()))
+			.exchange()
+			.expectStatus().isBadRequest()
+			.expectHeader().contentType(APPLICATION_PROBLEM_JSON_VALUE)
+			.expectBody(ConstraintViolationProblem.class)
+			.returnResult()
+			.getResponseBody();
+
+		// Assert
+		assertThat(response.getTitle()).isEqualTo("Constraint Violation");
+		assertThat(response.getStatus()).isEqualTo(BAD_REQUEST);
+		assertThat(response.getViolations())
+			.extracting(Violation::field)
+			.containsExactly("invoices");
+
+		verifyNoInteractions(invoicesServiceMock);
+	}
+
+	@Test
+	void getInvoiceDetailsBatchTooManyInvoices() {
+
+		// Arrange
+		final var invoices = Collections.nCopies(InvoiceDetailsBatchRequest.MAX_INVOICES + 1, InvoiceReference.create().withOrganizationNumber(ORGANIZATION_NUMBER).withInvoiceNumber(INVOICE_NUMBER));
+
+		// Act
+		final var response = webTestClient.post().uri(uriBuilder -> uriBuilder.path(DETAILS_BATCH_PATH).build(MUNICIPALITY_ID))
+			.contentType(APPLICATION_JSON)
+			.bodyValue(InvoiceDetailsBatchRequest.create().withInvoices(invoices))
+			.exchange()
+			.expectStatus().isBadRequest()
+			.expectHeader().contentType(APPLICATION_PROBLEM_JSON_VALUE)
+			.expectBody(ConstraintViolationProblem.class)
+			.returnResult()
+			.getResponseBody();
+
+		// Assert
+		assertThat(response.getStatus()).isEqualTo(BAD_REQUEST);
+		assertThat(response.getViolations())
+			.extracting(Violation::field)
+			.containsExactly("invoices");
+
+		verifyNoInteractions(invoicesServiceMock);
+	}
+
+	@Test
+	void getInvoiceDetailsBatchInvalidInvoiceReference() {
+
+		// Arrange
+		final var invoices = List.of(InvoiceReference.create().withOrganizationNumber(" ").withInvoiceNumber(" "));
+
+		// Act
+		final var response = webTestClient.post().uri(uriBuilder -> uriBuilder.path(DETAILS_BATCH_PATH).build(MUNICIPALITY_ID))
+			.contentType(APPLICATION_JSON)
+			.bodyValue(InvoiceDetailsBatchRequest.create().withInvoices(invoices))
+			.exchange()
+			.expectStatus().isBadRequest()
+			.expectHeader().contentType(APPLICATION_PROBLEM_JSON_VALUE)
+			.expectBody(ConstraintViolationProblem.class)
+			.returnResult()
+			.getResponseBody();
+
+		// Assert
+		assertThat(response.getStatus()).isEqualTo(BAD_REQUEST);
+		assertThat(response.getViolations())
+			.extracting(Violation::field)
+			.containsExactlyInAnyOrder("invoices[0].organizationNumber", "invoices[0].invoiceNumber");
+
+		verifyNoInteractions(invoicesServiceMock);
+	}
+
 	@Test
 	void getPdfInvoiceNotValidInvoiceOrigin() {
 
@@ -374,6 +456,56 @@ class InvoicesResourceFailureTest {
 		verifyNoInteractions(invoicesServiceMock);
 	}
 
+	@Test
+	void getPdfInvoiceAllInvoiceOrigins() {
+
+		// Act
+		final var response = webTestClient.get()
+			.uri(uriBuilder -> uriBuilder.path(PDF_PATH)
+				.build(MUNICIPALITY_ID, "ALL", ORGANIZATION_NUMBER, INVOICE_NUMBER))
+			.exchange()
+			.expectStatus().isBadRequest()
+			.expectHeader().contentType(APPLICATION_PROBLEM_JSON_VALUE)
+			.expectBody(ConstraintViolationProblem.class)
+			.returnResult()
+			.getResponseBody();
+
+		// Assert
+		assertThat(response.getViolations())
+			.hasSize(1)
+			.allSatisfy(violation -> {
+				assertThat(violation.field()).isEqualTo("getPdfInvoice.invoiceOrigin");
+				assertThat(violation.message()).startsWith("must be one of:");
+			});
+
+		verifyNoInteractions(invoicesServiceMock);
+	}
+
+	@Test
+	void downloadInvoicePdfAllInvoiceOrigins() {
+
+		// Act
+		final var response = webTestClient.get()
+			.uri(uriBuilder -> uriBuilder.path(PDF_DOWNLOAD_PATH)
+				.build(MUNICIPALITY_ID, "ALL", ORGANIZATION_NUMBER, INVOICE_NUMBER))
+			.exchange()
+			.expectStatus().isBadRequest()
+			.expectHeader().contentType(APPLICATION_PROBLEM_JSON_VALUE)
+			.expectBody(ConstraintViolationProblem.class)
+			.returnResult()
+			.getResponseBody();
+
+		// Assert
+		assertThat(response.getViolations())
+			.hasSize(1)
+			.allSatisfy(violation -> {
+				assertThat(violation.field()).isEqualTo("downloadInvoicePdf.invoiceOrigin");
+				assertThat(violation.message()).startsWith("must be one of:");
+			});
+
+		verifyNoInteractions(invoicesServiceMock);
+	}
+
 	@Test
 	void getPdfInvoiceDetailsInvalidOrganizationNumber() {
 
@@ -1,6 +1,9 @@
 package se.sundsvall.invoices.api;
 
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.Month;
 import java.time.format.DateTimeFormatter;
@@ -15,6 +18,8 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.webtestclient.autoconfigure.AutoConfigureWebTestClient;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.InputStreamResource;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.ContentDisposition;
 import org.springframework.test.context.ActiveProfiles;
@@ -26,15 +31,22 @@ import se.sundsvall.invoices.Application;
 import se.sundsvall.invoices.api.model.CustomerInvoicesParameters;
 import se.sundsvall.invoices.api.model.CustomerInvoicesResponse;
 import se.sundsvall.invoices.api.model.InvoiceDetail;
+import se.sundsvall.invoices.api.model.InvoiceDetailsBatchEntry;
+import se.sundsvall.invoices.api.model.InvoiceDetailsBatchRequest;
+import se.sundsvall.invoices.api.model.InvoiceDetailsBatchResponse;
 import se.sundsvall.invoices.api.model.InvoiceDetailsResponse;
 import se.sundsvall.invoices.api.model.InvoiceOrigin;
+import se.sundsvall.invoices.api.model.InvoiceReference;
 import se.sundsvall.invoices.api.model.InvoiceStatus;
 import se.sundsvall.invoices.api.model.InvoiceType;
 import se.sundsvall.invoices.api.model.InvoicesParameters;
 import se.sundsvall.invoices.api.model.InvoicesResponse;
 import se.sundsvall.invoices.api.model.PdfInvoice;
+import se.sundsvall.invoices.service.ConditionalResponse;
+import se.sundsvall.invoices.service.CustomerInvoiceExport;
 import se.sundsvall.invoices.service.InvoiceFile;
 import se.sundsvall.invoices.service.InvoicesService;
+import tools.jackson.databind.json.JsonMapper;
 
 import static java.lang.String.valueOf;
 import static java.util.Optional.ofNullable;
@@ -43,14 +55,22 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+import static org.springframework.http.HttpHeaders.ETAG;
+import static org.springframework.http.HttpHeaders.IF_NONE_MATCH;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON;
 import static org.springframework.http.MediaType.APPLICATION_PDF;
 import static org.springframework.http.MediaType.parseMediaType;
 import static se.sundsvall.invoices.api.model.InvoiceOrigin.COMMERCIAL;
-import static se.sundsvall.invoices.api.model.InvoiceOrigin.PUBLIC_ADMINISTRATION;
+import static se.sundsvall.invoices.service.InvoiceFile.UNKNOWN_CONTENT_LENGTH;
 
 @AutoConfigureWebTestClient
 @ExtendWith(MockitoExtension.class)
@@ -61,9 +81,11 @@ class InvoicesResourceTest {
 	private static final String INVOICES_PATH = "/{municipalityId}/{invoiceOrigin}";
 	private static final String PUBLIC_ADMINISTRATION_INVOICES_PATH = "/{municipalityId}/PUBLIC_ADMINISTRATION/customers/invoices";
 	private static final String DETAILS_PATH = "/{municipalityId}/COMMERCIAL/{organizationNumber}/{invoiceNumber}/details";
+	private static final String DETAILS_BATCH_PATH = "/{municipalityId}/COMMERCIAL/details";
 	private static final String PDF_PATH = "/{municipalityId}/{invoiceOrigin}/{organizationNumber}/{invoiceNumber}/pdf";
 	private static final String DOWNLOAD_PDF_PATH = "/{municipalityId}/{invoiceOrigin}/{organizationNumber}/{invoiceNumber}/pdf/download";
 	private static final String CUSTOMER_INVOICES_PATH = "/{municipalityId}/COMMERCIAL/customers/invoices";
+	private static final String CUSTOMER_INVOICES_EXPORT_PATH = "/{municipalityId}/COMMERCIAL/customers/invoices/export";
 
 	private static final int DEFAULT_PAGE = 1;
 	private static final int DEFAULT_LIMIT = 100;
@@ -83,6 +105,8 @@ class InvoicesResourceTest {
 	private static final String ORGANIZATION_GROUP = "organizationGroup";
 	private static final String ORGANIZATION_NUMBER = "5522345678";
 	private static final String MUNICIPALITY_ID = "2281";
+	private static final String E_TAG = "\"2f6b0c6d\"";
+	private static final JsonMapper JSON_MAPPER = JsonMapper.builder().build();
 
 	@MockitoBean
 	private InvoicesService invoicesServiceMock;
@@ -168,7 +192,7 @@ class InvoicesResourceTest {
 	void getPublicAdministrationInvoicesAllParameters() {
 
 		// Arrange
-		when(invoicesServiceMock.getInvoices(anyString(), any(), any())).thenReturn(InvoicesResponse.create());
+		when(invoicesServiceMock.getPublicAdministrationInvoices(anyString(), any(), any())).thenReturn(conditionalResponse(InvoicesResponse.create()));
 
 		// Act
 		final var response = webTestClient.get()
@@ -179,12 +203,13 @@ class InvoicesResourceTest {
 			.exchange()
 			.expectStatus().isOk()
 			.expectHeader().contentType(APPLICATION_JSON)
+			.expectHeader().valueEquals(ETAG, E_TAG)
 			.expectBody(InvoicesResponse.class)
 			.returnResult()
 			.getResponseBody();
 
 		// Assert
-		verify(invoicesServiceMock).getInvoices(eq(MUNICIPALITY_ID), eq(PUBLIC_ADMINISTRATION.name()), parametersCaptor.capture());
+		verify(invoicesServiceMock).getPublicAdministrationInvoices(eq(MUNICIPALITY_ID), parametersCaptor.capture(), isNull());
 		final InvoicesParameters parameters = parametersCaptor.getValue();
 		assertThat(parameters.getDueDateFrom()).isEqualTo(DUE_DATE_FROM);
 		assertThat(parameters.getDueDateTo()).isEqualTo(DUE_DATE_TO);
@@ -208,7 +233,7 @@ class InvoicesResourceTest {
 	void getPublicAdministrationInvoicesOnlyMandatoryParameters() {
 
 		// Arrange
-		when(invoicesServiceMock.getInvoices(anyString(), any(), any())).thenReturn(InvoicesResponse.create());
+		when(invoicesServiceMock.getPublicAdministrationInvoices(anyString(), any(), any())).thenReturn(conditionalResponse(InvoicesResponse.create()));
 
 		// Act
 		final var response = webTestClient.get()
@@ -218,12 +243,13 @@ class InvoicesResourceTest {
 			.exchange()
 			.expectStatus().isOk()
 			.expectHeader().contentType(APPLICATION_JSON)
+			.expectHeader().valueEquals(ETAG, E_TAG)
 			.expectBody(InvoicesResponse.class)
 			.returnResult()
 			.getResponseBody();
 
 		// Assert
-		verify(invoicesServiceMock).getInvoices(eq(MUNICIPALITY_ID), eq(PUBLIC_ADMINISTRATION.name()), parametersCaptor.capture());
+		verify(invoicesServiceMock).getPublicAdministrationInvoices(eq(MUNICIPALITY_ID), parametersCaptor.capture(), isNull());
 		final InvoicesParameters parameters = parametersCaptor.getValue();
 		assertThat(parameters.getPage()).isEqualTo(DEFAULT_PAGE);
 		assertThat(parameters.getLimit()).isEqualTo(DEFAULT_LIMIT);
@@ -232,6 +258,28 @@ class InvoicesResourceTest {
 		assertThat(response).isNotNull().isEqualTo(InvoicesResponse.create());
 	}
 
+	@Test
+	void getPublicAdministrationInvoicesNotModified() {
+
+		// Arrange
+		when(invoicesServiceMock.getPublicAdministrationInvoices(anyString(), any(), any())).thenReturn(ConditionalResponse.notModified(E_TAG));
+
+		// Act
+		webTestClient.get()
+			.uri(uriBuilder -> uriBuilder.path(PUBLIC_ADMINISTRATION_INVOICES_PATH)
+				.queryParams(createParameterMap(null, null, null, null, null, null, null, null, null, null, null, null, null, null, PARTY_IDS))
+				.build(MUNICIPALITY_ID))
+			.header(IF_NONE_MATCH, E_TAG)
+			.exchange()
+			.expectStatus().isNotModified()
+			.expectHeader().valueEquals(ETAG, E_TAG)
+			.expectBody().isEmpty();
+
+		// Assert
+		verify(invoicesServiceMock).getPublicAdministrationInvoices(eq(MUNICIPALITY_ID), parametersCaptor.capture(), eq(E_TAG));
+		assertThat(parametersCaptor.getValue().getPartyId()).isEqualTo(PARTY_IDS);
+	}
+
 	@Test
 	void getInvoiceDetails() {
 
@@ -254,6 +302,35 @@ class InvoicesResourceTest {
 		verify(invoicesServiceMock).getInvoiceDetails(MUNICIPALITY_ID, ORGANIZATION_NUMBER, INVOICE_NUMBER);
 	}
 
+	@Test
+	void getInvoiceDetailsBatch() {
+
+		// Arrange
+		final var invoices = List.of(
+			InvoiceReference.create().withOrganizationNumber(ORGANIZATION_NUMBER).withInvoiceNumber(INVOICE_NUMBER),
+			InvoiceReference.create().withOrganizationNumber(ORGANIZATION_NUMBER).withInvoiceNumber("334"));
+		final var entries = List.of(
+			InvoiceDetailsBatchEntry.create().withOrganizationNumber(ORGANIZATION_NUMBER).withInvoiceNumber(INVOICE_NUMBER).withStatus(200).withDetails(List.of(InvoiceDetail.create())),
+			InvoiceDetailsBatchEntry.create().withOrganizationNumber(ORGANIZATION_NUMBER).withInvoiceNumber("334").withStatus(502).withError("Bad Gateway"));
+		when(invoicesServiceMock.getInvoiceDetails(MUNICIPALITY_ID, invoices)).thenReturn(entries);
+
+		// Act
+		final var response = webTestClient.post()
+			.uri(uriBuilder -> uriBuilder.path(DETAILS_BATCH_PATH).build(MUNICIPALITY_ID))
+			.contentType(APPLICATION_JSON)
+			.bodyValue(InvoiceDetailsBatchRequest.create().withInvoices(invoices))
+			.exchange()
+			.expectStatus().isOk()
+			.expectHeader().contentType(APPLICATION_JSON)
+			.expectBody(InvoiceDetailsBatchResponse.class)
+			.returnResult()
+			.getResponseBody();
+
+		// Assert
+		assertThat(response).isNotNull().isEqualTo(InvoiceDetailsBatchResponse.create().withInvoices(entries));
+		verify(invoicesServiceMock).getInvoiceDetails(MUNICIPALITY_ID, invoices);
+	}
+
 	@ParameterizedTest
 	@EnumSource(value = InvoiceOrigin.class)
 	void getPdfInvoice(final InvoiceOrigin origin) {
@@ -308,7 +385,7 @@ class InvoicesResourceTest {
 		final var fileName = "Invoice_333.pdf";
 		final var fileContent = "pdf-content".getBytes(StandardCharsets.UTF_8);
 		when(invoicesServiceMock.downloadInvoicePdf(ORGANIZATION_NUMBER, INVOICE_NUMBER, INVOICE_TYPE, MUNICIPALITY_ID))
-			.thenReturn(new InvoiceFile(fileContent, APPLICATION_PDF, fileName));
+			.thenReturn(new InvoiceFile(new InputStreamResource(new ByteArrayInputStream(fileContent)), fileContent.length, APPLICATION_PDF, fileName, null, null));
 
 		// Act
 		final var response = webTestClient.get()
@@ -317,6 +394,7 @@ class InvoicesResourceTest {
 			.exchange()
 			.expectStatus().isOk()
 			.expectHeader().contentType(APPLICATION_PDF)
+			.expectHeader().contentLength(fileContent.length)
 			.expectHeader().contentDisposition(ContentDisposition.attachment().filename(fileName, StandardCharsets.UTF_8).build())
 			.expectBody(byte[].class)
 			.returnResult()
@@ -335,7 +413,7 @@ class InvoicesResourceTest {
 		final var zipContentType = parseMediaType("application/zip");
 		final var fileContent = "zip-content".getBytes(StandardCharsets.UTF_8);
 		when(invoicesServiceMock.downloadInvoicePdf(ORGANIZATION_NUMBER, INVOICE_NUMBER, INVOICE_TYPE, MUNICIPALITY_ID))
-			.thenReturn(new InvoiceFile(fileContent, zipContentType, fileName));
+			.thenReturn(new InvoiceFile(new InputStreamResource(new ByteArrayInputStream(fileContent)), UNKNOWN_CONTENT_LENGTH, zipContentType, fileName, null, null));
 
 		// Act
 		final var response = webTestClient.get()
@@ -354,6 +432,60 @@ class InvoicesResourceTest {
 		verify(invoicesServiceMock).downloadInvoicePdf(ORGANIZATION_NUMBER, INVOICE_NUMBER, INVOICE_TYPE, MUNICIPALITY_ID);
 	}
 
+	@Test
+	void downloadInvoicePdfWithETag() {
+
+		// Arrange
+		final var fileName = "Invoice_333.pdf";
+		final var fileContent = "pdf-content".getBytes(StandardCharsets.UTF_8);
+		final var lastModified = Instant.parse("2026-01-01T10:00:00Z");
+		when(invoicesServiceMock.downloadInvoicePdf(ORGANIZATION_NUMBER, INVOICE_NUMBER, INVOICE_TYPE, MUNICIPALITY_ID))
+			.thenReturn(new InvoiceFile(new ByteArrayResource(fileContent), fileContent.length, APPLICATION_PDF, fileName, E_TAG, lastModified));
+
+		// Act
+		final var response = webTestClient.get()
+			.uri(uriBuilder -> uriBuilder.path(DOWNLOAD_PDF_PATH).queryParam("invoiceType", INVOICE_TYPE)
+				.build(MUNICIPALITY_ID, COMMERCIAL, ORGANIZATION_NUMBER, INVOICE_NUMBER))
+			.exchange()
+			.expectStatus().isOk()
+			.expectHeader().contentType(APPLICATION_PDF)
+			.expectHeader().contentLength(fileContent.length)
+			.expectHeader().valueEquals(ETAG, E_TAG)
+			.expectHeader().lastModified(lastModified.toEpochMilli())
+			.expectBody(byte[].class)
+			.returnResult()
+			.getResponseBody();
+
+		// Assert
+		assertThat(response).isEqualTo(fileContent);
+		verify(invoicesServiceMock).downloadInvoicePdf(ORGANIZATION_NUMBER, INVOICE_NUMBER, INVOICE_TYPE, MUNICIPALITY_ID);
+	}
+
+	@Test
+	void downloadInvoicePdfNotModified() {
+
+		// Arrange
+		final var fileContent = "pdf-content".getBytes(StandardCharsets.UTF_8);
+		final var content = spy(new ByteArrayInputStream(fileContent));
+		when(invoicesServiceMock.downloadInvoicePdf(ORGANIZATION_NUMBER, INVOICE_NUMBER, INVOICE_TYPE, MUNICIPALITY_ID))
+			.thenReturn(new InvoiceFile(new InputStreamResource(content), fileContent.length, APPLICATION_PDF, "Invoice_333.pdf", E_TAG, Instant.now()));
+
+		// Act
+		webTestClient.get()
+			.uri(uriBuilder -> uriBuilder.path(DOWNLOAD_PDF_PATH).queryParam("invoiceType", INVOICE_TYPE)
+				.build(MUNICIPALITY_ID, COMMERCIAL, ORGANIZATION_NUMBER, INVOICE_NUMBER))
+			.header(IF_NONE_MATCH, E_TAG)
+			.exchange()
+			.expectStatus().isNotModified()
+			.expectHeader().valueEquals(ETAG, E_TAG)
+			.expectBody().isEmpty();
+
+		// Assert
+		verify(invoicesServiceMock).downloadInvoicePdf(ORGANIZATION_NUMBER, INVOICE_NUMBER, INVOICE_TYPE, MUNICIPALITY_ID);
+		// The content is not written, so it is closed by the resource
+		verify(content).close();
+	}
+
 	@Test
 	void getInvoicesForCustomerAllParameters() {
 		final var customerNumbers = List.of("216870", "600606");
@@ -366,7 +498,7 @@ class InvoicesResourceTest {
 		final var sortBy = List.of("periodFrom");
 		final var sortDirection = Sort.Direction.DESC;
 
-		when(invoicesServiceMock.getInvoicesForCustomer(anyString(), any())).thenReturn(CustomerInvoicesResponse.create());
+		when(invoicesServiceMock.getInvoicesForCustomer(anyString(), any(), any())).thenReturn(conditionalResponse(CustomerInvoicesResponse.create()));
 
 		final var response = webTestClient.get()
 			.uri(uriBuilder -> uriBuilder.path(CUSTOMER_INVOICES_PATH)
@@ -375,11 +507,12 @@ class InvoicesResourceTest {
 			.exchange()
 			.expectStatus().isOk()
 			.expectHeader().contentType(APPLICATION_JSON)
+			.expectHeader().valueEquals(ETAG, E_TAG)
 			.expectBody(CustomerInvoicesResponse.class)
 			.returnResult()
 			.getResponseBody();
 
-		verify(invoicesServiceMock).getInvoicesForCustomer(eq(MUNICIPALITY_ID), customerParametersCaptor.capture());
+		verify(invoicesServiceMock).getInvoicesForCustomer(eq(MUNICIPALITY_ID), customerParametersCaptor.capture(), isNull());
 		final CustomerInvoicesParameters parameters = customerParametersCaptor.getValue();
 		assertThat(parameters.getCustomerNumbers()).isEqualTo(customerNumbers);
 		assertThat(parameters.getPartyIds()).isEqualTo(partyIds);
@@ -399,7 +532,7 @@ class InvoicesResourceTest {
 	void getInvoicesForCustomerOnlyMandatoryParameters() {
 		final var customerNumbers = List.of("216870");
 
-		when(invoicesServiceMock.getInvoicesForCustomer(anyString(), any())).thenReturn(CustomerInvoicesResponse.create());
+		when(invoicesServiceMock.getInvoicesForCustomer(anyString(), any(), any())).thenReturn(conditionalResponse(CustomerInvoicesResponse.create()));
 
 		final var response = webTestClient.get()
 			.uri(uriBuilder -> uriBuilder.path(CUSTOMER_INVOICES_PATH)
@@ -408,24 +541,55 @@ class InvoicesResourceTest {
 			.exchange()
 			.expectStatus().isOk()
 			.expectHeader().contentType(APPLICATION_JSON)
+			.expectHeader().valueEquals(ETAG, E_TAG)
 			.expectBody(CustomerInvoicesResponse.class)
 			.returnResult()
 			.getResponseBody();
 
-		verify(invoicesServiceMock).getInvoicesForCustomer(eq(MUNICIPALITY_ID), customerParametersCaptor.capture());
+		verify(invoicesServiceMock).getInvoicesForCustomer(eq(MUNICIPALITY_ID), customerParametersCaptor.capture(), isNull());
 		final CustomerInvoicesParameters parameters = customerParametersCaptor.getValue();
 		assertThat(parameters.getCustomerNumbers()).isEqualTo(customerNumbers);
 		assertThat(parameters.getPage()).isEqualTo(DEFAULT_PAGE);
 		assertThat(parameters.getLimit()).isEqualTo(DEFAULT_LIMIT);
-		assertThat(parameters).hasAllNullFieldsOrPropertiesExcept("customerNumbers", "page", "limit", "sortDirection");
+		assertThat(parameters).hasAllNullFieldsOrPropertiesExcept("customerNumbers", "page", "limit", "sortDirection", "includeDetails");
 		assertThat(response).isNotNull().isEqualTo(CustomerInvoicesResponse.create());
 	}
 
+	@Test
+	void exportInvoicesForCustomer() throws Exception {
+		final var customerNumbers = List.of("216870");
+		final var export = mock(CustomerInvoiceExport.class);
+
+		when(invoicesServiceMock.exportInvoicesForCustomer(anyString(), any())).thenReturn(export);
+		doAnswer(invocation -> {
+			final OutputStream output = invocation.getArgument(0);
+			output.write("{\"invoiceId\":1}\n{\"invoiceId\":2}\n{\"invoiceId\":3}\n".getBytes(StandardCharsets.UTF_8));
+			return null;
+		}).when(export).writeTo(any());
+
+		final var response = webTestClient.get()
+			.uri(uriBuilder -> uriBuilder.path(CUSTOMER_INVOICES_EXPORT_PATH)
+				.queryParams(createCustomerParameterMap(null, null, customerNumbers, null, null, null, null, null, null, null, null))
+				.build(MUNICIPALITY_ID))
+			.exchange()
+			.expectStatus().isOk()
+			.expectHeader().contentType(APPLICATION_NDJSON)
+			.expectBody(String.class)
+			.returnResult()
+			.getResponseBody();
+
+		verify(invoicesServiceMock).exportInvoicesForCustomer(eq(MUNICIPALITY_ID), customerParametersCaptor.capture());
+		assertThat(customerParametersCaptor.getValue().getCustomerNumbers()).isEqualTo(customerNumbers);
+		assertThat(response).isNotNull().endsWith("\n");
+		assertThat(response.lines()).containsExactly("{\"invoiceId\":1}", "{\"invoiceId\":2}", "{\"invoiceId\":3}");
+		verify(export, timeout(1000)).close();
+	}
+
 	@Test
 	void getInvoicesForCustomerWithPartyIdsOnly() {
 		final var partyIds = List.of(randomUUID().toString());
 
-		when(invoicesServiceMock.getInvoicesForCustomer(anyString(), any())).thenReturn(CustomerInvoicesResponse.create());
+		when(invoicesServiceMock.getInvoicesForCustomer(anyString(), any(), any())).thenReturn(conditionalResponse(CustomerInvoicesResponse.create()));
 
 		final var response = webTestClient.get()
 			.uri(uriBuilder -> uriBuilder.path(CUSTOMER_INVOICES_PATH)
@@ -434,17 +598,38 @@ class InvoicesResourceTest {
 			.exchange()
 			.expectStatus().isOk()
 			.expectHeader().contentType(APPLICATION_JSON)
+			.expectHeader().valueEquals(ETAG, E_TAG)
 			.expectBody(CustomerInvoicesResponse.class)
 			.returnResult()
 			.getResponseBody();
 
-		verify(invoicesServiceMock).getInvoicesForCustomer(eq(MUNICIPALITY_ID), customerParametersCaptor.capture());
+		verify(invoicesServiceMock).getInvoicesForCustomer(eq(MUNICIPALITY_ID), customerParametersCaptor.capture(), isNull());
 		final CustomerInvoicesParameters parameters = customerParametersCaptor.getValue();
 		assertThat(parameters.getCustomerNumbers()).isNull();
 		assertThat(parameters.getPartyIds()).isEqualTo(partyIds);
 		assertThat(response).isNotNull().isEqualTo(CustomerInvoicesResponse.create());
 	}
 
+	@Test
+	void getInvoicesForCustomerNotModified() {
+		final var customerNumbers = List.of("216870");
+
+		when(invoicesServiceMock.getInvoicesForCustomer(anyString(), any(), any())).thenReturn(ConditionalResponse.notModified(E_TAG));
+
+		webTestClient.get()
+			.uri(uriBuilder -> uriBuilder.path(CUSTOMER_INVOICES_PATH)
+				.queryParams(createCustomerParameterMap(null, null, customerNumbers, null, null, null, null, null, null, null, null))
+				.build(MUNICIPALITY_ID))
+			.header(IF_NONE_MATCH, E_TAG)
+			.exchange()
+			.expectStatus().isNotModified()
+			.expectHeader().valueEquals(ETAG, E_TAG)
+			.expectBody().isEmpty();
+
+		verify(invoicesServiceMock).getInvoicesForCustomer(eq(MUNICIPALITY_ID), customerParametersCaptor.capture(), eq(E_TAG));
+		assertThat(customerParametersCaptor.getValue().getCustomerNumbers()).isEqualTo(customerNumbers);
+	}
+
 	private MultiValueMap<String, String> createCustomerParameterMap(final Integer page, final Integer limit, final List<String> customerNumbers,
 		final List<String> partyIds, final List<String> organizationNumbers, final List<String> facilityIds, final String status,
 		final LocalDate periodFrom, final LocalDate periodTo, final List<String> sortBy, final Sort.Direction sortDirection) {
@@ -489,4 +674,8 @@ class InvoicesResourceTest {
 
 		return parameters;
 	}
+
+	private static <T> ConditionalResponse<T> conditionalResponse(final T body) {
+		return ConditionalResponse.of(body, JSON_MAPPER.writeValueAsBytes(body), E_TAG);
+	}
 }
@@ -43,6 +43,9 @@ class CustomerInvoicesParametersTest {
 		final var status = InvoiceStatus.PAID.name();
 		final var periodFrom = LocalDate.parse("2024-01-01").minusMonths(6);
 		final var periodTo = LocalDate.parse("2024-01-01");
+		final var cursor = "eyJwYWdlIjoyfQ";
+		final var fields = List.of("invoiceNumber", "totalAmount");
+		final var includeDetails = false;
 		final var sortBy = List.of("periodFrom");
 		final var sortDirection = Sort.Direction.DESC;
 		final var page = 3;
@@ -56,6 +59,9 @@ class CustomerInvoicesParametersTest {
 			.withStatus(status)
 			.withPeriodFrom(periodFrom)
 			.withPeriodTo(periodTo)
+			.withCursor(cursor)
+			.withFields(fields)
+			.withIncludeDetails(includeDetails)
 			.withSortBy(sortBy)
 			.withSortDirection(sortDirection)
 			.withPage(page)
@@ -69,6 +75,9 @@ class CustomerInvoicesParametersTest {
 		assertThat(parameters.getStatus()).isEqualTo(status);
 		assertThat(parameters.getPeriodFrom()).isEqualTo(periodFrom);
 		assertThat(parameters.getPeriodTo()).isEqualTo(periodTo);
+		assertThat(parameters.getCursor()).isEqualTo(cursor);
+		assertThat(parameters.getFields()).isEqualTo(fields);
+		assertThat(parameters.getIncludeDetails()).isEqualTo(includeDetails);
 		assertThat(parameters.getSortBy()).isEqualTo(sortBy);
 		assertThat(parameters.getSortDirection()).isEqualTo(sortDirection);
 		assertThat(parameters.getPage()).isEqualTo(page);
@@ -78,15 +87,17 @@ class CustomerInvoicesParametersTest {
 	@Test
 	void testNoDirtOnCreatedBean() {
 		assertThat(CustomerInvoicesParameters.create())
-			.hasAllNullFieldsOrPropertiesExcept("page", "limit", "sortDirection")
+			.hasAllNullFieldsOrPropertiesExcept("page", "limit", "sortDirection", "includeDetails")
 			.hasFieldOrPropertyWithValue("page", 1)
 			.hasFieldOrPropertyWithValue("limit", 100)
-			.hasFieldOrPropertyWithValue("sortDirection", Sort.Direction.ASC);
+			.hasFieldOrPropertyWithValue("sortDirection", Sort.Direction.ASC)
+			.hasFieldOrPropertyWithValue("includeDetails", true);
 
 		assertThat(new CustomerInvoicesParameters())
-			.hasAllNullFieldsOrPropertiesExcept("page", "limit", "sortDirection")
+			.hasAllNullFieldsOrPropertiesExcept("page", "limit", "sortDirection", "includeDetails")
 			.hasFieldOrPropertyWithValue("page", 1)
 			.hasFieldOrPropertyWithValue("limit", 100)
-			.hasFieldOrPropertyWithValue("sortDirection", Sort.Direction.ASC);
+			.hasFieldOrPropertyWithValue("sortDirection", Sort.Direction.ASC)
+			.hasFieldOrPropertyWithValue("includeDetails", true);
 	}
 }
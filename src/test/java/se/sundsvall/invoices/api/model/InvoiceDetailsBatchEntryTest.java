@@ -0,0 +1,55 @@
+package se.sundsvall.invoices.api.model;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanConstructor;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanEquals;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanHashCode;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanToString;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidGettersAndSetters;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.AllOf.allOf;
+
+class InvoiceDetailsBatchEntryTest {
+
+	@Test
+	void testBean() {
+		assertThat(InvoiceDetailsBatchEntry.class, allOf(
+			hasValidBeanConstructor(),
+			hasValidGettersAndSetters(),
+			hasValidBeanHashCode(),
+			hasValidBeanEquals(),
+			hasValidBeanToString()));
+	}
+
+	@Test
+	void testBuilderMethods() {
+		final var organizationNumber = "5565272223";
+		final var invoiceNumber = "333444";
+		final var status = 502;
+		final var details = List.of(InvoiceDetail.create());
+		final var error = "error";
+
+		final var entry = InvoiceDetailsBatchEntry.create()
+			.withOrganizationNumber(organizationNumber)
+			.withInvoiceNumber(invoiceNumber)
+			.withStatus(status)
+			.withDetails(details)
+			.withError(error);
+
+		assertThat(entry).isNotNull().hasNoNullFieldsOrProperties();
+		assertThat(entry.getOrganizationNumber()).isEqualTo(organizationNumber);
+		assertThat(entry.getInvoiceNumber()).isEqualTo(invoiceNumber);
+		assertThat(entry.getStatus()).isEqualTo(status);
+		assertThat(entry.getDetails()).isEqualTo(details);
+		assertThat(entry.getError()).isEqualTo(error);
+	}
+
+	@Test
+	void testNoDirtOnCreatedBean() {
+		assertThat(InvoiceDetailsBatchEntry.create()).hasAllNullFieldsOrProperties();
+		assertThat(new InvoiceDetailsBatchEntry()).hasAllNullFieldsOrProperties();
+	}
+}
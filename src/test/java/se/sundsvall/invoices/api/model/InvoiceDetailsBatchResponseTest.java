@@ -0,0 +1,44 @@
+package se.sundsvall.invoices.api.model;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanConstructor;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanEquals;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanHashCode;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanToString;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidGettersAndSetters;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.AllOf.allOf;
+
+class InvoiceDetailsBatchResponseTest {
+
+	@Test
+	void testBean() {
+		assertThat(InvoiceDetailsBatchResponse.class, allOf(
+			hasValidBeanConstructor(),
+			hasValidGettersAndSetters(),
+			hasValidBeanHashCode(),
+			hasValidBeanEquals(),
+			hasValidBeanToString()));
+	}
+
+	@Test
+	void testBuilderMethods() {
+		final var invoices = List.of(InvoiceDetailsBatchEntry.create());
+
+		final var response = InvoiceDetailsBatchResponse.create().withInvoices(invoices);
+
+		assertThat(response)
+			.isNotNull()
+			.hasNoNullFieldsOrProperties()
+			.hasFieldOrPropertyWithValue("invoices", invoices);
+	}
+
+	@Test
+	void testNoDirtOnCreatedBean() {
+		assertThat(InvoiceDetailsBatchResponse.create()).hasAllNullFieldsOrProperties();
+		assertThat(new InvoiceDetailsBatchResponse()).hasAllNullFieldsOrProperties();
+	}
+}
@@ -0,0 +1,45 @@
+package se.sundsvall.invoices.api.model;
+
+import org.junit.jupiter.api.Test;
+
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanConstructor;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanEquals;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanHashCode;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanToString;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidGettersAndSetters;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.AllOf.allOf;
+
+class InvoiceReferenceTest {
+
+	@Test
+	void testBean() {
+		assertThat(InvoiceReference.class, allOf(
+			hasValidBeanConstructor(),
+			hasValidGettersAndSetters(),
+			hasValidBeanHashCode(),
+			hasValidBeanEquals(),
+			hasValidBeanToString()));
+	}
+
+	@Test
+	void testBuilderMethods() {
+		final var organizationNumber = "5565272223";
+		final var invoiceNumber = "333444";
+
+		final var invoiceReference = InvoiceReference.create()
+			.withOrganizationNumber(organizationNumber)
+			.withInvoiceNumber(invoiceNumber);
+
+		assertThat(invoiceReference).isNotNull().hasNoNullFieldsOrProperties();
+		assertThat(invoiceReference.getOrganizationNumber()).isEqualTo(organizationNumber);
+		assertThat(invoiceReference.getInvoiceNumber()).isEqualTo(invoiceNumber);
+	}
+
+	@Test
+	void testNoDirtOnCreatedBean() {
+		assertThat(InvoiceReference.create()).hasAllNullFieldsOrProperties();
+		assertThat(new InvoiceReference()).hasAllNullFieldsOrProperties();
+	}
+}
@@ -50,6 +50,7 @@ class InvoicesParametersTest {
 		final var ocrNumber = "ocrNumber";
 		final var page = 321;
 		final var partyId = List.of("partyId-1", "partyId-2");
+		final var fields = List.of("invoiceNumber", "totalAmount");
 
 		final var invoicesParameters = InvoicesParameters.create()
 			.withDueDateFrom(dueDateFrom)
@@ -66,7 +67,8 @@ class InvoicesParametersTest {
 			.withOrganizationNumbers(organizationNumbers)
 			.withOcrNumber(ocrNumber)
 			.withPage(page)
-			.withPartyId(partyId);
+			.withPartyId(partyId)
+			.withFields(fields);
 
 		assertThat(invoicesParameters).isNotNull().hasNoNullFieldsOrProperties();
 		assertThat(invoicesParameters.getDueDateFrom()).isEqualTo(dueDateFrom);
@@ -84,6 +86,7 @@ class InvoicesParametersTest {
 		assertThat(invoicesParameters.getOcrNumber()).isEqualTo(ocrNumber);
 		assertThat(invoicesParameters.getPage()).isEqualTo(page);
 		assertThat(invoicesParameters.getPartyId()).isEqualTo(partyId);
+		assertThat(invoicesParameters.getFields()).isEqualTo(fields);
 	}
 
 	@Test
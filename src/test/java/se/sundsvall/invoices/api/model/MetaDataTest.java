@@ -31,19 +31,22 @@ class MetaDataTest {
 		final var page = 303;
 		final var totalPages = 404;
 		final var totalRecords = 505;
+		final var nextCursor = "eyJwYWdlIjoyfQ";
 
 		final var meta = MetaData.create()
 			.withCount(count)
 			.withLimit(limit)
 			.withPage(page)
 			.withTotalPages(totalPages)
-			.withTotalRecords(totalRecords);
+			.withTotalRecords(totalRecords)
+			.withNextCursor(nextCursor);
 
 		assertThat(meta.getCount()).isEqualTo(count);
 		assertThat(meta.getLimit()).isEqualTo(limit);
 		assertThat(meta.getPage()).isEqualTo(page);
 		assertThat(meta.getTotalPages()).isEqualTo(totalPages);
 		assertThat(meta.getTotalRecords()).isEqualTo(totalRecords);
+		assertThat(meta.getNextCursor()).isEqualTo(nextCursor);
 	}
 
 	@Test
@@ -53,13 +56,15 @@ class MetaDataTest {
 			.hasFieldOrPropertyWithValue("limit", 0)
 			.hasFieldOrPropertyWithValue("page", 0)
 			.hasFieldOrPropertyWithValue("totalRecords", 0L)
-			.hasFieldOrPropertyWithValue("totalPages", 0);
+			.hasFieldOrPropertyWithValue("totalPages", 0)
+			.hasFieldOrPropertyWithValue("nextCursor", null);
 
 		assertThat(new MetaData())
 			.hasFieldOrPropertyWithValue("count", 0)
 			.hasFieldOrPropertyWithValue("limit", 0)
 			.hasFieldOrPropertyWithValue("page", 0)
 			.hasFieldOrPropertyWithValue("totalRecords", 0L)
-			.hasFieldOrPropertyWithValue("totalPages", 0);
+			.hasFieldOrPropertyWithValue("totalPages", 0)
+			.hasFieldOrPropertyWithValue("nextCursor", null);
 	}
 }
@@ -0,0 +1,15 @@
+package se.sundsvall.invoices.api.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static se.sundsvall.invoices.api.model.PdfInvoiceOrigin.COMMERCIAL;
+import static se.sundsvall.invoices.api.model.PdfInvoiceOrigin.PUBLIC_ADMINISTRATION;
+
+class PdfInvoiceOriginTest {
+
+	@Test
+	void values() {
+		assertThat(PdfInvoiceOrigin.values()).containsExactly(COMMERCIAL, PUBLIC_ADMINISTRATION);
+	}
+}
@@ -1,6 +1,8 @@
 package se.sundsvall.invoices.api.model;
 
+import java.util.Base64;
 import org.junit.jupiter.api.Test;
+import tools.jackson.databind.json.JsonMapper;
 
 import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanConstructor;
 import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanEquals;
@@ -20,7 +22,7 @@ class PdfInvoiceTest {
 			hasValidGettersAndSetters(),
 			hasValidBeanHashCode(),
 			hasValidBeanEquals(),
-			hasValidBeanToStringExcluding("file")));
+			hasValidBeanToStringExcluding("file", "encodedFile")));
 	}
 
 	@Test
@@ -37,6 +39,34 @@ class PdfInvoiceTest {
 		assertThat(pdfInvoice.getFileName()).isEqualTo(fileName);
 	}
 
+	@Test
+	void testEncodedFile() {
+		final var file = "byteArray".getBytes();
+		final var encodedFile = Base64.getEncoder().encodeToString(file);
+
+		final var pdfInvoice = PdfInvoice.create()
+			.withEncodedFile(encodedFile);
+
+		assertThat(pdfInvoice.getEncodedFile()).isSameAs(encodedFile);
+		assertThat(pdfInvoice.getFile()).isEqualTo(file);
+		assertThat(pdfInvoice).isEqualTo(PdfInvoice.create().withFile(file));
+		assertThat(pdfInvoice).hasToString("PdfInvoice [fileName=null, file-size=9]");
+	}
+
+	@Test
+	void testSerializesEncodedFileAsIs() {
+		final var encodedFile = Base64.getEncoder().encodeToString("byteArray".getBytes());
+
+		final var json = JsonMapper.builder().build().writeValueAsString(PdfInvoice.create()
+			.withFileName("fileName")
+			.withEncodedFile(encodedFile));
+
+		assertThat(json)
+			.contains("\"fileName\":\"fileName\"")
+			.contains("\"file\":\"" + encodedFile + "\"")
+			.doesNotContain("encodedFile", "decodedFile");
+	}
+
 	@Test
 	void testNoDirtOnCreatedBean() {
 		assertThat(PdfInvoice.create()).hasAllNullFieldsOrProperties();
@@ -0,0 +1,38 @@
+package se.sundsvall.invoices.integration.common;
+
+import feign.Contract;
+import feign.Request;
+import feign.RequestLine;
+import feign.RequestTemplate;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+import static feign.Request.HttpMethod.GET;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static se.sundsvall.invoices.integration.common.FeignRequests.UNKNOWN;
+
+class FeignRequestsTest {
+
+	private static final String URL = "http://localhost/path";
+
+	@Test
+	void endpointIsNameOfClientMethod() {
+		final var methodMetadata = new Contract.Default().parseAndValidateMetadata(TestClient.class).getFirst();
+		final var template = new RequestTemplate().methodMetadata(methodMetadata);
+
+		assertThat(FeignRequests.endpoint(Request.create(GET, URL, Map.of(), null, UTF_8, template))).isEqualTo("getPath");
+	}
+
+	@Test
+	void endpointIsUnknownWithoutClientMethod() {
+		assertThat(FeignRequests.endpoint(Request.create(GET, URL, Map.of(), null, UTF_8, null))).isEqualTo(UNKNOWN);
+		assertThat(FeignRequests.endpoint(Request.create(GET, URL, Map.of(), null, UTF_8, new RequestTemplate()))).isEqualTo(UNKNOWN);
+	}
+
+	interface TestClient {
+
+		@RequestLine("GET /path")
+		String getPath();
+	}
+}
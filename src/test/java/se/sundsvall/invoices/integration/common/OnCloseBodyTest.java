@@ -0,0 +1,69 @@
+package se.sundsvall.invoices.integration.common;
+
+import feign.Request;
+import feign.Response;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+import static feign.Request.HttpMethod.GET;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OnCloseBodyTest {
+
+	private final List<Long> closed = new ArrayList<>();
+
+	@Test
+	void calledBackWithBytesReadWhenStreamIsClosed() throws IOException {
+		final var body = new OnCloseBody(body("content"), closed::add);
+
+		try (final var inputStream = body.asInputStream()) {
+			assertThat(inputStream.readAllBytes()).isEqualTo("content".getBytes(UTF_8));
+			assertThat(closed).isEmpty();
+		}
+
+		assertThat(closed).containsExactly(7L);
+	}
+
+	@Test
+	void readerCountsBytesRatherThanCharacters() throws IOException {
+		final var body = new OnCloseBody(body("åäö"), closed::add);
+
+		try (final var reader = body.asReader(UTF_8)) {
+			assertThat(reader.read(new char[10])).isEqualTo(3);
+		}
+
+		assertThat(closed).containsExactly(6L);
+	}
+
+	@Test
+	void calledBackOnceWhenClosedTwice() throws IOException {
+		final var body = new OnCloseBody(body("content"), closed::add);
+
+		body.asInputStream().close();
+		body.close();
+
+		assertThat(closed).containsExactly(0L);
+	}
+
+	@Test
+	void delegatesLengthAndRepeatability() {
+		final var delegate = body("content");
+		final var body = new OnCloseBody(delegate, closed::add);
+
+		assertThat(body.length()).isEqualTo(delegate.length());
+		assertThat(body.isRepeatable()).isEqualTo(delegate.isRepeatable());
+	}
+
+	private static Response.Body body(final String content) {
+		return Response.builder()
+			.status(200)
+			.request(Request.create(GET, "http://localhost/path", Map.of(), null, UTF_8, null))
+			.body(content, UTF_8)
+			.build()
+			.body();
+	}
+}
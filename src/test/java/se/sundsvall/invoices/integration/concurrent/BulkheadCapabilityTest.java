@@ -0,0 +1,112 @@
+package se.sundsvall.invoices.integration.concurrent;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import se.sundsvall.dept44.problem.ThrowableProblem;
+
+import static feign.Request.HttpMethod.GET;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
+
+class BulkheadCapabilityTest {
+
+	private static final String CLIENT_ID = "client";
+	private static final Request REQUEST = Request.create(GET, "http://localhost/path", Map.of(), null, UTF_8, null);
+	private static final Request.Options OPTIONS = new Request.Options();
+
+	private final Bulkhead bulkhead = Bulkhead.of(CLIENT_ID, BulkheadConfig.custom()
+		.maxConcurrentCalls(1)
+		.maxWaitDuration(Duration.ZERO)
+		.build());
+	private final BulkheadCapability capability = new BulkheadCapability(bulkhead);
+
+	@Test
+	void slotIsHeldUntilBodyIsClosed() throws IOException {
+		final var client = capability.enrich((request, options) -> response("content"));
+
+		final var response = client.execute(REQUEST, OPTIONS);
+
+		assertThat(availableSlots()).isZero();
+		response.close();
+		assertThat(availableSlots()).isOne();
+	}
+
+	@Test
+	void slotIsReleasedWhenBodyStreamIsClosed() throws IOException {
+		final var client = capability.enrich((request, options) -> response("content"));
+
+		try (final var inputStream = client.execute(REQUEST, OPTIONS).body().asInputStream()) {
+			assertThat(inputStream.readAllBytes()).isEqualTo("content".getBytes(UTF_8));
+			assertThat(availableSlots()).isZero();
+		}
+		assertThat(availableSlots()).isOne();
+	}
+
+	@Test
+	void slotIsReleasedOnceWhenClosedTwice() throws IOException {
+		final var client = capability.enrich((request, options) -> response("content"));
+		final var response = client.execute(REQUEST, OPTIONS);
+
+		response.body().asInputStream().close();
+		response.close();
+
+		assertThat(availableSlots()).isOne();
+	}
+
+	@Test
+	void slotIsReleasedForResponseWithoutBody() throws IOException {
+		final var client = capability.enrich((request, options) -> response(null));
+
+		client.execute(REQUEST, OPTIONS);
+
+		assertThat(availableSlots()).isOne();
+	}
+
+	@Test
+	void slotIsReleasedWhenCallFails() {
+		final Client client = capability.enrich((request, options) -> {
+			throw new IOException("Connection refused");
+		});
+
+		assertThatExceptionOfType(IOException.class).isThrownBy(() -> client.execute(REQUEST, OPTIONS));
+		assertThat(availableSlots()).isOne();
+	}
+
+	@Test
+	void callFailsWhenLimitIsReached() throws IOException {
+		final var client = capability.enrich((request, options) -> response("content"));
+		try (final var ignored = client.execute(REQUEST, OPTIONS)) {
+
+			assertThatExceptionOfType(ThrowableProblem.class)
+				.isThrownBy(() -> client.execute(REQUEST, OPTIONS))
+				.satisfies(problem -> {
+					assertThat(problem.getStatus()).isEqualTo(SERVICE_UNAVAILABLE);
+					assertThat(problem.getDetail()).isEqualTo("Too many concurrent calls to client");
+				});
+		}
+	}
+
+	private int availableSlots() {
+		return bulkhead.getMetrics().getAvailableConcurrentCalls();
+	}
+
+	private static Response response(final String body) {
+		final var builder = Response.builder()
+			.status(200)
+			.request(REQUEST)
+			.headers(Map.of());
+		if (body != null) {
+			builder.body(body, UTF_8);
+		}
+		return builder.build();
+	}
+}
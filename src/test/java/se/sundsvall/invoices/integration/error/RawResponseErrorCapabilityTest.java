@@ -0,0 +1,87 @@
+package se.sundsvall.invoices.integration.error;
+
+import feign.InvocationHandlerFactory;
+import feign.Request;
+import feign.Response;
+import feign.Target;
+import feign.codec.ErrorDecoder;
+import java.lang.reflect.InvocationHandler;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import se.sundsvall.dept44.problem.Problem;
+import se.sundsvall.dept44.problem.ThrowableProblem;
+
+import static feign.Request.HttpMethod.GET;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.http.HttpStatus.BAD_GATEWAY;
+
+class RawResponseErrorCapabilityTest {
+
+	private static final Request REQUEST = Request.create(GET, "http://localhost/path", Map.of(), null, UTF_8, null);
+	private static final Target<TestClient> TARGET = new Target.HardCodedTarget<>(TestClient.class, "http://localhost");
+
+	private final ErrorDecoder errorDecoderMock = mock(ErrorDecoder.class);
+	private final RawResponseErrorCapability capability = new RawResponseErrorCapability(errorDecoderMock);
+
+	@Test
+	void errorResponseIsDecodedThrownAndClosed() throws Throwable {
+		final var bodyMock = mock(Response.Body.class);
+		final var response = response(503, bodyMock);
+		when(errorDecoderMock.decode(any(), any())).thenReturn(Problem.valueOf(BAD_GATEWAY, "invoicecache error"));
+
+		final var invocationHandler = enrich(response);
+
+		assertThatExceptionOfType(ThrowableProblem.class)
+			.isThrownBy(() -> invocationHandler.invoke(null, TestClient.class.getMethod("download"), null))
+			.satisfies(e -> assertThat(e.getStatus()).isEqualTo(BAD_GATEWAY));
+		verify(errorDecoderMock).decode("TestClient#download()", response);
+		verify(bodyMock).close();
+	}
+
+	@Test
+	void successfulResponseIsReturned() throws Throwable {
+		final var bodyMock = mock(Response.Body.class);
+		final var response = response(200, bodyMock);
+
+		final var result = enrich(response).invoke(null, TestClient.class.getMethod("download"), null);
+
+		assertThat(result).isSameAs(response);
+		verifyNoInteractions(errorDecoderMock, bodyMock);
+	}
+
+	@Test
+	void decodedResultIsReturned() throws Throwable {
+		final var result = enrich("decoded").invoke(null, TestClient.class.getMethod("get"), null);
+
+		assertThat(result).isEqualTo("decoded");
+		verifyNoInteractions(errorDecoderMock);
+	}
+
+	private InvocationHandler enrich(final Object result) {
+		final InvocationHandlerFactory invocationHandlerFactory = (target, dispatch) -> (proxy, method, args) -> result;
+		return capability.enrich(invocationHandlerFactory).create(TARGET, Map.of());
+	}
+
+	private static Response response(final int status, final Response.Body body) {
+		return Response.builder()
+			.status(status)
+			.request(REQUEST)
+			.headers(Map.of())
+			.body(body)
+			.build();
+	}
+
+	interface TestClient {
+
+		Response download();
+
+		String get();
+	}
+}
@@ -0,0 +1,98 @@
+package se.sundsvall.invoices.integration.http;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PooledHttpClientFactoryTest {
+
+	private static final String CLIENT_ID = "client";
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private HttpServer server;
+	private String url;
+
+	@BeforeEach
+	void setup() throws IOException {
+		server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.createContext("/", exchange -> {
+			final var body = "ok".getBytes();
+			exchange.sendResponseHeaders(200, body.length);
+			exchange.getResponseBody().write(body);
+			exchange.close();
+		});
+		server.start();
+		url = "http://localhost:" + server.getAddress().getPort() + "/api";
+	}
+
+	@AfterEach
+	void teardown() {
+		server.stop(0);
+	}
+
+	@Test
+	void createReusesConnectionsAndRecordsMetrics() throws IOException {
+		try (final var httpClient = PooledHttpClientFactory.create(CLIENT_ID, url, 5, pool(0), meterRegistry)) {
+			for (var i = 0; i < 3; i++) {
+				httpClient.execute(new HttpGet(url), response -> EntityUtils.toString(response.getEntity()));
+			}
+
+			assertThat(meterRegistry.get(PooledHttpClientFactory.LEASE_TIMER_NAME).tag("httpclient", CLIENT_ID).timer().count()).isEqualTo(3);
+			assertThat(meterRegistry.get("httpcomponents.httpclient.pool.total.max").tag("httpclient", CLIENT_ID).gauge().value()).isEqualTo(10);
+			assertThat(availableConnections()).isEqualTo(1);
+		}
+	}
+
+	@Test
+	void prewarmOpensConnections() throws IOException {
+		try (final var connectionManager = PoolingHttpClientConnectionManagerBuilder.create().build()) {
+			PooledHttpClientFactory.prewarm(connectionManager, PooledHttpClientFactory.toRoute(url), 3, Timeout.ofSeconds(5), TimeValue.ofMinutes(1));
+
+			assertThat(connectionManager.getTotalStats().getAvailable()).isEqualTo(3);
+			assertThat(connectionManager.getTotalStats().getLeased()).isZero();
+		}
+	}
+
+	@Test
+	void prewarmedConnectionsAreUsedByTheClient() throws IOException, InterruptedException {
+		try (final var httpClient = PooledHttpClientFactory.create(CLIENT_ID, url, 5, pool(2), meterRegistry)) {
+			// Pre-warming runs in the background
+			for (var i = 0; i < 50 && availableConnections() < 2; i++) {
+				Thread.sleep(100);
+			}
+			assertThat(availableConnections()).isEqualTo(2);
+
+			httpClient.execute(new HttpGet(url), response -> EntityUtils.toString(response.getEntity()));
+
+			assertThat(availableConnections()).isEqualTo(2);
+		}
+	}
+
+	@Test
+	void toRoute() {
+		assertThat(PooledHttpClientFactory.toRoute("https://api.example.com/path").getTargetHost().getPort()).isEqualTo(443);
+		assertThat(PooledHttpClientFactory.toRoute("https://api.example.com/path").isSecure()).isTrue();
+		assertThat(PooledHttpClientFactory.toRoute("http://localhost:8080/path").getTargetHost().getPort()).isEqualTo(8080);
+		assertThat(PooledHttpClientFactory.toRoute("http://localhost:8080/path").isSecure()).isFalse();
+	}
+
+	private double availableConnections() {
+		return meterRegistry.get("httpcomponents.httpclient.pool.total.connections").tag("httpclient", CLIENT_ID).tag("state", "available").gauge().value();
+	}
+
+	private static ConnectionPoolProperties pool(final int prewarmConnections) {
+		return new ConnectionPoolProperties(10, 10, Duration.ofMinutes(10), Duration.ofMinutes(1), prewarmConnections);
+	}
+}
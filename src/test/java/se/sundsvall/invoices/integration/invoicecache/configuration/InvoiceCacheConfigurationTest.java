@@ -1,6 +1,14 @@
 package se.sundsvall.invoices.integration.invoicecache.configuration;
 
+import feign.Feign;
 import feign.codec.ErrorDecoder;
+import feign.hc5.ApacheHttp5Client;
+import feign.http2client.Http2Client;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import java.io.IOException;
+import java.time.Duration;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
@@ -15,8 +23,18 @@ import org.springframework.security.oauth2.client.registration.ClientRegistratio
 import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
 import se.sundsvall.dept44.configuration.feign.FeignMultiCustomizer;
 import se.sundsvall.dept44.configuration.feign.decoder.ProblemErrorDecoder;
+import se.sundsvall.invoices.integration.concurrent.BulkheadCapability;
+import se.sundsvall.invoices.integration.error.RawResponseErrorCapability;
+import se.sundsvall.invoices.integration.http.ConnectionPoolProperties;
+import se.sundsvall.invoices.integration.metrics.MetricsCapability;
+import se.sundsvall.invoices.integration.oauth2.OAuth2TokenInterceptor;
+import se.sundsvall.invoices.integration.oauth2.OAuth2TokenManager;
+import se.sundsvall.invoices.integration.oauth2.UnauthorizedRetryCapability;
+import se.sundsvall.invoices.integration.tracing.TracingCapability;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static se.sundsvall.invoices.integration.invoicecache.configuration.InvoiceCacheConfiguration.CLIENT_ID;
@@ -50,13 +68,11 @@ class InvoiceCacheConfigurationTest {
 
 		when(propertiesMock.connectTimeout()).thenReturn(connectTimeout);
 		when(propertiesMock.readTimeout()).thenReturn(readTimeout);
-		when(clientRepositoryMock.findByRegistrationId(CLIENT_ID)).thenReturn(clientRegistrationMock);
-
 		// Mock static FeignMultiCustomizer to enable spy and to verify that static method is being called
 		try (MockedStatic<FeignMultiCustomizer> feignMultiCustomizerMock = Mockito.mockStatic(FeignMultiCustomizer.class)) {
 			feignMultiCustomizerMock.when(() -> FeignMultiCustomizer.create()).thenReturn(feignMultiCustomizerSpy);
 
-			configuration.feignBuilderCustomizer(clientRepositoryMock, propertiesMock);
+			configuration.feignBuilderCustomizer(propertiesMock);
 
 			feignMultiCustomizerMock.verify(() -> FeignMultiCustomizer.create());
 		}
@@ -64,10 +80,9 @@ class InvoiceCacheConfigurationTest {
 		// Verifications
 		verify(propertiesMock).connectTimeout();
 		verify(propertiesMock).readTimeout();
-		verify(clientRepositoryMock).findByRegistrationId(CLIENT_ID);
 		verify(feignMultiCustomizerSpy).withErrorDecoder(errorDecoderCaptor.capture());
 		verify(feignMultiCustomizerSpy).withRequestTimeoutsInSeconds(connectTimeout, readTimeout);
-		verify(feignMultiCustomizerSpy).withRetryableOAuth2InterceptorForClientRegistration(clientRegistrationMock);
+		verify(feignMultiCustomizerSpy, never()).withRetryableOAuth2InterceptorForClientRegistration(any());
 		verify(feignMultiCustomizerSpy).composeCustomizersToOne();
 
 		// Assert ErrorDecoder
@@ -75,4 +90,85 @@ class InvoiceCacheConfigurationTest {
 			.isInstanceOf(ProblemErrorDecoder.class)
 			.hasFieldOrPropertyWithValue("integrationName", CLIENT_ID);
 	}
+
+	@Test
+	void testOauth2Customizer() {
+		final var builderMock = Mockito.mock(Feign.Builder.class);
+		final var tokenManagerMock = Mockito.mock(OAuth2TokenManager.class);
+		when(clientRepositoryMock.findByRegistrationId(CLIENT_ID)).thenReturn(clientRegistrationMock);
+		when(builderMock.requestInterceptor(any())).thenReturn(builderMock);
+
+		configuration.oauth2Customizer(clientRepositoryMock, tokenManagerMock).customize(builderMock);
+
+		verify(clientRepositoryMock).findByRegistrationId(CLIENT_ID);
+		verify(builderMock).requestInterceptor(any(OAuth2TokenInterceptor.class));
+		verify(builderMock).addCapability(any(UnauthorizedRetryCapability.class));
+	}
+
+	@Test
+	void testRawResponseErrorCustomizer() {
+		final var builderMock = Mockito.mock(Feign.Builder.class);
+
+		configuration.rawResponseErrorCustomizer().customize(builderMock);
+
+		verify(builderMock).addCapability(any(RawResponseErrorCapability.class));
+	}
+
+	@Test
+	void testBulkheadCustomizer() {
+		final var builderMock = Mockito.mock(Feign.Builder.class);
+		final var bulkheadRegistry = BulkheadRegistry.ofDefaults();
+
+		configuration.bulkheadCustomizer(bulkheadRegistry).customize(builderMock);
+
+		verify(builderMock).addCapability(any(BulkheadCapability.class));
+		assertThat(bulkheadRegistry.find(CLIENT_ID)).isPresent();
+	}
+
+	@Test
+	void testMetricsCustomizer() {
+		final var builderMock = Mockito.mock(Feign.Builder.class);
+
+		configuration.metricsCustomizer(new SimpleMeterRegistry()).customize(builderMock);
+
+		verify(builderMock).addCapability(any(MetricsCapability.class));
+	}
+
+	@Test
+	void testTracingCustomizer() {
+		final var builderMock = Mockito.mock(Feign.Builder.class);
+
+		configuration.tracingCustomizer(ObservationRegistry.NOOP).customize(builderMock);
+
+		verify(builderMock).addCapability(any(TracingCapability.class));
+	}
+
+	@Test
+	void testPooledClient() throws IOException {
+		when(propertiesMock.url()).thenReturn("http://invoiceCacheUrl");
+		when(propertiesMock.connectTimeout()).thenReturn(10);
+		when(propertiesMock.pool()).thenReturn(new ConnectionPoolProperties(10, 10, Duration.ofMinutes(10), Duration.ofMinutes(1), 0));
+
+		try (final var httpClient = configuration.pooledHttpClient(propertiesMock, new SimpleMeterRegistry())) {
+			assertThat(configuration.pooledClient(httpClient)).isInstanceOf(ApacheHttp5Client.class);
+		}
+	}
+
+	@Test
+	void testHttp2Client() {
+		when(propertiesMock.connectTimeout()).thenReturn(10);
+
+		try (final var executor = configuration.http2Executor()) {
+			assertThat(configuration.http2Client(propertiesMock, executor)).isInstanceOf(Http2Client.class);
+		}
+	}
+
+	@Test
+	void testHttp2Executor() {
+		final var executor = configuration.http2Executor();
+
+		executor.close();
+
+		assertThat(executor.isTerminated()).isTrue();
+	}
 }
@@ -1,5 +1,6 @@
 package se.sundsvall.invoices.integration.invoicecache.configuration;
 
+import java.time.Duration;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -17,7 +18,14 @@ class InvoiceCachePropertiesTest {
 
 	@Test
 	void testProperties() {
+		assertThat(properties.url()).isEqualTo("http://invoiceCacheUrl");
 		assertThat(properties.connectTimeout()).isEqualTo(10);
 		assertThat(properties.readTimeout()).isEqualTo(20);
+		assertThat(properties.http2()).isFalse();
+		assertThat(properties.pool().maxConnections()).isEqualTo(50);
+		assertThat(properties.pool().maxConnectionsPerRoute()).isEqualTo(50);
+		assertThat(properties.pool().timeToLive()).isEqualTo(Duration.ofMinutes(10));
+		assertThat(properties.pool().keepAlive()).isEqualTo(Duration.ofMinutes(1));
+		assertThat(properties.pool().prewarmConnections()).isZero();
 	}
 }
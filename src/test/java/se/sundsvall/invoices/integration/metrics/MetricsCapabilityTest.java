@@ -0,0 +1,136 @@
+package se.sundsvall.invoices.integration.metrics;
+
+import feign.Client;
+import feign.Contract;
+import feign.Param;
+import feign.Request;
+import feign.RequestLine;
+import feign.RequestTemplate;
+import feign.Response;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+import static feign.Request.HttpMethod.GET;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static se.sundsvall.invoices.integration.metrics.MetricsCapability.CLIENT_TAG;
+import static se.sundsvall.invoices.integration.metrics.MetricsCapability.ENDPOINT_TAG;
+import static se.sundsvall.invoices.integration.metrics.MetricsCapability.IO_ERROR;
+import static se.sundsvall.invoices.integration.metrics.MetricsCapability.MUNICIPALITY_ID_TAG;
+import static se.sundsvall.invoices.integration.metrics.MetricsCapability.ORIGIN_TAG;
+import static se.sundsvall.invoices.integration.metrics.MetricsCapability.REQUEST_TIMER_NAME;
+import static se.sundsvall.invoices.integration.metrics.MetricsCapability.RESPONSE_SIZE_NAME;
+import static se.sundsvall.invoices.integration.metrics.MetricsCapability.STATUS_TAG;
+import static se.sundsvall.invoices.integration.metrics.MetricsCapability.UNKNOWN;
+
+class MetricsCapabilityTest {
+
+	private static final String CLIENT_ID = "client";
+	private static final String ORIGIN = "COMMERCIAL";
+	private static final String MUNICIPALITY_ID = "2281";
+	private static final Request REQUEST = request("http://localhost/api/" + MUNICIPALITY_ID + "/invoices?page=1");
+	private static final Request.Options OPTIONS = new Request.Options();
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final MetricsCapability capability = new MetricsCapability(CLIENT_ID, ORIGIN, meterRegistry);
+
+	@Test
+	void callIsTimedPerEndpointAndMunicipality() throws IOException {
+		final var client = capability.enrich((request, options) -> response(200, "content"));
+
+		client.execute(REQUEST, OPTIONS);
+
+		final var timer = meterRegistry.get(REQUEST_TIMER_NAME)
+			.tag(CLIENT_TAG, CLIENT_ID)
+			.tag(ORIGIN_TAG, ORIGIN)
+			.tag(ENDPOINT_TAG, "getInvoices")
+			.tag(MUNICIPALITY_ID_TAG, MUNICIPALITY_ID)
+			.tag(STATUS_TAG, "200")
+			.timer();
+		assertThat(timer.count()).isOne();
+		final var summary = meterRegistry.get(RESPONSE_SIZE_NAME).tag(ENDPOINT_TAG, "getInvoices").summary();
+		assertThat(summary.count()).isOne();
+		assertThat(summary.totalAmount()).isEqualTo(7);
+		assertThat(summary.getId().getBaseUnit()).isEqualTo("bytes");
+	}
+
+	@Test
+	void sizeOfStreamedBodyIsRecordedOnceWhenClosed() throws IOException {
+		final var client = capability.enrich((request, options) -> streamedResponse("åäö"));
+		final var response = client.execute(REQUEST, OPTIONS);
+
+		try (final Reader reader = response.body().asReader(UTF_8)) {
+			assertThat(reader.read(new char[10])).isEqualTo(3);
+			assertThat(meterRegistry.get(RESPONSE_SIZE_NAME).summary().count()).isZero();
+		}
+		response.close();
+
+		final var summary = meterRegistry.get(RESPONSE_SIZE_NAME).tag(MUNICIPALITY_ID_TAG, MUNICIPALITY_ID).summary();
+		assertThat(summary.count()).isOne();
+		assertThat(summary.totalAmount()).isEqualTo(6);
+	}
+
+	@Test
+	void failedCallIsTimedAsIoError() {
+		final Client client = capability.enrich((request, options) -> {
+			throw new IOException("Connection refused");
+		});
+
+		assertThatExceptionOfType(IOException.class).isThrownBy(() -> client.execute(REQUEST, OPTIONS));
+
+		assertThat(meterRegistry.get(REQUEST_TIMER_NAME).tag(STATUS_TAG, IO_ERROR).timer().count()).isOne();
+		assertThat(meterRegistry.find(RESPONSE_SIZE_NAME).summary()).isNull();
+	}
+
+	@Test
+	void callWithoutMethodMetadataIsTimedAsUnknown() throws IOException {
+		final var request = Request.create(GET, "http://localhost/path", Map.of(), null, UTF_8, null);
+		final var client = capability.enrich((r, options) -> response(404, null));
+
+		client.execute(request, OPTIONS);
+
+		final var timer = meterRegistry.get(REQUEST_TIMER_NAME)
+			.tag(ENDPOINT_TAG, UNKNOWN)
+			.tag(MUNICIPALITY_ID_TAG, UNKNOWN)
+			.tag(STATUS_TAG, "404")
+			.timer();
+		assertThat(timer.count()).isOne();
+	}
+
+	private static Request request(final String url) {
+		final var methodMetadata = new Contract.Default().parseAndValidateMetadata(TestClient.class).getFirst();
+		final var template = new RequestTemplate().methodMetadata(methodMetadata);
+		return Request.create(GET, url, Map.of(), null, UTF_8, template);
+	}
+
+	private static Response response(final int status, final String body) {
+		final var builder = Response.builder()
+			.status(status)
+			.request(REQUEST)
+			.headers(Map.of());
+		if (body != null) {
+			builder.body(body, UTF_8);
+		}
+		return builder.build();
+	}
+
+	private static Response streamedResponse(final String body) {
+		return Response.builder()
+			.status(200)
+			.request(REQUEST)
+			.headers(Map.of())
+			.body(new ByteArrayInputStream(body.getBytes(UTF_8)), null)
+			.build();
+	}
+
+	interface TestClient {
+
+		@RequestLine("GET /{municipalityId}/invoices")
+		String getInvoices(@Param("municipalityId") String municipalityId);
+	}
+}
@@ -0,0 +1,41 @@
+package se.sundsvall.invoices.integration.oauth2;
+
+import feign.RequestTemplate;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+import static org.springframework.http.HttpHeaders.AUTHORIZATION;
+
+@ExtendWith(MockitoExtension.class)
+class OAuth2TokenInterceptorTest {
+
+	@Mock
+	private ClientRegistration clientRegistrationMock;
+
+	@Mock
+	private OAuth2TokenManager tokenManagerMock;
+
+	@Mock
+	private OAuth2AccessToken tokenMock;
+
+	@InjectMocks
+	private OAuth2TokenInterceptor interceptor;
+
+	@Test
+	void apply() {
+		final var template = new RequestTemplate().header(AUTHORIZATION, "Bearer stale-token");
+		when(tokenManagerMock.getToken(clientRegistrationMock)).thenReturn(tokenMock);
+		when(tokenMock.getTokenValue()).thenReturn("token");
+
+		interceptor.apply(template);
+
+		assertThat(template.headers().get(AUTHORIZATION)).containsExactly("Bearer token");
+	}
+}
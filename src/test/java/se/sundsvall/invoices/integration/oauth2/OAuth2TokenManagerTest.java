@@ -0,0 +1,147 @@
+package se.sundsvall.invoices.integration.oauth2;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.client.endpoint.OAuth2AccessTokenResponseClient;
+import org.springframework.security.oauth2.client.endpoint.OAuth2ClientCredentialsGrantRequest;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.OAuth2AuthorizationException;
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.endpoint.OAuth2AccessTokenResponse;
+import se.sundsvall.dept44.problem.ThrowableProblem;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.springframework.http.HttpStatus.BAD_GATEWAY;
+import static se.sundsvall.invoices.integration.oauth2.OAuth2TokenManager.CLIENT_TAG;
+import static se.sundsvall.invoices.integration.oauth2.OAuth2TokenManager.FETCH_TIMER_NAME;
+import static se.sundsvall.invoices.integration.oauth2.OAuth2TokenManager.OUTCOME_TAG;
+import static se.sundsvall.invoices.integration.oauth2.OAuth2TokenManager.REFRESH_COUNTER_NAME;
+import static se.sundsvall.invoices.integration.oauth2.OAuth2TokenManager.TRIGGER_TAG;
+
+class OAuth2TokenManagerTest {
+
+	private static final String REGISTRATION_ID = "datawarehousereader";
+	private static final ClientRegistration CLIENT_REGISTRATION = ClientRegistration.withRegistrationId(REGISTRATION_ID)
+		.authorizationGrantType(AuthorizationGrantType.CLIENT_CREDENTIALS)
+		.clientId("the-client-id")
+		.clientSecret("the-client-secret")
+		.tokenUri("http://tokenUrl")
+		.build();
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final AtomicInteger fetches = new AtomicInteger();
+	private OAuth2TokenManager tokenManager;
+
+	@AfterEach
+	void teardown() {
+		tokenManager.destroy();
+	}
+
+	@Test
+	void getTokenIsFetchedOnceAndShared() {
+		tokenManager = createTokenManager(Duration.ofHours(1));
+
+		final var first = tokenManager.getToken(CLIENT_REGISTRATION);
+		final var second = tokenManager.getToken(CLIENT_REGISTRATION);
+
+		assertThat(second).isSameAs(first);
+		assertThat(fetches).hasValue(1);
+		assertThat(meterRegistry.get(FETCH_TIMER_NAME).tag(CLIENT_TAG, REGISTRATION_ID).tag(OUTCOME_TAG, "success").timer().count()).isOne();
+		assertThat(meterRegistry.get(REFRESH_COUNTER_NAME).tag(TRIGGER_TAG, "blocking").counter().count()).isOne();
+	}
+
+	@Test
+	void concurrentCallsShareOneFetch() throws InterruptedException {
+		final var release = new CountDownLatch(1);
+		tokenManager = createTokenManager(request -> {
+			awaitLatch(release);
+			return tokenResponse("token-" + fetches.incrementAndGet(), Duration.ofHours(1));
+		});
+
+		try (final var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			final var futures = IntStream.range(0, 10)
+				.mapToObj(i -> executor.submit(() -> tokenManager.getToken(CLIENT_REGISTRATION)))
+				.toList();
+			Thread.sleep(100);
+			release.countDown();
+			assertThat(futures).allSatisfy(future -> assertThat(future.get().getTokenValue()).isEqualTo("token-1"));
+		}
+		assertThat(fetches).hasValue(1);
+	}
+
+	@Test
+	void tokenIsRefreshedBeforeExpiry() throws InterruptedException {
+		final var refreshed = new CountDownLatch(2);
+		// A token living shorter than twice the refresh window is refreshed halfway through its lifetime
+		tokenManager = createTokenManager(request -> {
+			refreshed.countDown();
+			return tokenResponse("token-" + fetches.incrementAndGet(), Duration.ofSeconds(1));
+		});
+
+		tokenManager.getToken(CLIENT_REGISTRATION);
+
+		assertThat(refreshed.await(5, SECONDS)).isTrue();
+		assertThat(meterRegistry.get(REFRESH_COUNTER_NAME).tag(TRIGGER_TAG, "scheduled").counter().count()).isPositive();
+	}
+
+	@Test
+	void invalidatedTokenIsReplaced() {
+		tokenManager = createTokenManager(Duration.ofHours(1));
+		final var first = tokenManager.getToken(CLIENT_REGISTRATION);
+
+		tokenManager.invalidate(REGISTRATION_ID, "other-token");
+		assertThat(tokenManager.getToken(CLIENT_REGISTRATION)).isSameAs(first);
+
+		tokenManager.invalidate(REGISTRATION_ID, first.getTokenValue());
+		assertThat(tokenManager.getToken(CLIENT_REGISTRATION).getTokenValue()).isEqualTo("token-2");
+	}
+
+	@Test
+	void failedFetchIsReportedAsProblem() {
+		tokenManager = createTokenManager(request -> {
+			throw new OAuth2AuthorizationException(new OAuth2Error("invalid_client"));
+		});
+
+		assertThatExceptionOfType(ThrowableProblem.class)
+			.isThrownBy(() -> tokenManager.getToken(CLIENT_REGISTRATION))
+			.satisfies(problem -> {
+				assertThat(problem.getStatus()).isEqualTo(BAD_GATEWAY);
+				assertThat(problem.getDetail()).isEqualTo("Failed to get an access token for datawarehousereader");
+			});
+		assertThat(meterRegistry.get(FETCH_TIMER_NAME).tag(OUTCOME_TAG, "failure").timer().count()).isOne();
+	}
+
+	private OAuth2TokenManager createTokenManager(final Duration lifetime) {
+		return createTokenManager(request -> tokenResponse("token-" + fetches.incrementAndGet(), lifetime));
+	}
+
+	private OAuth2TokenManager createTokenManager(final OAuth2AccessTokenResponseClient<OAuth2ClientCredentialsGrantRequest> tokenResponseClient) {
+		return new OAuth2TokenManager(new OAuth2TokenProperties(Duration.ofMinutes(1)), tokenResponseClient, meterRegistry);
+	}
+
+	private static OAuth2AccessTokenResponse tokenResponse(final String tokenValue, final Duration lifetime) {
+		return OAuth2AccessTokenResponse.withToken(tokenValue)
+			.tokenType(OAuth2AccessToken.TokenType.BEARER)
+			.expiresIn(lifetime.toSeconds())
+			.build();
+	}
+
+	private static void awaitLatch(final CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,23 @@
+package se.sundsvall.invoices.integration.oauth2;
+
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import se.sundsvall.invoices.Application;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+@SpringBootTest(classes = Application.class)
+@ActiveProfiles("junit")
+class OAuth2TokenPropertiesTest {
+
+	@Autowired
+	private OAuth2TokenProperties properties;
+
+	@Test
+	void testProperties() {
+		assertThat(properties.refreshBefore()).isEqualTo(Duration.ofMinutes(1));
+	}
+}
@@ -0,0 +1,118 @@
+package se.sundsvall.invoices.integration.oauth2;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+
+import static feign.Request.HttpMethod.GET;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.http.HttpHeaders.AUTHORIZATION;
+
+@ExtendWith(MockitoExtension.class)
+class UnauthorizedRetryCapabilityTest {
+
+	private static final String REGISTRATION_ID = "invoicecache";
+	private static final Request.Options OPTIONS = new Request.Options();
+
+	@Mock
+	private ClientRegistration clientRegistrationMock;
+
+	@Mock
+	private OAuth2TokenManager tokenManagerMock;
+
+	@Mock
+	private OAuth2AccessToken tokenMock;
+
+	@Test
+	void rejectedCallIsRetriedWithNewToken() throws IOException {
+		final var requests = new ArrayList<Request>();
+		final var client = capability().enrich((request, options) -> {
+			requests.add(request);
+			return response(request, requests.size() == 1 ? 401 : 200);
+		});
+		when(clientRegistrationMock.getRegistrationId()).thenReturn(REGISTRATION_ID);
+		when(tokenManagerMock.getToken(clientRegistrationMock)).thenReturn(tokenMock);
+		when(tokenMock.getTokenValue()).thenReturn("new-token");
+
+		final var response = client.execute(request("Bearer rejected-token"), OPTIONS);
+
+		assertThat(response.status()).isEqualTo(200);
+		assertThat(requests).extracting(request -> request.headers().get(AUTHORIZATION))
+			.containsExactly(List.of("Bearer rejected-token"), List.of("Bearer new-token"));
+		verify(tokenManagerMock).invalidate(REGISTRATION_ID, "rejected-token");
+	}
+
+	@Test
+	void rejectedCallIsRetriedOnce() throws IOException {
+		final var requests = new ArrayList<Request>();
+		final var client = capability().enrich((request, options) -> {
+			requests.add(request);
+			return response(request, 401);
+		});
+		when(clientRegistrationMock.getRegistrationId()).thenReturn(REGISTRATION_ID);
+		when(tokenManagerMock.getToken(clientRegistrationMock)).thenReturn(tokenMock);
+		when(tokenMock.getTokenValue()).thenReturn("new-token");
+
+		final var response = client.execute(request("Bearer rejected-token"), OPTIONS);
+
+		assertThat(response.status()).isEqualTo(401);
+		assertThat(requests).hasSize(2);
+	}
+
+	@Test
+	void acceptedCallIsNotRetried() throws IOException {
+		final var requests = new ArrayList<Request>();
+		final var client = capability().enrich((request, options) -> {
+			requests.add(request);
+			return response(request, 200);
+		});
+
+		client.execute(request("Bearer token"), OPTIONS);
+
+		assertThat(requests).hasSize(1);
+		verifyNoInteractions(tokenManagerMock);
+	}
+
+	@Test
+	void callWithoutTokenIsNotRetried() throws IOException {
+		final Client client = capability().enrich((request, options) -> response(request, 401));
+
+		final var response = client.execute(Request.create(GET, "http://localhost/path", Map.of(), null, UTF_8, null), OPTIONS);
+
+		assertThat(response.status()).isEqualTo(401);
+		verifyNoInteractions(tokenManagerMock);
+	}
+
+	private UnauthorizedRetryCapability capability() {
+		return new UnauthorizedRetryCapability(clientRegistrationMock, tokenManagerMock);
+	}
+
+	private static Request request(final String authorization) {
+		final Map<String, Collection<String>> headers = Map.of(AUTHORIZATION, List.of(authorization));
+		return Request.create(GET, "http://localhost/path", headers, null, UTF_8, null);
+	}
+
+	private static Response response(final Request request, final int status) {
+		return Response.builder()
+			.status(status)
+			.request(request)
+			.headers(Map.of())
+			.body("content", UTF_8)
+			.build();
+	}
+}
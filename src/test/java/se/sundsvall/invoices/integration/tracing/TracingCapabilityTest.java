@@ -0,0 +1,165 @@
+package se.sundsvall.invoices.integration.tracing;
+
+import feign.Client;
+import feign.Contract;
+import feign.Param;
+import feign.Request;
+import feign.RequestInterceptor;
+import feign.RequestLine;
+import feign.RequestTemplate;
+import feign.Response;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import io.micrometer.observation.ObservationRegistry;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static feign.Request.HttpMethod.GET;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static se.sundsvall.invoices.integration.tracing.TracingCapability.BYTES_KEY;
+import static se.sundsvall.invoices.integration.tracing.TracingCapability.CALL_OBSERVATION_NAME;
+import static se.sundsvall.invoices.integration.tracing.TracingCapability.CLIENT_KEY;
+import static se.sundsvall.invoices.integration.tracing.TracingCapability.ENDPOINT_KEY;
+import static se.sundsvall.invoices.integration.tracing.TracingCapability.INTERCEPTOR_KEY;
+import static se.sundsvall.invoices.integration.tracing.TracingCapability.INTERCEPTOR_OBSERVATION_NAME;
+import static se.sundsvall.invoices.integration.tracing.TracingCapability.PAGE_SIZE_KEY;
+import static se.sundsvall.invoices.integration.tracing.TracingCapability.STATUS_KEY;
+import static se.sundsvall.invoices.integration.tracing.TracingCapability.UNKNOWN;
+
+class TracingCapabilityTest {
+
+	private static final String CLIENT_ID = "client";
+	private static final Request.Options OPTIONS = new Request.Options();
+
+	private final List<Observation.Context> observations = new ArrayList<>();
+	private final ObservationRegistry observationRegistry = ObservationRegistry.create();
+	private final TracingCapability capability = new TracingCapability(CLIENT_ID, observationRegistry);
+
+	@BeforeEach
+	void setup() {
+		observationRegistry.observationConfig().observationHandler(new ObservationHandler<>() {
+			@Override
+			public boolean supportsContext(final Observation.Context context) {
+				return true;
+			}
+
+			@Override
+			public void onStop(final Observation.Context context) {
+				observations.add(context);
+			}
+		});
+	}
+
+	@Test
+	void callIsObservedUntilBodyIsClosed() throws IOException {
+		final var request = request();
+		final var client = capability.enrich((r, options) -> response(request, "content"));
+		final var parent = Observation.start("parent", observationRegistry);
+
+		final var response = parent.scoped(() -> execute(client, request));
+
+		assertThat(observations).isEmpty();
+		try (final var inputStream = response.body().asInputStream()) {
+			assertThat(inputStream.readAllBytes()).hasSize(7);
+		}
+		response.close();
+		parent.stop();
+
+		assertThat(observations).hasSize(2).first().satisfies(observation -> {
+			assertThat(observation.getName()).isEqualTo(CALL_OBSERVATION_NAME);
+			assertThat(observation.getContextualName()).isEqualTo("client getInvoices");
+			assertThat(observation.getParentObservation()).isSameAs(parent);
+			assertThat(observation.getLowCardinalityKeyValue(CLIENT_KEY).getValue()).isEqualTo(CLIENT_ID);
+			assertThat(observation.getLowCardinalityKeyValue(ENDPOINT_KEY).getValue()).isEqualTo("getInvoices");
+			assertThat(observation.getLowCardinalityKeyValue(STATUS_KEY).getValue()).isEqualTo("200");
+			assertThat(observation.getHighCardinalityKeyValue(PAGE_SIZE_KEY).getValue()).isEqualTo("100");
+			assertThat(observation.getHighCardinalityKeyValue(BYTES_KEY).getValue()).isEqualTo("7");
+		});
+	}
+
+	@Test
+	void callWithoutBodyIsObservedUntilReturned() throws IOException {
+		final var request = Request.create(GET, "http://localhost/path", Map.of(), null, UTF_8, null);
+		final var client = capability.enrich((r, options) -> response(request, null));
+
+		client.execute(request, OPTIONS);
+
+		assertThat(observations).singleElement().satisfies(observation -> {
+			assertThat(observation.getLowCardinalityKeyValue(ENDPOINT_KEY).getValue()).isEqualTo(UNKNOWN);
+			assertThat(observation.getHighCardinalityKeyValue(PAGE_SIZE_KEY).getValue()).isEqualTo(UNKNOWN);
+			assertThat(observation.getHighCardinalityKeyValue(BYTES_KEY).getValue()).isEqualTo("0");
+		});
+	}
+
+	@Test
+	void failedCallIsObservedWithError() {
+		final var failure = new IOException("Connection refused");
+		final Client client = capability.enrich((r, options) -> {
+			throw failure;
+		});
+
+		assertThatExceptionOfType(IOException.class).isThrownBy(() -> client.execute(request(), OPTIONS));
+
+		assertThat(observations).singleElement().satisfies(observation -> assertThat(observation.getError()).isSameAs(failure));
+	}
+
+	@Test
+	void requestInterceptorIsObserved() {
+		final var template = new RequestTemplate();
+		final RequestInterceptor interceptor = capability.enrich(new TokenInterceptor());
+
+		interceptor.apply(template);
+
+		assertThat(template.headers().get("Authorization")).containsExactly("Bearer token");
+		assertThat(observations).singleElement().satisfies(observation -> {
+			assertThat(observation.getName()).isEqualTo(INTERCEPTOR_OBSERVATION_NAME);
+			assertThat(observation.getLowCardinalityKeyValue(CLIENT_KEY).getValue()).isEqualTo(CLIENT_ID);
+			assertThat(observation.getLowCardinalityKeyValue(INTERCEPTOR_KEY).getValue()).isEqualTo("TokenInterceptor");
+		});
+	}
+
+	private static Response execute(final Client client, final Request request) {
+		try {
+			return client.execute(request, OPTIONS);
+		} catch (final IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static Request request() {
+		final var methodMetadata = new Contract.Default().parseAndValidateMetadata(TestClient.class).getFirst();
+		final var template = new RequestTemplate().methodMetadata(methodMetadata).query("limit", "100");
+		return Request.create(GET, "http://localhost/2281/invoices?limit=100", Map.of(), null, UTF_8, template);
+	}
+
+	private static Response response(final Request request, final String body) {
+		final var builder = Response.builder()
+			.status(200)
+			.request(request)
+			.headers(Map.of());
+		if (body != null) {
+			builder.body(body, UTF_8);
+		}
+		return builder.build();
+	}
+
+	interface TestClient {
+
+		@RequestLine("GET /{municipalityId}/invoices?limit={limit}")
+		String getInvoices(@Param("municipalityId") String municipalityId, @Param("limit") int limit);
+	}
+
+	private static final class TokenInterceptor implements RequestInterceptor {
+
+		@Override
+		public void apply(final RequestTemplate template) {
+			template.header("Authorization", "Bearer token");
+		}
+	}
+}
@@ -0,0 +1,114 @@
+package se.sundsvall.invoices.service;
+
+import generated.se.sundsvall.datawarehousereader.CustomerInvoice;
+import generated.se.sundsvall.datawarehousereader.Direction;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import se.sundsvall.dept44.problem.ThrowableProblem;
+import se.sundsvall.invoices.api.model.CustomerInvoicesParameters;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static se.sundsvall.invoices.service.CustomerInvoiceCursor.decode;
+import static se.sundsvall.invoices.service.CustomerInvoiceCursor.fingerprint;
+import static se.sundsvall.invoices.service.CustomerInvoicePageMerger.toComparator;
+
+class CustomerInvoiceCursorTest {
+
+	private static final CustomerInvoicesParameters PARAMETERS = CustomerInvoicesParameters.create()
+		.withCustomerNumbers(List.of("216870"))
+		.withSortBy(List.of("dueDate"))
+		.withSortDirection(Sort.Direction.DESC)
+		.withLimit(2);
+
+	@Test
+	void encodeAndDecode() {
+		final var invoices = List.of(invoice(1L, 3), invoice(2L, 2));
+		final var cursor = CustomerInvoiceCursor.next(2, fingerprint(PARAMETERS), invoices, toComparator(List.of("dueDate"), Direction.DESC).orElseThrow(), null);
+
+		final var decoded = decode(copyOf(PARAMETERS).withCursor(cursor.encode()));
+
+		assertThat(decoded).isEqualTo(cursor);
+		assertThat(decoded.page()).isEqualTo(2);
+		assertThat(decoded.anchor().invoiceId()).isEqualTo(2L);
+		assertThat(decoded.anchor().dueDate()).isEqualTo(LocalDate.of(2025, 1, 2));
+		assertThat(decoded.anchor().totalAmount()).isEqualByComparingTo(BigDecimal.TEN);
+		assertThat(decoded.anchorInvoiceIds()).containsExactly(2L);
+	}
+
+	@Test
+	void decodeInvalidCursor() {
+		final var parameters = copyOf(PARAMETERS).withCursor("not a cursor");
+
+		assertThatThrownBy(() -> decode(parameters))
+			.isInstanceOfSatisfying(ThrowableProblem.class, problem -> {
+				assertThat(problem.getStatus()).isEqualTo(BAD_REQUEST);
+				assertThat(problem.getDetail()).isEqualTo("Invalid cursor: 'not a cursor'");
+			});
+	}
+
+	@Test
+	void decodeCursorOfOtherParameters() {
+		final var cursor = CustomerInvoiceCursor.next(2, fingerprint(PARAMETERS), List.of(), null, null).encode();
+		final var parameters = copyOf(PARAMETERS).withLimit(3).withCursor(cursor);
+
+		assertThatThrownBy(() -> decode(parameters))
+			.isInstanceOfSatisfying(ThrowableProblem.class, problem -> {
+				assertThat(problem.getStatus()).isEqualTo(BAD_REQUEST);
+				assertThat(problem.getDetail()).isEqualTo("cursor was issued for other search parameters");
+			});
+	}
+
+	@Test
+	void fingerprintIgnoresPosition() {
+		assertThat(fingerprint(copyOf(PARAMETERS).withPage(5).withCursor("cursor"))).isEqualTo(fingerprint(PARAMETERS));
+		assertThat(fingerprint(copyOf(PARAMETERS).withSortDirection(Sort.Direction.ASC))).isNotEqualTo(fingerprint(PARAMETERS));
+	}
+
+	@Test
+	void isAfterSkipsReturnedInvoices() {
+		final var comparator = toComparator(List.of("dueDate"), Direction.DESC).orElseThrow();
+		final var cursor = CustomerInvoiceCursor.next(2, 0, List.of(invoice(1L, 3), invoice(2L, 2), invoice(3L, 2)), comparator, null);
+
+		assertThat(cursor.anchorInvoiceIds()).containsExactly(2L, 3L);
+		assertThat(cursor.isAfter(invoice(1L, 3), comparator)).isFalse();
+		assertThat(cursor.isAfter(invoice(3L, 2), comparator)).isFalse();
+		assertThat(cursor.isAfter(invoice(4L, 2), comparator)).isTrue();
+		assertThat(cursor.isAfter(invoice(5L, 1), comparator)).isTrue();
+	}
+
+	@Test
+	void nextKeepsInvoiceIdsOfAnchorSpanningPages() {
+		final var comparator = toComparator(List.of("dueDate"), Direction.DESC).orElseThrow();
+		final var previous = CustomerInvoiceCursor.next(2, 0, List.of(invoice(1L, 2), invoice(2L, 2)), comparator, null);
+
+		final var next = CustomerInvoiceCursor.next(3, 0, List.of(invoice(3L, 2), invoice(4L, 2)), comparator, previous);
+
+		assertThat(next.anchorInvoiceIds()).containsExactly(1L, 2L, 3L, 4L);
+	}
+
+	@Test
+	void nextWithoutComparator() {
+		final var cursor = CustomerInvoiceCursor.next(2, 0, List.of(invoice(1L, 3)), null, null);
+
+		assertThat(cursor.anchor()).isNull();
+		assertThat(cursor.anchorInvoiceIds()).isEmpty();
+		assertThat(cursor.isAfter(invoice(1L, 3), null)).isTrue();
+	}
+
+	private static CustomerInvoice invoice(final long invoiceId, final int dayOfMonth) {
+		return new CustomerInvoice().invoiceId(invoiceId).dueDate(LocalDate.of(2025, 1, dayOfMonth)).totalAmount(BigDecimal.TEN);
+	}
+
+	private static CustomerInvoicesParameters copyOf(final CustomerInvoicesParameters parameters) {
+		return CustomerInvoicesParameters.create()
+			.withCustomerNumbers(parameters.getCustomerNumbers())
+			.withSortBy(parameters.getSortBy())
+			.withSortDirection(parameters.getSortDirection())
+			.withLimit(parameters.getLimit());
+	}
+}
@@ -0,0 +1,91 @@
+package se.sundsvall.invoices.service;
+
+import io.micrometer.observation.ObservationRegistry;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.IntFunction;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import se.sundsvall.invoices.service.concurrent.ParallelExecutor;
+import se.sundsvall.invoices.service.concurrent.ParallelExecutorProperties;
+import se.sundsvall.invoices.service.mapper.InvoiceMapper;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatException;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+class CustomerInvoiceExportTest {
+
+	private final ParallelExecutor parallelExecutor = new ParallelExecutor(new ParallelExecutorProperties(2), ObservationRegistry.NOOP);
+
+	@AfterEach
+	void teardown() {
+		parallelExecutor.destroy();
+	}
+
+	@Test
+	void writeTo() throws IOException {
+		final var export = createExport(page -> new Body("""
+			{"_meta": {"totalPages": 2}, "invoices": [{"invoiceId": %d}]}
+			""".formatted(page), new CountDownLatch(1)));
+		final var output = new ByteArrayOutputStream();
+
+		export.writeTo(output);
+
+		assertThat(output.toString(UTF_8).lines()).containsExactly("{\"invoiceId\":1,\"details\":[]}", "{\"invoiceId\":2,\"details\":[]}");
+	}
+
+	@Test
+	void closeClosesUnwrittenFirstPage() {
+		final var closed = new CountDownLatch(1);
+		final var export = createExport(page -> new Body("{}", closed));
+
+		export.close();
+
+		assertThat(closed.getCount()).isZero();
+		assertThatIllegalStateException().isThrownBy(() -> export.writeTo(new ByteArrayOutputStream()));
+	}
+
+	@Test
+	void failedWriteClosesOpenedNextPage() throws InterruptedException {
+		final var nextPageClosed = new CountDownLatch(1);
+		final var export = createExport(page -> new Body("""
+			{"_meta": {"totalPages": 2}, "invoices": [{"invoiceId": %d}]}
+			""".formatted(page), page == 2 ? nextPageClosed : new CountDownLatch(1)));
+		final var failingOutput = new OutputStream() {
+			@Override
+			public void write(final int b) throws IOException {
+				throw new IOException("Connection reset");
+			}
+		};
+
+		assertThatException().isThrownBy(() -> export.writeTo(failingOutput));
+
+		assertThat(nextPageClosed.await(5, SECONDS)).isTrue();
+	}
+
+	private CustomerInvoiceExport createExport(final IntFunction<InputStream> pageOpener) {
+		return new CustomerInvoiceExport(pageOpener, InvoiceMapper.toCustomerInvoiceProjection(null, true), parallelExecutor);
+	}
+
+	private static final class Body extends ByteArrayInputStream {
+
+		private final CountDownLatch closed;
+
+		private Body(final String json, final CountDownLatch closed) {
+			super(json.getBytes(UTF_8));
+			this.closed = closed;
+		}
+
+		@Override
+		public void close() {
+			closed.countDown();
+		}
+	}
+}
@@ -0,0 +1,86 @@
+package se.sundsvall.invoices.service;
+
+import generated.se.sundsvall.datawarehousereader.CustomerInvoice;
+import generated.se.sundsvall.datawarehousereader.CustomerInvoiceResponse;
+import generated.se.sundsvall.datawarehousereader.Direction;
+import generated.se.sundsvall.datawarehousereader.PagingAndSortingMetaData;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static se.sundsvall.invoices.service.CustomerInvoicePageMerger.merge;
+import static se.sundsvall.invoices.service.CustomerInvoicePageMerger.toComparator;
+
+class CustomerInvoicePageMergerTest {
+
+	@Test
+	void toComparatorWithoutSortBy() {
+		assertThat(toComparator(null, Direction.ASC)).isEmpty();
+		assertThat(toComparator(List.of(), Direction.ASC)).isEmpty();
+	}
+
+	@Test
+	void toComparatorWithUnknownColumn() {
+		assertThat(toComparator(List.of("invoiceDate", "unknown"), Direction.ASC)).isEmpty();
+	}
+
+	@Test
+	void toComparatorIsCaseInsensitive() {
+		final var comparator = toComparator(List.of("TotalAmount"), Direction.ASC).orElseThrow();
+
+		assertThat(comparator.compare(new CustomerInvoice().totalAmount(BigDecimal.ONE), new CustomerInvoice().totalAmount(BigDecimal.TEN))).isNegative();
+	}
+
+	@Test
+	void toComparatorOrdersNullsFirstWhenAscending() {
+		final var ascending = toComparator(List.of("dueDate"), Direction.ASC).orElseThrow();
+		final var descending = toComparator(List.of("dueDate"), Direction.DESC).orElseThrow();
+		final var withDueDate = new CustomerInvoice().dueDate(LocalDate.of(2025, 1, 1));
+		final var withoutDueDate = new CustomerInvoice();
+
+		assertThat(ascending.compare(withoutDueDate, withDueDate)).isNegative();
+		assertThat(descending.compare(withoutDueDate, withDueDate)).isPositive();
+	}
+
+	@Test
+	void mergeReturnsRequestedPage() {
+		final var comparator = toComparator(List.of("invoiceId"), Direction.ASC).orElseThrow();
+		final var first = new CustomerInvoiceResponse()
+			.invoices(List.of(invoice(1), invoice(3), invoice(5), invoice(7)))
+			.meta(new PagingAndSortingMetaData().totalRecords(10L).sortBy(List.of("invoiceId")).sortDirection(Direction.ASC));
+		final var second = new CustomerInvoiceResponse()
+			.invoices(List.of(invoice(2), invoice(4)))
+			.meta(new PagingAndSortingMetaData().totalRecords(2L));
+
+		final var result = merge(List.of(first, second), comparator, 2, 2);
+
+		assertThat(result.getInvoices()).extracting(CustomerInvoice::getInvoiceId).containsExactly(3L, 4L);
+		assertThat(result.getMeta().getPage()).isEqualTo(2);
+		assertThat(result.getMeta().getLimit()).isEqualTo(2);
+		assertThat(result.getMeta().getCount()).isEqualTo(2);
+		assertThat(result.getMeta().getTotalRecords()).isEqualTo(12L);
+		assertThat(result.getMeta().getTotalPages()).isEqualTo(6);
+		assertThat(result.getMeta().getSortBy()).containsExactly("invoiceId");
+		assertThat(result.getMeta().getSortDirection()).isEqualTo(Direction.ASC);
+	}
+
+	@Test
+	void mergeKeepsSourceOrderForEqualKeys() {
+		final var comparator = toComparator(List.of("invoiceDate"), Direction.DESC).orElseThrow();
+		final var date = LocalDate.of(2025, 1, 1);
+		final var first = new CustomerInvoiceResponse().invoices(List.of(invoice(1).invoiceDate(date)));
+		final var second = new CustomerInvoiceResponse().invoices(List.of(invoice(2).invoiceDate(date)));
+
+		final var result = merge(List.of(first, second), comparator, 1, 10);
+
+		assertThat(result.getInvoices()).extracting(CustomerInvoice::getInvoiceId).containsExactly(1L, 2L);
+		assertThat(result.getMeta().getTotalRecords()).isZero();
+		assertThat(result.getMeta().getTotalPages()).isZero();
+	}
+
+	private static CustomerInvoice invoice(final long invoiceId) {
+		return new CustomerInvoice().invoiceId(invoiceId);
+	}
+}
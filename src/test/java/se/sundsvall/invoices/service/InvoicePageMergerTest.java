@@ -0,0 +1,88 @@
+package se.sundsvall.invoices.service;
+
+import java.time.LocalDate;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import se.sundsvall.invoices.api.model.Invoice;
+import se.sundsvall.invoices.api.model.InvoicesResponse;
+import se.sundsvall.invoices.api.model.MetaData;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static se.sundsvall.invoices.service.InvoicePageMerger.merge;
+
+class InvoicePageMergerTest {
+
+	private static final int MAX_ROWS = 1000;
+
+	@Test
+	void mergeOrdersByInvoiceDateNewestFirst() {
+		final var first = response(2, invoice("1", "2025-03-01"), invoice("2", "2025-01-01"));
+		final var second = response(3, invoice("3", "2025-02-01"), invoice("4", "2025-04-01"), invoice("5", null));
+
+		final var merged = merge(List.of(first, second), 1, 10, MAX_ROWS);
+
+		assertThat(merged.getInvoices()).extracting(Invoice::getInvoiceNumber).containsExactly("4", "1", "3", "2", "5");
+		assertThat(merged.getMetaData().getCount()).isEqualTo(5);
+		assertThat(merged.getMetaData().getTotalRecords()).isEqualTo(5);
+		assertThat(merged.getMetaData().getTotalPages()).isEqualTo(1);
+	}
+
+	@Test
+	void mergeReturnsRequestedPage() {
+		final var first = response(4, invoice("1", "2025-06-01"), invoice("2", "2025-04-01"), invoice("3", "2025-02-01"), invoice("4", "2025-01-01"));
+		final var second = response(3, invoice("5", "2025-05-01"), invoice("6", "2025-03-01"), invoice("7", "2024-12-01"));
+
+		final var merged = merge(List.of(first, second), 2, 3, MAX_ROWS);
+
+		assertThat(merged.getInvoices()).extracting(Invoice::getInvoiceNumber).containsExactly("6", "3", "4");
+		assertThat(merged.getMetaData().getPage()).isEqualTo(2);
+		assertThat(merged.getMetaData().getLimit()).isEqualTo(3);
+		assertThat(merged.getMetaData().getCount()).isEqualTo(3);
+		assertThat(merged.getMetaData().getTotalRecords()).isEqualTo(7);
+		assertThat(merged.getMetaData().getTotalPages()).isEqualTo(3);
+	}
+
+	@Test
+	void mergeCapsTotalPagesAtMaxRows() {
+		final var first = response(4, invoice("1", "2025-06-01"), invoice("2", "2025-04-01"), invoice("3", "2025-02-01"), invoice("4", "2025-01-01"));
+		final var second = response(3, invoice("5", "2025-05-01"), invoice("6", "2025-03-01"), invoice("7", "2024-12-01"));
+
+		final var merged = merge(List.of(first, second), 2, 2, 5);
+
+		assertThat(merged.getInvoices()).extracting(Invoice::getInvoiceNumber).containsExactly("2", "6");
+		assertThat(merged.getMetaData().getTotalRecords()).isEqualTo(7);
+		assertThat(merged.getMetaData().getTotalPages()).isEqualTo(2);
+	}
+
+	@Test
+	void mergeKeepsSourceOrderForEqualDates() {
+		final var first = response(1, invoice("1", "2025-01-01"));
+		final var second = response(1, invoice("2", "2025-01-01"));
+
+		assertThat(merge(List.of(first, second), 1, 10, MAX_ROWS).getInvoices()).extracting(Invoice::getInvoiceNumber).containsExactly("1", "2");
+		assertThat(merge(List.of(second, first), 1, 10, MAX_ROWS).getInvoices()).extracting(Invoice::getInvoiceNumber).containsExactly("2", "1");
+	}
+
+	@Test
+	void mergeWithoutInvoicesOrMetaData() {
+		final var merged = merge(List.of(InvoicesResponse.create(), response(0)), 3, 10, MAX_ROWS);
+
+		assertThat(merged.getInvoices()).isEmpty();
+		assertThat(merged.getMetaData().getPage()).isEqualTo(3);
+		assertThat(merged.getMetaData().getCount()).isZero();
+		assertThat(merged.getMetaData().getTotalRecords()).isZero();
+		assertThat(merged.getMetaData().getTotalPages()).isZero();
+	}
+
+	private static InvoicesResponse response(final long totalRecords, final Invoice... invoices) {
+		return InvoicesResponse.create()
+			.withInvoices(List.of(invoices))
+			.withMetaData(MetaData.create().withTotalRecords(totalRecords));
+	}
+
+	private static Invoice invoice(final String invoiceNumber, final String invoiceDate) {
+		return Invoice.create()
+			.withInvoiceNumber(invoiceNumber)
+			.withInvoiceDate(invoiceDate == null ? null : LocalDate.parse(invoiceDate));
+	}
+}
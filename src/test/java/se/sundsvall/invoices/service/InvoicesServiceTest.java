@@ -1,5 +1,7 @@
 package se.sundsvall.invoices.service;
 
+import feign.Request;
+import feign.Response;
 import generated.se.sundsvall.datawarehousereader.CustomerEngagement;
 import generated.se.sundsvall.datawarehousereader.CustomerEngagementResponse;
 import generated.se.sundsvall.datawarehousereader.CustomerInvoice;
@@ -12,39 +14,82 @@ import generated.se.sundsvall.invoicecache.Invoice.InvoiceTypeEnum;
 import generated.se.sundsvall.invoicecache.InvoiceFilterRequest;
 import generated.se.sundsvall.invoicecache.InvoicePdf;
 import generated.se.sundsvall.invoicecache.InvoicesResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import io.micrometer.observation.ObservationRegistry;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.Month;
 import java.util.Base64;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Sort;
-import org.springframework.http.ResponseEntity;
+import org.springframework.util.unit.DataSize;
+import se.sundsvall.dept44.problem.Problem;
 import se.sundsvall.dept44.problem.ThrowableProblem;
 import se.sundsvall.invoices.api.model.CustomerInvoicesParameters;
 import se.sundsvall.invoices.api.model.InvoiceDetail;
+import se.sundsvall.invoices.api.model.InvoiceDetailsBatchEntry;
+import se.sundsvall.invoices.api.model.InvoiceReference;
 import se.sundsvall.invoices.api.model.InvoiceStatus;
 import se.sundsvall.invoices.api.model.InvoicesParameters;
 import se.sundsvall.invoices.integration.datawarehousereader.DataWarehouseReaderClient;
 import se.sundsvall.invoices.integration.datawarehousereader.InvoicesQueryParameters;
 import se.sundsvall.invoices.integration.invoicecache.InvoiceCacheClient;
-
+import se.sundsvall.invoices.service.cache.CustomerNumberCache;
+import se.sundsvall.invoices.service.cache.CustomerNumberCacheProperties;
+import se.sundsvall.invoices.service.cache.InvoiceDetailsCache;
+import se.sundsvall.invoices.service.cache.InvoiceDetailsCacheProperties;
+import se.sundsvall.invoices.service.cache.InvoicePdfCache;
+import se.sundsvall.invoices.service.cache.InvoicePdfCacheProperties;
+import se.sundsvall.invoices.service.cache.ResponseETagCache;
+import se.sundsvall.invoices.service.cache.ResponseETagCacheProperties;
+import se.sundsvall.invoices.service.concurrent.ParallelExecutor;
+import se.sundsvall.invoices.service.concurrent.ParallelExecutorProperties;
+import se.sundsvall.invoices.service.concurrent.SingleFlight;
+import se.sundsvall.invoices.service.metrics.StageMetrics;
+import se.sundsvall.invoices.service.tracing.ServiceObservations;
+import tools.jackson.databind.json.JsonMapper;
+
+import static feign.Request.HttpMethod.GET;
 import static java.util.Collections.emptyList;
 import static java.util.UUID.randomUUID;
+import static java.util.stream.Collectors.joining;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.assertj.core.api.AssertionsForInterfaceTypes.assertThat;
+import static org.assertj.core.groups.Tuple.tuple;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
+import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
+import static org.springframework.http.HttpStatus.BAD_GATEWAY;
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 import static org.springframework.http.MediaType.APPLICATION_PDF;
+import static org.springframework.http.MediaType.APPLICATION_PDF_VALUE;
+import static se.sundsvall.invoices.api.model.InvoiceOrigin.ALL;
 import static se.sundsvall.invoices.api.model.InvoiceOrigin.COMMERCIAL;
 import static se.sundsvall.invoices.api.model.InvoiceOrigin.PUBLIC_ADMINISTRATION;
 import static se.sundsvall.invoices.api.model.InvoiceType.CREDIT_INVOICE;
@@ -66,6 +111,40 @@ class InvoicesServiceTest {
 	@Mock
 	private CustomerEngagement customerEngagementMock;
 
+	@Mock
+	private InvoicesProperties propertiesMock;
+
+	@Spy
+	private CustomerNumberCache customerNumberCache = new CustomerNumberCache(new CustomerNumberCacheProperties(Duration.ofMinutes(10), Duration.ofMinutes(1), 100), new SimpleMeterRegistry());
+
+	@Spy
+	private InvoiceDetailsCache invoiceDetailsCache = new InvoiceDetailsCache(new InvoiceDetailsCacheProperties(Duration.ofMinutes(10), 100), new SimpleMeterRegistry());
+
+	@Spy
+	private InvoicePdfCache invoicePdfCache = new InvoicePdfCache(new InvoicePdfCacheProperties(false, null, DataSize.ofMegabytes(1)), new SimpleMeterRegistry());
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	private final List<Observation.Context> observations = new CopyOnWriteArrayList<>();
+
+	private final ObservationRegistry observationRegistry = createObservationRegistry(observations);
+
+	@Spy
+	private StageMetrics stageMetrics = new StageMetrics(meterRegistry);
+
+	@Spy
+	private ServiceObservations serviceObservations = new ServiceObservations(observationRegistry);
+
+	@Spy
+	private ResponseETagCache responseETagCache = new ResponseETagCache(new ResponseETagCacheProperties(Duration.ofMinutes(10), 100), JsonMapper.builder().build(), new SimpleMeterRegistry(),
+		stageMetrics);
+
+	@Spy
+	private ParallelExecutor parallelExecutor = new ParallelExecutor(new ParallelExecutorProperties(10), observationRegistry);
+
+	@Spy
+	private SingleFlight singleFlight = new SingleFlight();
+
 	@InjectMocks
 	private InvoicesService invoicesService;
 
@@ -91,6 +170,13 @@ class InvoicesServiceTest {
 		assertThat(invoicesResponse.getInvoices()).hasSize(2);
 		assertThat(invoicesResponse.getInvoices().getFirst().getInvoiceType()).isEqualTo(INVOICE.name());
 		assertThat(invoicesResponse.getInvoices().getLast().getInvoiceType()).isEqualTo(CREDIT_INVOICE.name());
+		assertThat(meterRegistry.get("invoices.stage").tag("stage", "engagement_resolve").tag("municipalityId", municipalityId).timer().count()).isOne();
+		assertThat(meterRegistry.get("invoices.stage").tag("stage", "mapping").tag("origin", COMMERCIAL.name()).timer().count()).isOne();
+		assertThat(observations).singleElement().satisfies(observation -> {
+			assertThat(observation.getContextualName()).isEqualTo("getInvoices");
+			assertThat(observation.getHighCardinalityKeyValue("municipalityId").getValue()).isEqualTo(municipalityId);
+			assertThat(observation.getHighCardinalityKeyValue("result.count").getValue()).isEqualTo("2");
+		});
 		verify(dataWarehouseReaderClientMock).getCustomerEngagements(municipalityId, partyIds);
 		verify(dataWarehouseReaderClientMock).getInvoices(municipalityId, expectedQuery);
 		verifyNoInteractions(invoiceCacheClientMock);
@@ -122,6 +208,22 @@ class InvoicesServiceTest {
 		verifyNoInteractions(invoiceCacheClientMock);
 	}
 
+	private static ObservationRegistry createObservationRegistry(final List<Observation.Context> observations) {
+		final var registry = ObservationRegistry.create();
+		registry.observationConfig().observationHandler(new ObservationHandler<>() {
+			@Override
+			public boolean supportsContext(final Observation.Context context) {
+				return true;
+			}
+
+			@Override
+			public void onStop(final Observation.Context context) {
+				observations.add(context);
+			}
+		});
+		return registry;
+	}
+
 	private InvoicesQueryParameters expectedCommercialQuery(final List<String> customerNumbers, final String invoiceName, final String organizationNumber) {
 		return InvoicesQueryParameters.create()
 			.withCustomerNumber(customerNumbers)
@@ -157,6 +259,218 @@ class InvoicesServiceTest {
 		verifyNoInteractions(invoiceCacheClientMock);
 	}
 
+	@Test
+	void getCommercialInvoicesUsesCachedCustomerNumbers() {
+
+		final var municipalityId = "municipalityId";
+		final var partyIds = List.of(randomUUID().toString());
+		final var customerNumbers = List.of("111111");
+		final var organizationNumber = "5565027223";
+		final var invoiceName = "invoiceName";
+		final var expectedQuery = expectedCommercialQuery(customerNumbers, invoiceName, organizationNumber);
+		final var invoiceParameters = InvoicesParameters.create().withInvoiceName(invoiceName).withOrganizationNumbers(List.of(organizationNumber)).withPartyId(partyIds);
+
+		when(dataWarehouseReaderClientMock.getCustomerEngagements(municipalityId, partyIds)).thenReturn(customerEngagementResponseMock);
+		when(customerEngagementResponseMock.getCustomerEngagements()).thenReturn(List.of(customerEngagementMock));
+		when(customerEngagementMock.getCustomerNumber()).thenReturn("111111");
+		when(dataWarehouseReaderClientMock.getInvoices(municipalityId, expectedQuery)).thenReturn(createDataWarehouseReaderInvoiceResponse());
+
+		invoicesService.getInvoices(municipalityId, COMMERCIAL.name(), invoiceParameters);
+		invoicesService.getInvoices(municipalityId, COMMERCIAL.name(), invoiceParameters);
+
+		verify(dataWarehouseReaderClientMock).getCustomerEngagements(municipalityId, partyIds);
+		verify(dataWarehouseReaderClientMock, times(2)).getInvoices(municipalityId, expectedQuery);
+		verifyNoMoreInteractions(dataWarehouseReaderClientMock);
+		verifyNoInteractions(invoiceCacheClientMock);
+	}
+
+	@Test
+	void getCommercialInvoicesUsesCachedNoEngagements() {
+
+		final var municipalityId = "municipalityId";
+		final var partyIds = List.of(randomUUID().toString());
+		final var invoiceParameters = InvoicesParameters.create().withPartyId(partyIds);
+
+		when(dataWarehouseReaderClientMock.getCustomerEngagements(municipalityId, partyIds)).thenReturn(customerEngagementResponseMock);
+		when(customerEngagementResponseMock.getCustomerEngagements()).thenReturn(emptyList());
+
+		assertThrows(ThrowableProblem.class, () -> invoicesService.getInvoices(municipalityId, COMMERCIAL.name(), invoiceParameters));
+		final ThrowableProblem e = assertThrows(ThrowableProblem.class, () -> invoicesService.getInvoices(municipalityId, COMMERCIAL.name(), invoiceParameters));
+
+		assertThat(e.getStatus()).isEqualTo(NOT_FOUND);
+		verify(dataWarehouseReaderClientMock).getCustomerEngagements(municipalityId, partyIds);
+		verifyNoMoreInteractions(dataWarehouseReaderClientMock);
+		verifyNoInteractions(invoiceCacheClientMock);
+	}
+
+	@Test
+	void getAllInvoicesMergesByInvoiceDate() {
+
+		final var municipalityId = "municipalityId";
+		final var partyIds = List.of(randomUUID().toString());
+		final var invoiceParameters = InvoicesParameters.create().withPartyId(partyIds).withPage(1).withLimit(3);
+		final var expectedCommercialQuery = InvoicesQueryParameters.create()
+			.withCustomerNumber(List.of("111111"))
+			.withSortBy(List.of("invoiceDate"))
+			.withSortDirection(Direction.DESC)
+			.withPage(1)
+			.withLimit(3);
+		final var expectedInvoiceCacheParameters = new InvoiceFilterRequest().invoiceNumbers(List.of()).partyIds(partyIds).page(1).limit(1000);
+
+		when(dataWarehouseReaderClientMock.getCustomerEngagements(municipalityId, partyIds)).thenReturn(customerEngagementResponseMock);
+		when(customerEngagementResponseMock.getCustomerEngagements()).thenReturn(List.of(customerEngagementMock));
+		when(customerEngagementMock.getCustomerNumber()).thenReturn("111111");
+		when(dataWarehouseReaderClientMock.getInvoices(municipalityId, expectedCommercialQuery)).thenReturn(new InvoiceResponse()
+			.invoices(List.of(
+				new Invoice().invoiceNumber(1L).invoiceDate(LocalDate.of(2024, Month.MARCH, 1)),
+				new Invoice().invoiceNumber(2L).invoiceDate(LocalDate.of(2024, Month.JANUARY, 1))))
+			.meta(new generated.se.sundsvall.datawarehousereader.PagingAndSortingMetaData().totalRecords(2L)));
+		when(invoiceCacheClientMock.getInvoices(municipalityId, expectedInvoiceCacheParameters)).thenReturn(new InvoicesResponse()
+			.invoices(List.of(
+				new generated.se.sundsvall.invoicecache.Invoice().invoiceNumber("3").invoiceDate(LocalDate.of(2024, Month.FEBRUARY, 1)),
+				new generated.se.sundsvall.invoicecache.Invoice().invoiceNumber("4").invoiceDate(LocalDate.of(2024, Month.APRIL, 1))))
+			.meta(new generated.se.sundsvall.invoicecache.MetaData().totalRecords(2L)));
+
+		final var invoicesResponse = invoicesService.getInvoices(municipalityId, ALL.name(), invoiceParameters);
+
+		assertThat(invoicesResponse.getInvoices())
+			.extracting(se.sundsvall.invoices.api.model.Invoice::getInvoiceNumber, se.sundsvall.invoices.api.model.Invoice::getInvoiceOrigin)
+			.containsExactly(
+				tuple("4", PUBLIC_ADMINISTRATION.name()),
+				tuple("1", COMMERCIAL.name()),
+				tuple("3", PUBLIC_ADMINISTRATION.name()));
+		assertThat(invoicesResponse.getMetaData().getPage()).isEqualTo(1);
+		assertThat(invoicesResponse.getMetaData().getLimit()).isEqualTo(3);
+		assertThat(invoicesResponse.getMetaData().getCount()).isEqualTo(3);
+		assertThat(invoicesResponse.getMetaData().getTotalRecords()).isEqualTo(4);
+		assertThat(invoicesResponse.getMetaData().getTotalPages()).isEqualTo(2);
+		verify(parallelExecutor, times(2)).supplyAsync(any());
+		verify(dataWarehouseReaderClientMock).getInvoices(municipalityId, expectedCommercialQuery);
+		verify(invoiceCacheClientMock).getInvoices(municipalityId, expectedInvoiceCacheParameters);
+	}
+
+	@Test
+	void getAllInvoicesWithoutCommercialEngagements() {
+
+		final var municipalityId = "municipalityId";
+		final var partyIds = List.of(randomUUID().toString());
+		final var invoiceParameters = InvoicesParameters.create().withPartyId(partyIds);
+
+		when(dataWarehouseReaderClientMock.getCustomerEngagements(municipalityId, partyIds)).thenReturn(customerEngagementResponseMock);
+		when(customerEngagementResponseMock.getCustomerEngagements()).thenReturn(emptyList());
+		when(invoiceCacheClientMock.getInvoices(eq(municipalityId), any())).thenReturn(createInvoiceCacheInvoicesResponse());
+
+		final var invoicesResponse = invoicesService.getInvoices(municipalityId, ALL.name(), invoiceParameters);
+
+		assertThat(invoicesResponse.getInvoices()).hasSize(2);
+		assertThat(invoicesResponse.getMetaData().getTotalRecords()).isEqualTo(1000);
+		verify(dataWarehouseReaderClientMock).getCustomerEngagements(municipalityId, partyIds);
+		verifyNoMoreInteractions(dataWarehouseReaderClientMock);
+	}
+
+	@Test
+	void getAllInvoicesReadsAllPublicAdministrationPages() {
+
+		final var municipalityId = "municipalityId";
+		final var partyIds = List.of(randomUUID().toString());
+		final var invoiceParameters = InvoicesParameters.create().withPartyId(partyIds).withPage(1).withLimit(2);
+		final var firstPageParameters = new InvoiceFilterRequest().invoiceNumbers(List.of()).partyIds(partyIds).page(1).limit(1000);
+		final var secondPageParameters = new InvoiceFilterRequest().invoiceNumbers(List.of()).partyIds(partyIds).page(2).limit(1000);
+
+		when(dataWarehouseReaderClientMock.getCustomerEngagements(municipalityId, partyIds)).thenReturn(customerEngagementResponseMock);
+		when(customerEngagementResponseMock.getCustomerEngagements()).thenReturn(emptyList());
+		when(invoiceCacheClientMock.getInvoices(municipalityId, firstPageParameters)).thenReturn(new InvoicesResponse()
+			.invoices(List.of(new generated.se.sundsvall.invoicecache.Invoice().invoiceNumber("1").invoiceDate(LocalDate.of(2024, Month.JANUARY, 1))))
+			.meta(new generated.se.sundsvall.invoicecache.MetaData().totalRecords(1500L)));
+		when(invoiceCacheClientMock.getInvoices(municipalityId, secondPageParameters)).thenReturn(new InvoicesResponse()
+			.invoices(List.of(new generated.se.sundsvall.invoicecache.Invoice().invoiceNumber("2").invoiceDate(LocalDate.of(2024, Month.MARCH, 1))))
+			.meta(new generated.se.sundsvall.invoicecache.MetaData().totalRecords(1500L)));
+
+		final var invoicesResponse = invoicesService.getInvoices(municipalityId, ALL.name(), invoiceParameters);
+
+		assertThat(invoicesResponse.getInvoices())
+			.extracting(se.sundsvall.invoices.api.model.Invoice::getInvoiceNumber)
+			.containsExactly("2", "1");
+		assertThat(invoicesResponse.getMetaData().getTotalRecords()).isEqualTo(1500);
+		// Only the pages within the first 1000 merged rows can be requested
+		assertThat(invoicesResponse.getMetaData().getTotalPages()).isEqualTo(500);
+		verify(invoiceCacheClientMock).getInvoices(municipalityId, firstPageParameters);
+		verify(invoiceCacheClientMock).getInvoices(municipalityId, secondPageParameters);
+		verifyNoMoreInteractions(invoiceCacheClientMock);
+	}
+
+	@Test
+	void getAllInvoicesTooManyPublicAdministrationInvoices() {
+
+		final var municipalityId = "municipalityId";
+		final var partyIds = List.of(randomUUID().toString());
+		final var invoiceParameters = InvoicesParameters.create().withPartyId(partyIds);
+
+		when(dataWarehouseReaderClientMock.getCustomerEngagements(municipalityId, partyIds)).thenReturn(customerEngagementResponseMock);
+		when(customerEngagementResponseMock.getCustomerEngagements()).thenReturn(emptyList());
+		when(invoiceCacheClientMock.getInvoices(eq(municipalityId), any())).thenReturn(new InvoicesResponse()
+			.invoices(List.of(new generated.se.sundsvall.invoicecache.Invoice().invoiceNumber("1")))
+			.meta(new generated.se.sundsvall.invoicecache.MetaData().totalRecords(10001L)));
+
+		final var e = assertThrows(ThrowableProblem.class, () -> invoicesService.getInvoices(municipalityId, ALL.name(), invoiceParameters));
+
+		assertThat(e.getStatus()).isEqualTo(BAD_REQUEST);
+		assertThat(e.getDetail()).isEqualTo("more than 10000 public administration invoices match the search, narrow the search or search one invoice origin");
+		verify(invoiceCacheClientMock).getInvoices(eq(municipalityId), any());
+		verifyNoMoreInteractions(invoiceCacheClientMock);
+	}
+
+	@Test
+	void getAllInvoicesWithFieldsMergesByInvoiceDateNotAskedFor() {
+
+		final var municipalityId = "municipalityId";
+		final var partyIds = List.of(randomUUID().toString());
+		final var invoiceParameters = InvoicesParameters.create().withPartyId(partyIds).withPage(1).withLimit(3).withFields(List.of("invoiceNumber"));
+
+		when(dataWarehouseReaderClientMock.getCustomerEngagements(municipalityId, partyIds)).thenReturn(customerEngagementResponseMock);
+		when(customerEngagementResponseMock.getCustomerEngagements()).thenReturn(List.of(customerEngagementMock));
+		when(customerEngagementMock.getCustomerNumber()).thenReturn("111111");
+		when(dataWarehouseReaderClientMock.getInvoices(eq(municipalityId), any())).thenReturn(new InvoiceResponse()
+			.invoices(List.of(
+				new Invoice().invoiceNumber(1L).invoiceDate(LocalDate.of(2024, Month.MARCH, 1)),
+				new Invoice().invoiceNumber(2L).invoiceDate(LocalDate.of(2024, Month.JANUARY, 1)))));
+		when(invoiceCacheClientMock.getInvoices(eq(municipalityId), any())).thenReturn(new InvoicesResponse()
+			.invoices(List.of(
+				new generated.se.sundsvall.invoicecache.Invoice().invoiceNumber("3").invoiceDate(LocalDate.of(2024, Month.FEBRUARY, 1)),
+				new generated.se.sundsvall.invoicecache.Invoice().invoiceNumber("4").invoiceDate(LocalDate.of(2024, Month.APRIL, 1)))));
+
+		final var invoicesResponse = invoicesService.getInvoices(municipalityId, ALL.name(), invoiceParameters);
+
+		assertThat(invoicesResponse.getInvoices())
+			.extracting(se.sundsvall.invoices.api.model.Invoice::getInvoiceNumber)
+			.containsExactly("4", "1", "3");
+		assertThat(invoicesResponse.getInvoices())
+			.allSatisfy(invoice -> assertThat(invoice).hasAllNullFieldsOrPropertiesExcept("invoiceNumber"));
+	}
+
+	@Test
+	void getInvoicesWithUnknownFields() {
+
+		final var invoiceParameters = InvoicesParameters.create().withPartyId(List.of(randomUUID().toString())).withFields(List.of("invoiceNumber", "unknown"));
+
+		final var e = assertThrows(ThrowableProblem.class, () -> invoicesService.getInvoices("municipalityId", COMMERCIAL.name(), invoiceParameters));
+
+		assertThat(e.getStatus()).isEqualTo(BAD_REQUEST);
+		assertThat(e.getDetail()).startsWith("Unknown fields: [unknown]");
+		verifyNoInteractions(dataWarehouseReaderClientMock, invoiceCacheClientMock);
+	}
+
+	@Test
+	void getAllInvoicesPageTooDeep() {
+
+		final var invoiceParameters = InvoicesParameters.create().withPartyId(List.of(randomUUID().toString())).withPage(11).withLimit(100);
+
+		final var e = assertThrows(ThrowableProblem.class, () -> invoicesService.getInvoices("municipalityId", ALL.name(), invoiceParameters));
+
+		assertThat(e.getStatus()).isEqualTo(BAD_REQUEST);
+		verifyNoInteractions(dataWarehouseReaderClientMock, invoiceCacheClientMock);
+	}
+
 	@Test
 	void getPublicAdministrationInvoicesSuccess() {
 
@@ -177,6 +491,33 @@ class InvoicesServiceTest {
 		verifyNoInteractions(dataWarehouseReaderClientMock);
 	}
 
+	@Test
+	void getPublicAdministrationInvoicesConditional() {
+
+		final var municipalityId = "municipalityId";
+		final var partyIds = List.of(randomUUID().toString());
+		final var parameters = InvoicesParameters.create().withPartyId(partyIds);
+		final var invoiceCacheParameters = new InvoiceFilterRequest().invoiceNumbers(emptyList()).partyIds(partyIds);
+
+		when(invoiceCacheClientMock.getInvoices(municipalityId, invoiceCacheParameters))
+			.thenReturn(createInvoiceCacheInvoicesResponse())
+			.thenReturn(createInvoiceCacheInvoicesResponse())
+			.thenReturn(createInvoiceCacheInvoicesResponse().invoices(emptyList()));
+
+		final var first = invoicesService.getPublicAdministrationInvoices(municipalityId, parameters, null);
+		final var second = invoicesService.getPublicAdministrationInvoices(municipalityId, parameters, first.eTag());
+		final var third = invoicesService.getPublicAdministrationInvoices(municipalityId, parameters, first.eTag());
+
+		assertThat(first.body().getInvoices()).hasSize(2);
+		assertThat(second.isNotModified()).isTrue();
+		assertThat(second.eTag()).isEqualTo(first.eTag());
+		assertThat(third.isNotModified()).isFalse();
+		assertThat(third.body().getInvoices()).isEmpty();
+		assertThat(third.eTag()).isNotEqualTo(first.eTag());
+		verify(invoiceCacheClientMock, times(3)).getInvoices(municipalityId, invoiceCacheParameters);
+		verifyNoInteractions(dataWarehouseReaderClientMock);
+	}
+
 	@Test
 	void getPublicAdministrationInvoicesNoHits() {
 
@@ -231,6 +572,94 @@ class InvoicesServiceTest {
 		verify(dataWarehouseReaderClientMock).getInvoiceDetails(municipalityId, organizationNumber, Long.parseLong(invoiceNumber));
 	}
 
+	@Test
+	void getInvoiceDetailsUsesCache() {
+
+		final var municipalityId = "municipalityId";
+		final var organizationNumber = "5523456789";
+		final var invoiceNumber = "111222";
+
+		when(dataWarehouseReaderClientMock.getInvoiceDetails(municipalityId, organizationNumber, Long.parseLong(invoiceNumber))).thenReturn(List.of(createDataWarehouseReaderInvoiceDetail(invoiceNumber)));
+
+		final var first = invoicesService.getInvoiceDetails(municipalityId, organizationNumber, invoiceNumber);
+		final var second = invoicesService.getInvoiceDetails(municipalityId, organizationNumber, invoiceNumber);
+
+		assertThat(second).isEqualTo(first).hasSize(1);
+		verify(dataWarehouseReaderClientMock).getInvoiceDetails(municipalityId, organizationNumber, Long.parseLong(invoiceNumber));
+	}
+
+	@Test
+	void getInvoiceDetailsIsCoalescedByCacheOnly() {
+
+		final var municipalityId = "municipalityId";
+		final var organizationNumber = "5523456789";
+		final var invoiceNumber = "111222";
+
+		when(dataWarehouseReaderClientMock.getInvoiceDetails(municipalityId, organizationNumber, Long.parseLong(invoiceNumber))).thenReturn(List.of(createDataWarehouseReaderInvoiceDetail(invoiceNumber)));
+
+		invoicesService.getInvoiceDetails(municipalityId, organizationNumber, invoiceNumber);
+
+		verify(invoiceDetailsCache).get(eq(municipalityId), eq(organizationNumber), eq(invoiceNumber), any());
+		verifyNoInteractions(singleFlight);
+	}
+
+	@Test
+	void evictInvoiceDetails() {
+
+		final var municipalityId = "municipalityId";
+		final var organizationNumber = "5523456789";
+		final var invoiceNumber = "111222";
+
+		when(dataWarehouseReaderClientMock.getInvoiceDetails(municipalityId, organizationNumber, Long.parseLong(invoiceNumber))).thenReturn(List.of(createDataWarehouseReaderInvoiceDetail(invoiceNumber)));
+
+		invoicesService.getInvoiceDetails(municipalityId, organizationNumber, invoiceNumber);
+		invoicesService.evictInvoiceDetails(municipalityId, organizationNumber, invoiceNumber);
+		invoicesService.getInvoiceDetails(municipalityId, organizationNumber, invoiceNumber);
+		invoicesService.evictInvoiceDetails(municipalityId);
+		invoicesService.getInvoiceDetails(municipalityId, organizationNumber, invoiceNumber);
+
+		verify(invoiceDetailsCache).invalidate(municipalityId, organizationNumber, invoiceNumber);
+		verify(invoiceDetailsCache).invalidateAll(municipalityId);
+		verify(dataWarehouseReaderClientMock, times(3)).getInvoiceDetails(municipalityId, organizationNumber, Long.parseLong(invoiceNumber));
+	}
+
+	@Test
+	void getInvoiceDetailsBatch() {
+
+		final var municipalityId = "municipalityId";
+		final var organizationNumber = "5523456789";
+		final var invoices = List.of(
+			InvoiceReference.create().withOrganizationNumber(organizationNumber).withInvoiceNumber("111222"),
+			InvoiceReference.create().withOrganizationNumber(organizationNumber).withInvoiceNumber("333444"),
+			InvoiceReference.create().withOrganizationNumber(organizationNumber).withInvoiceNumber("not-a-number"),
+			InvoiceReference.create().withOrganizationNumber(organizationNumber).withInvoiceNumber("555666"));
+
+		when(dataWarehouseReaderClientMock.getInvoiceDetails(municipalityId, organizationNumber, 111222L)).thenReturn(List.of(createDataWarehouseReaderInvoiceDetail("111222")));
+		when(dataWarehouseReaderClientMock.getInvoiceDetails(municipalityId, organizationNumber, 333444L)).thenThrow(Problem.valueOf(BAD_GATEWAY, "datawarehousereader error"));
+		when(dataWarehouseReaderClientMock.getInvoiceDetails(municipalityId, organizationNumber, 555666L)).thenThrow(new IllegalStateException("unexpected"));
+
+		final var entries = invoicesService.getInvoiceDetails(municipalityId, invoices);
+
+		assertThat(entries)
+			.extracting(InvoiceDetailsBatchEntry::getOrganizationNumber, InvoiceDetailsBatchEntry::getInvoiceNumber, InvoiceDetailsBatchEntry::getStatus)
+			.containsExactly(
+				tuple(organizationNumber, "111222", 200),
+				tuple(organizationNumber, "333444", 502),
+				tuple(organizationNumber, "not-a-number", 400),
+				tuple(organizationNumber, "555666", 500));
+		assertThat(entries.getFirst().getDetails()).hasSize(1);
+		assertThat(entries.getFirst().getError()).isNull();
+		assertThat(entries.get(1).getDetails()).isNull();
+		assertThat(entries.get(1).getError()).contains("datawarehousereader error");
+		assertThat(entries.get(2).getError()).isEqualTo("Invalid invoice number: 'not-a-number'");
+		assertThat(entries.get(3).getError()).isEqualTo("Failed to fetch invoice details");
+		verify(parallelExecutor, times(4)).supplyAsync(any());
+		verify(dataWarehouseReaderClientMock).getInvoiceDetails(municipalityId, organizationNumber, 111222L);
+		verify(dataWarehouseReaderClientMock).getInvoiceDetails(municipalityId, organizationNumber, 333444L);
+		verify(dataWarehouseReaderClientMock).getInvoiceDetails(municipalityId, organizationNumber, 555666L);
+		verifyNoMoreInteractions(dataWarehouseReaderClientMock);
+	}
+
 	@Test
 	void getPdfInvoice() {
 		final var organizationNumber = "5523456789";
@@ -251,23 +680,48 @@ class InvoicesServiceTest {
 	}
 
 	@Test
-	void downloadInvoicePdf() {
+	void downloadInvoicePdf() throws IOException {
 		final var organizationNumber = "5523456789";
 		final var invoiceNumber = "111222";
 		final var invoiceType = CREDIT_INVOICE.name();
 		final var municipalityId = "municipalityId";
 		final var content = "pdf-content".getBytes(StandardCharsets.UTF_8);
-		final var response = ResponseEntity.ok().contentType(APPLICATION_PDF).body(content);
+		final var response = createResponse(200, Map.of(CONTENT_TYPE, List.of(APPLICATION_PDF_VALUE)), content);
 
 		when(invoiceCacheClientMock.downloadInvoicePdfs(municipalityId, organizationNumber, invoiceNumber, toInvoiceCacheInvoiceType(invoiceType))).thenReturn(response);
 
 		final var invoiceFile = invoicesService.downloadInvoicePdf(organizationNumber, invoiceNumber, invoiceType, municipalityId);
 
 		assertThat(invoiceFile).isNotNull();
-		assertThat(invoiceFile.content()).isEqualTo(content);
+		assertThat(invoiceFile.content().getContentAsByteArray()).isEqualTo(content);
+		assertThat(invoiceFile.contentLength()).isEqualTo(content.length);
 		assertThat(invoiceFile.contentType()).isEqualTo(APPLICATION_PDF);
 		assertThat(invoiceFile.fileName()).isEqualTo(invoiceNumber + ".pdf");
 		verify(invoiceCacheClientMock).downloadInvoicePdfs(municipalityId, organizationNumber, invoiceNumber, toInvoiceCacheInvoiceType(invoiceType));
+		verify(invoicePdfCache).get(eq(municipalityId), eq(organizationNumber), eq(invoiceNumber), eq(invoiceType), any());
+	}
+
+	@Test
+	void downloadInvoicePdfUpstreamError() {
+		final var organizationNumber = "5523456789";
+		final var invoiceNumber = "111222";
+		final var municipalityId = "municipalityId";
+
+		when(invoiceCacheClientMock.downloadInvoicePdfs(municipalityId, organizationNumber, invoiceNumber, null)).thenThrow(Problem.valueOf(BAD_GATEWAY, "invoicecache error"));
+
+		final var e = assertThrows(ThrowableProblem.class, () -> invoicesService.downloadInvoicePdf(organizationNumber, invoiceNumber, null, municipalityId));
+
+		assertThat(e.getStatus()).isEqualTo(BAD_GATEWAY);
+		verify(invoiceCacheClientMock).downloadInvoicePdfs(municipalityId, organizationNumber, invoiceNumber, null);
+	}
+
+	private static Response createResponse(final int status, final Map<String, Collection<String>> headers, final byte[] body) {
+		return Response.builder()
+			.status(status)
+			.request(Request.create(GET, "http://invoicecache/pdfs", Map.of(), null, StandardCharsets.UTF_8, null))
+			.headers(headers)
+			.body(body)
+			.build();
 	}
 
 	@Test
@@ -316,6 +770,33 @@ class InvoicesServiceTest {
 		verifyNoInteractions(invoiceCacheClientMock);
 	}
 
+	@Test
+	void getInvoicesForCustomerConditional() {
+		final var municipalityId = "municipalityId";
+		final var customerNumbers = List.of("216870");
+		final var parameters = CustomerInvoicesParameters.create().withCustomerNumbers(customerNumbers);
+		final var upstreamResponse = new CustomerInvoiceResponse()
+			.invoices(List.of(new CustomerInvoice().customerNumber("216870").invoiceType("Faktura").invoiceStatus("Betalad")))
+			.meta(createPagingAndSortingMetaData());
+
+		when(dataWarehouseReaderClientMock.getInvoicesForCustomer(municipalityId, customerNumbers, null, null, null, null, null, null, Direction.ASC, 1, 100))
+			.thenReturn(upstreamResponse);
+
+		final var first = invoicesService.getInvoicesForCustomer(municipalityId, parameters, null);
+		final var second = invoicesService.getInvoicesForCustomer(municipalityId, parameters, first.eTag());
+		final var third = invoicesService.getInvoicesForCustomer(municipalityId, parameters, "\"other\"");
+
+		assertThat(first.isNotModified()).isFalse();
+		assertThat(first.body().getInvoices()).hasSize(1);
+		assertThat(first.eTag()).matches("\"[0-9a-f]{64}\"");
+		assertThat(second.isNotModified()).isTrue();
+		assertThat(second.eTag()).isEqualTo(first.eTag());
+		assertThat(third.body()).isEqualTo(first.body());
+		assertThat(third.eTag()).isEqualTo(first.eTag());
+		verify(dataWarehouseReaderClientMock, times(3)).getInvoicesForCustomer(municipalityId, customerNumbers, null, null, null, null, null, null, Direction.ASC, 1, 100);
+		verifyNoInteractions(invoiceCacheClientMock);
+	}
+
 	@Test
 	void getInvoicesForCustomerNoHits() {
 		final var municipalityId = "municipalityId";
@@ -415,6 +896,253 @@ class InvoicesServiceTest {
 		verifyNoInteractions(invoiceCacheClientMock);
 	}
 
+	@Test
+	void getInvoicesForCustomerInParallelMergesPages() {
+		final var municipalityId = "municipalityId";
+		final var partyIds = List.of(randomUUID().toString());
+		final var sortBy = List.of("invoiceDate");
+		final var parameters = CustomerInvoicesParameters.create()
+			.withCustomerNumbers(List.of("111111"))
+			.withPartyIds(partyIds)
+			.withSortBy(sortBy)
+			.withSortDirection(Sort.Direction.DESC)
+			.withLimit(2);
+
+		when(propertiesMock.parallelCustomerResolution()).thenReturn(true);
+		when(dataWarehouseReaderClientMock.getCustomerEngagements(municipalityId, partyIds)).thenReturn(customerEngagementResponseMock);
+		when(customerEngagementResponseMock.getCustomerEngagements()).thenReturn(List.of(customerEngagementMock, customerEngagementMock));
+		when(customerEngagementMock.getCustomerNumber()).thenReturn("111111", "222222");
+		when(dataWarehouseReaderClientMock.getInvoicesForCustomer(municipalityId, List.of("111111"), null, null, null, null, null, sortBy, Direction.DESC, 1, 2))
+			.thenReturn(new CustomerInvoiceResponse()
+				.invoices(List.of(
+					new CustomerInvoice().customerNumber("111111").invoiceId(1L).invoiceDate(LocalDate.of(2025, Month.MARCH, 1)),
+					new CustomerInvoice().customerNumber("111111").invoiceId(2L).invoiceDate(LocalDate.of(2025, Month.JANUARY, 1))))
+				.meta(new generated.se.sundsvall.datawarehousereader.PagingAndSortingMetaData().totalRecords(2L)));
+		when(dataWarehouseReaderClientMock.getInvoicesForCustomer(municipalityId, List.of("222222"), null, null, null, null, null, sortBy, Direction.DESC, 1, 2))
+			.thenReturn(new CustomerInvoiceResponse()
+				.invoices(List.of(new CustomerInvoice().customerNumber("222222").invoiceId(3L).invoiceDate(LocalDate.of(2025, Month.FEBRUARY, 1))))
+				.meta(new generated.se.sundsvall.datawarehousereader.PagingAndSortingMetaData().totalRecords(1L)));
+
+		final var response = invoicesService.getInvoicesForCustomer(municipalityId, parameters);
+
+		assertThat(response.getInvoices()).extracting(se.sundsvall.invoices.api.model.CustomerInvoice::getInvoiceId).containsExactly(1L, 3L);
+		assertThat(response.getMetaData().getPage()).isEqualTo(1);
+		assertThat(response.getMetaData().getLimit()).isEqualTo(2);
+		assertThat(response.getMetaData().getCount()).isEqualTo(2);
+		assertThat(response.getMetaData().getTotalRecords()).isEqualTo(3);
+		assertThat(response.getMetaData().getTotalPages()).isEqualTo(2);
+		verify(dataWarehouseReaderClientMock).getCustomerEngagements(municipalityId, partyIds);
+		verify(dataWarehouseReaderClientMock).getInvoicesForCustomer(municipalityId, List.of("111111"), null, null, null, null, null, sortBy, Direction.DESC, 1, 2);
+		verify(dataWarehouseReaderClientMock).getInvoicesForCustomer(municipalityId, List.of("222222"), null, null, null, null, null, sortBy, Direction.DESC, 1, 2);
+		verifyNoMoreInteractions(dataWarehouseReaderClientMock);
+		verifyNoInteractions(invoiceCacheClientMock);
+	}
+
+	@Test
+	void getInvoicesForCustomerInParallelFallsBackWithoutSortBy() {
+		final var municipalityId = "municipalityId";
+		final var partyIds = List.of(randomUUID().toString());
+		final var parameters = CustomerInvoicesParameters.create()
+			.withCustomerNumbers(List.of("111111"))
+			.withPartyIds(partyIds);
+
+		when(propertiesMock.parallelCustomerResolution()).thenReturn(true);
+		when(dataWarehouseReaderClientMock.getCustomerEngagements(municipalityId, partyIds)).thenReturn(customerEngagementResponseMock);
+		when(customerEngagementResponseMock.getCustomerEngagements()).thenReturn(List.of(customerEngagementMock));
+		when(customerEngagementMock.getCustomerNumber()).thenReturn("222222");
+		when(dataWarehouseReaderClientMock.getInvoicesForCustomer(municipalityId, List.of("111111", "222222"), null, null, null, null, null, null, Direction.ASC, 1, 100))
+			.thenReturn(new CustomerInvoiceResponse().invoices(emptyList()).meta(createPagingAndSortingMetaData()));
+
+		final var response = invoicesService.getInvoicesForCustomer(municipalityId, parameters);
+
+		assertThat(response).isNotNull();
+		verify(dataWarehouseReaderClientMock).getCustomerEngagements(municipalityId, partyIds);
+		verify(dataWarehouseReaderClientMock).getInvoicesForCustomer(municipalityId, List.of("111111", "222222"), null, null, null, null, null, null, Direction.ASC, 1, 100);
+		verifyNoMoreInteractions(dataWarehouseReaderClientMock);
+	}
+
+	@Test
+	void getInvoicesForCustomerInParallelCancelsQueryWhenResolvingPartyIdsFails() {
+		final var municipalityId = "municipalityId";
+		final var partyIds = List.of(randomUUID().toString());
+		final var parameters = CustomerInvoicesParameters.create()
+			.withCustomerNumbers(List.of("111111"))
+			.withPartyIds(partyIds)
+			.withSortBy(List.of("invoiceDate"));
+		final var queries = new CopyOnWriteArrayList<CompletableFuture<?>>();
+
+		when(propertiesMock.parallelCustomerResolution()).thenReturn(true);
+		// The query of the provided customer numbers is still running when resolving the partyIds fails
+		doAnswer(invocation -> {
+			final var query = new CompletableFuture<>();
+			queries.add(query);
+			return query;
+		}).when(parallelExecutor).supplyAsync(any());
+		when(dataWarehouseReaderClientMock.getCustomerEngagements(municipalityId, partyIds)).thenThrow(Problem.valueOf(BAD_GATEWAY, "datawarehousereader error"));
+
+		final var e = assertThrows(ThrowableProblem.class, () -> invoicesService.getInvoicesForCustomer(municipalityId, parameters));
+
+		assertThat(e.getStatus()).isEqualTo(BAD_GATEWAY);
+		assertThat(queries).hasSize(1).allMatch(CompletableFuture::isCancelled);
+		verify(dataWarehouseReaderClientMock).getCustomerEngagements(municipalityId, partyIds);
+		verifyNoMoreInteractions(dataWarehouseReaderClientMock);
+	}
+
+	@Test
+	void getInvoicesForCustomerFollowsCursor() {
+		final var municipalityId = "municipalityId";
+		final var customerNumbers = List.of("216870");
+		final var sortBy = List.of("invoiceDate");
+		final var parameters = CustomerInvoicesParameters.create()
+			.withCustomerNumbers(customerNumbers)
+			.withSortBy(sortBy)
+			.withSortDirection(Sort.Direction.DESC)
+			.withLimit(2);
+
+		when(dataWarehouseReaderClientMock.getInvoicesForCustomer(municipalityId, customerNumbers, null, null, null, null, null, sortBy, Direction.DESC, 1, 2))
+			.thenReturn(customerInvoicePage(3, customerInvoice(1L, Month.MARCH), customerInvoice(2L, Month.FEBRUARY)));
+		// An invoice is inserted in front of the position before the next page is read, shifting the upstream pages
+		when(dataWarehouseReaderClientMock.getInvoicesForCustomer(municipalityId, customerNumbers, null, null, null, null, null, sortBy, Direction.DESC, 2, 2))
+			.thenReturn(customerInvoicePage(3, customerInvoice(2L, Month.FEBRUARY), customerInvoice(3L, Month.JANUARY)));
+		when(dataWarehouseReaderClientMock.getInvoicesForCustomer(municipalityId, customerNumbers, null, null, null, null, null, sortBy, Direction.DESC, 3, 2))
+			.thenReturn(customerInvoicePage(3, customerInvoice(4L, Month.JANUARY)));
+
+		final var first = invoicesService.getInvoicesForCustomer(municipalityId, parameters);
+		final var second = invoicesService.getInvoicesForCustomer(municipalityId, parameters.withCursor(first.getMetaData().getNextCursor()));
+
+		assertThat(first.getInvoices()).extracting(se.sundsvall.invoices.api.model.CustomerInvoice::getInvoiceId).containsExactly(1L, 2L);
+		assertThat(first.getMetaData().getNextCursor()).isNotBlank();
+		assertThat(second.getInvoices()).extracting(se.sundsvall.invoices.api.model.CustomerInvoice::getInvoiceId).containsExactly(3L, 4L);
+		assertThat(second.getMetaData().getCount()).isEqualTo(2);
+		assertThat(second.getMetaData().getNextCursor()).isNull();
+		verify(dataWarehouseReaderClientMock).getInvoicesForCustomer(municipalityId, customerNumbers, null, null, null, null, null, sortBy, Direction.DESC, 1, 2);
+		verify(dataWarehouseReaderClientMock).getInvoicesForCustomer(municipalityId, customerNumbers, null, null, null, null, null, sortBy, Direction.DESC, 2, 2);
+		verify(dataWarehouseReaderClientMock).getInvoicesForCustomer(municipalityId, customerNumbers, null, null, null, null, null, sortBy, Direction.DESC, 3, 2);
+		verifyNoMoreInteractions(dataWarehouseReaderClientMock);
+	}
+
+	@Test
+	void getInvoicesForCustomerWithCursorOfOtherParameters() {
+		final var municipalityId = "municipalityId";
+		final var customerNumbers = List.of("216870");
+		final var parameters = CustomerInvoicesParameters.create().withCustomerNumbers(customerNumbers).withLimit(1);
+
+		when(dataWarehouseReaderClientMock.getInvoicesForCustomer(municipalityId, customerNumbers, null, null, null, null, null, null, Direction.ASC, 1, 1))
+			.thenReturn(customerInvoicePage(2, customerInvoice(1L, Month.MARCH)));
+
+		final var cursor = invoicesService.getInvoicesForCustomer(municipalityId, parameters).getMetaData().getNextCursor();
+		final var otherParameters = CustomerInvoicesParameters.create().withCustomerNumbers(List.of("600606")).withLimit(1).withCursor(cursor);
+
+		final var e = assertThrows(ThrowableProblem.class, () -> invoicesService.getInvoicesForCustomer(municipalityId, otherParameters));
+
+		assertThat(e.getStatus()).isEqualTo(BAD_REQUEST);
+		assertThat(e.getDetail()).isEqualTo("cursor was issued for other search parameters");
+		verify(dataWarehouseReaderClientMock).getInvoicesForCustomer(municipalityId, customerNumbers, null, null, null, null, null, null, Direction.ASC, 1, 1);
+		verifyNoMoreInteractions(dataWarehouseReaderClientMock);
+	}
+
+	@Test
+	void getInvoicesForCustomerWithFields() {
+		final var municipalityId = "municipalityId";
+		final var customerNumbers = List.of("216870");
+		final var parameters = CustomerInvoicesParameters.create().withCustomerNumbers(customerNumbers).withLimit(2).withFields(List.of("invoiceId"));
+
+		when(dataWarehouseReaderClientMock.getInvoicesForCustomer(municipalityId, customerNumbers, null, null, null, null, null, null, Direction.ASC, 1, 2))
+			.thenReturn(customerInvoicePage(1, customerInvoice(1L, Month.MARCH), customerInvoice(2L, Month.FEBRUARY)));
+
+		final var response = invoicesService.getInvoicesForCustomer(municipalityId, parameters);
+
+		assertThat(response.getInvoices()).extracting(se.sundsvall.invoices.api.model.CustomerInvoice::getInvoiceId).containsExactly(1L, 2L);
+		assertThat(response.getInvoices()).allSatisfy(invoice -> assertThat(invoice).hasAllNullFieldsOrPropertiesExcept("invoiceId"));
+	}
+
+	@Test
+	void getInvoicesForCustomerWithoutDetails() {
+		final var municipalityId = "municipalityId";
+		final var customerNumbers = List.of("216870");
+		final var parameters = CustomerInvoicesParameters.create().withCustomerNumbers(customerNumbers).withLimit(1).withIncludeDetails(false);
+
+		when(dataWarehouseReaderClientMock.getInvoicesForCustomer(municipalityId, customerNumbers, null, null, null, null, null, null, Direction.ASC, 1, 1))
+			.thenReturn(customerInvoicePage(1, customerInvoice(1L, Month.MARCH).details(List.of(new generated.se.sundsvall.datawarehousereader.InvoiceDetail().amount(BigDecimal.ONE)))));
+
+		final var response = invoicesService.getInvoicesForCustomer(municipalityId, parameters);
+
+		assertThat(response.getInvoices()).hasSize(1);
+		assertThat(response.getInvoices().getFirst().getInvoiceId()).isEqualTo(1L);
+		assertThat(response.getInvoices().getFirst().getDetails()).isNull();
+	}
+
+	@Test
+	void getInvoicesForCustomerWithUnknownFields() {
+		final var parameters = CustomerInvoicesParameters.create().withCustomerNumbers(List.of("216870")).withFields(List.of("unknown"));
+
+		final var e = assertThrows(ThrowableProblem.class, () -> invoicesService.getInvoicesForCustomer("municipalityId", parameters));
+
+		assertThat(e.getStatus()).isEqualTo(BAD_REQUEST);
+		assertThat(e.getDetail()).startsWith("Unknown fields: [unknown]");
+		verifyNoInteractions(dataWarehouseReaderClientMock);
+	}
+
+	@Test
+	void exportInvoicesForCustomerReadsAllPages() throws IOException {
+		final var municipalityId = "municipalityId";
+		final var customerNumbers = List.of("216870");
+		final var parameters = CustomerInvoicesParameters.create().withCustomerNumbers(customerNumbers).withPage(5).withLimit(10);
+		final var output = new ByteArrayOutputStream();
+
+		when(dataWarehouseReaderClientMock.streamInvoicesForCustomer(municipalityId, customerNumbers, null, null, null, null, null, null, Direction.ASC, 1, 1000))
+			.thenReturn(customerInvoicePageResponse(2, 1L, 2L));
+		when(dataWarehouseReaderClientMock.streamInvoicesForCustomer(municipalityId, customerNumbers, null, null, null, null, null, null, Direction.ASC, 2, 1000))
+			.thenReturn(customerInvoicePageResponse(2, 3L));
+
+		final var export = invoicesService.exportInvoicesForCustomer(municipalityId, parameters);
+
+		// The first page is read before anything is written
+		verify(dataWarehouseReaderClientMock).streamInvoicesForCustomer(municipalityId, customerNumbers, null, null, null, null, null, null, Direction.ASC, 1, 1000);
+
+		export.writeTo(output);
+
+		assertThat(output.toString(StandardCharsets.UTF_8)).isEqualTo("""
+			{"customerNumber":"216870","invoiceId":1,"details":[]}
+			{"customerNumber":"216870","invoiceId":2,"details":[]}
+			{"customerNumber":"216870","invoiceId":3,"details":[]}
+			""");
+		verify(dataWarehouseReaderClientMock).streamInvoicesForCustomer(municipalityId, customerNumbers, null, null, null, null, null, null, Direction.ASC, 2, 1000);
+		verifyNoMoreInteractions(dataWarehouseReaderClientMock);
+	}
+
+	@Test
+	void exportInvoicesForCustomerUpstreamError() {
+		final var municipalityId = "municipalityId";
+		final var customerNumbers = List.of("216870");
+		final var parameters = CustomerInvoicesParameters.create().withCustomerNumbers(customerNumbers);
+
+		when(dataWarehouseReaderClientMock.streamInvoicesForCustomer(municipalityId, customerNumbers, null, null, null, null, null, null, Direction.ASC, 1, 1000))
+			.thenThrow(Problem.valueOf(BAD_GATEWAY, "datawarehousereader error"));
+
+		final var e = assertThrows(ThrowableProblem.class, () -> invoicesService.exportInvoicesForCustomer(municipalityId, parameters));
+
+		assertThat(e.getStatus()).isEqualTo(BAD_GATEWAY);
+	}
+
+	private static Response customerInvoicePageResponse(final int totalPages, final Long... invoiceIds) {
+		final var invoices = Stream.of(invoiceIds)
+			.map(invoiceId -> "{\"customerNumber\":\"216870\",\"invoiceId\":%s,\"details\":null}".formatted(invoiceId))
+			.collect(joining(","));
+		final var body = "{\"invoices\":[%s],\"_meta\":{\"totalPages\":%s}}".formatted(invoices, totalPages);
+		return createResponse(200, Map.of(CONTENT_TYPE, List.of(APPLICATION_JSON_VALUE)), body.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static CustomerInvoiceResponse customerInvoicePage(final int totalPages, final CustomerInvoice... invoices) {
+		return new CustomerInvoiceResponse()
+			.invoices(List.of(invoices))
+			.meta(new generated.se.sundsvall.datawarehousereader.PagingAndSortingMetaData().totalPages(totalPages).totalRecords(5L));
+	}
+
+	private static CustomerInvoice customerInvoice(final long invoiceId, final Month month) {
+		return new CustomerInvoice().customerNumber("216870").invoiceId(invoiceId).invoiceDate(LocalDate.of(2025, month, 1));
+	}
+
 	private InvoiceResponse createDataWarehouseReaderInvoiceResponse() {
 		final var invoiceName = "invoiceName";
 		return new InvoiceResponse()
@@ -0,0 +1,83 @@
+package se.sundsvall.invoices.service.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+class CacheLoadingTest {
+
+	private final AsyncCache<String, String> cache = Caffeine.newBuilder().buildAsync();
+
+	@Test
+	void getLoadsOnCallingThread() {
+		final var callingThread = Thread.currentThread();
+
+		final var result = CacheLoading.get(cache, "key", () -> {
+			assertThat(Thread.currentThread()).isSameAs(callingThread);
+			return "value";
+		});
+
+		assertThat(result).isEqualTo("value");
+		assertThat(cache.synchronous().getIfPresent("key")).isEqualTo("value");
+	}
+
+	@Test
+	void getSharesLoadInProgress() throws Exception {
+		final var loaderCalls = new AtomicInteger();
+		final var loading = new CountDownLatch(1);
+		final var release = new CountDownLatch(1);
+
+		final var first = CompletableFuture.supplyAsync(() -> CacheLoading.get(cache, "key", () -> {
+			loaderCalls.incrementAndGet();
+			loading.countDown();
+			await(release);
+			return "first";
+		}));
+		assertThat(loading.await(5, SECONDS)).isTrue();
+
+		// Another key is not blocked by the load in progress
+		assertThat(CacheLoading.get(cache, "other", () -> "other")).isEqualTo("other");
+
+		final var second = CompletableFuture.supplyAsync(() -> CacheLoading.get(cache, "key", () -> {
+			loaderCalls.incrementAndGet();
+			return "second";
+		}));
+		release.countDown();
+
+		assertThat(first.get(5, SECONDS)).isEqualTo("first");
+		assertThat(second.get(5, SECONDS)).isEqualTo("first");
+		assertThat(loaderCalls).hasValue(1);
+	}
+
+	@Test
+	void getDoesNotCacheFailures() {
+		assertThatIllegalStateException().isThrownBy(() -> CacheLoading.get(cache, "key", () -> {
+			throw new IllegalStateException();
+		}));
+
+		assertThat(cache.synchronous().getIfPresent("key")).isNull();
+		assertThat(CacheLoading.get(cache, "key", () -> "value")).isEqualTo("value");
+	}
+
+	@Test
+	void getDoesNotCacheNull() {
+		assertThat(CacheLoading.get(cache, "key", () -> null)).isNull();
+
+		assertThat(cache.synchronous().getIfPresent("key")).isNull();
+	}
+
+	private static void await(final CountDownLatch latch) {
+		try {
+			latch.await(5, SECONDS);
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
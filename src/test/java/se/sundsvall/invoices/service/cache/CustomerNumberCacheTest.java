@@ -0,0 +1,85 @@
+package se.sundsvall.invoices.service.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static java.util.Collections.emptyList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static se.sundsvall.invoices.service.cache.CustomerNumberCache.CACHE_NAME;
+
+class CustomerNumberCacheTest {
+
+	private static final String MUNICIPALITY_ID = "2281";
+	private static final List<String> PARTY_IDS = List.of("81471222-5798-11e9-ae24-57fa13b361e1");
+
+	private SimpleMeterRegistry meterRegistry;
+	private CustomerNumberCache cache;
+
+	@BeforeEach
+	void setup() {
+		meterRegistry = new SimpleMeterRegistry();
+		cache = new CustomerNumberCache(new CustomerNumberCacheProperties(Duration.ofMinutes(10), Duration.ofMinutes(1), 100), meterRegistry);
+	}
+
+	@Test
+	void getCachesResult() {
+		final var loaderCalls = new AtomicInteger();
+
+		final var first = cache.get(MUNICIPALITY_ID, PARTY_IDS, () -> {
+			loaderCalls.incrementAndGet();
+			return List.of("111111");
+		});
+		final var second = cache.get(MUNICIPALITY_ID, PARTY_IDS, () -> {
+			loaderCalls.incrementAndGet();
+			return List.of("222222");
+		});
+
+		assertThat(first).containsExactly("111111");
+		assertThat(second).containsExactly("111111");
+		assertThat(loaderCalls).hasValue(1);
+		assertThat(meterRegistry.get("cache.gets").tag("cache", CACHE_NAME).tag("result", "hit").functionCounter().count()).isEqualTo(1);
+		assertThat(meterRegistry.get("cache.gets").tag("cache", CACHE_NAME).tag("result", "miss").functionCounter().count()).isEqualTo(1);
+	}
+
+	@Test
+	void getCachesEmptyResult() {
+		final var loaderCalls = new AtomicInteger();
+
+		cache.get(MUNICIPALITY_ID, PARTY_IDS, () -> {
+			loaderCalls.incrementAndGet();
+			return emptyList();
+		});
+		final var result = cache.get(MUNICIPALITY_ID, PARTY_IDS, () -> {
+			loaderCalls.incrementAndGet();
+			return List.of("111111");
+		});
+
+		assertThat(result).isEmpty();
+		assertThat(loaderCalls).hasValue(1);
+	}
+
+	@Test
+	void getIsScopedPerMunicipality() {
+		cache.get(MUNICIPALITY_ID, PARTY_IDS, () -> List.of("111111"));
+
+		final var result = cache.get("2260", PARTY_IDS, () -> List.of("222222"));
+
+		assertThat(result).containsExactly("222222");
+	}
+
+	@Test
+	void getDoesNotCacheFailures() {
+		assertThrows(IllegalStateException.class, () -> cache.get(MUNICIPALITY_ID, PARTY_IDS, () -> {
+			throw new IllegalStateException();
+		}));
+
+		final var result = cache.get(MUNICIPALITY_ID, PARTY_IDS, () -> List.of("111111"));
+
+		assertThat(result).containsExactly("111111");
+	}
+}
@@ -0,0 +1,24 @@
+package se.sundsvall.invoices.service.cache;
+
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import se.sundsvall.invoices.Application;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+@SpringBootTest(classes = Application.class)
+@ActiveProfiles("junit")
+class InvoiceDetailsCachePropertiesTest {
+
+	@Autowired
+	private InvoiceDetailsCacheProperties properties;
+
+	@Test
+	void testProperties() {
+		assertThat(properties.timeToLive()).isEqualTo(Duration.ofHours(24));
+		assertThat(properties.maximumWeight()).isEqualTo(100000);
+	}
+}
@@ -0,0 +1,105 @@
+package se.sundsvall.invoices.service.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import se.sundsvall.invoices.api.model.InvoiceDetail;
+
+import static java.util.Collections.emptyList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static se.sundsvall.invoices.service.cache.InvoiceDetailsCache.CACHE_NAME;
+
+class InvoiceDetailsCacheTest {
+
+	private static final String MUNICIPALITY_ID = "2281";
+	private static final String ORGANIZATION_NUMBER = "5565272223";
+	private static final String INVOICE_NUMBER = "333444";
+	private static final List<InvoiceDetail> DETAILS = List.of(InvoiceDetail.create().withDescription("first"));
+	private static final List<InvoiceDetail> OTHER_DETAILS = List.of(InvoiceDetail.create().withDescription("other"));
+
+	private SimpleMeterRegistry meterRegistry;
+	private InvoiceDetailsCache cache;
+	private AtomicInteger loaderCalls;
+
+	@BeforeEach
+	void setup() {
+		meterRegistry = new SimpleMeterRegistry();
+		cache = new InvoiceDetailsCache(new InvoiceDetailsCacheProperties(Duration.ofMinutes(10), 100), meterRegistry);
+		loaderCalls = new AtomicInteger();
+	}
+
+	@Test
+	void getCachesResult() {
+		final var first = cache.get(MUNICIPALITY_ID, ORGANIZATION_NUMBER, INVOICE_NUMBER, () -> load(DETAILS));
+		final var second = cache.get(MUNICIPALITY_ID, ORGANIZATION_NUMBER, INVOICE_NUMBER, () -> load(OTHER_DETAILS));
+
+		assertThat(first).isEqualTo(DETAILS);
+		assertThat(second).isEqualTo(DETAILS);
+		assertThat(loaderCalls).hasValue(1);
+		assertThat(meterRegistry.get("cache.gets").tag("cache", CACHE_NAME).tag("result", "hit").functionCounter().count()).isEqualTo(1);
+		assertThat(meterRegistry.get("cache.gets").tag("cache", CACHE_NAME).tag("result", "miss").functionCounter().count()).isEqualTo(1);
+	}
+
+	@Test
+	void getDoesNotCacheEmptyResult() {
+		final var first = cache.get(MUNICIPALITY_ID, ORGANIZATION_NUMBER, INVOICE_NUMBER, () -> load(emptyList()));
+		final var second = cache.get(MUNICIPALITY_ID, ORGANIZATION_NUMBER, INVOICE_NUMBER, () -> load(DETAILS));
+
+		assertThat(first).isEmpty();
+		assertThat(second).isEqualTo(DETAILS);
+		assertThat(loaderCalls).hasValue(2);
+	}
+
+	@Test
+	void getIsScopedPerMunicipality() {
+		cache.get(MUNICIPALITY_ID, ORGANIZATION_NUMBER, INVOICE_NUMBER, () -> load(DETAILS));
+
+		final var result = cache.get("2260", ORGANIZATION_NUMBER, INVOICE_NUMBER, () -> load(OTHER_DETAILS));
+
+		assertThat(result).isEqualTo(OTHER_DETAILS);
+	}
+
+	@Test
+	void getDoesNotCacheFailures() {
+		assertThrows(IllegalStateException.class, () -> cache.get(MUNICIPALITY_ID, ORGANIZATION_NUMBER, INVOICE_NUMBER, () -> {
+			throw new IllegalStateException();
+		}));
+
+		final var result = cache.get(MUNICIPALITY_ID, ORGANIZATION_NUMBER, INVOICE_NUMBER, () -> load(DETAILS));
+
+		assertThat(result).isEqualTo(DETAILS);
+	}
+
+	@Test
+	void invalidate() {
+		cache.get(MUNICIPALITY_ID, ORGANIZATION_NUMBER, INVOICE_NUMBER, () -> load(DETAILS));
+		cache.get(MUNICIPALITY_ID, ORGANIZATION_NUMBER, "555666", () -> load(DETAILS));
+
+		cache.invalidate(MUNICIPALITY_ID, ORGANIZATION_NUMBER, INVOICE_NUMBER);
+
+		assertThat(cache.get(MUNICIPALITY_ID, ORGANIZATION_NUMBER, INVOICE_NUMBER, () -> load(OTHER_DETAILS))).isEqualTo(OTHER_DETAILS);
+		assertThat(cache.get(MUNICIPALITY_ID, ORGANIZATION_NUMBER, "555666", () -> load(OTHER_DETAILS))).isEqualTo(DETAILS);
+	}
+
+	@Test
+	void invalidateAll() {
+		cache.get(MUNICIPALITY_ID, ORGANIZATION_NUMBER, INVOICE_NUMBER, () -> load(DETAILS));
+		cache.get(MUNICIPALITY_ID, ORGANIZATION_NUMBER, "555666", () -> load(DETAILS));
+		cache.get("2260", ORGANIZATION_NUMBER, INVOICE_NUMBER, () -> load(DETAILS));
+
+		cache.invalidateAll(MUNICIPALITY_ID);
+
+		assertThat(cache.get(MUNICIPALITY_ID, ORGANIZATION_NUMBER, INVOICE_NUMBER, () -> load(OTHER_DETAILS))).isEqualTo(OTHER_DETAILS);
+		assertThat(cache.get(MUNICIPALITY_ID, ORGANIZATION_NUMBER, "555666", () -> load(OTHER_DETAILS))).isEqualTo(OTHER_DETAILS);
+		assertThat(cache.get("2260", ORGANIZATION_NUMBER, INVOICE_NUMBER, () -> load(OTHER_DETAILS))).isEqualTo(DETAILS);
+	}
+
+	private List<InvoiceDetail> load(final List<InvoiceDetail> details) {
+		loaderCalls.incrementAndGet();
+		return details;
+	}
+}
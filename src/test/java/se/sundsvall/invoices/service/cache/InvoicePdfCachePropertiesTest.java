@@ -0,0 +1,26 @@
+package se.sundsvall.invoices.service.cache;
+
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.util.unit.DataSize;
+import se.sundsvall.invoices.Application;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+@SpringBootTest(classes = Application.class)
+@ActiveProfiles("junit")
+class InvoicePdfCachePropertiesTest {
+
+	@Autowired
+	private InvoicePdfCacheProperties properties;
+
+	@Test
+	void testProperties() {
+		assertThat(properties.enabled()).isTrue();
+		assertThat(properties.directory()).isEqualTo(Path.of(System.getProperty("java.io.tmpdir"), "api-invoices", "invoice-pdfs"));
+		assertThat(properties.maximumSize()).isEqualTo(DataSize.ofGigabytes(1));
+	}
+}
@@ -0,0 +1,175 @@
+package se.sundsvall.invoices.service.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.util.unit.DataSize;
+import se.sundsvall.invoices.service.InvoiceFile;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.http.MediaType.APPLICATION_PDF;
+import static se.sundsvall.invoices.service.InvoiceFile.UNKNOWN_CONTENT_LENGTH;
+import static se.sundsvall.invoices.service.cache.InvoicePdfCache.CACHE_NAME;
+
+class InvoicePdfCacheTest {
+
+	private static final String MUNICIPALITY_ID = "2281";
+	private static final String ORGANIZATION_NUMBER = "5565272223";
+	private static final String INVOICE_NUMBER = "333444";
+	private static final String INVOICE_TYPE = "INVOICE";
+	private static final byte[] CONTENT = "pdf-content".getBytes(StandardCharsets.UTF_8);
+	private static final byte[] OTHER_CONTENT = "other-pdf-content".getBytes(StandardCharsets.UTF_8);
+
+	@TempDir
+	private Path directory;
+
+	private SimpleMeterRegistry meterRegistry;
+	private AtomicInteger loaderCalls;
+
+	@BeforeEach
+	void setup() {
+		meterRegistry = new SimpleMeterRegistry();
+		loaderCalls = new AtomicInteger();
+	}
+
+	@Test
+	void getCachesFileOnDisk() throws Exception {
+		final var cache = createCache(true, DataSize.ofMegabytes(1));
+
+		final var first = cache.get(MUNICIPALITY_ID, ORGANIZATION_NUMBER, INVOICE_NUMBER, INVOICE_TYPE, () -> load(CONTENT, CONTENT.length));
+		final var second = cache.get(MUNICIPALITY_ID, ORGANIZATION_NUMBER, INVOICE_NUMBER, INVOICE_TYPE, () -> load(OTHER_CONTENT, OTHER_CONTENT.length));
+
+		final var digest = sha256(CONTENT);
+		assertThat(loaderCalls).hasValue(1);
+		assertThat(first.content().getContentAsByteArray()).isEqualTo(CONTENT);
+		assertThat(second.content().isOpen()).isTrue();
+		assertThat(second.content().getContentAsByteArray()).isEqualTo(CONTENT);
+		assertThat(second.contentLength()).isEqualTo(CONTENT.length);
+		assertThat(second.contentType()).isEqualTo(APPLICATION_PDF);
+		assertThat(second.fileName()).isEqualTo(INVOICE_NUMBER + ".pdf");
+		assertThat(second.eTag()).isEqualTo("\"" + digest + "\"");
+		assertThat(second.lastModified()).isNotNull().isEqualTo(first.lastModified());
+		assertThat(directory.resolve(digest)).hasBinaryContent(CONTENT);
+		assertThat(meterRegistry.get("cache.gets").tag("cache", CACHE_NAME).tag("result", "hit").functionCounter().count()).isEqualTo(1);
+	}
+
+	@Test
+	void getStoresIdenticalContentOnce() throws Exception {
+		final var cache = createCache(true, DataSize.ofMegabytes(1));
+
+		final var first = cache.get(MUNICIPALITY_ID, ORGANIZATION_NUMBER, INVOICE_NUMBER, INVOICE_TYPE, () -> load(CONTENT, UNKNOWN_CONTENT_LENGTH));
+		final var second = cache.get(MUNICIPALITY_ID, ORGANIZATION_NUMBER, INVOICE_NUMBER, null, () -> load(CONTENT, UNKNOWN_CONTENT_LENGTH));
+
+		assertThat(loaderCalls).hasValue(2);
+		assertThat(first.eTag()).isEqualTo(second.eTag());
+		assertThat(first.contentLength()).isEqualTo(CONTENT.length);
+		try (final var files = Files.list(directory)) {
+			assertThat(files).containsExactly(directory.resolve(sha256(CONTENT)));
+		}
+	}
+
+	@Test
+	void getReloadsWhenFileIsMissing() throws Exception {
+		final var cache = createCache(true, DataSize.ofMegabytes(1));
+
+		cache.get(MUNICIPALITY_ID, ORGANIZATION_NUMBER, INVOICE_NUMBER, INVOICE_TYPE, () -> load(CONTENT, CONTENT.length));
+		Files.delete(directory.resolve(sha256(CONTENT)));
+		final var result = cache.get(MUNICIPALITY_ID, ORGANIZATION_NUMBER, INVOICE_NUMBER, INVOICE_TYPE, () -> load(CONTENT, CONTENT.length));
+
+		assertThat(loaderCalls).hasValue(2);
+		assertThat(result.content().getContentAsByteArray()).isEqualTo(CONTENT);
+	}
+
+	@Test
+	void getReturnsContentOfFileRemovedBeforeBeingRead() throws Exception {
+		final var cache = createCache(true, DataSize.ofMegabytes(1));
+
+		cache.get(MUNICIPALITY_ID, ORGANIZATION_NUMBER, INVOICE_NUMBER, INVOICE_TYPE, () -> load(CONTENT, CONTENT.length)).close();
+		final var result = cache.get(MUNICIPALITY_ID, ORGANIZATION_NUMBER, INVOICE_NUMBER, INVOICE_TYPE, () -> load(CONTENT, CONTENT.length));
+		// As when the entry is evicted after it has been returned
+		Files.delete(directory.resolve(sha256(CONTENT)));
+
+		assertThat(loaderCalls).hasValue(1);
+		assertThat(result.content().getContentAsByteArray()).isEqualTo(CONTENT);
+	}
+
+	@Test
+	void getPassesThroughFileOfUnknownLengthLargerThanCache() throws Exception {
+		final var cache = createCache(true, DataSize.ofBytes(CONTENT.length - 1));
+
+		final var first = cache.get(MUNICIPALITY_ID, ORGANIZATION_NUMBER, INVOICE_NUMBER, INVOICE_TYPE, () -> load(CONTENT, UNKNOWN_CONTENT_LENGTH));
+		final var second = cache.get(MUNICIPALITY_ID, ORGANIZATION_NUMBER, INVOICE_NUMBER, INVOICE_TYPE, () -> load(CONTENT, UNKNOWN_CONTENT_LENGTH));
+
+		assertThat(loaderCalls).hasValue(2);
+		assertThat(first.contentLength()).isEqualTo(CONTENT.length);
+		assertThat(first.eTag()).isEqualTo("\"" + sha256(CONTENT) + "\"");
+		assertThat(first.content().getContentAsByteArray()).isEqualTo(CONTENT);
+		assertThat(second.content().getContentAsByteArray()).isEqualTo(CONTENT);
+		try (final var files = Files.list(directory)) {
+			assertThat(files).isEmpty();
+		}
+	}
+
+	@Test
+	void getPassesThroughFileLargerThanCache() throws Exception {
+		final var cache = createCache(true, DataSize.ofBytes(CONTENT.length - 1));
+
+		final var result = cache.get(MUNICIPALITY_ID, ORGANIZATION_NUMBER, INVOICE_NUMBER, INVOICE_TYPE, () -> load(CONTENT, CONTENT.length));
+
+		assertThat(result.content()).isInstanceOf(InputStreamResource.class);
+		assertThat(result.eTag()).isNull();
+		try (final var files = Files.list(directory)) {
+			assertThat(files).isEmpty();
+		}
+	}
+
+	@Test
+	void getWhenDisabled() throws Exception {
+		final var cache = createCache(false, DataSize.ofMegabytes(1));
+
+		cache.get(MUNICIPALITY_ID, ORGANIZATION_NUMBER, INVOICE_NUMBER, INVOICE_TYPE, () -> load(CONTENT, CONTENT.length));
+		final var result = cache.get(MUNICIPALITY_ID, ORGANIZATION_NUMBER, INVOICE_NUMBER, INVOICE_TYPE, () -> load(CONTENT, CONTENT.length));
+
+		assertThat(loaderCalls).hasValue(2);
+		assertThat(result.content()).isInstanceOf(InputStreamResource.class);
+		try (final var files = Files.list(directory)) {
+			assertThat(files).isEmpty();
+		}
+	}
+
+	@Test
+	void startUpRemovesLeftOverCacheFiles() throws Exception {
+		final var leftOver = Files.write(directory.resolve(sha256(CONTENT)), CONTENT);
+		final var leftOverTempFile = Files.createFile(directory.resolve("download-12345.tmp"));
+		final var otherFile = Files.createFile(directory.resolve("other.txt"));
+
+		createCache(true, DataSize.ofMegabytes(1));
+
+		assertThat(leftOver).doesNotExist();
+		assertThat(leftOverTempFile).doesNotExist();
+		assertThat(otherFile).exists();
+	}
+
+	private InvoicePdfCache createCache(final boolean enabled, final DataSize maximumSize) {
+		return new InvoicePdfCache(new InvoicePdfCacheProperties(enabled, directory, maximumSize), meterRegistry);
+	}
+
+	private InvoiceFile load(final byte[] content, final long contentLength) {
+		loaderCalls.incrementAndGet();
+		return new InvoiceFile(new InputStreamResource(new ByteArrayInputStream(content)), contentLength, APPLICATION_PDF, INVOICE_NUMBER + ".pdf", null, null);
+	}
+
+	private static String sha256(final byte[] content) throws NoSuchAlgorithmException {
+		return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+	}
+}
@@ -0,0 +1,126 @@
+package se.sundsvall.invoices.service.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import se.sundsvall.invoices.api.model.InvoiceOrigin;
+import se.sundsvall.invoices.service.metrics.StageMetrics;
+import tools.jackson.databind.json.JsonMapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static se.sundsvall.invoices.service.cache.ResponseETagCache.CACHE_NAME;
+
+class ResponseETagCacheTest {
+
+	private static final String OPERATION = "operation";
+	private static final InvoiceOrigin ORIGIN = InvoiceOrigin.COMMERCIAL;
+	private static final String MUNICIPALITY_ID = "2281";
+	private static final List<String> PARAMETERS = List.of("parameter");
+
+	private SimpleMeterRegistry meterRegistry;
+	private ResponseETagCache cache;
+	private AtomicInteger mapperCalls;
+
+	@BeforeEach
+	void setup() {
+		meterRegistry = new SimpleMeterRegistry();
+		cache = new ResponseETagCache(new ResponseETagCacheProperties(Duration.ofMinutes(10), 100), JsonMapper.builder().build(), meterRegistry, new StageMetrics(meterRegistry));
+		mapperCalls = new AtomicInteger();
+	}
+
+	@Test
+	void getReturnsResponseWithETag() {
+		final var result = cache.get(OPERATION, ORIGIN, MUNICIPALITY_ID, PARAMETERS, "upstream", this::map, null);
+
+		assertThat(result.isNotModified()).isFalse();
+		assertThat(result.body()).isEqualTo(List.of("UPSTREAM"));
+		assertThat(result.serializedBody()).asString().isEqualTo("[\"UPSTREAM\"]");
+		assertThat(result.eTag()).matches("\"[0-9a-f]{64}\"");
+		assertThat(mapperCalls).hasValue(1);
+	}
+
+	@Test
+	void getWithMatchingETagSkipsMapping() {
+		final var first = cache.get(OPERATION, ORIGIN, MUNICIPALITY_ID, PARAMETERS, "upstream", this::map, null);
+		final var second = cache.get(OPERATION, ORIGIN, MUNICIPALITY_ID, PARAMETERS, "upstream", this::map, first.eTag());
+
+		assertThat(second.isNotModified()).isTrue();
+		assertThat(second.body()).isNull();
+		assertThat(second.eTag()).isEqualTo(first.eTag());
+		assertThat(second.serializedBody()).isNull();
+		assertThat(mapperCalls).hasValue(1);
+		// Serialized only for the first response
+		assertThat(meterRegistry.get("invoices.stage").tag("stage", "serialization").timer().count()).isOne();
+		assertThat(meterRegistry.get("cache.gets").tag("cache", CACHE_NAME).tag("result", "hit").functionCounter().count()).isEqualTo(1);
+	}
+
+	@Test
+	void getWithMatchingETagOnCacheMiss() {
+		final var eTag = cache.get(OPERATION, ORIGIN, MUNICIPALITY_ID, PARAMETERS, "upstream", this::map, null).eTag();
+		final var otherCache = new ResponseETagCache(new ResponseETagCacheProperties(Duration.ofMinutes(10), 100), JsonMapper.builder().build(), new SimpleMeterRegistry(), new StageMetrics(new SimpleMeterRegistry()));
+
+		final var result = otherCache.get(OPERATION, ORIGIN, MUNICIPALITY_ID, PARAMETERS, "upstream", this::map, eTag);
+
+		assertThat(result.isNotModified()).isTrue();
+		assertThat(result.eTag()).isEqualTo(eTag);
+		assertThat(mapperCalls).hasValue(2);
+	}
+
+	@Test
+	void getRecordsSerialization() {
+		cache.get(OPERATION, ORIGIN, MUNICIPALITY_ID, PARAMETERS, "upstream", this::map, null);
+		final var second = cache.get(OPERATION, ORIGIN, MUNICIPALITY_ID, PARAMETERS, "upstream", this::map, null);
+
+		// Each returned response is serialized once, the serialized response being used also as the body
+		assertThat(second.isNotModified()).isFalse();
+		assertThat(second.serializedBody()).asString().isEqualTo("[\"UPSTREAM\"]");
+		assertThat(meterRegistry.get("invoices.stage").tag("stage", "serialization").tag("municipalityId", MUNICIPALITY_ID).tag("origin", "COMMERCIAL").timer().count()).isEqualTo(2);
+		assertThat(meterRegistry.get("invoices.response.size").tag("municipalityId", MUNICIPALITY_ID).tag("origin", "COMMERCIAL").summary().totalAmount())
+			.isEqualTo(2 * "[\"UPSTREAM\"]".length());
+	}
+
+	@Test
+	void getWithChangedUpstreamResponse() {
+		final var first = cache.get(OPERATION, ORIGIN, MUNICIPALITY_ID, PARAMETERS, "upstream", this::map, null);
+		final var second = cache.get(OPERATION, ORIGIN, MUNICIPALITY_ID, PARAMETERS, "changed", this::map, first.eTag());
+
+		assertThat(second.isNotModified()).isFalse();
+		assertThat(second.body()).isEqualTo(List.of("CHANGED"));
+		assertThat(second.eTag()).isNotEqualTo(first.eTag());
+	}
+
+	@Test
+	void getIsScopedPerRequest() {
+		final var first = cache.get(OPERATION, ORIGIN, MUNICIPALITY_ID, PARAMETERS, "upstream", this::map, null);
+		final var otherParameters = cache.get(OPERATION, ORIGIN, MUNICIPALITY_ID, List.of("other"), "upstream", this::map, null);
+		final var otherMunicipality = cache.get(OPERATION, ORIGIN, "2260", PARAMETERS, "upstream", this::map, null);
+
+		assertThat(otherParameters.eTag()).isEqualTo(first.eTag());
+		assertThat(otherMunicipality.eTag()).isEqualTo(first.eTag());
+		assertThat(mapperCalls).hasValue(3);
+	}
+
+	@ParameterizedTest
+	@CsvSource(delimiter = ';', nullValues = "null", value = {
+		"\"abc\";true",
+		"W/\"abc\";true",
+		"\"xyz\", \"abc\";true",
+		"*;true",
+		"\"xyz\";false",
+		"abc;false",
+		"null;false"
+	})
+	void matches(final String ifNoneMatch, final boolean expected) {
+		assertThat(ResponseETagCache.matches(ifNoneMatch, "\"abc\"")).isEqualTo(expected);
+	}
+
+	private List<String> map(final String upstream) {
+		mapperCalls.incrementAndGet();
+		return List.of(upstream.toUpperCase());
+	}
+}
@@ -0,0 +1,22 @@
+package se.sundsvall.invoices.service.concurrent;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import se.sundsvall.invoices.Application;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+@SpringBootTest(classes = Application.class)
+@ActiveProfiles("junit")
+class ParallelExecutorPropertiesTest {
+
+	@Autowired
+	private ParallelExecutorProperties properties;
+
+	@Test
+	void testProperties() {
+		assertThat(properties.concurrencyLimit()).isEqualTo(50);
+	}
+}
@@ -0,0 +1,68 @@
+package se.sundsvall.invoices.service.concurrent;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import se.sundsvall.dept44.problem.Problem;
+import se.sundsvall.dept44.problem.ThrowableProblem;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.http.HttpStatus.NOT_FOUND;
+
+class ParallelExecutorTest {
+
+	private final ObservationRegistry observationRegistry = ObservationRegistry.create();
+
+	private ParallelExecutor parallelExecutor;
+
+	@BeforeEach
+	void setup() {
+		parallelExecutor = new ParallelExecutor(new ParallelExecutorProperties(2), observationRegistry);
+	}
+
+	@AfterEach
+	void teardown() {
+		parallelExecutor.destroy();
+	}
+
+	@Test
+	void supplyAsyncRunsOnVirtualThread() {
+		final var result = ParallelExecutor.await(parallelExecutor.supplyAsync(() -> Thread.currentThread().isVirtual()));
+
+		assertThat(result).isTrue();
+	}
+
+	@Test
+	void supplyAsyncRunsInScopeOfCurrentObservation() {
+		observationRegistry.observationConfig().observationHandler(context -> true);
+		final var observation = Observation.start("parent", observationRegistry);
+
+		final var result = observation.scoped(() -> ParallelExecutor.await(parallelExecutor.supplyAsync(observationRegistry::getCurrentObservation)));
+
+		observation.stop();
+		assertThat(result).isSameAs(observation);
+	}
+
+	@Test
+	void awaitRethrowsProblem() {
+		final var future = parallelExecutor.supplyAsync(() -> {
+			throw Problem.valueOf(NOT_FOUND, "not found");
+		});
+
+		final var e = assertThrows(ThrowableProblem.class, () -> ParallelExecutor.await(future));
+
+		assertThat(e.getStatus()).isEqualTo(NOT_FOUND);
+	}
+
+	@Test
+	void awaitRethrowsCompletionExceptionForCheckedCause() {
+		final var future = CompletableFuture.failedFuture(new Exception("checked"));
+
+		assertThrows(CompletionException.class, () -> ParallelExecutor.await(future));
+	}
+}
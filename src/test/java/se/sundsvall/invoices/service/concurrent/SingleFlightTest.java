@@ -0,0 +1,116 @@
+package se.sundsvall.invoices.service.concurrent;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import se.sundsvall.dept44.problem.Problem;
+import se.sundsvall.dept44.problem.ThrowableProblem;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.http.HttpStatus.NOT_FOUND;
+
+class SingleFlightTest {
+
+	private static final String OPERATION = "operation";
+	private static final String MUNICIPALITY_ID = "2281";
+
+	private final SingleFlight singleFlight = new SingleFlight();
+
+	@Test
+	void concurrentIdenticalCallsShareOneCall() throws InterruptedException {
+		final var calls = new AtomicInteger();
+		final var started = new CountDownLatch(1);
+		final var release = new CountDownLatch(1);
+
+		final var leader = CompletableFuture.supplyAsync(() -> singleFlight.execute(OPERATION, MUNICIPALITY_ID, List.of("a"), () -> {
+			calls.incrementAndGet();
+			started.countDown();
+			await(release);
+			return "result";
+		}));
+		assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+		final var follower = CompletableFuture.supplyAsync(() -> singleFlight.execute(OPERATION, MUNICIPALITY_ID, List.of("a"), () -> {
+			calls.incrementAndGet();
+			return "other result";
+		}));
+		// Give the follower time to join the call in flight
+		Thread.sleep(100);
+		release.countDown();
+
+		assertThat(leader.join()).isEqualTo("result");
+		assertThat(follower.join()).isEqualTo("result");
+		assertThat(calls).hasValue(1);
+	}
+
+	@Test
+	void concurrentIdenticalCallsShareException() throws InterruptedException {
+		final var started = new CountDownLatch(1);
+		final var release = new CountDownLatch(1);
+
+		final var leader = CompletableFuture.supplyAsync(() -> singleFlight.execute(OPERATION, MUNICIPALITY_ID, List.of("a"), () -> {
+			started.countDown();
+			await(release);
+			throw Problem.valueOf(NOT_FOUND, "not found");
+		}));
+		assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+		final var follower = CompletableFuture.supplyAsync(() -> singleFlight.execute(OPERATION, MUNICIPALITY_ID, List.of("a"), () -> "other result"));
+		Thread.sleep(100);
+		release.countDown();
+
+		assertThat(assertThrows(ThrowableProblem.class, () -> ParallelExecutor.await(leader)).getStatus()).isEqualTo(NOT_FOUND);
+		assertThat(assertThrows(ThrowableProblem.class, () -> ParallelExecutor.await(follower)).getStatus()).isEqualTo(NOT_FOUND);
+	}
+
+	@Test
+	void sequentialCallsAreNotShared() {
+		final var calls = new AtomicInteger();
+
+		singleFlight.execute(OPERATION, MUNICIPALITY_ID, List.of("a"), calls::incrementAndGet);
+		final var result = singleFlight.execute(OPERATION, MUNICIPALITY_ID, List.of("a"), calls::incrementAndGet);
+
+		assertThat(result).isEqualTo(2);
+	}
+
+	@Test
+	void failedCallIsNotRemembered() {
+		assertThrows(IllegalStateException.class, () -> singleFlight.execute(OPERATION, MUNICIPALITY_ID, List.of("a"), () -> {
+			throw new IllegalStateException();
+		}));
+
+		assertThat(singleFlight.execute(OPERATION, MUNICIPALITY_ID, List.of("a"), () -> "result")).isEqualTo("result");
+	}
+
+	@Test
+	void differentCallsAreNotShared() throws InterruptedException {
+		final var started = new CountDownLatch(1);
+		final var release = new CountDownLatch(1);
+
+		final var first = CompletableFuture.supplyAsync(() -> singleFlight.execute(OPERATION, MUNICIPALITY_ID, List.of("a"), () -> {
+			started.countDown();
+			await(release);
+			return "a";
+		}));
+		assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+		assertThat(singleFlight.execute(OPERATION, MUNICIPALITY_ID, List.of("b"), () -> "b")).isEqualTo("b");
+		assertThat(singleFlight.execute("otherOperation", MUNICIPALITY_ID, List.of("a"), () -> "c")).isEqualTo("c");
+		assertThat(singleFlight.execute(OPERATION, "2260", List.of("a"), () -> "d")).isEqualTo("d");
+
+		release.countDown();
+		assertThat(first.join()).isEqualTo("a");
+	}
+
+	private static void await(final CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
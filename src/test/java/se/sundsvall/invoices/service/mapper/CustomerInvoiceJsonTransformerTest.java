@@ -0,0 +1,168 @@
+package se.sundsvall.invoices.service.mapper;
+
+import generated.se.sundsvall.datawarehousereader.CustomerInvoiceResponse;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.DeserializationFeature;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CustomerInvoiceJsonTransformerTest {
+
+	private static final JsonMapper JSON_MAPPER = JsonMapper.builder()
+		.enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS)
+		.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+		.build();
+
+	private static final String RESPONSE = """
+		{
+		  "unknown": {"nested": [1, 2, 3]},
+		  "invoices": [
+		    {
+		      "customerNumber": "216870",
+		      "customerType": "Private",
+		      "facilityIds": ["735999109151404321"],
+		      "invoiceNumber": 999,
+		      "invoiceId": 1062916396,
+		      "invoiceDate": "2025-10-08",
+		      "invoiceType": "Kreditfaktura",
+		      "invoiceStatus": "Betalad",
+		      "ocrNumber": 295334999,
+		      "totalAmount": 1234.50,
+		      "rounding": 0.49,
+		      "pdfAvailable": true,
+		      "unknown": "value",
+		      "details": [
+		        {
+		          "invoiceNumber": 999,
+		          "amount": 66.97,
+		          "amountVatExcluded": 53.57,
+		          "vat": 13.40,
+		          "vatRate": 25,
+		          "quantity": 154.39,
+		          "unit": "kWh",
+		          "unitPrice": 0.347,
+		          "periodFrom": "2025-09-01",
+		          "periodTo": "2025-09-30",
+		          "description": "Description",
+		          "productCode": 1404,
+		          "productName": "Elöverföring",
+		          "organizationNumber": "5564786647",
+		          "administration": "Sundsvall Elnät",
+		          "facilityId": "735999109151404321"
+		        },
+		        {"amount": 1000, "productCode": 1405, "unit": null}
+		      ]
+		    },
+		    {
+		      "customerNumber": "216870",
+		      "invoiceId": 1062916397,
+		      "invoiceStatus": "Okänd status",
+		      "dueDate": null
+		    }
+		  ],
+		  "_meta": {"page": 1, "limit": 2, "count": 2, "totalRecords": 3, "totalPages": 2}
+		}
+		""";
+
+	@Test
+	void transform() {
+		final var totalPages = new ArrayList<Integer>();
+
+		final var lines = transform(RESPONSE, InvoiceMapper.toCustomerInvoiceProjection(null, true), totalPages);
+
+		final var mapped = InvoiceMapper.toCustomerInvoicesResponse(JSON_MAPPER.readValue(RESPONSE, CustomerInvoiceResponse.class));
+		assertThat(lines).hasSize(2);
+		assertThat(toTree(lines.getFirst())).isEqualTo(toTree(JSON_MAPPER.writeValueAsString(mapped.getInvoices().getFirst())));
+		assertThat(toTree(lines.getLast())).isEqualTo(toTree(JSON_MAPPER.writeValueAsString(mapped.getInvoices().getLast())));
+		assertThat(totalPages).containsExactly(2);
+	}
+
+	@Test
+	void transformTranslatedFields() {
+		final var lines = transform(RESPONSE, InvoiceMapper.toCustomerInvoiceProjection(List.of("customerType", "invoiceNumber", "invoiceType", "invoiceStatus", "ocrNumber"), false), new ArrayList<>());
+
+		assertThat(lines).containsExactly(
+			"{\"customerType\":\"PRIVATE\",\"invoiceNumber\":\"999\",\"invoiceType\":\"CREDIT_INVOICE\",\"invoiceStatus\":\"PAID\",\"ocrNumber\":\"295334999\"}",
+			"{\"invoiceStatus\":\"UNKNOWN\"}");
+	}
+
+	@Test
+	void transformWithoutDetails() {
+		final var lines = transform(RESPONSE, InvoiceMapper.toCustomerInvoiceProjection(List.of("invoiceId", "details"), false), new ArrayList<>());
+
+		assertThat(lines).containsExactly("{\"invoiceId\":1062916396}", "{\"invoiceId\":1062916397}");
+	}
+
+	@Test
+	void transformMetaDataBeforeInvoices() {
+		final var totalPages = new ArrayList<Integer>();
+		final var body = """
+			{"_meta": {"totalPages": 3}, "invoices": [{"invoiceId": 1}]}
+			""";
+
+		final var lines = transform(body, InvoiceMapper.toCustomerInvoiceProjection(null, true), totalPages);
+
+		assertThat(lines).containsExactly("{\"invoiceId\":1,\"details\":[]}");
+		assertThat(totalPages).containsExactly(3);
+	}
+
+	@Test
+	void transformEmptyBody() {
+		final var output = new ByteArrayOutputStream();
+		final var totalPages = new ArrayList<Integer>();
+
+		CustomerInvoiceJsonTransformer.transform(InputStream.nullInputStream(), output, InvoiceMapper.toCustomerInvoiceProjection(null, true), totalPages::add);
+
+		assertThat(output.size()).isZero();
+		assertThat(totalPages).isEmpty();
+	}
+
+	@Test
+	void transformNonObject() {
+		final var body = toInputStream("[]");
+		final var output = new ByteArrayOutputStream();
+		final var projection = InvoiceMapper.toCustomerInvoiceProjection(null, true);
+
+		assertThatThrownBy(() -> CustomerInvoiceJsonTransformer.transform(body, output, projection, totalPages -> {}))
+			.isInstanceOf(IllegalStateException.class)
+			.hasMessage("Expected a JSON object as customer invoice response, got START_ARRAY");
+	}
+
+	@Test
+	void transformMalformedBody() {
+		final var body = toInputStream("{\"invoices\": [{\"invoiceId\": ");
+		final var output = new ByteArrayOutputStream();
+		final var projection = InvoiceMapper.toCustomerInvoiceProjection(null, true);
+
+		assertThatThrownBy(() -> CustomerInvoiceJsonTransformer.transform(body, output, projection, totalPages -> {}))
+			.isInstanceOf(JacksonException.class);
+	}
+
+	private static List<String> transform(final String body, final Projection<generated.se.sundsvall.datawarehousereader.CustomerInvoice, se.sundsvall.invoices.api.model.CustomerInvoice> projection,
+		final List<Integer> totalPages) {
+
+		final var output = new ByteArrayOutputStream();
+		CustomerInvoiceJsonTransformer.transform(toInputStream(body), output, projection, totalPages::add);
+		final var written = output.toString(StandardCharsets.UTF_8);
+		assertThat(written).endsWith("\n");
+		return written.lines().toList();
+	}
+
+	private static JsonNode toTree(final String json) {
+		return JSON_MAPPER.readTree(json);
+	}
+
+	private static InputStream toInputStream(final String json) {
+		return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+	}
+}
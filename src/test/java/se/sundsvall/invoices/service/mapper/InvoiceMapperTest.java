@@ -1,17 +1,22 @@
 package se.sundsvall.invoices.service.mapper;
 
+import feign.Request;
+import feign.Response;
 import generated.se.sundsvall.datawarehousereader.CustomerInvoiceResponse;
 import generated.se.sundsvall.invoicecache.Invoice.InvoiceStatusEnum;
 import generated.se.sundsvall.invoicecache.Invoice.InvoiceTypeEnum;
 import generated.se.sundsvall.invoicecache.InvoiceFilterRequest;
 import generated.se.sundsvall.invoicecache.InvoicePdf;
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.Month;
 import java.util.Base64;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Stream;
@@ -21,7 +26,7 @@ import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.ContentDisposition;
-import org.springframework.http.ResponseEntity;
+import se.sundsvall.dept44.problem.ThrowableProblem;
 import se.sundsvall.invoices.api.model.Address;
 import se.sundsvall.invoices.api.model.CustomerInvoice;
 import se.sundsvall.invoices.api.model.CustomerType;
@@ -32,12 +37,21 @@ import se.sundsvall.invoices.api.model.InvoiceType;
 import se.sundsvall.invoices.api.model.InvoicesParameters;
 import se.sundsvall.invoices.api.model.MetaData;
 
+import static feign.Request.HttpMethod.GET;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.assertj.core.groups.Tuple.tuple;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.springframework.http.HttpHeaders.CONTENT_DISPOSITION;
+import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
 import static org.springframework.http.MediaType.APPLICATION_OCTET_STREAM;
 import static org.springframework.http.MediaType.APPLICATION_PDF;
+import static org.springframework.http.MediaType.APPLICATION_PDF_VALUE;
 import static org.springframework.http.MediaType.parseMediaType;
+import static se.sundsvall.invoices.service.InvoiceFile.UNKNOWN_CONTENT_LENGTH;
 
 class InvoiceMapperTest {
 
@@ -517,14 +531,16 @@ class InvoiceMapperTest {
 	void toPdfInvoice() {
 		final var name = "name";
 		final var content = "fileContent".getBytes(StandardCharsets.UTF_8);
+		final var encodedContent = Base64.getEncoder().encodeToString(content);
 		final var invoicePdf = new InvoicePdf()
 			.name(name)
-			.content(Base64.getEncoder().encodeToString(content));
+			.content(encodedContent);
 
 		final var pdfInvoice = InvoiceMapper.toPdfInvoice(invoicePdf);
 
 		assertThat(pdfInvoice).isNotNull();
 		assertThat(pdfInvoice.getFileName()).isEqualTo(name);
+		assertThat(pdfInvoice.getEncodedFile()).isSameAs(encodedContent);
 		assertThat(pdfInvoice.getFile()).isEqualTo(content);
 	}
 
@@ -538,6 +554,7 @@ class InvoiceMapperTest {
 
 		assertThat(pdfInvoice).isNotNull();
 		assertThat(pdfInvoice.getFileName()).isEqualTo(name);
+		assertThat(pdfInvoice.getEncodedFile()).isNull();
 		assertThat(pdfInvoice.getFile()).isNull();
 	}
 
@@ -547,28 +564,29 @@ class InvoiceMapperTest {
 	}
 
 	@Test
-	void toInvoiceFile() {
+	void toInvoiceFile() throws IOException {
 		final var invoiceNumber = "111222";
 		final var content = "pdf-content".getBytes(StandardCharsets.UTF_8);
-		final var response = ResponseEntity.ok().contentType(APPLICATION_PDF).body(content);
+		final var response = createResponse(Map.of(CONTENT_TYPE, List.of(APPLICATION_PDF_VALUE)), content);
 
 		final var invoiceFile = InvoiceMapper.toInvoiceFile(response, invoiceNumber);
 
-		assertThat(invoiceFile.content()).isEqualTo(content);
+		assertThat(invoiceFile.content().getContentAsByteArray()).isEqualTo(content);
+		assertThat(invoiceFile.contentLength()).isEqualTo(content.length);
 		assertThat(invoiceFile.contentType()).isEqualTo(APPLICATION_PDF);
 		assertThat(invoiceFile.fileName()).isEqualTo("111222.pdf");
 	}
 
 	@Test
-	void toInvoiceFileAsZip() {
+	void toInvoiceFileAsZip() throws IOException {
 		final var invoiceNumber = "111222";
 		final var content = "zip-content".getBytes(StandardCharsets.UTF_8);
 		final var zipContentType = parseMediaType("application/zip");
-		final var response = ResponseEntity.ok().contentType(zipContentType).body(content);
+		final var response = createResponse(Map.of(CONTENT_TYPE, List.of(zipContentType.toString())), content);
 
 		final var invoiceFile = InvoiceMapper.toInvoiceFile(response, invoiceNumber);
 
-		assertThat(invoiceFile.content()).isEqualTo(content);
+		assertThat(invoiceFile.content().getContentAsByteArray()).isEqualTo(content);
 		assertThat(invoiceFile.contentType()).isEqualTo(zipContentType);
 		assertThat(invoiceFile.fileName()).isEqualTo("111222.zip");
 	}
@@ -576,10 +594,9 @@ class InvoiceMapperTest {
 	@Test
 	void toInvoiceFileUsesUpstreamFilename() {
 		final var content = "pdf-content".getBytes(StandardCharsets.UTF_8);
-		final var response = ResponseEntity.ok()
-			.contentType(APPLICATION_PDF)
-			.header(CONTENT_DISPOSITION, ContentDisposition.attachment().filename("upstream-name.pdf").build().toString())
-			.body(content);
+		final var response = createResponse(Map.of(
+			CONTENT_TYPE, List.of(APPLICATION_PDF_VALUE),
+			CONTENT_DISPOSITION, List.of(ContentDisposition.attachment().filename("upstream-name.pdf").build().toString())), content);
 
 		final var invoiceFile = InvoiceMapper.toInvoiceFile(response, "111222");
 
@@ -589,7 +606,7 @@ class InvoiceMapperTest {
 	@Test
 	void toInvoiceFileWithoutContentType() {
 		final var content = "pdf-content".getBytes(StandardCharsets.UTF_8);
-		final var response = ResponseEntity.ok().body(content);
+		final var response = createResponse(Map.of(), content);
 
 		final var invoiceFile = InvoiceMapper.toInvoiceFile(response, "111222");
 
@@ -597,6 +614,47 @@ class InvoiceMapperTest {
 		assertThat(invoiceFile.fileName()).isEqualTo("111222.pdf");
 	}
 
+	@Test
+	void toInvoiceFileWithoutBody() throws IOException {
+		final var response = createResponse(Map.of(CONTENT_TYPE, List.of(APPLICATION_PDF_VALUE)), null);
+
+		final var invoiceFile = InvoiceMapper.toInvoiceFile(response, "111222");
+
+		assertThat(invoiceFile.content().getContentAsByteArray()).isEmpty();
+		assertThat(invoiceFile.contentLength()).isEqualTo(UNKNOWN_CONTENT_LENGTH);
+	}
+
+	@ParameterizedTest
+	@MethodSource("toInvoiceFileWithMalformedHeaderArguments")
+	void toInvoiceFileWithMalformedHeaderClosesResponse(final String headerName, final String headerValue) throws IOException {
+		final var bodyMock = mock(Response.Body.class);
+		final var response = Response.builder()
+			.status(200)
+			.request(Request.create(GET, "http://invoicecache/pdfs", Map.of(), null, StandardCharsets.UTF_8, null))
+			.headers(Map.of(headerName, List.of(headerValue)))
+			.body(bodyMock)
+			.build();
+
+		assertThatIllegalArgumentException().isThrownBy(() -> InvoiceMapper.toInvoiceFile(response, "111222"));
+
+		verify(bodyMock).close();
+	}
+
+	private static Stream<Arguments> toInvoiceFileWithMalformedHeaderArguments() {
+		return Stream.of(
+			Arguments.of(CONTENT_TYPE, "not a media type"),
+			Arguments.of(CONTENT_DISPOSITION, "attachment; filename"));
+	}
+
+	private static Response createResponse(final Map<String, Collection<String>> headers, final byte[] body) {
+		return Response.builder()
+			.status(200)
+			.request(Request.create(GET, "http://invoicecache/pdfs", Map.of(), null, StandardCharsets.UTF_8, null))
+			.headers(headers)
+			.body(body)
+			.build();
+	}
+
 	@ParameterizedTest
 	@MethodSource("toInvoiceTypeArguments")
 	void toInvoiceType(final String source, final String target) {
@@ -615,6 +673,13 @@ class InvoiceMapperTest {
 		assertThat(InvoiceMapper.toDataWarehouseReaderInvoiceStatus(source)).isEqualTo(target);
 	}
 
+	@Test
+	void toDataWarehouseReaderInvoiceStatusAndTypeWithInvalidValue() {
+		assertThatIllegalArgumentException().isThrownBy(() -> InvoiceMapper.toDataWarehouseReaderInvoiceStatus("invalid"));
+		assertThatIllegalArgumentException().isThrownBy(() -> InvoiceMapper.toDataWarehouseReaderInvoiceType("invalid"));
+		assertThatIllegalArgumentException().isThrownBy(() -> InvoiceMapper.toInvoiceCacheInvoiceType("invalid"));
+	}
+
 	@ParameterizedTest
 	@MethodSource("toInvoiceStatusFromDataWarehouseReaderStatusArguments")
 	void toInvoiceStatusFromDataWarehouseReaderStatus(final String source, final String target) {
@@ -786,6 +851,95 @@ class InvoiceMapperTest {
 			.withCount(1));
 	}
 
+	@Test
+	void toCustomerInvoicesResponseWithNextCursor() {
+		final var upstreamResponse = new CustomerInvoiceResponse()
+			.invoices(List.of(new generated.se.sundsvall.datawarehousereader.CustomerInvoice()))
+			.meta(new generated.se.sundsvall.datawarehousereader.PagingAndSortingMetaData().page(1).totalPages(2));
+
+		final var response = InvoiceMapper.toCustomerInvoicesResponse(upstreamResponse, "nextCursor");
+
+		assertThat(response.getInvoices()).hasSize(1);
+		assertThat(response.getMetaData().getNextCursor()).isEqualTo("nextCursor");
+		assertThat(response.getMetaData().getTotalPages()).isEqualTo(2);
+	}
+
+	@Test
+	void toCustomerInvoicesResponseWithProjection() {
+		final var upstream = new generated.se.sundsvall.datawarehousereader.CustomerInvoice()
+			.invoiceNumber(999L)
+			.totalAmount(BigDecimal.TEN)
+			.dueDate(LocalDate.of(2025, Month.NOVEMBER, 8))
+			.details(List.of(new generated.se.sundsvall.datawarehousereader.InvoiceDetail().amount(BigDecimal.ONE)));
+		final var upstreamResponse = new CustomerInvoiceResponse().invoices(List.of(upstream));
+
+		final var response = InvoiceMapper.toCustomerInvoicesResponse(upstreamResponse, null,
+			InvoiceMapper.toCustomerInvoiceProjection(List.of("totalAmount", "invoiceNumber"), true));
+
+		assertThat(response.getInvoices()).hasSize(1);
+		assertThat(response.getInvoices().getFirst())
+			.hasAllNullFieldsOrPropertiesExcept("invoiceNumber", "totalAmount")
+			.hasFieldOrPropertyWithValue("invoiceNumber", "999")
+			.hasFieldOrPropertyWithValue("totalAmount", BigDecimal.TEN);
+	}
+
+	@Test
+	void toCustomerInvoicesResponseWithoutDetails() {
+		final var upstream = new generated.se.sundsvall.datawarehousereader.CustomerInvoice()
+			.invoiceNumber(999L)
+			.details(List.of(new generated.se.sundsvall.datawarehousereader.InvoiceDetail().amount(BigDecimal.ONE)));
+		final var upstreamResponse = new CustomerInvoiceResponse().invoices(List.of(upstream));
+
+		final var response = InvoiceMapper.toCustomerInvoicesResponse(upstreamResponse, null, InvoiceMapper.toCustomerInvoiceProjection(null, false));
+
+		assertThat(response.getInvoices()).hasSize(1);
+		assertThat(response.getInvoices().getFirst().getInvoiceNumber()).isEqualTo("999");
+		assertThat(response.getInvoices().getFirst().getDetails()).isNull();
+	}
+
+	@Test
+	void toCommercialInvoicesWithProjection() {
+		final var upstream = new generated.se.sundsvall.datawarehousereader.Invoice()
+			.invoiceNumber(999L)
+			.invoiceDate(LocalDate.of(2025, Month.OCTOBER, 8))
+			.totalAmount(BigDecimal.TEN);
+		final var upstreamResponse = new generated.se.sundsvall.datawarehousereader.InvoiceResponse().invoices(List.of(upstream));
+
+		final var response = InvoiceMapper.toInvoicesResponse(upstreamResponse, InvoiceMapper.toCommercialInvoiceProjection(List.of("invoiceNumber", "invoiceOrigin")));
+
+		assertThat(response.getInvoices()).hasSize(1);
+		assertThat(response.getInvoices().getFirst())
+			.hasAllNullFieldsOrPropertiesExcept("invoiceNumber", "invoiceOrigin")
+			.hasFieldOrPropertyWithValue("invoiceNumber", "999")
+			.hasFieldOrPropertyWithValue("invoiceOrigin", "COMMERCIAL");
+	}
+
+	@Test
+	void toPublicAdministrationInvoicesWithUnmappedField() {
+		final var upstream = new generated.se.sundsvall.invoicecache.Invoice()
+			.invoiceNumber("999")
+			.totalAmount(BigDecimal.TEN);
+		final var upstreamResponse = new generated.se.sundsvall.invoicecache.InvoicesResponse().invoices(List.of(upstream));
+
+		final var response = InvoiceMapper.toInvoicesResponse(upstreamResponse, InvoiceMapper.toPublicAdministrationInvoiceProjection(List.of("invoiceNumber", "rounding")));
+
+		assertThat(response.getInvoices()).hasSize(1);
+		assertThat(response.getInvoices().getFirst())
+			.hasAllNullFieldsOrPropertiesExcept("invoiceNumber")
+			.hasFieldOrPropertyWithValue("invoiceNumber", "999");
+	}
+
+	@Test
+	void toCustomerInvoiceProjectionWithUnknownField() {
+		final var fields = List.of("invoiceNumber", "unknown");
+
+		assertThatThrownBy(() -> InvoiceMapper.toCustomerInvoiceProjection(fields, true))
+			.isInstanceOfSatisfying(ThrowableProblem.class, problem -> {
+				assertThat(problem.getStatus()).isEqualTo(BAD_REQUEST);
+				assertThat(problem.getDetail()).startsWith("Unknown fields: [unknown]. Valid fields are: [customerNumber, customerType,");
+			});
+	}
+
 	@Test
 	void toCustomerInvoicesResponseWithNullAmounts() {
 		final var upstream = new generated.se.sundsvall.datawarehousereader.CustomerInvoice();
@@ -0,0 +1,79 @@
+package se.sundsvall.invoices.service.mapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import se.sundsvall.dept44.problem.ThrowableProblem;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+
+class ProjectionTest {
+
+	private static final Projection.Fields<Map<String, String>, List<String>> FIELDS = new Projection.Fields<Map<String, String>, List<String>>()
+		.field("first", (source, target) -> target.add(source.get("first")))
+		.unmapped("second")
+		.field("third", (source, target) -> target.add(source.get("third")));
+
+	private static final Map<String, String> SOURCE = Map.of("first", "1", "second", "2", "third", "3");
+
+	@Test
+	void all() {
+		assertThat(apply(FIELDS.all())).containsExactly("1", "3");
+	}
+
+	@Test
+	void selectWithoutNames() {
+		assertThat(apply(FIELDS.select(null))).containsExactly("1", "3");
+		assertThat(apply(FIELDS.select(List.of()))).containsExactly("1", "3");
+	}
+
+	@Test
+	void selectMapsInDeclarationOrder() {
+		assertThat(apply(FIELDS.select(List.of("third", "first")))).containsExactly("1", "3");
+	}
+
+	@Test
+	void selectOnlyNamedFields() {
+		assertThat(apply(FIELDS.select(List.of("third")))).containsExactly("3");
+	}
+
+	@Test
+	void selectUnmappedField() {
+		assertThat(apply(FIELDS.select(List.of("second")))).isEmpty();
+	}
+
+	@Test
+	void selectExcludingFields() {
+		assertThat(apply(FIELDS.select(null, List.of("first")))).containsExactly("3");
+		assertThat(apply(FIELDS.select(List.of("first", "third"), List.of("third")))).containsExactly("1");
+	}
+
+	@Test
+	void includes() {
+		final var projection = FIELDS.select(List.of("first", "second"));
+
+		assertThat(projection.includes("first")).isTrue();
+		assertThat(projection.includes("second")).isFalse();
+		assertThat(projection.includes("third")).isFalse();
+	}
+
+	@Test
+	void selectUnknownFields() {
+		final var names = List.of("first", "fourth", "fifth");
+
+		assertThatThrownBy(() -> FIELDS.select(names))
+			.isInstanceOfSatisfying(ThrowableProblem.class, problem -> {
+				assertThat(problem.getStatus()).isEqualTo(BAD_REQUEST);
+				assertThat(problem.getDetail()).isEqualTo("Unknown fields: [fourth, fifth]. Valid fields are: [first, second, third]");
+			});
+	}
+
+	private static List<String> apply(final Projection<Map<String, String>, List<String>> projection) {
+		final var target = new ArrayList<String>();
+		projection.apply(SOURCE, target);
+		return target;
+	}
+}
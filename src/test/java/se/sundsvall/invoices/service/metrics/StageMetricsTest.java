@@ -0,0 +1,53 @@
+package se.sundsvall.invoices.service.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+import static se.sundsvall.invoices.api.model.InvoiceOrigin.COMMERCIAL;
+import static se.sundsvall.invoices.api.model.InvoiceOrigin.PUBLIC_ADMINISTRATION;
+import static se.sundsvall.invoices.service.metrics.StageMetrics.MUNICIPALITY_ID_TAG;
+import static se.sundsvall.invoices.service.metrics.StageMetrics.ORIGIN_TAG;
+import static se.sundsvall.invoices.service.metrics.StageMetrics.RESPONSE_SIZE_NAME;
+import static se.sundsvall.invoices.service.metrics.StageMetrics.STAGE_TAG;
+import static se.sundsvall.invoices.service.metrics.StageMetrics.STAGE_TIMER_NAME;
+import static se.sundsvall.invoices.service.metrics.StageMetrics.Stage.ENGAGEMENT_RESOLVE;
+import static se.sundsvall.invoices.service.metrics.StageMetrics.Stage.MAPPING;
+
+class StageMetricsTest {
+
+	private static final String MUNICIPALITY_ID = "2281";
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final StageMetrics stageMetrics = new StageMetrics(meterRegistry);
+
+	@Test
+	void record() {
+		final var result = stageMetrics.record(MAPPING, MUNICIPALITY_ID, COMMERCIAL, () -> "mapped");
+
+		assertThat(result).isEqualTo("mapped");
+		final var timer = meterRegistry.get(STAGE_TIMER_NAME).tag(STAGE_TAG, "mapping").tag(MUNICIPALITY_ID_TAG, MUNICIPALITY_ID).tag(ORIGIN_TAG, "COMMERCIAL").timer();
+		assertThat(timer.count()).isOne();
+	}
+
+	@Test
+	void recordFailingStage() {
+		assertThatIllegalStateException().isThrownBy(() -> stageMetrics.record(ENGAGEMENT_RESOLVE, MUNICIPALITY_ID, COMMERCIAL, () -> {
+			throw new IllegalStateException("failure");
+		}));
+
+		assertThat(meterRegistry.get(STAGE_TIMER_NAME).tag(STAGE_TAG, "engagement_resolve").timer().count()).isOne();
+	}
+
+	@Test
+	void recordResponseSize() {
+		stageMetrics.recordResponseSize(MUNICIPALITY_ID, PUBLIC_ADMINISTRATION, 100);
+		stageMetrics.recordResponseSize(MUNICIPALITY_ID, PUBLIC_ADMINISTRATION, 300);
+
+		final var summary = meterRegistry.get(RESPONSE_SIZE_NAME).tag(MUNICIPALITY_ID_TAG, MUNICIPALITY_ID).tag(ORIGIN_TAG, "PUBLIC_ADMINISTRATION").summary();
+		assertThat(summary.count()).isEqualTo(2);
+		assertThat(summary.totalAmount()).isEqualTo(400);
+		assertThat(summary.getId().getBaseUnit()).isEqualTo("bytes");
+	}
+}
@@ -0,0 +1,95 @@
+package se.sundsvall.invoices.service.tracing;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import io.micrometer.observation.ObservationRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+import static se.sundsvall.invoices.service.tracing.ServiceObservations.METHOD_KEY;
+import static se.sundsvall.invoices.service.tracing.ServiceObservations.MUNICIPALITY_ID_KEY;
+import static se.sundsvall.invoices.service.tracing.ServiceObservations.OBSERVATION_NAME;
+import static se.sundsvall.invoices.service.tracing.ServiceObservations.RESULT_COUNT_KEY;
+
+class ServiceObservationsTest {
+
+	private static final String MUNICIPALITY_ID = "2281";
+
+	private final List<Observation.Context> observations = new ArrayList<>();
+	private final ObservationRegistry observationRegistry = ObservationRegistry.create();
+	private final ServiceObservations serviceObservations = new ServiceObservations(observationRegistry);
+
+	@BeforeEach
+	void setup() {
+		observationRegistry.observationConfig().observationHandler(new ObservationHandler<>() {
+			@Override
+			public boolean supportsContext(final Observation.Context context) {
+				return true;
+			}
+
+			@Override
+			public void onStop(final Observation.Context context) {
+				observations.add(context);
+			}
+		});
+	}
+
+	@Test
+	void observe() {
+		final var result = serviceObservations.observe("getInvoiceDetails", MUNICIPALITY_ID, () -> List.of("detail", "detail"), Function.identity());
+
+		assertThat(result).hasSize(2);
+		assertThat(observations).singleElement().satisfies(observation -> {
+			assertThat(observation.getName()).isEqualTo(OBSERVATION_NAME);
+			assertThat(observation.getContextualName()).isEqualTo("getInvoiceDetails");
+			assertThat(observation.getLowCardinalityKeyValue(METHOD_KEY).getValue()).isEqualTo("getInvoiceDetails");
+			assertThat(observation.getHighCardinalityKeyValue(MUNICIPALITY_ID_KEY).getValue()).isEqualTo(MUNICIPALITY_ID);
+			assertThat(observation.getHighCardinalityKeyValue(RESULT_COUNT_KEY).getValue()).isEqualTo("2");
+			assertThat(observation.getError()).isNull();
+		});
+	}
+
+	@Test
+	void observeRunsInScope() {
+		final var current = serviceObservations.observe("getPdfInvoice", MUNICIPALITY_ID, observationRegistry::getCurrentObservation);
+
+		assertThat(current).isNotNull();
+		assertThat(current.getContext()).isSameAs(observations.getFirst());
+		assertThat(observationRegistry.getCurrentObservation()).isNull();
+	}
+
+	@Test
+	void observeWithoutResults() {
+		serviceObservations.observe("getInvoicesForCustomer", MUNICIPALITY_ID, () -> "notModified", result -> null);
+
+		assertThat(observations).singleElement().satisfies(observation -> assertThat(observation.getHighCardinalityKeyValue(RESULT_COUNT_KEY)).isNull());
+	}
+
+	@Test
+	void observeRunnable() {
+		final var ran = new ArrayList<Boolean>();
+
+		serviceObservations.observe("evictInvoiceDetails", MUNICIPALITY_ID, () -> {
+			ran.add(true);
+		});
+
+		assertThat(ran).containsExactly(true);
+		assertThat(observations).singleElement().satisfies(observation -> assertThat(observation.getContextualName()).isEqualTo("evictInvoiceDetails"));
+	}
+
+	@Test
+	void observeFailure() {
+		final var failure = new IllegalStateException("failure");
+
+		assertThatIllegalStateException().isThrownBy(() -> serviceObservations.observe("getInvoices", MUNICIPALITY_ID, () -> {
+			throw failure;
+		}));
+
+		assertThat(observations).singleElement().satisfies(observation -> assertThat(observation.getError()).isSameAs(failure));
+	}
+}